@@ -1,6 +1,12 @@
 package org.dcache.nfs4j.server;
 
 import static java.nio.file.LinkOption.NOFOLLOW_LINKS;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.primitives.Longs;
 import com.sun.security.auth.UnixNumericGroupPrincipal;
 import com.sun.security.auth.UnixNumericUserPrincipal;
@@ -10,6 +16,7 @@ import org.dcache.nfs.FsExport;
 import org.dcache.nfs.status.ExistException;
 import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.status.IsDirException;
+import org.dcache.nfs.status.NXioException;
 import org.dcache.nfs.status.NoEntException;
 import org.dcache.nfs.status.NotEmptyException;
 import org.dcache.nfs.status.NotSuppException;
@@ -21,6 +28,7 @@ import org.dcache.nfs.v4.xdr.nfsace4;
 import org.dcache.nfs.vfs.AclCheckable;
 import org.dcache.nfs.vfs.DirectoryEntry;
 import org.dcache.nfs.vfs.DirectoryStream;
+import org.dcache.nfs.vfs.FileSystemChangeListener;
 import org.dcache.nfs.vfs.FsStat;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.Stat;
@@ -34,6 +42,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
 import java.nio.file.DirectoryNotEmptyException;
 import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.FileStore;
@@ -44,6 +53,9 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.nio.file.attribute.BasicFileAttributeView;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.DosFileAttributeView;
@@ -55,7 +67,11 @@ import java.nio.file.attribute.UserPrincipal;
 import java.nio.file.attribute.UserPrincipalLookupService;
 import java.security.Principal;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -65,6 +81,11 @@ public class LocalFileSystem implements VirtualFileSystem {
 
     private static final Logger LOG = LoggerFactory.getLogger(LocalFileSystem.class);
 
+    /**
+     * Granularity of data and hole regions reported by {@link #seek}.
+     */
+    private static final int HOLE_BLOCK_SIZE = 4096;
+
     private final Path _root;
     private final NonBlockingHashMapLong<Path> inodeToPath = new NonBlockingHashMapLong<>();
     private final NonBlockingHashMap<Path, Long> pathToInode = new NonBlockingHashMap<>();
@@ -73,6 +94,45 @@ public class LocalFileSystem implements VirtualFileSystem {
     private final UserPrincipalLookupService _lookupService =
             FileSystems.getDefault().getUserPrincipalLookupService();
 
+    private final List<FileSystemChangeListener> _changeListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Watches for changes made directly in the exported directory tree. Active
+     * only while change listeners are registered.
+     */
+    private WatchService _watchService;
+
+    /**
+     * Objects being modified through this file system, with watch events
+     * received meanwhile. Guarded by itself.
+     */
+    private final Map<Path, ChangeInProgress> _changesInProgress = new HashMap<>();
+
+    /**
+     * Change time of objects, as left by modifications made through this file
+     * system. Used to skip watch events of own changes, which are already known
+     * to the callers. An entry is consumed by the next event of the object.
+     */
+    private final Cache<Path, FileTime> _ownChanges = CacheBuilder.newBuilder()
+            .expireAfterWrite(OWN_CHANGE_LIFETIME, TimeUnit.SECONDS)
+            .maximumSize(MAX_OWN_CHANGES)
+            .build();
+
+    /**
+     * Time in seconds to wait for the watch event of an own change.
+     */
+    private static final long OWN_CHANGE_LIFETIME = 60;
+
+    /**
+     * Maximal number of own changes waiting for their watch events.
+     */
+    private static final long MAX_OWN_CHANGES = 65536;
+
+    /**
+     * Change time of objects, which don't exist.
+     */
+    private static final FileTime DELETED = FileTime.fromMillis(Long.MIN_VALUE);
+
     private final static boolean IS_UNIX;
     static {
         IS_UNIX = !System.getProperty("os.name").startsWith("Win");
@@ -190,15 +250,17 @@ public class LocalFileSystem implements VirtualFileSystem {
         long parentInodeNumber = getInodeNumber(parent);
         Path parentPath = resolveInode(parentInodeNumber);
         Path newPath = parentPath.resolve(path);
-        try {
-            Files.createFile(newPath);
-        } catch (FileAlreadyExistsException e) {
-            throw new ExistException("path " + newPath);
+        try (OwnChange change = new OwnChange(newPath)) {
+            try {
+                Files.createFile(newPath);
+            } catch (FileAlreadyExistsException e) {
+                throw new ExistException("path " + newPath);
+            }
+            long newInodeNumber = fileId.getAndIncrement();
+            map(newInodeNumber, newPath);
+            setOwnershipAndMode(newPath, subject, mode);
+            return toFh(newInodeNumber);
         }
-        long newInodeNumber = fileId.getAndIncrement();
-        map(newInodeNumber, newPath);
-        setOwnershipAndMode(newPath, subject, mode);
-        return toFh(newInodeNumber);
     }
 
     @Override
@@ -243,21 +305,23 @@ public class LocalFileSystem implements VirtualFileSystem {
 
         Path targetPath = parentPath.resolve(target);
 
-        try {
-            Files.createLink(targetPath, existingPath);
-        } catch (UnsupportedOperationException e) {
-            throw new NotSuppException("Not supported", e);
-        } catch (FileAlreadyExistsException e) {
-            throw new ExistException("Path exists " + target, e);
-        } catch (SecurityException e) {
-            throw new PermException("Permission denied: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new ServerFaultException("Failed to create: " + e.getMessage(), e);
-        }
+        try (OwnChange change = new OwnChange(existingPath, targetPath)) {
+            try {
+                Files.createLink(targetPath, existingPath);
+            } catch (UnsupportedOperationException e) {
+                throw new NotSuppException("Not supported", e);
+            } catch (FileAlreadyExistsException e) {
+                throw new ExistException("Path exists " + target, e);
+            } catch (SecurityException e) {
+                throw new PermException("Permission denied: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new ServerFaultException("Failed to create: " + e.getMessage(), e);
+            }
 
-        long newInodeNumber = fileId.getAndIncrement();
-        map(newInodeNumber, targetPath);
-        return toFh(newInodeNumber);
+            long newInodeNumber = fileId.getAndIncrement();
+            map(newInodeNumber, targetPath);
+            return toFh(newInodeNumber);
+        }
     }
 
     @Override
@@ -278,6 +342,29 @@ public class LocalFileSystem implements VirtualFileSystem {
         return new DirectoryStream(list);
     }
 
+    @Override
+    public DirectoryStream listPage(Inode inode, byte[] verifier, long l, int maxEntries) throws IOException {
+        long inodeNumber = getInodeNumber(inode);
+        Path path = resolveInode(inodeNumber);
+        final List<DirectoryEntry> list = new ArrayList<>();
+        boolean eof = true;
+        try (java.nio.file.DirectoryStream<Path> ds = Files.newDirectoryStream(path)) {
+            int cookie = 2; // first allowed cookie
+            for (Path p : ds) {
+                cookie++;
+                if (cookie > l) {
+                    if (list.size() == maxEntries) {
+                        eof = false;
+                        break;
+                    }
+                    long ino = resolvePath(p);
+                    list.add(new DirectoryEntry(p.getFileName().toString(), toFh(ino), statPath(p, ino), cookie));
+                }
+            }
+        }
+        return new DirectoryStream(DirectoryStream.ZERO_VERIFIER, list, eof);
+    }
+
     @Override
     public byte[] directoryVerifier(Inode inode) throws IOException {
         return DirectoryStream.ZERO_VERIFIER;
@@ -288,15 +375,17 @@ public class LocalFileSystem implements VirtualFileSystem {
         long parentInodeNumber = getInodeNumber(parent);
         Path parentPath = resolveInode(parentInodeNumber);
         Path newPath = parentPath.resolve(path);
-        try {
-            Files.createDirectory(newPath);
-        } catch (FileAlreadyExistsException e) {
-            throw new ExistException("path " + newPath);
+        try (OwnChange change = new OwnChange(newPath)) {
+            try {
+                Files.createDirectory(newPath);
+            } catch (FileAlreadyExistsException e) {
+                throw new ExistException("path " + newPath);
+            }
+            long newInodeNumber = fileId.getAndIncrement();
+            map(newInodeNumber, newPath);
+            setOwnershipAndMode(newPath, subject, mode);
+            return toFh(newInodeNumber);
         }
-        long newInodeNumber = fileId.getAndIncrement();
-        map(newInodeNumber, newPath);
-        setOwnershipAndMode(newPath, subject, mode);
-        return toFh(newInodeNumber);
     }
 
     private void setOwnershipAndMode(Path target, Subject subject, int mode)
@@ -356,12 +445,14 @@ public class LocalFileSystem implements VirtualFileSystem {
         Path currentPath = currentParentPath.resolve(oldName);
         long targetInodeNumber = resolvePath(currentPath);
         Path newPath = destPath.resolve(newName);
-        try {
-            Files.move(currentPath, newPath, StandardCopyOption.ATOMIC_MOVE);
-        } catch (FileAlreadyExistsException e) {
-            throw new ExistException("path " + newPath);
+        try (OwnChange change = new OwnChange(currentPath, newPath)) {
+            try {
+                Files.move(currentPath, newPath, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                throw new ExistException("path " + newPath);
+            }
+            remap(targetInodeNumber, currentPath, newPath);
         }
-        remap(targetInodeNumber, currentPath, newPath);
         return true;
     }
 
@@ -387,6 +478,112 @@ public class LocalFileSystem implements VirtualFileSystem {
         }
     }
 
+    /**
+     * Java doesn't expose {@code SEEK_DATA} and {@code SEEK_HOLE} of {@code lseek(2)}, thus
+     * zero-filled blocks are reported as holes.
+     */
+    @Override
+    public long seek(Inode inode, long offset, ContentType what) throws IOException {
+        long inodeNumber = getInodeNumber(inode);
+        Path path = resolveInode(inodeNumber);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (offset >= size) {
+                throw new NXioException();
+            }
+            return seek(channel, size, offset, what);
+        }
+    }
+
+    private static long seek(FileChannel channel, long size, long offset, ContentType what) throws IOException {
+        ByteBuffer block = ByteBuffer.allocate(HOLE_BLOCK_SIZE);
+        for (long pos = offset - offset % HOLE_BLOCK_SIZE; pos < size; pos += HOLE_BLOCK_SIZE) {
+            block.clear();
+            while (block.hasRemaining() && channel.read(block, pos + block.position()) > 0) {
+                // read the complete block
+            }
+            block.flip();
+            if (isZeroFilled(block) == (what == ContentType.HOLE)) {
+                return Math.max(pos, offset);
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Java doesn't expose {@code fallocate(2)}, thus space is reserved by writing zeros
+     * into holes and beyond the end of file.
+     */
+    @Override
+    public void allocate(Inode inode, long offset, long length) throws IOException {
+        long inodeNumber = getInodeNumber(inode);
+        Path path = resolveInode(inodeNumber);
+        try (OwnChange change = new OwnChange(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                long end = offset + length;
+                long inFileEnd = Math.min(end, size);
+
+                long pos = offset;
+                while (pos < inFileEnd) {
+                    long holeStart = seek(channel, size, pos, ContentType.HOLE);
+                    if (holeStart >= inFileEnd) {
+                        break;
+                    }
+                    long holeEnd = Math.min(seek(channel, size, holeStart, ContentType.DATA), inFileEnd);
+                    writeZeros(channel, holeStart, holeEnd);
+                    pos = holeEnd;
+                }
+
+                if (end > size) {
+                    writeZeros(channel, size, end);
+                }
+            }
+        }
+    }
+
+    /**
+     * Java can't punch holes, thus the range is overwritten with zeros, which
+     * {@link #seek} reports as a hole.
+     */
+    @Override
+    public void deallocate(Inode inode, long offset, long length) throws IOException {
+        long inodeNumber = getInodeNumber(inode);
+        Path path = resolveInode(inodeNumber);
+        try (OwnChange change = new OwnChange(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                // file size never changes
+                long end = Math.min(offset + length, channel.size());
+                if (offset < end) {
+                    writeZeros(channel, offset, end);
+                }
+            }
+        }
+    }
+
+    private static void writeZeros(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate(64 * 1024);
+        for (long pos = from; pos < to; ) {
+            zeros.clear();
+            zeros.limit((int) Math.min(zeros.capacity(), to - pos));
+            pos += channel.write(zeros, pos);
+        }
+    }
+
+    private static boolean isZeroFilled(ByteBuffer block) {
+        while (block.remaining() >= Long.BYTES) {
+            if (block.getLong() != 0) {
+                return false;
+            }
+        }
+        while (block.hasRemaining()) {
+            if (block.get() != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     public String readlink(Inode inode) throws IOException {
         long inodeNumber = getInodeNumber(inode);
@@ -400,12 +597,14 @@ public class LocalFileSystem implements VirtualFileSystem {
         Path parentPath = resolveInode(parentInodeNumber);
         Path targetPath = parentPath.resolve(path);
         long targetInodeNumber = resolvePath(targetPath);
-        try {
-            Files.delete(targetPath);
-        } catch (DirectoryNotEmptyException e) {
-            throw new NotEmptyException("dir " + targetPath + " is note empty", e);
+        try (OwnChange change = new OwnChange(targetPath)) {
+            try {
+                Files.delete(targetPath);
+            } catch (DirectoryNotEmptyException e) {
+                throw new NotEmptyException("dir " + targetPath + " is note empty", e);
+            }
+            unmap(targetInodeNumber, targetPath);
         }
-        unmap(targetInodeNumber, targetPath);
     }
 
     @Override
@@ -417,23 +616,25 @@ public class LocalFileSystem implements VirtualFileSystem {
         if (!targetName.startsWith("/")) {
             target = parentPath.relativize(target);
         }
-        try {
-            Files.createSymbolicLink(link, target);
-        } catch (UnsupportedOperationException e) {
-            throw new NotSuppException("Not supported", e);
-        } catch (FileAlreadyExistsException e) {
-            throw new ExistException("Path exists " + linkName, e);
-        } catch (SecurityException e) {
-            throw new PermException("Permission denied: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new ServerFaultException("Failed to create: " + e.getMessage(), e);
-        }
+        try (OwnChange change = new OwnChange(link)) {
+            try {
+                Files.createSymbolicLink(link, target);
+            } catch (UnsupportedOperationException e) {
+                throw new NotSuppException("Not supported", e);
+            } catch (FileAlreadyExistsException e) {
+                throw new ExistException("Path exists " + linkName, e);
+            } catch (SecurityException e) {
+                throw new PermException("Permission denied: " + e.getMessage(), e);
+            } catch (IOException e) {
+                throw new ServerFaultException("Failed to create: " + e.getMessage(), e);
+            }
 
-        setOwnershipAndMode(link, subject, mode);
+            setOwnershipAndMode(link, subject, mode);
 
-        long newInodeNumber = fileId.getAndIncrement();
-        map(newInodeNumber, link);
-        return toFh(newInodeNumber);
+            long newInodeNumber = fileId.getAndIncrement();
+            map(newInodeNumber, link);
+            return toFh(newInodeNumber);
+        }
     }
 
     @Override
@@ -441,9 +642,11 @@ public class LocalFileSystem implements VirtualFileSystem {
         long inodeNumber = getInodeNumber(inode);
         Path path = resolveInode(inodeNumber);
         ByteBuffer srcBuffer = ByteBuffer.wrap(data, 0, count);
-        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
-            int bytesWritten = channel.write(srcBuffer, offset);
-            return new WriteResult(StabilityLevel.FILE_SYNC, bytesWritten);
+        try (OwnChange change = new OwnChange(path)) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                int bytesWritten = channel.write(srcBuffer, offset);
+                return new WriteResult(StabilityLevel.FILE_SYNC, bytesWritten);
+            }
         }
     }
 
@@ -510,70 +713,72 @@ public class LocalFileSystem implements VirtualFileSystem {
 
         long inodeNumber = getInodeNumber(inode);
         Path path = resolveInode(inodeNumber);
-        PosixFileAttributeView attributeView = Files.getFileAttributeView(path, PosixFileAttributeView.class, NOFOLLOW_LINKS);
-        if (stat.isDefined(Stat.StatAttribute.OWNER)) {
-            try {
-                String uid = String.valueOf(stat.getUid());
-                UserPrincipal user = _lookupService.lookupPrincipalByName(uid);
-                attributeView.setOwner(user);
-            } catch (IOException e) {
-                throw new UnsupportedOperationException("set uid failed: " + e.getMessage(), e);
+        try (OwnChange change = new OwnChange(path)) {
+            PosixFileAttributeView attributeView = Files.getFileAttributeView(path, PosixFileAttributeView.class, NOFOLLOW_LINKS);
+            if (stat.isDefined(Stat.StatAttribute.OWNER)) {
+                try {
+                    String uid = String.valueOf(stat.getUid());
+                    UserPrincipal user = _lookupService.lookupPrincipalByName(uid);
+                    attributeView.setOwner(user);
+                } catch (IOException e) {
+                    throw new UnsupportedOperationException("set uid failed: " + e.getMessage(), e);
+                }
             }
-        }
-        if (stat.isDefined(Stat.StatAttribute.GROUP)) {
-            try {
-                String gid = String.valueOf(stat.getGid());
-                GroupPrincipal group = _lookupService.lookupPrincipalByGroupName(gid);
-                attributeView.setGroup(group);
-            } catch (IOException e) {
-                throw new UnsupportedOperationException("set gid failed: " + e.getMessage(), e);
+            if (stat.isDefined(Stat.StatAttribute.GROUP)) {
+                try {
+                    String gid = String.valueOf(stat.getGid());
+                    GroupPrincipal group = _lookupService.lookupPrincipalByGroupName(gid);
+                    attributeView.setGroup(group);
+                } catch (IOException e) {
+                    throw new UnsupportedOperationException("set gid failed: " + e.getMessage(), e);
+                }
             }
-        }
-        if (stat.isDefined(Stat.StatAttribute.MODE)) {
-            try {
-                Files.setAttribute(path, "unix:mode", stat.getMode(), NOFOLLOW_LINKS);
-            } catch (IOException e) {
-                throw new UnsupportedOperationException("set mode unsupported: " + e.getMessage(), e);
+            if (stat.isDefined(Stat.StatAttribute.MODE)) {
+                try {
+                    Files.setAttribute(path, "unix:mode", stat.getMode(), NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    throw new UnsupportedOperationException("set mode unsupported: " + e.getMessage(), e);
+                }
             }
-        }
-        if (stat.isDefined(Stat.StatAttribute.SIZE)) {
+            if (stat.isDefined(Stat.StatAttribute.SIZE)) {
 
-            var currentAttributes = attributeView.readAttributes();
+                var currentAttributes = attributeView.readAttributes();
 
-            if (currentAttributes.isDirectory()) {
-                throw new IsDirException("set size on directory");
-            }
+                if (currentAttributes.isDirectory()) {
+                    throw new IsDirException("set size on directory");
+                }
 
-            if (!Files.isRegularFile(path)) {
-                throw new InvalException("set size on non file object");
-            }
+                if (!Files.isRegularFile(path)) {
+                    throw new InvalException("set size on non file object");
+                }
 
-            try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
-                raf.setLength(stat.getSize());
+                try (RandomAccessFile raf = new RandomAccessFile(path.toFile(), "rw")) {
+                    raf.setLength(stat.getSize());
+                }
             }
-        }
-        if (stat.isDefined(Stat.StatAttribute.ATIME)) {
-            try {
-                FileTime time = FileTime.fromMillis(stat.getCTime());
-                Files.setAttribute(path, "unix:lastAccessTime", time, NOFOLLOW_LINKS);
-            } catch (IOException e) {
-                throw new UnsupportedOperationException("set atime failed: " + e.getMessage(), e);
+            if (stat.isDefined(Stat.StatAttribute.ATIME)) {
+                try {
+                    FileTime time = FileTime.fromMillis(stat.getCTime());
+                    Files.setAttribute(path, "unix:lastAccessTime", time, NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    throw new UnsupportedOperationException("set atime failed: " + e.getMessage(), e);
+                }
             }
-        }
-        if (stat.isDefined(Stat.StatAttribute.MTIME)) {
-            try {
-                FileTime time = FileTime.fromMillis(stat.getMTime());
-                Files.setAttribute(path, "unix:lastModifiedTime", time, NOFOLLOW_LINKS);
-            } catch (IOException e) {
-                throw new UnsupportedOperationException("set mtime failed: " + e.getMessage(), e);
+            if (stat.isDefined(Stat.StatAttribute.MTIME)) {
+                try {
+                    FileTime time = FileTime.fromMillis(stat.getMTime());
+                    Files.setAttribute(path, "unix:lastModifiedTime", time, NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    throw new UnsupportedOperationException("set mtime failed: " + e.getMessage(), e);
+                }
             }
-        }
-        if (stat.isDefined(Stat.StatAttribute.CTIME)) {
-            try {
-                FileTime time = FileTime.fromMillis(stat.getCTime());
-                Files.setAttribute(path, "unix:ctime", time, NOFOLLOW_LINKS);
-            } catch (IOException e) {
-                throw new UnsupportedOperationException("set ctime failed: " + e.getMessage(), e);
+            if (stat.isDefined(Stat.StatAttribute.CTIME)) {
+                try {
+                    FileTime time = FileTime.fromMillis(stat.getCTime());
+                    Files.setAttribute(path, "unix:ctime", time, NOFOLLOW_LINKS);
+                } catch (IOException e) {
+                    throw new UnsupportedOperationException("set ctime failed: " + e.getMessage(), e);
+                }
             }
         }
     }
@@ -613,4 +818,203 @@ public class LocalFileSystem implements VirtualFileSystem {
         return true;
     }
 
+    @Override
+    public synchronized void addChangeListener(FileSystemChangeListener listener) {
+        _changeListeners.add(listener);
+        if (_watchService != null) {
+            return;
+        }
+
+        WatchService watchService;
+        try {
+            watchService = _root.getFileSystem().newWatchService();
+            try {
+                watchTree(watchService, _root);
+            } catch (IOException e) {
+                watchService.close();
+                throw e;
+            }
+            _watchService = watchService;
+        } catch (IOException e) {
+            LOG.warn("Failed to watch {} for changes: {}", _root, e.getMessage());
+            return;
+        }
+
+        Thread watcher = new Thread(() -> publishChanges(watchService), "local-fs-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public synchronized void removeChangeListener(FileSystemChangeListener listener) {
+        _changeListeners.remove(listener);
+        if (_changeListeners.isEmpty() && _watchService != null) {
+            try {
+                _watchService.close();
+            } catch (IOException e) {
+                LOG.warn("Failed to stop watching {}: {}", _root, e.getMessage());
+            }
+            _watchService = null;
+        }
+    }
+
+    private void watchTree(WatchService watchService, Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, ENTRY_CREATE, ENTRY_DELETE, ENTRY_MODIFY);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void publishChanges(WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    try {
+                        publishChange(watchService, dir, event);
+                    } catch (RuntimeException e) {
+                        LOG.warn("Failed to publish change of {}: {}", dir, e.toString());
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException e) {
+            // no more listeners
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publishChange(WatchService watchService, Path dir, WatchEvent<?> event) {
+        Long dirInodeNumber = pathToInode.get(dir);
+        if (dirInodeNumber == null) {
+            // directory is gone
+            return;
+        }
+        Inode dirInode = toFh(dirInodeNumber);
+
+        if (event.kind() == OVERFLOW) {
+            // events are lost, everything in the directory might be changed
+            for (FileSystemChangeListener listener : _changeListeners) {
+                listener.inodeChanged(dirInode);
+                listener.directoryChanged(dirInode, null);
+            }
+            return;
+        }
+
+        Path name = (Path) event.context();
+        Path path = dir.resolve(name);
+        if (event.kind() == ENTRY_CREATE && Files.isDirectory(path, NOFOLLOW_LINKS)) {
+            try {
+                watchTree(watchService, path);
+            } catch (IOException e) {
+                LOG.warn("Failed to watch {} for changes: {}", path, e.getMessage());
+            }
+        }
+
+        Long inodeNumber = pathToInode.get(path);
+        Runnable publish = () -> {
+            for (FileSystemChangeListener listener : _changeListeners) {
+                if (event.kind() != ENTRY_MODIFY) {
+                    listener.directoryChanged(dirInode, name.toString());
+                }
+                if (inodeNumber != null) {
+                    listener.inodeChanged(toFh(inodeNumber));
+                }
+            }
+        };
+
+        synchronized (_changesInProgress) {
+            ChangeInProgress change = _changesInProgress.get(path);
+            if (change != null) {
+                // decided when the modification completes
+                change.events.add(publish);
+                return;
+            }
+        }
+
+        if (!isOwnChange(path)) {
+            publish.run();
+        }
+    }
+
+    /**
+     * Check whether the object is not changed since the last modification made
+     * through this file system. The recorded change is consumed.
+     */
+    private boolean isOwnChange(Path path) {
+        FileTime ownChangeTime = _ownChanges.asMap().remove(path);
+        return ownChangeTime != null && ownChangeTime.equals(changeTime(path));
+    }
+
+    private static FileTime changeTime(Path path) {
+        try {
+            return IS_UNIX ? (FileTime) Files.getAttribute(path, "unix:ctime", NOFOLLOW_LINKS)
+                    : Files.getLastModifiedTime(path, NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            return DELETED;
+        }
+    }
+
+    private static class ChangeInProgress {
+
+        /**
+         * Number of modifications in progress.
+         */
+        private int count;
+
+        /**
+         * Watch events of the object received during modification.
+         */
+        private final List<Runnable> events = new ArrayList<>();
+    }
+
+    /**
+     * Modification of objects made through this file system. Watch events of
+     * the objects received while modification is in progress are published on
+     * close only if the objects have been changed since. Otherwise, the
+     * resulting change time is recorded to recognize the events delivered
+     * later.
+     */
+    private class OwnChange implements AutoCloseable {
+
+        private final Path[] _paths;
+
+        OwnChange(Path... paths) {
+            // without listeners there is nothing to suppress
+            _paths = _changeListeners.isEmpty() ? new Path[0] : paths;
+            synchronized (_changesInProgress) {
+                for (Path path : _paths) {
+                    _changesInProgress.computeIfAbsent(path, p -> new ChangeInProgress()).count++;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            for (Path path : _paths) {
+                FileTime changeTime = changeTime(path);
+                List<Runnable> events;
+                synchronized (_changesInProgress) {
+                    ChangeInProgress change = _changesInProgress.get(path);
+                    if (--change.count > 0) {
+                        continue;
+                    }
+                    _changesInProgress.remove(path);
+                    events = change.events;
+                    if (events.isEmpty()) {
+                        _ownChanges.put(path, changeTime);
+                    }
+                }
+
+                if (!events.isEmpty() && !changeTime.equals(changeTime(path))) {
+                    events.forEach(Runnable::run);
+                }
+            }
+        }
+    }
 }
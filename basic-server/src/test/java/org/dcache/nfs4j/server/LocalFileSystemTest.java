@@ -0,0 +1,163 @@
+package org.dcache.nfs4j.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import javax.security.auth.Subject;
+import org.dcache.nfs.vfs.FileSystemChangeListener;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+public class LocalFileSystemTest {
+
+    /**
+     * Time to wait for a watch event. Some platforms poll for changes.
+     */
+    private static final long EVENT_TIMEOUT = 30;
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    private Path root;
+    private LocalFileSystem fs;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() throws IOException {
+        root = tmp.getRoot().toPath();
+        Files.write(root.resolve("file"), "hello".getBytes(StandardCharsets.UTF_8));
+        Files.createDirectory(root.resolve("sub"));
+
+        fs = new LocalFileSystem(root, List.of());
+        listener = new RecordingListener();
+        fs.addChangeListener(listener);
+    }
+
+    @After
+    public void tearDown() {
+        fs.removeChangeListener(listener);
+    }
+
+    @Test
+    public void shouldPublishExternalCreate() throws Exception {
+        Files.createFile(root.resolve("external"));
+
+        assertEquals("dir:" + id(fs.getRootInode()) + ":external", listener.awaitEvent("dir:"));
+    }
+
+    @Test
+    public void shouldPublishExternalModify() throws Exception {
+        Inode file = fs.lookup(fs.getRootInode(), "file");
+        Files.write(root.resolve("file"), "world".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("inode:" + id(file), listener.awaitEvent("inode:" + id(file)));
+    }
+
+    @Test
+    public void shouldNotPublishOwnWrite() throws Exception {
+        Inode file = fs.lookup(fs.getRootInode(), "file");
+        fs.write(file, ByteBuffer.wrap("world".getBytes(StandardCharsets.UTF_8)), 0, VirtualFileSystem.StabilityLevel.UNSTABLE);
+
+        // the events are delivered in order, the marker doesn't change the root directory
+        awaitMarker();
+
+        assertFalse(listener.events.toString(), listener.events.contains("inode:" + id(file)));
+    }
+
+    @Test
+    public void shouldNotPublishOwnCreate() throws Exception {
+        fs.create(fs.getRootInode(), Stat.Type.REGULAR, "own", new Subject(), 0644);
+
+        awaitMarker();
+
+        assertFalse(listener.events.contains("dir:" + id(fs.getRootInode()) + ":own"));
+    }
+
+    @Test
+    public void shouldPublishExternalModifyAfterOwnWrite() throws Exception {
+        Inode file = fs.lookup(fs.getRootInode(), "file");
+        fs.write(file, ByteBuffer.wrap("world".getBytes(StandardCharsets.UTF_8)), 0, VirtualFileSystem.StabilityLevel.UNSTABLE);
+        awaitMarker();
+
+        Files.write(root.resolve("file"), "external".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("inode:" + id(file), listener.awaitEvent("inode:" + id(file)));
+    }
+
+    @Test
+    public void shouldPublishExternalCreateNextToOwnCreate() throws Exception {
+        fs.create(fs.getRootInode(), Stat.Type.REGULAR, "own", new Subject(), 0644);
+        Files.createFile(root.resolve("external"));
+
+        assertEquals("dir:" + id(fs.getRootInode()) + ":external",
+                listener.awaitEvent("dir:" + id(fs.getRootInode()) + ":external"));
+        assertFalse(listener.events.contains("dir:" + id(fs.getRootInode()) + ":own"));
+    }
+
+    private void awaitMarker() throws IOException, InterruptedException {
+        Inode sub = fs.lookup(fs.getRootInode(), "sub");
+        Files.createFile(root.resolve("sub").resolve("marker"));
+        listener.awaitEvent("dir:" + id(sub) + ":marker");
+    }
+
+    private static String id(Inode inode) {
+        return Long.toString(ByteBuffer.wrap(inode.getFileId()).getLong());
+    }
+
+    private static class RecordingListener implements FileSystemChangeListener {
+
+        private final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void inodeChanged(Inode inode) {
+            record("inode:" + id(inode));
+        }
+
+        @Override
+        public void attributesChanged(Inode inode) {
+            record("attr:" + id(inode));
+        }
+
+        @Override
+        public void directoryChanged(Inode dir, String name) {
+            record("dir:" + id(dir) + ":" + name);
+        }
+
+        private void record(String event) {
+            events.add(event);
+            queue.add(event);
+        }
+
+        /**
+         * Wait for the first event which starts with the given prefix.
+         */
+        String awaitEvent(String prefix) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(EVENT_TIMEOUT);
+            while (true) {
+                String event = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (event == null) {
+                    throw new AssertionError("no event " + prefix + "* received, got: " + events);
+                }
+                if (event.startsWith(prefix)) {
+                    return event;
+                }
+            }
+        }
+    }
+}
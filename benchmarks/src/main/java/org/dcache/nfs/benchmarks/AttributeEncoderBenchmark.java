@@ -0,0 +1,177 @@
+package org.dcache.nfs.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import org.dcache.nfs.v4.AttributeEncoder;
+import org.dcache.nfs.v4.CompoundContext;
+import org.dcache.nfs.v4.CompoundContextBuilder;
+import org.dcache.nfs.v4.SimpleIdMap;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.FileHandle;
+import org.dcache.nfs.vfs.FsStat;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.RpcAuthTypeUnix;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures attribute encoding for the attribute masks the Linux client sends
+ * with GETATTR and READDIR. A READDIR reply encodes the same mask for many
+ * entries within a single encoding session.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class AttributeEncoderBenchmark {
+
+    /**
+     * Number of entries in a typical READDIR reply.
+     */
+    private static final int READDIR_ENTRIES = 64;
+
+    /**
+     * nfs4_fattr_bitmap of the Linux client.
+     */
+    private static final bitmap4 GETATTR_MASK = bitmap4.of(
+            nfs4_prot.FATTR4_TYPE,
+            nfs4_prot.FATTR4_CHANGE,
+            nfs4_prot.FATTR4_SIZE,
+            nfs4_prot.FATTR4_FSID,
+            nfs4_prot.FATTR4_FILEID,
+            nfs4_prot.FATTR4_MODE,
+            nfs4_prot.FATTR4_NUMLINKS,
+            nfs4_prot.FATTR4_OWNER,
+            nfs4_prot.FATTR4_OWNER_GROUP,
+            nfs4_prot.FATTR4_RAWDEV,
+            nfs4_prot.FATTR4_SPACE_USED,
+            nfs4_prot.FATTR4_TIME_ACCESS,
+            nfs4_prot.FATTR4_TIME_METADATA,
+            nfs4_prot.FATTR4_TIME_MODIFY,
+            nfs4_prot.FATTR4_MOUNTED_ON_FILEID);
+
+    /**
+     * READDIR mask of the Linux client with readdirplus.
+     */
+    private static final bitmap4 READDIR_MASK = bitmap4.of(
+            nfs4_prot.FATTR4_TYPE,
+            nfs4_prot.FATTR4_CHANGE,
+            nfs4_prot.FATTR4_SIZE,
+            nfs4_prot.FATTR4_FSID,
+            nfs4_prot.FATTR4_RDATTR_ERROR,
+            nfs4_prot.FATTR4_FILEHANDLE,
+            nfs4_prot.FATTR4_FILEID,
+            nfs4_prot.FATTR4_MODE,
+            nfs4_prot.FATTR4_NUMLINKS,
+            nfs4_prot.FATTR4_OWNER,
+            nfs4_prot.FATTR4_OWNER_GROUP,
+            nfs4_prot.FATTR4_SPACE_USED,
+            nfs4_prot.FATTR4_TIME_ACCESS,
+            nfs4_prot.FATTR4_TIME_METADATA,
+            nfs4_prot.FATTR4_TIME_MODIFY,
+            nfs4_prot.FATTR4_MOUNTED_ON_FILEID);
+
+    @State(Scope.Benchmark)
+    public static class FileSystemHolder {
+
+        private VirtualFileSystem fs;
+        private CompoundContext context;
+        private Inode[] inodes;
+        private Stat[] stats;
+
+        @Setup
+        public void setUp() {
+
+            SimpleIdMap idMap = new SimpleIdMap();
+            FsStat fsStat = new FsStat(1L << 40, 1_000_000, 1L << 30, 1000);
+
+            // only the methods used by attribute encoding are provided
+            fs = (VirtualFileSystem) Proxy.newProxyInstance(VirtualFileSystem.class.getClassLoader(),
+                    new Class<?>[]{VirtualFileSystem.class},
+                    (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getIdMapper":
+                                return idMap;
+                            case "getFsStat":
+                                return fsStat;
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+
+            RpcCall call = new RpcCall(nfs4_prot.NFS4_PROGRAM, nfs4_prot.NFS_V4,
+                    new RpcAuthTypeUnix(1, 1, new int[]{1}, 1, "localhost"), null);
+
+            context = new CompoundContextBuilder()
+                    .withFs(fs)
+                    .withMinorversion(1)
+                    .withCall(call)
+                    .build();
+
+            inodes = new Inode[READDIR_ENTRIES];
+            stats = new Stat[READDIR_ENTRIES];
+            long now = System.currentTimeMillis();
+            for (int i = 0; i < READDIR_ENTRIES; i++) {
+                inodes[i] = new Inode(new FileHandle(0, 1, 0, ("file-" + i).getBytes()));
+
+                Stat stat = new Stat();
+                stat.setMode(Stat.S_IFREG | 0644);
+                stat.setMTime(now);
+                stat.setATime(now);
+                stat.setCTime(now);
+                stat.setGeneration(i);
+                stat.setNlink(1);
+                stat.setUid(1);
+                stat.setGid(1);
+                stat.setDev(1);
+                stat.setIno(i + 100);
+                stat.setSize(i * 4096L);
+                stats[i] = stat;
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public fattr4 getattr(FileSystemHolder holder) throws IOException {
+        try (AttributeEncoder.Session session = AttributeEncoder.of(GETATTR_MASK).newSession(holder.fs, holder.context)) {
+            return session.encode(holder.inodes[0], holder.stats[0]);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public void readdir(FileSystemHolder holder, Blackhole blackhole) throws IOException {
+        try (AttributeEncoder.Session session = AttributeEncoder.of(READDIR_MASK).newSession(holder.fs, holder.context)) {
+            for (int i = 0; i < READDIR_ENTRIES; i++) {
+                blackhole.consume(session.encode(holder.inodes[i], holder.stats[i]));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AttributeEncoderBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
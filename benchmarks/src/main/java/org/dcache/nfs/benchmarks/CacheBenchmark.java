@@ -6,7 +6,10 @@ import org.dcache.nfs.util.Cache;
 import org.dcache.nfs.util.NopCacheEventListener;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -18,6 +21,7 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @BenchmarkMode(Mode.Throughput)
@@ -41,6 +45,62 @@ public class CacheBenchmark {
         }
     }
 
+    /*
+     * A large cache, like the client cache of a busy server. Entries idle for
+     * longer than a second expire, thus cleanup has work to do.
+     */
+    @State(Scope.Benchmark)
+    public static class LargeCacheHolder {
+
+        @Param({"100000"})
+        private int entries;
+
+        private Cache<String, String> cache;
+        private String[] keys;
+
+        @Setup
+        public void setUp() {
+            cache = new Cache<>("large test cache", entries * 2, Duration.ofHours(1),
+                    Duration.ofSeconds(1),
+                    new NopCacheEventListener());
+
+            keys = new String[entries];
+            for (int i = 0; i < entries; i++) {
+                keys[i] = "key" + i;
+                cache.put(keys[i], "val");
+            }
+        }
+
+        String nextKey() {
+            return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+        }
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(14)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public String mixedGet(LargeCacheHolder holder) {
+        return holder.cache.get(holder.nextKey());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public void mixedPut(LargeCacheHolder holder) {
+        holder.cache.put(holder.nextKey(), "val");
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public Instant mixedCleanUp(LargeCacheHolder holder) {
+        holder.cache.cleanUp();
+        return holder.cache.lastClean();
+    }
+
     @Benchmark
     @Threads(16)
     @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
@@ -0,0 +1,134 @@
+package org.dcache.nfs.benchmarks;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.dcache.nfs.status.StaleClientidException;
+import org.dcache.nfs.v4.NFS4Client;
+import org.dcache.nfs.v4.NFSv4StateHandler;
+import org.dcache.nfs.v4.xdr.clientid4;
+import org.dcache.nfs.v4.xdr.verifier4;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Simulates a reconnect storm after a server failover: many clients re-run
+ * EXCHANGE_ID, which looks up the client record by owner, replaces it with a
+ * new one, while other requests look up clients by client id.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class ClientReconnectBenchmark {
+
+    private static final int RECONNECT_THREADS = 8;
+
+    @State(Scope.Benchmark)
+    public static class StateHandlerHolder {
+
+        // the default client cache is limited to 5000 entries
+        @Param({"1000", "4000"})
+        private int clients;
+
+        private NFSv4StateHandler sh;
+        private InetSocketAddress address;
+        private byte[][] owners;
+        private AtomicReferenceArray<clientid4> ids;
+        private final AtomicInteger threads = new AtomicInteger();
+
+        @Setup
+        public void setUp() throws Exception {
+            sh = new NFSv4StateHandler();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 123);
+            owners = new byte[clients][];
+            ids = new AtomicReferenceArray<>(clients);
+            for (int i = 0; i < clients; i++) {
+                owners[i] = ("client-" + i).getBytes(StandardCharsets.UTF_8);
+                ids.set(i, connect(i).getId());
+            }
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            sh.shutdown();
+        }
+
+        NFS4Client connect(int i) {
+            verifier4 verifier = new verifier4(new byte[8]);
+            return sh.createClient(address, address, 1, owners[i], verifier, null, false);
+        }
+    }
+
+    /*
+     * Reconnecting thread. Each thread serves its own subset of clients.
+     */
+    @State(Scope.Thread)
+    public static class ReconnectHolder {
+
+        private int index;
+
+        @Setup
+        public void setUp(StateHandlerHolder holder) {
+            index = holder.threads.getAndIncrement() % RECONNECT_THREADS;
+        }
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(RECONNECT_THREADS)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public NFS4Client reconnect(StateHandlerHolder holder, ReconnectHolder rh) {
+
+        int slots = holder.clients / RECONNECT_THREADS;
+        int i = ThreadLocalRandom.current().nextInt(slots) * RECONNECT_THREADS + rh.index;
+
+        // EXCHANGE_ID: client restart
+        NFS4Client client = holder.sh.clientByOwner(holder.owners[i]);
+        if (client != null) {
+            holder.sh.removeClient(client);
+        }
+        client = holder.connect(i);
+        holder.ids.set(i, client.getId());
+        return client;
+    }
+
+    @Benchmark
+    @Group("storm")
+    @GroupThreads(8)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public NFS4Client lookup(StateHandlerHolder holder) {
+
+        int i = ThreadLocalRandom.current().nextInt(holder.clients);
+        try {
+            return holder.sh.getClient(holder.ids.get(i));
+        } catch (StaleClientidException e) {
+            // reconnected in the meantime
+            return null;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(ClientReconnectBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -4,6 +4,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.dcache.nfs.v4.StateOwner;
 import org.dcache.nfs.v4.nlm.LockException;
 import org.dcache.nfs.v4.nlm.LockManager;
@@ -54,6 +55,92 @@ public class ConcurrentLockManagerBenchmark {
 
     }
 
+    /*
+     * A single file with many byte-range locks, each held by a different owner.
+     * Each owner holds the first half of its region, the second half is free.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedFileHolder {
+
+        static final int REGION = 1024;
+
+        @Param({"100", "10000"})
+        private int owners;
+
+        private final byte[] file = new byte[16];
+        private final AtomicInteger threads = new AtomicInteger();
+        private LockManager lm;
+
+        @Setup
+        public void setUp() throws LockException {
+            lm = new SimpleLm();
+            ThreadLocalRandom.current().nextBytes(file);
+            for (int i = 0; i < owners; i++) {
+                lm.lock(file, ownerLock(i));
+            }
+        }
+
+        NlmLock ownerLock(int owner) {
+            return new LockBuilder()
+                    .withOwner("owner" + owner)
+                    .from((long) owner * REGION)
+                    .length(REGION / 2)
+                    .forWrite()
+                    .build();
+        }
+    }
+
+    /*
+     * Lock owner index. One per thread, thus no two threads use the same owner.
+     */
+    @State(Scope.Thread)
+    public static class OwnerHolder {
+
+        private int owner;
+
+        @Setup
+        public void setUp(SharedFileHolder holder) {
+            owner = holder.threads.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public NlmLock benchmarkLockInManyRanges(SharedFileHolder holder, OwnerHolder oh) throws LockException {
+
+        int region = ThreadLocalRandom.current().nextInt(holder.owners);
+        NlmLock lock = new LockBuilder()
+                .withOwner("reader" + oh.owner)
+                .from((long) region * SharedFileHolder.REGION + SharedFileHolder.REGION / 2)
+                .length(1)
+                .forRead()
+                .build();
+
+        holder.lm.lock(holder.file, lock);
+        holder.lm.unlock(holder.file, lock);
+        return lock;
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public NlmLock benchmarkSplitAndMergeWithManyOwners(SharedFileHolder holder, OwnerHolder oh) throws LockException {
+
+        NlmLock hole = new LockBuilder()
+                .withOwner("owner" + oh.owner)
+                .from((long) oh.owner * SharedFileHolder.REGION + ThreadLocalRandom.current().nextInt(SharedFileHolder.REGION / 2))
+                .length(1)
+                .forWrite()
+                .build();
+
+        // split the lock and merge the pieces back
+        holder.lm.unlock(holder.file, hole);
+        NlmLock lock = holder.ownerLock(oh.owner);
+        holder.lm.lock(holder.file, lock);
+        return lock;
+    }
+
     @Benchmark
     @Threads(16)
     @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
@@ -0,0 +1,180 @@
+package org.dcache.nfs.benchmarks;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dcache.nfs.v4.StateOwner;
+import org.dcache.nfs.v4.nlm.DistributedLockManager;
+import org.dcache.nfs.v4.nlm.LockException;
+import org.dcache.nfs.v4.nlm.LockManager;
+import org.dcache.nfs.v4.nlm.NlmLock;
+import org.dcache.nfs.v4.nlm.PartitionedLockManager;
+import org.dcache.nfs.v4.xdr.clientid4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_lock_type4;
+import org.dcache.nfs.v4.xdr.state_owner4;
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Compares {@link DistributedLockManager} and {@link PartitionedLockManager}
+ * running on an embedded multi-member Hazelcast cluster within a single JVM.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class DistributedLockManagerBenchmark {
+
+    private static final String NAME = "byte-range-lock-benchmark";
+
+    @State(Scope.Benchmark)
+    public static class ClusterHolder {
+
+        @Param({"multimap", "partitioned"})
+        private String lockManager;
+
+        @Param({"3"})
+        private int members;
+
+        private LockManager lm;
+        private final byte[] sharedFile = "shared-file".getBytes(StandardCharsets.UTF_8);
+        private final AtomicInteger threads = new AtomicInteger();
+
+        @Setup
+        public void setUp() throws LockException {
+
+            Config config = new Config();
+            config.setClusterName("nfs-dlm-benchmark");
+            config.setProperty("hazelcast.logging.type", "none");
+            config.setProperty("hazelcast.phone.home.enabled", "false");
+            config.getNetworkConfig().getInterfaces()
+                    .setEnabled(true)
+                    .addInterface("127.0.0.1");
+            JoinConfig join = config.getNetworkConfig().getJoin();
+            join.getMulticastConfig().setEnabled(false);
+            join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1");
+            PartitionedLockManager.addNearCacheConfig(config, NAME);
+
+            HazelcastInstance hz = Hazelcast.newHazelcastInstance(config);
+            for (int i = 1; i < members; i++) {
+                Hazelcast.newHazelcastInstance(config);
+            }
+
+            switch (lockManager) {
+                case "multimap":
+                    lm = new DistributedLockManager(hz, NAME);
+                    break;
+                case "partitioned":
+                    lm = new PartitionedLockManager(hz, NAME);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown lock manager: " + lockManager);
+            }
+
+            // a whole file read lock, tested by all threads
+            lm.lock(sharedFile, new LockBuilder()
+                    .withOwner("reader")
+                    .from(0)
+                    .length(nfs4_prot.NFS4_UINT64_MAX)
+                    .forRead()
+                    .build());
+        }
+
+        @TearDown
+        public void tearDown() {
+            Hazelcast.shutdownAll();
+        }
+    }
+
+    /*
+     * File id and lock owner. One per thread.
+     */
+    @State(Scope.Thread)
+    public static class FileHolder {
+
+        private final byte[] file = new byte[16];
+        private String owner;
+
+        @Setup
+        public void setUp(ClusterHolder holder) {
+            ThreadLocalRandom.current().nextBytes(file);
+            owner = "owner" + holder.threads.getAndIncrement();
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public NlmLock benchmarkLockUnlock(ClusterHolder holder, FileHolder fh) throws LockException {
+
+        NlmLock lock = new LockBuilder()
+                .withOwner(fh.owner)
+                .from(ThreadLocalRandom.current().nextInt(1024))
+                .length(1)
+                .forWrite()
+                .build();
+
+        holder.lm.lock(fh.file, lock);
+        holder.lm.unlock(fh.file, lock);
+        return lock;
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public NlmLock benchmarkTest(ClusterHolder holder, FileHolder fh) throws LockException {
+
+        NlmLock lock = new LockBuilder()
+                .withOwner(fh.owner)
+                .from(ThreadLocalRandom.current().nextInt(1024))
+                .length(1)
+                .forRead()
+                .build();
+
+        holder.lm.test(holder.sharedFile, lock);
+        return lock;
+    }
+
+    public static class LockBuilder {
+
+        private long offset;
+        private long length;
+        private StateOwner owner;
+        private int lockType;
+
+        LockBuilder withOwner(String owner) {
+            state_owner4 so = new state_owner4();
+
+            so.owner = owner.getBytes(StandardCharsets.UTF_8);
+            so.clientid = new clientid4(1);
+            this.owner = new StateOwner(so, 1);
+            return this;
+        }
+
+        LockBuilder from(long offset) {
+            this.offset = offset;
+            return this;
+        }
+
+        LockBuilder length(long length) {
+            this.length = length;
+            return this;
+        }
+
+        LockBuilder forRead() {
+            this.lockType = nfs_lock_type4.READ_LT;
+            return this;
+        }
+
+        LockBuilder forWrite() {
+            this.lockType = nfs_lock_type4.WRITE_LT;
+            return this;
+        }
+
+        NlmLock build() {
+            return new NlmLock(owner, lockType, offset, length);
+        }
+    }
+}
@@ -7,12 +7,14 @@ import org.dcache.nfs.v4.NFSv4StateHandler;
 import org.dcache.nfs.v4.StateOwner;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.seqid4;
+import org.dcache.nfs.v4.xdr.stateid4;
 import org.dcache.nfs.v4.xdr.verifier4;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.oncrpc4j.util.Bytes;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
@@ -32,6 +34,7 @@ import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 import static org.dcache.nfs.v4.xdr.nfs4_prot.OPEN4_SHARE_ACCESS_READ;
+import static org.dcache.nfs.v4.xdr.nfs4_prot.OPEN4_SHARE_ACCESS_WANT_NO_DELEG;
 
 @BenchmarkMode(Mode.Throughput)
 public class FileTrackerBenchmark {
@@ -61,6 +64,66 @@ public class FileTrackerBenchmark {
     }
 
 
+    /*
+     * A single file opened by many clients. Models a hot shared file,
+     * like a common input file of a batch job.
+     */
+    @State(Scope.Benchmark)
+    public static class SharedFileHolder {
+
+        @Param({"1", "100", "1000"})
+        private int clients;
+
+        private FileTracker fileTracker;
+        private Inode inode;
+        private NFS4Client[] openClients;
+        private stateid4[] openStateids;
+
+        @Setup
+        public void setUp() throws Exception {
+            fileTracker = new FileTracker();
+            NFSv4StateHandler sh = new NFSv4StateHandler();
+            inode = generateFileHandle();
+            openClients = new NFS4Client[clients];
+            openStateids = new stateid4[clients];
+
+            for (int i = 0; i < clients; i++) {
+                NFS4Client client = createClient(sh);
+                StateOwner stateOwner = client.getOrCreateOwner(("owner" + i).getBytes(StandardCharsets.UTF_8), new seqid4(0));
+                openClients[i] = client;
+                openStateids[i] = fileTracker.addOpen(client, stateOwner, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_NO_DELEG, 0)
+                        .openStateId();
+            }
+        }
+    }
+
+    /*
+     * Share access check performed by each READ and WRITE on a shared file.
+     */
+    @Benchmark
+    @Threads(48)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public int sharedFileAccessCheck(SharedFileHolder holder) throws Exception {
+        int i = ThreadLocalRandom.current().nextInt(holder.clients);
+        return holder.fileTracker.getShareAccess(holder.openClients[i], holder.inode, holder.openStateids[i]);
+    }
+
+    /*
+     * Share access checks mixed with opens and closes of other clients on the same file.
+     */
+    @Benchmark
+    @Threads(48)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public int sharedFileAccessCheckWithOpens(SharedFileHolder holder) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int i = random.nextInt(holder.clients);
+        if (random.nextInt(100) == 0) {
+            var stateOwner = holder.openClients[i].getOrCreateOwner("owner".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+            holder.fileTracker.addOpen(holder.openClients[i], stateOwner, holder.inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_NO_DELEG, 0);
+        }
+        return holder.fileTracker.getShareAccess(holder.openClients[i], holder.inode, holder.openStateids[i]);
+    }
+
     @Benchmark
     @Threads(48)
     @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
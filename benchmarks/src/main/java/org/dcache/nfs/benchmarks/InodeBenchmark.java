@@ -0,0 +1,166 @@
+package org.dcache.nfs.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.dcache.nfs.vfs.FileHandle;
+import org.dcache.nfs.vfs.Inode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares {@link Inode} as a cache key against the legacy implementation, which
+ * re-encoded the file handle on every {@code hashCode} and {@code equals} call.
+ * The lookup mimics VfsCache: a handle arrives from the wire, is turned into an
+ * inode and is used as part of (parent, name) key.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class InodeBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class LookupCacheHolder {
+
+        @Param({"1024", "65536"})
+        private int entries;
+
+        private byte[][] handles;
+        private Map<LookupKey<Inode>, Inode> lookupCache;
+        private Map<LookupKey<LegacyInode>, LegacyInode> legacyLookupCache;
+
+        @Setup
+        public void setUp() {
+            handles = new byte[entries][];
+            lookupCache = new ConcurrentHashMap<>(entries);
+            legacyLookupCache = new ConcurrentHashMap<>(entries);
+
+            for (int i = 0; i < entries; i++) {
+                byte[] opaque = ("0:INODE:0000C37233174392456EB83E44844E8D28D6:" + i).getBytes(StandardCharsets.US_ASCII);
+                FileHandle fh = new FileHandle.FileHandleBuilder()
+                        .setExportIdx("/export/data".hashCode())
+                        .build(opaque);
+
+                handles[i] = fh.bytes();
+                lookupCache.put(new LookupKey<>(new Inode(fh), "file"), new Inode(fh));
+                legacyLookupCache.put(new LookupKey<>(new LegacyInode(fh), "file"), new LegacyInode(fh));
+            }
+        }
+
+        byte[] nextHandle() {
+            return handles[ThreadLocalRandom.current().nextInt(handles.length)];
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public Inode lookupByInode(LookupCacheHolder holder) {
+        Inode parent = new Inode(holder.nextHandle());
+        return holder.lookupCache.get(new LookupKey<>(parent, "file"));
+    }
+
+    @Benchmark
+    @Threads(16)
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public LegacyInode lookupByLegacyInode(LookupCacheHolder holder) {
+        LegacyInode parent = new LegacyInode(new FileHandle(holder.nextHandle()));
+        return holder.legacyLookupCache.get(new LookupKey<>(parent, "file"));
+    }
+
+    /**
+     * VfsCache-like lookup key.
+     */
+    private static class LookupKey<T> {
+
+        private final T parent;
+        private final String name;
+
+        LookupKey(T parent, String name) {
+            this.parent = parent;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof LookupKey)) {
+                return false;
+            }
+            LookupKey<?> other = (LookupKey<?>) obj;
+            return other.parent.equals(parent) && other.name.equals(name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, parent);
+        }
+    }
+
+    /**
+     * Inode as it used to be: file handle serialized on every hashCode and equals.
+     */
+    public static class LegacyInode {
+
+        private final FileHandle fh;
+
+        LegacyInode(FileHandle fh) {
+            this.fh = fh;
+        }
+
+        private byte[] bytes() {
+            byte[] opaque = fh.getFsOpaque();
+            byte[] bytes = new byte[opaque.length + 14];
+            ByteBuffer b = ByteBuffer.wrap(bytes);
+            b.order(ByteOrder.BIG_ENDIAN);
+
+            b.putInt(fh.getVersion() << 24 | fh.getMagic());
+            b.putInt(fh.getGeneration());
+            b.putInt(fh.getExportIdx());
+            b.put((byte) fh.getType());
+            b.put((byte) opaque.length);
+            b.put(opaque);
+            return bytes;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(bytes());
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            return Arrays.equals(bytes(), ((LegacyInode) obj).bytes());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(InodeBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,205 @@
+package org.dcache.nfs.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.dcache.nfs.v4.CompoundBuilder;
+import org.dcache.nfs.v4.CompoundContext;
+import org.dcache.nfs.v4.CompoundContextBuilder;
+import org.dcache.nfs.v4.NFS4Client;
+import org.dcache.nfs.v4.NFSv41Session;
+import org.dcache.nfs.v4.NFSv4StateHandler;
+import org.dcache.nfs.v4.OperationREAD;
+import org.dcache.nfs.v4.OperationREAD_PLUS;
+import org.dcache.nfs.v4.StateOwner;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.seqid4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.v4.xdr.verifier4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.nfs.vfs.VirtualFileSystem.ContentType;
+import org.dcache.oncrpc4j.rpc.RpcAuthTypeUnix;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares READ and READ_PLUS of a sparse file. The {@code wireBytes} counter
+ * shows the size of encoded replies, i.e. the bytes sent to the client.
+ */
+@BenchmarkMode(Mode.Throughput)
+public class SparseReadBenchmark {
+
+    /**
+     * The file consists of chunks, each starts with data followed by a hole.
+     */
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final long FILE_SIZE = 16 * CHUNK_SIZE;
+
+    /**
+     * Bytes requested by a single read, as Linux client does with default rsize.
+     */
+    private static final int READ_SIZE = 1024 * 1024;
+
+    @State(Scope.Benchmark)
+    public static class SparseFileHolder {
+
+        @Param({"0", "50", "90"})
+        private int holePercent;
+
+        private NFSv4StateHandler stateHandler;
+        private CompoundContext context;
+        private stateid4 stateid;
+
+        @Setup
+        public void setUp() throws Exception {
+
+            Inode inode = Inode.forFile("sparse-file".getBytes(StandardCharsets.UTF_8));
+            long dataLength = (long) CHUNK_SIZE * (100 - holePercent) / 100;
+
+            Stat stat = new Stat();
+            stat.setMode(Stat.S_IFREG | 0644);
+            stat.setSize(FILE_SIZE);
+
+            // only the methods used by the read operations are provided
+            InvocationHandler handler = (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getattr":
+                        return stat;
+                    case "read":
+                        ByteBuffer data = (ByteBuffer) args[1];
+                        long offset = (long) args[2];
+                        int n = (int) Math.min(data.remaining(), FILE_SIZE - offset);
+                        data.position(data.position() + n);
+                        return n;
+                    case "seek":
+                        return seek((long) args[1], (ContentType) args[2], dataLength);
+                    default:
+                        if (method.isDefault()) {
+                            return InvocationHandler.invokeDefault(proxy, method, args);
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            };
+            VirtualFileSystem fs = (VirtualFileSystem) Proxy.newProxyInstance(VirtualFileSystem.class.getClassLoader(),
+                    new Class<?>[]{VirtualFileSystem.class}, handler);
+
+            stateHandler = new NFSv4StateHandler();
+            InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), 123);
+            NFS4Client client = stateHandler.createClient(address, address, 2,
+                    "sparse-reader".getBytes(StandardCharsets.UTF_8), new verifier4(new byte[8]), null, false);
+            NFSv41Session session = client.createSession(1, 0, 0, 16, 16);
+            StateOwner owner = client.getOrCreateOwner("reader".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+            stateid = stateHandler.getFileTracker()
+                    .addOpen(client, owner, inode, nfs4_prot.OPEN4_SHARE_ACCESS_READ, 0)
+                    .openStateId();
+
+            RpcCall call = new RpcCall(nfs4_prot.NFS4_PROGRAM, nfs4_prot.NFS_V4,
+                    new RpcAuthTypeUnix(1, 1, new int[]{1}, 1, "localhost"), null);
+
+            context = new CompoundContextBuilder()
+                    .withFs(fs)
+                    .withMinorversion(2)
+                    .withStateHandler(stateHandler)
+                    .withSession(session)
+                    .withCall(call)
+                    .build();
+            context.currentInode(inode);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            stateHandler.shutdown();
+        }
+
+        private static long seek(long offset, ContentType what, long dataLength) {
+            long chunk = offset - offset % CHUNK_SIZE;
+            boolean inData = offset % CHUNK_SIZE < dataLength;
+            if (what == ContentType.DATA) {
+                if (dataLength == 0) {
+                    return FILE_SIZE;
+                }
+                return inData ? offset : Math.min(chunk + CHUNK_SIZE, FILE_SIZE);
+            }
+            if (dataLength == CHUNK_SIZE) {
+                return FILE_SIZE;
+            }
+            return inData ? chunk + dataLength : offset;
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireBytes {
+
+        public long wireBytes;
+
+        void add(nfs_resop4 result) throws IOException {
+            try (Xdr xdr = new Xdr(READ_SIZE + 1024)) {
+                xdr.beginEncoding();
+                result.xdrEncode(xdr);
+                xdr.endEncoding();
+                wireBytes += xdr.getBytes().length;
+            }
+        }
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public nfs_resop4 read(SparseFileHolder holder, WireBytes counter) throws IOException {
+        nfs_argop4 op = new CompoundBuilder()
+                .withRead(READ_SIZE, 0, holder.stateid)
+                .build().argarray[0];
+
+        nfs_resop4 result = nfs_resop4.resopFor(nfs_opnum4.OP_READ);
+        new OperationREAD(op).process(holder.context, result);
+        counter.add(result);
+        return result;
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, time = 100, timeUnit = TimeUnit.MILLISECONDS)
+    public nfs_resop4 readPlus(SparseFileHolder holder, WireBytes counter) throws IOException {
+        nfs_argop4 op = new CompoundBuilder()
+                .withReadPlus(READ_SIZE, 0, holder.stateid)
+                .build().argarray[0];
+
+        nfs_resop4 result = nfs_resop4.resopFor(nfs_opnum4.OP_READ_PLUS);
+        new OperationREAD_PLUS(op).process(holder.context, result);
+        counter.add(result);
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(SparseReadBenchmark.class.getSimpleName())
+                .resultFormat(ResultFormatType.JSON)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -29,6 +29,13 @@ import java.util.stream.Stream;
  */
 public interface ExportTable {
 
+    /**
+     * Generation value of export tables which do not track modifications.
+     *
+     * @since 0.28
+     */
+    long NO_GENERATION = -1L;
+
     /**
      * Get a {@link Stream} of all exports registered within this db.
      *
@@ -64,4 +71,17 @@ public interface ExportTable {
      * entries found.
      */
     FsExport getExport(int index, InetAddress client);
+
+    /**
+     * Get the generation of this export table. The generation changes every time
+     * the set of exports is modified, thus can be used by consumers to detect that
+     * information derived from the export table have to be re-calculated.
+     * Export tables which do not track modifications return {@link #NO_GENERATION}.
+     *
+     * @return current generation of the export table.
+     * @since 0.28
+     */
+    default long generation() {
+        return NO_GENERATION;
+    }
 }
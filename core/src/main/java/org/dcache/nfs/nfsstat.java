@@ -617,6 +617,8 @@ public final class nfsstat {
                 throw new DelegRevokedException();
             case nfsstat.NFS4ERR_OFFLOAD_NO_REQS:
                 throw new OffloadNoReqsException();
+            case nfsstat.NFS4ERR_UNION_NOTSUPP:
+                throw new UnionNotSuppException();
             default:
                 throw new BadXdrException();
         }
@@ -0,0 +1,288 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of reusable {@link ByteBuffer}s. Buffers are organized in size classes
+ * of power of two, starting with {@link #MIN_BUFFER_SIZE} bytes up to the
+ * configured maximal buffer size. Requests for larger buffers are served by
+ * a plain allocation and such buffers are never pooled. The amount of memory
+ * kept by idle buffers is bounded; released buffers which don't fit into the
+ * pool are left to the garbage collector.
+ *
+ * Heap and direct buffers are pooled separately. A buffer returned by
+ * {@link #acquire(int)} or {@link #acquireDirect(int)} has position zero and
+ * the limit set to the requested size.
+ *
+ * @since 0.28
+ */
+public class BufferPool {
+
+    /**
+     * The smallest pooled buffer size.
+     */
+    public static final int MIN_BUFFER_SIZE = 4096;
+
+    /**
+     * Default maximal size of a pooled buffer.
+     */
+    public static final int DEFAULT_MAX_BUFFER_SIZE = 1024 * 1024;
+
+    /**
+     * Default maximal amount of memory, in bytes, kept by idle buffers of one
+     * kind (heap or direct).
+     */
+    public static final long DEFAULT_MAX_POOLED_BYTES = 64 * 1024 * 1024;
+
+    private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_BUFFER_SIZE);
+
+    private final String _name;
+    private final int _maxBufferSize;
+    private final long _maxPooledBytes;
+
+    private final Arena _heap;
+    private final Arena _direct;
+
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _oversized = new LongAdder();
+    private final LongAdder _releases = new LongAdder();
+    private final LongAdder _drops = new LongAdder();
+
+    /**
+     * Create a new pool with default limits.
+     *
+     * @param name name under which pool statistics is exposed via JMX.
+     */
+    public BufferPool(String name) {
+        this(name, DEFAULT_MAX_BUFFER_SIZE, DEFAULT_MAX_POOLED_BYTES);
+    }
+
+    /**
+     * Create a new pool.
+     *
+     * @param name name under which pool statistics is exposed via JMX.
+     * @param maxBufferSize the largest buffer size to pool. Rounded up to power of two.
+     * @param maxPooledBytes maximal amount of memory, in bytes, kept by idle
+     * buffers of one kind (heap or direct).
+     */
+    public BufferPool(String name, int maxBufferSize, long maxPooledBytes) {
+        Preconditions.checkArgument(maxBufferSize >= MIN_BUFFER_SIZE,
+                "max buffer size must be at least %s", MIN_BUFFER_SIZE);
+        Preconditions.checkArgument(maxBufferSize <= 1 << 30, "max buffer size is too large");
+        Preconditions.checkArgument(maxPooledBytes >= 0, "negative pool size");
+
+        _name = name;
+        _maxBufferSize = classSize(sizeClassOf(maxBufferSize));
+        _maxPooledBytes = maxPooledBytes;
+
+        int sizeClasses = sizeClassOf(_maxBufferSize) + 1;
+        _heap = new Arena(sizeClasses);
+        _direct = new Arena(sizeClasses);
+
+        new BufferPoolMXBeanImpl(this);
+    }
+
+    /**
+     * Get a heap buffer of at least {@code size} bytes.
+     *
+     * @param size requested buffer size.
+     * @return a buffer with limit set to {@code size}.
+     */
+    public ByteBuffer acquire(int size) {
+        return acquire(_heap, size, false);
+    }
+
+    /**
+     * Get a direct buffer of at least {@code size} bytes.
+     *
+     * @param size requested buffer size.
+     * @return a buffer with limit set to {@code size}.
+     */
+    public ByteBuffer acquireDirect(int size) {
+        return acquire(_direct, size, true);
+    }
+
+    /**
+     * Return a buffer into the pool. The caller must not use the buffer,
+     * or any buffer derived from it, after this call. Buffers which don't
+     * match any size class are left to the garbage collector.
+     *
+     * @param buffer to return.
+     */
+    public void release(ByteBuffer buffer) {
+        _releases.increment();
+
+        int capacity = buffer.capacity();
+        if (capacity < MIN_BUFFER_SIZE || capacity > _maxBufferSize
+                || Integer.bitCount(capacity) != 1 || buffer.isReadOnly()) {
+            _drops.increment();
+            return;
+        }
+
+        Arena arena = buffer.isDirect() ? _direct : _heap;
+        if (arena.pooledBytes.addAndGet(capacity) > _maxPooledBytes) {
+            arena.pooledBytes.addAndGet(-capacity);
+            _drops.increment();
+            return;
+        }
+
+        buffer.clear();
+        arena.buffers[sizeClassOf(capacity)].offer(buffer);
+    }
+
+    private ByteBuffer acquire(Arena arena, int size, boolean direct) {
+        Preconditions.checkArgument(size >= 0, "negative buffer size");
+
+        if (size > _maxBufferSize) {
+            _oversized.increment();
+            return direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        }
+
+        int sizeClass = sizeClassOf(size);
+        ByteBuffer buffer = arena.buffers[sizeClass].poll();
+        if (buffer == null) {
+            _misses.increment();
+            int capacity = classSize(sizeClass);
+            buffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        } else {
+            _hits.increment();
+            arena.pooledBytes.addAndGet(-buffer.capacity());
+        }
+
+        buffer.limit(size);
+        return buffer;
+    }
+
+    private static int sizeClassOf(int size) {
+        if (size <= MIN_BUFFER_SIZE) {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(size - 1) - MIN_SHIFT;
+    }
+
+    private static int classSize(int sizeClass) {
+        return MIN_BUFFER_SIZE << sizeClass;
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public int getMaxBufferSize() {
+        return _maxBufferSize;
+    }
+
+    /**
+     * Number of requests served by a pooled buffer.
+     */
+    public long getHitCount() {
+        return _hits.sum();
+    }
+
+    /**
+     * Number of requests which required a new pooled buffer to be allocated.
+     */
+    public long getMissCount() {
+        return _misses.sum();
+    }
+
+    /**
+     * Number of requests larger than the maximal pooled buffer size.
+     */
+    public long getOversizedCount() {
+        return _oversized.sum();
+    }
+
+    /**
+     * Number of buffers returned into the pool.
+     */
+    public long getReleaseCount() {
+        return _releases.sum();
+    }
+
+    /**
+     * Number of returned buffers which were not kept by the pool.
+     */
+    public long getDropCount() {
+        return _drops.sum();
+    }
+
+    /**
+     * Amount of memory, in bytes, kept by idle heap buffers.
+     */
+    public long getPooledHeapBytes() {
+        return _heap.pooledBytes.get();
+    }
+
+    /**
+     * Amount of memory, in bytes, kept by idle direct buffers.
+     */
+    public long getPooledDirectBytes() {
+        return _direct.pooledBytes.get();
+    }
+
+    /**
+     * Discard all idle buffers.
+     */
+    public void clear() {
+        _heap.clear();
+        _direct.clear();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BufferPool[%s, hits: %d, misses: %d, oversized: %d, drops: %d]",
+                _name, getHitCount(), getMissCount(), getOversizedCount(), getDropCount());
+    }
+
+    /**
+     * Idle buffers of one kind.
+     */
+    private static class Arena {
+
+        private final Queue<ByteBuffer>[] buffers;
+        private final AtomicLong pooledBytes = new AtomicLong();
+
+        @SuppressWarnings("unchecked")
+        Arena(int sizeClasses) {
+            buffers = new Queue[sizeClasses];
+            for (int i = 0; i < sizeClasses; i++) {
+                buffers[i] = new ConcurrentLinkedQueue<>();
+            }
+        }
+
+        void clear() {
+            for (Queue<ByteBuffer> q : buffers) {
+                ByteBuffer b;
+                while ((b = q.poll()) != null) {
+                    pooledBytes.addAndGet(-b.capacity());
+                }
+            }
+        }
+    }
+}
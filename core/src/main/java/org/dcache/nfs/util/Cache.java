@@ -23,13 +23,13 @@ import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import java.util.MissingResourceException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.concurrent.locks.StampedLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -52,6 +52,11 @@ import static com.google.common.base.Preconditions.checkArgument;
  *     }
  *
  * </pre>
+ *
+ * The entries are kept in a concurrent map, thus lookups do not block each other
+ * or updates. The expiration of entries is tracked by a {@link TimerWheel}, so
+ * {@link #cleanUp()} inspects only entries which might have expired.
+ *
  * @author Tigran Mkrtchyan
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of cached values
@@ -87,12 +92,23 @@ public class Cache<K, V> {
     /**
      * The storage.
      */
-    private final Map<K, CacheElement<V>> _storage;
+    private final ConcurrentHashMap<K, Node<K, V>> _storage;
+
+    /**
+     * Number of entries in the storage.
+     */
+    private final AtomicInteger _count = new AtomicInteger();
 
     /**
-     * Internal storage access lock.
+     * Expiration time tracker.
      */
-    private final StampedLock _accessLock = new StampedLock();
+    private final TimerWheel<Node<K, V>> _timerWheel;
+
+    /**
+     * Lock to serialize cleanups.
+     */
+    private final Lock _cleanLock = new ReentrantLock();
+
     /**
      * Cache event listener.
      */
@@ -156,11 +172,12 @@ public class Cache<K, V> {
         _size = size;
         _defaultEntryMaxLifeTime = entryLifeTime;
         _defaultEntryIdleTime = entryIdleTime;
-        _storage = new HashMap<>(_size);
+        _storage = new ConcurrentHashMap<>(_size);
         _eventListener = eventListener;
         _mxBean = new CacheMXBeanImpl<>(this);
         _timeSource = clock;
         _lastClean = new AtomicReference<>(_timeSource.instant());
+        _timerWheel = new TimerWheel<>(_timeSource.millis());
     }
 
     /**
@@ -196,16 +213,20 @@ public class Cache<K, V> {
     public void put(K k, V v, Duration entryMaxLifeTime, Duration entryIdleTime) {
         _log.debug("Adding new cache entry: key = [{}], value = [{}]", k, v);
 
-        long stamp = _accessLock.writeLock();
-        try {
-            if( _storage.size() >= _size && !_storage.containsKey(k)) {
-                _log.warn("Cache limit reached: {}", _size);
-                throw new MissingResourceException("Cache limit reached", Cache.class.getName(), "");
+        Node<K, V> node = new Node<>(k, new CacheElement<>(v, _timeSource, entryMaxLifeTime, entryIdleTime));
+        _storage.compute(k, (key, old) -> {
+            if (old == null) {
+                if (_count.incrementAndGet() > _size) {
+                    _count.decrementAndGet();
+                    _log.warn("Cache limit reached: {}", _size);
+                    throw new MissingResourceException("Cache limit reached", Cache.class.getName(), "");
+                }
+            } else {
+                _timerWheel.remove(old);
             }
-            _storage.put(k, new CacheElement<>(v, _timeSource, entryMaxLifeTime, entryIdleTime));
-        } finally {
-            _accessLock.unlock(stamp);
-        }
+            return node;
+        });
+        _timerWheel.schedule(node, _timeSource.millis());
 
         _eventListener.notifyPut(this, v);
     }
@@ -218,48 +239,28 @@ public class Cache<K, V> {
      */
     public V get(K k) {
 
-        V v;
-        boolean valid;
-        boolean removed = false;
-
-        long stamp = _accessLock.readLock();
-        try {
-            CacheElement<V> element = _storage.get(k);
-
-            if (element == null) {
-                _log.debug("No cache hits for key = [{}]", k);
-                return null;
-            }
-
-            valid = element.validAt(_timeSource.instant());
-            v = element.getObject();
-
-            if ( !valid ) {
-                _log.debug("Cache hits but entry expired for key = [{}], value = [{}]", k, v);
-                long ws = _accessLock.tryConvertToWriteLock(stamp);
-                if (ws != 0L) {
-                    stamp = ws;
-                } else {
-                    _accessLock.unlock(stamp);
-                    stamp = _accessLock.writeLock();
-                }
-                removed = _storage.remove(k) != null;
-            } else {
-                _log.debug("Cache hits for key = [{}], value = [{}]", k, v);
-            }
-        } finally {
-            _accessLock.unlock(stamp);
+        Node<K, V> node = _storage.get(k);
+        if (node == null) {
+            _log.debug("No cache hits for key = [{}]", k);
+            return null;
         }
 
-        if(!valid) {
+        CacheElement<V> element = node.element;
+        if (!element.validAt(_timeSource.instant())) {
+            V v = element.peekObject();
+            _log.debug("Cache hits but entry expired for key = [{}], value = [{}]", k, v);
+
             // notify only if this thread have removed the expired entry
-            if (removed) {
+            if (discard(node)) {
                 _eventListener.notifyExpired(this, v);
             }
-            v = null;
-        }else{
-            _eventListener.notifyGet(this, v);
+            return null;
         }
+
+        // the new deadline is picked up by timer wheel lazily
+        V v = element.getObject();
+        _log.debug("Cache hits for key = [{}], value = [{}]", k, v);
+        _eventListener.notifyGet(this, v);
         return v;
     }
 
@@ -272,18 +273,15 @@ public class Cache<K, V> {
      */
     public V remove(K k) {
 
-        V v;
-        boolean valid;
-
-        long stamp = _accessLock.writeLock();
-        try {
-            CacheElement<V> element = _storage.remove(k);
-            if( element == null ) return null;
-            valid = element.validAt(_timeSource.instant());
-            v = element.getObject();
-        } finally {
-            _accessLock.unlock(stamp);
+        Node<K, V> node = _storage.remove(k);
+        if (node == null) {
+            return null;
         }
+        _count.decrementAndGet();
+        _timerWheel.remove(node);
+
+        boolean valid = node.element.validAt(_timeSource.instant());
+        V v = node.element.getObject();
 
         _log.debug("Removing entry: active = [{}] key = [{}], value = [{}]",
                 valid, k, v);
@@ -299,13 +297,7 @@ public class Cache<K, V> {
      * @return number of elements.
      */
     int size() {
-
-        long stamp = _accessLock.readLock();
-        try {
-          return _storage.size();
-        } finally {
-            _accessLock.unlock(stamp);
-        }
+        return _storage.size();
     }
 
     /**
@@ -332,13 +324,7 @@ public class Cache<K, V> {
     public void clear() {
 
         _log.debug("Cleaning the cache");
-
-        long stamp = _accessLock.writeLock();
-        try {
-            _storage.clear();
-        } finally {
-            _accessLock.unlock(stamp);
-        }
+        _storage.values().forEach(this::discard);
     }
 
     /**
@@ -347,24 +333,25 @@ public class Cache<K, V> {
     public void cleanUp() {
         List<V> expiredEntries = new ArrayList<>();
 
-        long stamp = _accessLock.writeLock();
+        _cleanLock.lock();
         try {
             Instant now = _timeSource.instant();
-            Iterator<Map.Entry<K, CacheElement<V>>> entries = _storage.entrySet().iterator();
-            while (entries.hasNext()) {
-                Map.Entry<K, CacheElement<V>> entry = entries.next();
-                CacheElement<V> cacheElement = entry.getValue();
+            _timerWheel.advance(now.toEpochMilli(), node -> {
+                CacheElement<V> cacheElement = node.element;
+                if (cacheElement.validAt(now)) {
+                    return false;
+                }
 
-                if (!cacheElement.validAt(now)) {
+                if (discard(node)) {
                     _log.debug("Cleaning expired entry key = [{}], value = [{}]",
-                            entry.getKey(), cacheElement.getObject());
-                    entries.remove();
-                    expiredEntries.add(cacheElement.getObject());
+                            node.key, cacheElement.peekObject());
+                    expiredEntries.add(cacheElement.peekObject());
                 }
-            }
+                return true;
+            });
             _lastClean.set(now);
         } finally {
-            _accessLock.unlock(stamp);
+            _cleanLock.unlock();
         }
 
         expiredEntries.forEach( v -> _eventListener.notifyExpired(this, v));
@@ -375,19 +362,47 @@ public class Cache<K, V> {
      * @return list of entries.
      */
     public List<CacheElement<V>> entries() {
-        List<CacheElement<V>> entries;
-
-        long stamp = _accessLock.readLock();
-        try {
-            entries = new ArrayList<>(_storage.size());
-            entries.addAll(_storage.values());
-        } finally {
-            _accessLock.unlock(stamp);
-        }
+        List<CacheElement<V>> entries = new ArrayList<>(_storage.size());
+        _storage.values().forEach(n -> entries.add(n.element));
         return entries;
     }
 
     public Instant lastClean() {
         return _lastClean.get();
     }
+
+    /**
+     * Remove given entry from the storage, unless it was already replaced or removed.
+     *
+     * @param node the entry to remove.
+     * @return true, if entry was removed by this call.
+     */
+    private boolean discard(Node<K, V> node) {
+        if (!_storage.remove(node.key, node)) {
+            return false;
+        }
+        _count.decrementAndGet();
+        _timerWheel.remove(node);
+        return true;
+    }
+
+    /**
+     * Storage entry which binds a cached element with its key and position
+     * in the timer wheel.
+     */
+    private static class Node<K, V> extends TimerWheel.Node {
+
+        private final K key;
+        private final CacheElement<V> element;
+
+        Node(K key, CacheElement<V> element) {
+            this.key = key;
+            this.element = element;
+        }
+
+        @Override
+        long expiresAt() {
+            return element.expiresAt();
+        }
+    }
 }
@@ -48,7 +48,7 @@ public class CacheElement<V> {
     /**
      * Elements last access time.
      */
-    private Instant _lastAccessTime;
+    private volatile Instant _lastAccessTime;
     /**
      * internal object.
      */
@@ -97,6 +97,24 @@ public class CacheElement<V> {
               Duration.between(_creationTime, instant).compareTo(_maxLifeTime) <= 0;
     }
 
+    /**
+     * Get the time, in milliseconds since the epoch, after which the entry
+     * is not valid anymore.
+     *
+     * @return entry's expiration time.
+     */
+    long expiresAt() {
+        return Math.min(plus(_creationTime, _maxLifeTime), plus(_lastAccessTime, _idleTime));
+    }
+
+    private static long plus(Instant instant, Duration duration) {
+        try {
+            return Math.addExact(instant.toEpochMilli(), duration.toMillis());
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
     @Override
     public String toString() {
         Instant now = _clock.instant();
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utility methods to bridge blocking code, which throws {@link IOException},
+ * and {@link CompletableFuture} based code.
+ *
+ * @since 0.28
+ */
+public class CompletableFutures {
+
+    private CompletableFutures() {}
+
+    /**
+     * A computation which may throw {@link IOException}.
+     *
+     * @param <T> the type of result.
+     */
+    @FunctionalInterface
+    public interface IoCallable<T> {
+
+        T call() throws IOException;
+    }
+
+    /**
+     * Run the given computation in the calling thread and return the result
+     * as a completed future. If computation fails, the returned future is
+     * completed exceptionally with the thrown exception.
+     *
+     * @param <T> the type of result.
+     * @param callable the computation to run.
+     * @return a completed future.
+     */
+    public static <T> CompletableFuture<T> completeWith(IoCallable<T> callable) {
+        try {
+            return CompletableFuture.completedFuture(callable.call());
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Run the given computation in the calling thread and return the future
+     * it produces. If computation fails, a future completed exceptionally
+     * with the thrown exception is returned.
+     *
+     * @param <T> the type of result.
+     * @param callable the computation which starts an asynchronous action.
+     * @return a future representing the started action.
+     */
+    public static <T> CompletableFuture<T> composeWith(IoCallable<CompletableFuture<T>> callable) {
+        try {
+            return callable.call();
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Get the original exception wrapped by {@link CompletionException}
+     * or {@link ExecutionException}.
+     *
+     * @param t the exception to unwrap.
+     * @return the cause of the failure.
+     */
+    public static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException)
+                && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Wait for the future to complete and return its result. If the future
+     * completes exceptionally, the original exception is re-thrown.
+     *
+     * @param <T> the type of result.
+     * @param future the future to wait for.
+     * @return the result value.
+     * @throws IOException if the future completed with {@link IOException}.
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable t = unwrap(e);
+            Throwables.throwIfInstanceOf(t, IOException.class);
+            Throwables.throwIfUnchecked(t);
+            throw new IOException(t.getMessage(), t);
+        }
+    }
+}
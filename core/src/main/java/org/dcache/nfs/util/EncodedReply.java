@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.io.IOException;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.dcache.oncrpc4j.xdr.XdrDecodingStream;
+import org.dcache.oncrpc4j.xdr.XdrEncodingStream;
+
+/**
+ * An already XDR encoded reply, which is sent as is. Allows to send a reply,
+ * which is cached in encoded form, without encoding it again.
+ *
+ * The reply is sent without length prefix, thus it's decoded as an opaque of
+ * the same size.
+ *
+ * @since 0.28
+ */
+public class EncodedReply implements XdrAble {
+
+    private final byte[] _reply;
+
+    /**
+     * Create new encoded reply.
+     *
+     * @param reply XDR encoded reply.
+     */
+    public EncodedReply(byte[] reply) {
+        _reply = reply;
+    }
+
+    @Override
+    public void xdrEncode(XdrEncodingStream xdr) throws OncRpcException, IOException {
+        // the reply is XDR encoded, thus already aligned
+        xdr.xdrEncodeOpaque(_reply, _reply.length);
+    }
+
+    @Override
+    public void xdrDecode(XdrDecodingStream xdr) throws OncRpcException, IOException {
+        xdr.xdrDecodeOpaque(_reply, 0, _reply.length);
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values with bounded relative error.
+ * Values are recorded into logarithmic buckets, each divided into
+ * {@value #SUB_BUCKETS} linear sub-buckets, thus the reported percentiles are
+ * within ~6% of the recorded values. Values larger than {@link #MAX_VALUE}
+ * are counted in the highest bucket.
+ *
+ * Recording is wait-free and doesn't allocate, which makes the histogram
+ * suitable for request latency tracking on every request.
+ *
+ * @since 0.28
+ */
+public class Histogram {
+
+    /**
+     * Number of bits used for linear sub-buckets.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /**
+     * Number of linear sub-buckets within each logarithmic bucket.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Largest value tracked with bounded error. With nanoseconds as unit
+     * that is about 36 minutes.
+     */
+    public static final long MAX_VALUE = (1L << 41) - 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(indexOf(MAX_VALUE) + 1);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Record a value.
+     *
+     * @param value the value to record. Negative values are recorded as zero.
+     */
+    public void record(long value) {
+        long v = Math.max(0, value);
+        buckets.incrementAndGet(indexOf(Math.min(v, MAX_VALUE)));
+        count.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * Get number of recorded values.
+     *
+     * @return number of recorded values.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Get the largest recorded value.
+     *
+     * @return the largest recorded value or zero, if no values are recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Get arithmetic mean of recorded values.
+     *
+     * @return mean of recorded values or zero, if no values are recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Get the value at the given percentile. The returned value is the upper
+     * bound of the bucket which contains the requested percentile, but never
+     * larger than the largest recorded value.
+     *
+     * @param percentile the percentile in range 0.0 to 100.0.
+     * @return the value at given percentile or zero, if no values are recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+
+        if (percentile < 0.0 || percentile > 100.0) {
+            throw new IllegalArgumentException("Invalid percentile: " + percentile);
+        }
+
+        // take a snapshot, as values might be recorded concurrently
+        long[] snapshot = new long[buckets.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                // the last bucket counts values above MAX_VALUE as well
+                return i == snapshot.length - 1 ? getMax() : Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get bucket index of a value in range [0, MAX_VALUE].
+     */
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (shift + 1) + subBucket;
+    }
+
+    /**
+     * Get the largest value which falls into the bucket with given index.
+     */
+    static long highestValueOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
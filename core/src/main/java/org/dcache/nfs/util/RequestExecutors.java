@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.rpc.RpcDispatchable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Utility methods to process RPC requests on an executor other than the
+ * oncrpc4j worker pool.
+ *
+ * @since 0.28
+ */
+public class RequestExecutors {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RequestExecutors.class);
+
+    private RequestExecutors() {}
+
+    /**
+     * Returns an executor that starts a new virtual thread for each request.
+     * Virtual threads are not blocked by file system calls, thus a handful
+     * of slow requests can't starve other requests.
+     *
+     * @return a new virtual-thread-per-task executor.
+     * @throws UnsupportedOperationException if the running JVM has no support
+     * for virtual threads.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        // the code is compiled for java 17, thus the method has to be looked up at runtime.
+        try {
+            return (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this JVM", e);
+        } catch (InvocationTargetException e) {
+            throw new UnsupportedOperationException("Virtual threads are not enabled: "
+                    + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * Dispatch RPC request to the {@code dispatchable} by a thread of the
+     * given executor. The errors, which would be handled by oncrpc4j
+     * dispatcher, are turned into RPC level failures.
+     *
+     * @param executor the executor to process the request.
+     * @param call the RPC request.
+     * @param dispatchable the request handler.
+     */
+    public static void dispatch(Executor executor, RpcCall call, RpcDispatchable dispatchable) {
+        try {
+            executor.execute(() -> {
+                try {
+                    dispatchable.dispatchOncRpcCall(call);
+                } catch (OncRpcException e) {
+                    LOGGER.warn("Failed to decode RPC request: {}", e.getMessage());
+                    call.failRpcGarbage();
+                } catch (IOException | RuntimeException e) {
+                    LOGGER.error("Failed to process RPC request: {}", e.getMessage(), e);
+                    call.failRpcSystem();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            LOGGER.error("Failed to schedule RPC request: {}", e.getMessage());
+            call.failRpcSystem();
+        }
+    }
+}
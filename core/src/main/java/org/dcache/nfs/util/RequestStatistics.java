@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import org.dcache.nfs.nfsstat;
+
+/**
+ * Request processing statistics of an NFS server: per operation request and
+ * error counts, latency histograms, errors by NFS status, number of operations
+ * per compound and amount of data read and written.
+ *
+ * All recording methods are lock-free and cheap enough to be called for every
+ * request. Statistics is kept for a fixed set of operations, any other
+ * operation number sent by a client is recorded as the illegal operation.
+ *
+ * @since 0.28
+ */
+public class RequestStatistics {
+
+    private final String _name;
+
+    /**
+     * Function to get a human readable name of an operation.
+     */
+    private final IntFunction<String> _opNames;
+
+    /**
+     * Operation number under which unknown operations are recorded.
+     */
+    private final int _illegalOp;
+
+    /**
+     * Statistics indexed by operation number, created on first use. The last
+     * element holds statistics of the illegal operation.
+     */
+    private final AtomicReferenceArray<OperationStatistics> _operations;
+    private final Map<Integer, LongAdder> _errorsByStatus = new ConcurrentHashMap<>();
+    private final Histogram _compoundLength = new Histogram();
+    private final LongAdder _bytesRead = new LongAdder();
+    private final LongAdder _bytesWritten = new LongAdder();
+
+    /**
+     * Create new statistics.
+     *
+     * @param name name of the statistics.
+     * @param opCount number of known operations. Operations numbers are
+     * expected in range {@code [0, opCount)}.
+     * @param illegalOp operation number under which operations outside of the
+     * known range are recorded.
+     * @param opNames function to get a human readable name of an operation.
+     */
+    public RequestStatistics(String name, int opCount, int illegalOp, IntFunction<String> opNames) {
+        _name = name;
+        _illegalOp = illegalOp;
+        _opNames = opNames;
+        _operations = new AtomicReferenceArray<>(opCount + 1);
+    }
+
+    /**
+     * Record a processed request.
+     *
+     * @param op the operation or procedure number.
+     * @param status NFS status of the request.
+     * @param latency request processing time in nanoseconds.
+     */
+    public void record(int op, int status, long latency) {
+        int index = indexOf(op);
+        OperationStatistics stats = _operations.get(index);
+        if (stats == null) {
+            _operations.compareAndSet(index, null, new OperationStatistics());
+            stats = _operations.get(index);
+        }
+
+        stats.latency.record(latency);
+        if (status != nfsstat.NFS_OK) {
+            stats.errors.increment();
+            _errorsByStatus.computeIfAbsent(status, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Record number of operations in a compound request.
+     *
+     * @param length number of operations.
+     */
+    public void recordCompound(int length) {
+        _compoundLength.record(length);
+    }
+
+    /**
+     * Record amount of data read by a client.
+     *
+     * @param n number of bytes.
+     */
+    public void addBytesRead(long n) {
+        _bytesRead.add(n);
+    }
+
+    /**
+     * Record amount of data written by a client.
+     *
+     * @param n number of bytes.
+     */
+    public void addBytesWritten(long n) {
+        _bytesWritten.add(n);
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * Get latency histogram of the given operation.
+     *
+     * @param op the operation or procedure number.
+     * @return latency histogram in nanoseconds or {@code null}, if operation
+     * was never recorded.
+     */
+    public Histogram getLatency(int op) {
+        OperationStatistics stats = _operations.get(indexOf(op));
+        return stats == null ? null : stats.latency;
+    }
+
+    public Map<String, Long> getRequestCount() {
+        return collect(s -> s.latency.getCount());
+    }
+
+    public Map<String, Long> getErrorCount() {
+        return collect(s -> s.errors.sum());
+    }
+
+    public Map<String, Long> getErrorCountByStatus() {
+        return _errorsByStatus.entrySet().stream()
+                .collect(Collectors.toMap(e -> nfsstat.toString(e.getKey()), e -> e.getValue().sum()));
+    }
+
+    public Map<String, Long> getMeanLatencyMicros() {
+        return collect(s -> TimeUnit.NANOSECONDS.toMicros((long) s.latency.getMean()));
+    }
+
+    public Map<String, Long> getLatencyPercentileMicros(double percentile) {
+        return collect(s -> TimeUnit.NANOSECONDS.toMicros(s.latency.getValueAtPercentile(percentile)));
+    }
+
+    public Map<String, Long> getMaxLatencyMicros() {
+        return collect(s -> TimeUnit.NANOSECONDS.toMicros(s.latency.getMax()));
+    }
+
+    public Histogram getCompoundLength() {
+        return _compoundLength;
+    }
+
+    public long getBytesRead() {
+        return _bytesRead.sum();
+    }
+
+    public long getBytesWritten() {
+        return _bytesWritten.sum();
+    }
+
+    private Map<String, Long> collect(ToLongFunction<OperationStatistics> f) {
+        Map<String, Long> values = new HashMap<>();
+        for (int i = 0; i < _operations.length(); i++) {
+            OperationStatistics stats = _operations.get(i);
+            if (stats != null) {
+                int op = i == _operations.length() - 1 ? _illegalOp : i;
+                values.put(_opNames.apply(op), f.applyAsLong(stats));
+            }
+        }
+        return values;
+    }
+
+    private int indexOf(int op) {
+        int illegalIndex = _operations.length() - 1;
+        return op >= 0 && op < illegalIndex ? op : illegalIndex;
+    }
+
+    private static class OperationStatistics {
+
+        private final Histogram latency = new Histogram();
+        private final LongAdder errors = new LongAdder();
+    }
+}
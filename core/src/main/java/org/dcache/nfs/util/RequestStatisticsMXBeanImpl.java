@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JMX wrapper for {@link RequestStatistics}.
+ */
+public class RequestStatisticsMXBeanImpl implements RequestStatisticsMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(RequestStatisticsMXBeanImpl.class);
+
+    private final RequestStatistics _statistics;
+
+    public RequestStatisticsMXBeanImpl(RequestStatistics statistics) {
+        _statistics = statistics;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = String.format("%s:type=RequestStatistics,name=%s",
+                    _statistics.getClass().getPackage().getName(), _statistics.getName());
+            ObjectName mxBeanName = new ObjectName(name);
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Long> getRequestCount() {
+        return _statistics.getRequestCount();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCount() {
+        return _statistics.getErrorCount();
+    }
+
+    @Override
+    public Map<String, Long> getErrorCountByStatus() {
+        return _statistics.getErrorCountByStatus();
+    }
+
+    @Override
+    public Map<String, Long> getMeanLatencyMicros() {
+        return _statistics.getMeanLatencyMicros();
+    }
+
+    @Override
+    public Map<String, Long> getMedianLatencyMicros() {
+        return _statistics.getLatencyPercentileMicros(50.0);
+    }
+
+    @Override
+    public Map<String, Long> getP99LatencyMicros() {
+        return _statistics.getLatencyPercentileMicros(99.0);
+    }
+
+    @Override
+    public Map<String, Long> getP999LatencyMicros() {
+        return _statistics.getLatencyPercentileMicros(99.9);
+    }
+
+    @Override
+    public Map<String, Long> getMaxLatencyMicros() {
+        return _statistics.getMaxLatencyMicros();
+    }
+
+    @Override
+    public long getCompoundCount() {
+        return _statistics.getCompoundLength().getCount();
+    }
+
+    @Override
+    public double getMeanCompoundLength() {
+        return _statistics.getCompoundLength().getMean();
+    }
+
+    @Override
+    public long getMaxCompoundLength() {
+        return _statistics.getCompoundLength().getMax();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return _statistics.getBytesRead();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return _statistics.getBytesWritten();
+    }
+}
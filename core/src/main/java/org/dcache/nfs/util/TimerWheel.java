@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A hierarchical timer wheel to track expiration of cache entries. Each level
+ * of the wheel consists of 64 buckets, where a bucket covers a time span
+ * 64 times larger than the bucket of the previous level. An entry is placed
+ * into a bucket that matches its expiration deadline. As time advances, only
+ * the buckets which became due are inspected. Entries from a higher level are
+ * moved down to lower levels, until they expire. Thus cost of expiration is
+ * proportional to the number of expired entries rather than the number of
+ * entries in the wheel.
+ *
+ * The deadline of an entry might change after it has been scheduled, for
+ * example, on access. Such entries are re-scheduled when their bucket becomes
+ * due.
+ *
+ * Schedule and remove operations are thread safe and can be called concurrently
+ * with each other. The {@link #advance(long, Predicate)} must not be called
+ * concurrently.
+ *
+ * @param <N> type of wheel nodes.
+ * @since 0.28
+ */
+class TimerWheel<N extends TimerWheel.Node> {
+
+    /**
+     * An entry of the wheel.
+     */
+    abstract static class Node {
+
+        /**
+         * The bucket in which node is scheduled.
+         */
+        volatile Set<Node> bucket;
+
+        /**
+         * Indicates that the node should not be scheduled anymore.
+         */
+        volatile boolean retired;
+
+        /**
+         * Get the time, in milliseconds, when node expires.
+         */
+        abstract long expiresAt();
+    }
+
+    /**
+     * Number of buckets at each level.
+     */
+    private static final int BUCKETS = 64;
+
+    /**
+     * Time spans of buckets, as power of two of milliseconds, at each level:
+     * ~1 second, ~1 minute, ~1 hour, ~3 days and ~6 months.
+     */
+    private static final int[] SHIFT = {10, 16, 22, 28, 34};
+
+    /**
+     * The maximal distance of the deadline to schedule. Nodes which expire
+     * later are re-scheduled when they become due.
+     */
+    private static final long MAX_DELAY = 1L << (SHIFT[SHIFT.length - 1] + 5);
+
+    private final Set<Node>[][] wheel;
+
+    /**
+     * The time, in milliseconds, up to which the wheel has been advanced.
+     */
+    private volatile long time;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long now) {
+        wheel = new Set[SHIFT.length][BUCKETS];
+        for (Set<Node>[] level : wheel) {
+            for (int i = 0; i < level.length; i++) {
+                level[i] = ConcurrentHashMap.newKeySet();
+            }
+        }
+        time = now;
+    }
+
+    /**
+     * Schedule a node according to its current deadline.
+     *
+     * @param node the node to schedule.
+     * @param now current time in milliseconds.
+     */
+    void schedule(N node, long now) {
+        long base = Math.max(now, time);
+        long deadline = Math.min(Math.max(node.expiresAt(), base), base + MAX_DELAY);
+        Set<Node> bucket = bucketOf(deadline, deadline - base);
+
+        node.bucket = bucket;
+        bucket.add(node);
+
+        // a concurrent remove might have missed us
+        if (node.retired) {
+            unschedule(node);
+        }
+    }
+
+    /**
+     * Remove a node from the wheel. The node will never be scheduled again.
+     *
+     * @param node the node to remove.
+     */
+    void remove(N node) {
+        node.retired = true;
+        unschedule(node);
+    }
+
+    /**
+     * Advance the wheel to the given time and process all nodes from buckets
+     * which became due. A processed node is dropped from the wheel, if
+     * {@code expire} predicate returns {@code true}, or re-scheduled otherwise.
+     *
+     * @param now current time in milliseconds.
+     * @param expire predicate which checks and handles nodes expiration.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long now, Predicate<N> expire) {
+        long previous = time;
+        time = Math.max(previous, now);
+
+        for (int level = 0; level < SHIFT.length; level++) {
+            long previousTicks = previous >>> SHIFT[level];
+            long currentTicks = now >>> SHIFT[level];
+
+            // the higher levels are not rolled over as well.
+            if (level > 0 && currentTicks <= previousTicks) {
+                break;
+            }
+
+            // the current bucket of the first level is always inspected
+            long delta = Math.max(currentTicks - previousTicks, 0);
+            int buckets = (int) Math.min(delta + 1, BUCKETS);
+            for (int i = 0; i < buckets; i++) {
+                Set<Node> bucket = wheel[level][(int) ((previousTicks + i) & (BUCKETS - 1))];
+                List<Node> due = new ArrayList<>(bucket);
+                for (Node node : due) {
+                    if (!bucket.remove(node)) {
+                        // removed concurrently
+                        continue;
+                    }
+                    node.bucket = null;
+                    if (!node.retired && !expire.test((N) node)) {
+                        schedule((N) node, now);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Remove all nodes from the wheel.
+     */
+    void clear() {
+        for (Set<Node>[] level : wheel) {
+            for (Set<Node> bucket : level) {
+                bucket.clear();
+            }
+        }
+    }
+
+    /**
+     * Get number of scheduled nodes.
+     */
+    int size() {
+        int size = 0;
+        for (Set<Node>[] level : wheel) {
+            for (Set<Node> bucket : level) {
+                size += bucket.size();
+            }
+        }
+        return size;
+    }
+
+    private Set<Node> bucketOf(long deadline, long delay) {
+        for (int level = 0; level < SHIFT.length - 1; level++) {
+            if (delay < 1L << (SHIFT[level + 1])) {
+                return wheel[level][(int) ((deadline >>> SHIFT[level]) & (BUCKETS - 1))];
+            }
+        }
+        int level = SHIFT.length - 1;
+        return wheel[level][(int) ((deadline >>> SHIFT[level]) & (BUCKETS - 1))];
+    }
+
+    private static void unschedule(Node node) {
+        Set<Node> bucket = node.bucket;
+        if (bucket != null) {
+            bucket.remove(node);
+        }
+    }
+}
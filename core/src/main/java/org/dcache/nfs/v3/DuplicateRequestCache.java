@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v3;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.CRC32C;
+import org.dcache.nfs.util.EncodedReply;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A duplicate request cache (DRC) for non-idempotent NFSv3 requests. A
+ * request is identified by client's address, RPC transaction id and checksum
+ * of request arguments. A retransmitted request receives the reply of the
+ * original one instead of being executed again. Retransmits which arrive while
+ * the original request is still in progress are dropped, as the client will
+ * get the reply of the original request.
+ *
+ * The cache is bounded by the memory consumed by cached replies. The least
+ * recently used entries are evicted first. Requests in progress are tracked
+ * separately and never evicted.
+ *
+ * @since 0.28
+ */
+public class DuplicateRequestCache {
+
+    private static final Logger _log = LoggerFactory.getLogger(DuplicateRequestCache.class);
+
+    /**
+     * Default memory limit for cached replies in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * Default validity time of cached replies in seconds. Clients retransmit
+     * within a couple of minutes.
+     */
+    public static final long DEFAULT_LIFETIME = 120;
+
+    /**
+     * Estimated memory footprint of an entry in addition to the reply size.
+     */
+    private static final int ENTRY_OVERHEAD = 128;
+
+    private final String _name;
+    private final Cache<RequestKey, byte[]> _cache;
+
+    /**
+     * Requests, which are still in progress.
+     */
+    private final Set<RequestKey> _inProgress = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _inProgressDrops = new LongAdder();
+
+    /**
+     * Create a new cache with default memory limit and validity time.
+     *
+     * @param name name under which cache statistics is exposed via JMX.
+     */
+    public DuplicateRequestCache(String name) {
+        this(name, DEFAULT_MAX_BYTES, DEFAULT_LIFETIME, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a new cache.
+     *
+     * @param name name under which cache statistics is exposed via JMX.
+     * @param maxBytes memory limit for cached replies in bytes.
+     * @param lifeTime cached reply validity time.
+     * @param timeUnit unit in which validity time is expressed.
+     */
+    public DuplicateRequestCache(String name, long maxBytes, long lifeTime, TimeUnit timeUnit) {
+        _name = name;
+        _cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((RequestKey k, byte[] v) -> ENTRY_OVERHEAD + v.length)
+                .expireAfterWrite(lifeTime, timeUnit)
+                .recordStats()
+                .build();
+
+        new DuplicateRequestCacheMXBeanImpl(this);
+    }
+
+    /**
+     * Process a request at most once. For a new request the {@code handler}
+     * is called and, on completion, the reply is sent to the client and cached.
+     * A retransmit of a completed request receives the cached reply, while a
+     * retransmit of a request in progress is dropped.
+     *
+     * @param call the RPC request.
+     * @param args decoded request arguments. Must not be modified by encoding.
+     * @param handler request handler.
+     * @throws OncRpcException if request arguments can't be encoded.
+     */
+    public void replyOnce(RpcCall call, XdrAble args, Supplier<? extends CompletionStage<? extends XdrAble>> handler)
+            throws OncRpcException {
+        replyOnce(call, checksum(args), handler);
+    }
+
+    /**
+     * Process a request at most once. Same as {@link #replyOnce(RpcCall, XdrAble, Supplier)},
+     * but the request arguments are identified by a checksum provided by the caller.
+     * This allows to avoid encoding of requests with large arguments, like WRITE.
+     *
+     * If request handling fails, then the client receives an RPC system error
+     * and the request is executed again on retransmit.
+     *
+     * @param call the RPC request.
+     * @param checksum checksum of request arguments.
+     * @param handler request handler.
+     */
+    public void replyOnce(RpcCall call, long checksum, Supplier<? extends CompletionStage<? extends XdrAble>> handler) {
+
+        RequestKey key = new RequestKey(call.getTransport().getRemoteSocketAddress().getAddress(),
+                call.getXid(), checksum);
+
+        if (replyFromCache(call, key)) {
+            return;
+        }
+
+        if (!_inProgress.add(key)) {
+            _inProgressDrops.increment();
+            _log.debug("Dropping retransmit of request in progress: {}", key);
+            return;
+        }
+
+        // the original request might have completed meanwhile
+        if (replyFromCache(call, key)) {
+            _inProgress.remove(key);
+            return;
+        }
+
+        _misses.increment();
+        CompletionStage<? extends XdrAble> reply;
+        try {
+            reply = handler.get();
+        } catch (RuntimeException e) {
+            _inProgress.remove(key);
+            throw e;
+        }
+
+        reply.whenComplete((r, t) -> {
+            if (t != null) {
+                _log.error("Failed to process request {}: {}", key, t.getMessage(), t);
+                _inProgress.remove(key);
+                call.failRpcSystem();
+                return;
+            }
+
+            byte[] encoded;
+            try {
+                encoded = encode(r);
+            } catch (OncRpcException e) {
+                _log.warn("Failed to cache reply for {}: {}", key, e.getMessage());
+                _inProgress.remove(key);
+                call.reply(r);
+                return;
+            }
+
+            // cache before removing in progress mark, so that retransmit always finds one of them
+            _cache.put(key, encoded);
+            _inProgress.remove(key);
+            call.reply(new EncodedReply(encoded));
+        });
+    }
+
+    private boolean replyFromCache(RpcCall call, RequestKey key) {
+        byte[] cached = _cache.getIfPresent(key);
+        if (cached == null) {
+            return false;
+        }
+        _hits.increment();
+        _log.debug("Replying to retransmit from cache: {}", key);
+        call.reply(new EncodedReply(cached));
+        return true;
+    }
+
+    /**
+     * Discards all cached replies.
+     */
+    public void invalidateAll() {
+        _cache.invalidateAll();
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public long getHitCount() {
+        return _hits.sum();
+    }
+
+    public long getMissCount() {
+        return _misses.sum();
+    }
+
+    public long getInProgressDropCount() {
+        return _inProgressDrops.sum();
+    }
+
+    public long getEvictionCount() {
+        return _cache.stats().evictionCount();
+    }
+
+    public long getSize() {
+        return _cache.size();
+    }
+
+    private static long checksum(XdrAble args) throws OncRpcException {
+        CRC32C crc = new CRC32C();
+        crc.update(encode(args));
+        return crc.getValue();
+    }
+
+    private static byte[] encode(XdrAble xdrAble) throws OncRpcException {
+        try (Xdr xdr = new Xdr(1024)) {
+            xdr.beginEncoding();
+            xdrAble.xdrEncode(xdr);
+            xdr.endEncoding();
+            return xdr.getBytes();
+        } catch (OncRpcException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new OncRpcException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Cache entry key based on client address, transaction id and checksum
+     * of request arguments.
+     */
+    private static class RequestKey {
+
+        private final InetAddress _client;
+        private final int _xid;
+        private final long _checksum;
+
+        RequestKey(InetAddress client, int xid, long checksum) {
+            _client = client;
+            _xid = xid;
+            _checksum = checksum;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof RequestKey)) {
+                return false;
+            }
+
+            final RequestKey other = (RequestKey) obj;
+            return other._xid == _xid
+                    && other._checksum == _checksum
+                    && other._client.equals(_client);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(_client, _xid, _checksum);
+        }
+
+        @Override
+        public String toString() {
+            return _client.getHostAddress() + ":" + Integer.toUnsignedString(_xid, 16);
+        }
+    }
+}
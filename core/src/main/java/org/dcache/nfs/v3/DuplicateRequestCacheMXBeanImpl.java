@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v3;
+
+import java.lang.management.ManagementFactory;
+import javax.management.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JMX wrapper for {@link DuplicateRequestCache}.
+ */
+public class DuplicateRequestCacheMXBeanImpl implements DuplicateRequestCacheMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(DuplicateRequestCacheMXBeanImpl.class);
+
+    private final DuplicateRequestCache _cache;
+
+    public DuplicateRequestCacheMXBeanImpl(DuplicateRequestCache cache) {
+        _cache = cache;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = String.format("%s:type=DuplicateRequestCache,name=%s",
+                    _cache.getClass().getPackage().getName(), _cache.getName());
+            ObjectName mxBeanName = new ObjectName(name);
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public long getHitCount() {
+        return _cache.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return _cache.getMissCount();
+    }
+
+    @Override
+    public long getInProgressDropCount() {
+        return _cache.getInProgressDropCount();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return _cache.getEvictionCount();
+    }
+
+    @Override
+    public long getSize() {
+        return _cache.getSize();
+    }
+
+    @Override
+    public void invalidateAll() {
+        _cache.invalidateAll();
+    }
+}
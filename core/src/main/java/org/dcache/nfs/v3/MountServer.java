@@ -22,6 +22,7 @@ package org.dcache.nfs.v3;
 import com.google.common.base.Splitter;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.Multimaps;
 import java.io.IOException;
 import org.dcache.nfs.v3.xdr.exportnode;
 import org.dcache.nfs.v3.xdr.mountbody;
@@ -41,17 +42,20 @@ import java.net.InetAddress;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.ExportTable;
 import org.dcache.nfs.FsExport;
 import org.dcache.nfs.status.*;
+import org.dcache.nfs.util.RequestExecutors;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.PseudoFs;
 import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.dcache.oncrpc4j.rpc.RpcAuthType;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
 import org.dcache.oncrpc4j.rpc.RpcCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -59,9 +63,15 @@ public class MountServer extends mount_protServerStub {
 
     private static final Logger _log = LoggerFactory.getLogger(MountServer.class);
     private final ExportTable _exports;
-    private final Multimap<String, InetAddress> _mounts = HashMultimap.create();
+    private final Multimap<String, InetAddress> _mounts = Multimaps.synchronizedMultimap(HashMultimap.create());
     private final VirtualFileSystem _vfs;
 
+    /**
+     * Executor to process requests on, or {@code null} to process them by
+     * oncrpc4j worker threads.
+     */
+    private final Executor _requestExecutor;
+
     /*
      * pseudo flavors as defined in RFC2623
      */
@@ -70,9 +80,33 @@ public class MountServer extends mount_protServerStub {
     public final static int RPC_AUTH_GSS_KRB5P = 390005;
 
     public MountServer(ExportTable exports, VirtualFileSystem fs) {
+        this(exports, fs, null);
+    }
+
+    /**
+     * Create mount server which processes requests by threads of provided
+     * executor instead of oncrpc4j worker threads.
+     *
+     * @param exports the export table.
+     * @param fs the file system to serve.
+     * @param requestExecutor the executor to process requests, or {@code null}
+     * to process them by oncrpc4j worker threads.
+     * @since 0.28
+     */
+    public MountServer(ExportTable exports, VirtualFileSystem fs, Executor requestExecutor) {
         super();
         _exports = exports;
         _vfs = fs;
+        _requestExecutor = requestExecutor;
+    }
+
+    @Override
+    public void dispatchOncRpcCall(RpcCall call) throws OncRpcException, IOException {
+        if (_requestExecutor != null) {
+            RequestExecutors.dispatch(_requestExecutor, call, super::dispatchOncRpcCall);
+            return;
+        }
+        super.dispatchOncRpcCall(call);
     }
 
     @Override
@@ -144,7 +178,13 @@ public class MountServer extends mount_protServerStub {
         mountlist mList = mFullList;
         mList.value = null;
 
-        for (Map.Entry<String, InetAddress> mountEntry : _mounts.entries()) {
+        // take a snapshot to avoid holding the lock during host name resolution
+        List<Map.Entry<String, InetAddress>> mounts;
+        synchronized (_mounts) {
+            mounts = new ArrayList<>(_mounts.entries());
+        }
+
+        for (Map.Entry<String, InetAddress> mountEntry : mounts) {
             String path = mountEntry.getKey();
             InetAddress remoteAddress = mountEntry.getValue();
 
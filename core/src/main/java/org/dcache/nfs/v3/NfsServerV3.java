@@ -22,6 +22,11 @@ package org.dcache.nfs.v3;
 import org.dcache.nfs.ExportTable;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.ChimeraNFSException;
+import org.dcache.nfs.util.BufferPool;
+import org.dcache.nfs.util.CompletableFutures;
+import org.dcache.nfs.util.RequestExecutors;
+import org.dcache.nfs.util.RequestStatistics;
+import org.dcache.nfs.util.RequestStatisticsMXBeanImpl;
 import org.dcache.nfs.util.UnixSubjects;
 import org.dcache.nfs.v3.xdr.LOOKUP3res;
 import org.dcache.nfs.v3.xdr.WRITE3resfail;
@@ -32,6 +37,7 @@ import org.dcache.nfs.v3.xdr.READLINK3args;
 import org.dcache.nfs.v3.xdr.uint64;
 import org.dcache.nfs.v3.xdr.MKDIR3res;
 import org.dcache.nfs.v3.xdr.WRITE3args;
+import org.dcache.nfs.v3.xdr.stable_how;
 import org.dcache.nfs.v3.xdr.createmode3;
 import org.dcache.nfs.v3.xdr.post_op_attr;
 import org.dcache.nfs.v3.xdr.LINK3resfail;
@@ -125,19 +131,29 @@ import org.dcache.nfs.v3.xdr.CREATE3resfail;
 import org.dcache.nfs.v3.xdr.FSINFO3resfail;
 import org.dcache.nfs.v3.xdr.ACCESS3res;
 import org.dcache.nfs.v3.xdr.COMMIT3resok;
-import java.util.Iterator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Executor;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.zip.CRC32C;
 
 import org.dcache.nfs.v3.xdr.COMMIT3resfail;
 import org.dcache.nfs.v3.xdr.FSSTAT3resfail;
 import org.dcache.nfs.v3.xdr.MKNOD3resfail;
 import org.dcache.nfs.v3.xdr.READLINK3resfail;
 import org.dcache.nfs.v3.xdr.RENAME3resfail;
+import org.dcache.nfs.vfs.DirectoryCursor;
 import org.dcache.nfs.vfs.DirectoryEntry;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.status.*;
 import org.dcache.oncrpc4j.util.Bytes;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
 import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.xdr.XdrAble;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -148,7 +164,7 @@ import static org.dcache.nfs.v3.Utils.checkFilename;
 import org.dcache.nfs.vfs.FsStat;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.PseudoFs;
-import org.dcache.nfs.vfs.DirectoryStream;
+import org.dcache.nfs.vfs.PseudoFsCache;
 
 import javax.security.auth.Subject;
 
@@ -172,14 +188,139 @@ public class NfsServerV3 extends nfs3_protServerStub {
     private static final int READDIRPLUS3RESOK_SIZE = 104;
     private static final Logger _log = LoggerFactory.getLogger(NfsServerV3.class);
 
+    /**
+     * Number of WRITE data bytes included into the checksum which identifies
+     * retransmits.
+     */
+    private static final int WRITE_CHECKSUM_DATA_SIZE = 4096;
+
+    /**
+     * Procedure names indexed by procedure number.
+     */
+    private static final String[] PROCEDURE_NAMES = {
+        "NULL", "GETATTR", "SETATTR", "LOOKUP", "ACCESS", "READLINK", "READ", "WRITE",
+        "CREATE", "MKDIR", "SYMLINK", "MKNOD", "REMOVE", "RMDIR", "RENAME", "LINK",
+        "READDIR", "READDIRPLUS", "FSSTAT", "FSINFO", "PATHCONF", "COMMIT"
+    };
+
     private final VirtualFileSystem _vfs;
     private final ExportTable _exports;
+    private final PseudoFsCache _treeCache;
+    private final BufferPool _bufferPool;
+
+    /**
+     * Executor to process requests on, or {@code null} to process them by
+     * oncrpc4j worker threads.
+     */
+    private final Executor _requestExecutor;
+
+    /**
+     * Cache of replies to non-idempotent requests, or {@code null} if
+     * retransmits are processed again.
+     */
+    private final DuplicateRequestCache _drc;
+
+    /**
+     * Request processing statistics.
+     */
+    private final RequestStatistics _statistics =
+            new RequestStatistics("nfs-v3", PROCEDURE_NAMES.length, -1, NfsServerV3::procedureName);
 
     private final writeverf3 writeVerifier = generateInstanceWriteVerifier();
 
     public NfsServerV3(ExportTable exports, VirtualFileSystem fs) {
+        this(exports, fs, null);
+    }
+
+    /**
+     * Create NFSv3 server which uses provided cache of per-client pseudo file
+     * system trees.
+     *
+     * @param exports the export table.
+     * @param fs the file system to serve.
+     * @param treeCache the cache of pseudo file system trees, or {@code null}
+     * if tree should be re-build on every access.
+     * @since 0.28
+     */
+    public NfsServerV3(ExportTable exports, VirtualFileSystem fs, PseudoFsCache treeCache) {
+        this(exports, fs, treeCache, new BufferPool("nfs-v3"));
+    }
+
+    /**
+     * Create NFSv3 server which uses provided cache of per-client pseudo file
+     * system trees and pool of READ reply buffers.
+     *
+     * @param exports the export table.
+     * @param fs the file system to serve.
+     * @param treeCache the cache of pseudo file system trees, or {@code null}
+     * if tree should be re-build on every access.
+     * @param bufferPool the pool of READ reply buffers.
+     * @since 0.28
+     */
+    public NfsServerV3(ExportTable exports, VirtualFileSystem fs, PseudoFsCache treeCache, BufferPool bufferPool) {
+        this(exports, fs, treeCache, bufferPool, null);
+    }
+
+    /**
+     * Create NFSv3 server which processes requests by threads of provided
+     * executor instead of oncrpc4j worker threads. This allows to use an
+     * executor which is not limited by the number of threads, like one created
+     * by {@link RequestExecutors#newVirtualThreadPerTaskExecutor()}, with
+     * file systems that block on slow backend calls.
+     *
+     * @param exports the export table.
+     * @param fs the file system to serve.
+     * @param treeCache the cache of pseudo file system trees, or {@code null}
+     * if tree should be re-build on every access.
+     * @param bufferPool the pool of READ reply buffers.
+     * @param requestExecutor the executor to process requests, or {@code null}
+     * to process them by oncrpc4j worker threads.
+     * @since 0.28
+     */
+    public NfsServerV3(ExportTable exports, VirtualFileSystem fs, PseudoFsCache treeCache, BufferPool bufferPool,
+            Executor requestExecutor) {
+        this(exports, fs, treeCache, bufferPool, requestExecutor, new DuplicateRequestCache("nfs-v3"));
+    }
+
+    /**
+     * Create NFSv3 server which uses provided duplicate request cache to
+     * reply to retransmitted non-idempotent requests.
+     *
+     * @param exports the export table.
+     * @param fs the file system to serve.
+     * @param treeCache the cache of pseudo file system trees, or {@code null}
+     * if tree should be re-build on every access.
+     * @param bufferPool the pool of READ reply buffers.
+     * @param requestExecutor the executor to process requests, or {@code null}
+     * to process them by oncrpc4j worker threads.
+     * @param drc the duplicate request cache, or {@code null} to disable
+     * retransmit detection.
+     * @since 0.28
+     */
+    public NfsServerV3(ExportTable exports, VirtualFileSystem fs, PseudoFsCache treeCache, BufferPool bufferPool,
+            Executor requestExecutor, DuplicateRequestCache drc) {
+        new RequestStatisticsMXBeanImpl(_statistics);
         _vfs = fs;
         _exports = exports;
+        _treeCache = treeCache;
+        _bufferPool = bufferPool;
+        _requestExecutor = requestExecutor;
+        _drc = drc;
+    }
+
+    /**
+     * Get request processing statistics of this nfs server.
+     *
+     * @return request statistics.
+     * @since 0.28
+     */
+    public RequestStatistics getRequestStatistics() {
+        return _statistics;
+    }
+
+    private static String procedureName(int procedure) {
+        return procedure >= 0 && procedure < PROCEDURE_NAMES.length
+                ? PROCEDURE_NAMES[procedure] : "UNKNOWN";
     }
 
     private static writeverf3 generateInstanceWriteVerifier() {
@@ -189,10 +330,265 @@ public class NfsServerV3 extends nfs3_protServerStub {
         return verf;
     }
 
+    @Override
+    public void dispatchOncRpcCall(RpcCall call) throws OncRpcException, IOException {
+
+        if (_requestExecutor != null) {
+            RequestExecutors.dispatch(_requestExecutor, call, this::dispatch);
+            return;
+        }
+        dispatch(call);
+    }
+
+    private void dispatch(RpcCall call) throws OncRpcException, IOException {
+
+        long start = System.nanoTime();
+
+        /*
+         * Procedures which can be completed without blocking the calling
+         * thread. The reply is sent by the thread which completes the request.
+         */
+        switch (call.getProcedure()) {
+            case nfs3_prot.NFSPROC3_GETATTR_3: {
+                GETATTR3args args = new GETATTR3args();
+                call.retrieveCall(args);
+                replyOnComplete(call, getattr(call, args), res -> reply(call, start, res.status, res));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_LOOKUP_3: {
+                LOOKUP3args args = new LOOKUP3args();
+                call.retrieveCall(args);
+                replyOnComplete(call, lookup(call, args), res -> reply(call, start, res.status, res));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_READ_3: {
+                READ3args args = new READ3args();
+                call.retrieveCall(args);
+                replyOnComplete(call, read(call, args), res -> {
+                    try {
+                        if (res.status == nfsstat.NFS_OK) {
+                            _statistics.addBytesRead(res.resok.count.value.value);
+                        }
+                        reply(call, start, res.status, res);
+                    } finally {
+                        // the reply is encoded, thus the data is not referenced anymore
+                        if (res.status == nfsstat.NFS_OK) {
+                            _bufferPool.release(res.resok.data);
+                        }
+                    }
+                });
+                break;
+            }
+            case nfs3_prot.NFSPROC3_WRITE_3: {
+                WRITE3args args = new WRITE3args();
+                call.retrieveCall(args);
+                if (_drc != null && args.stable != stable_how.UNSTABLE) {
+                    // unstable writes are committed by a separate request, thus retransmits are harmless
+                    _drc.replyOnce(call, writeChecksum(args), () -> write(call, args)
+                            .thenApply(res -> recordWrite(call, start, res)));
+                } else {
+                    replyOnComplete(call, write(call, args), res -> call.reply(recordWrite(call, start, res)));
+                }
+                break;
+            }
+            case nfs3_prot.NFSPROC3_COMMIT_3: {
+                COMMIT3args args = new COMMIT3args();
+                call.retrieveCall(args);
+                replyOnComplete(call, commit(call, args), res -> reply(call, start, res.status, res));
+                break;
+            }
+            /*
+             * Non-idempotent procedures, which must not be re-executed on retransmit.
+             */
+            case nfs3_prot.NFSPROC3_SETATTR_3: {
+                SETATTR3args args = new SETATTR3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_SETATTR_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_CREATE_3: {
+                CREATE3args args = new CREATE3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_CREATE_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_MKDIR_3: {
+                MKDIR3args args = new MKDIR3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_MKDIR_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_SYMLINK_3: {
+                SYMLINK3args args = new SYMLINK3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_SYMLINK_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_MKNOD_3: {
+                MKNOD3args args = new MKNOD3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_MKNOD_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_REMOVE_3: {
+                REMOVE3args args = new REMOVE3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_REMOVE_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_RMDIR_3: {
+                RMDIR3args args = new RMDIR3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_RMDIR_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_RENAME_3: {
+                RENAME3args args = new RENAME3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_RENAME_3(call, args), r -> r.status));
+                break;
+            }
+            case nfs3_prot.NFSPROC3_LINK_3: {
+                LINK3args args = new LINK3args();
+                call.retrieveCall(args);
+                replyOnce(call, args, () -> record(call, start, NFSPROC3_LINK_3(call, args), r -> r.status));
+                break;
+            }
+            /*
+             * Blocking idempotent procedures.
+             */
+            case nfs3_prot.NFSPROC3_ACCESS_3: {
+                ACCESS3args args = new ACCESS3args();
+                call.retrieveCall(args);
+                ACCESS3res res = NFSPROC3_ACCESS_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            case nfs3_prot.NFSPROC3_READLINK_3: {
+                READLINK3args args = new READLINK3args();
+                call.retrieveCall(args);
+                READLINK3res res = NFSPROC3_READLINK_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            case nfs3_prot.NFSPROC3_READDIR_3: {
+                READDIR3args args = new READDIR3args();
+                call.retrieveCall(args);
+                READDIR3res res = NFSPROC3_READDIR_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            case nfs3_prot.NFSPROC3_READDIRPLUS_3: {
+                READDIRPLUS3args args = new READDIRPLUS3args();
+                call.retrieveCall(args);
+                READDIRPLUS3res res = NFSPROC3_READDIRPLUS_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            case nfs3_prot.NFSPROC3_FSSTAT_3: {
+                FSSTAT3args args = new FSSTAT3args();
+                call.retrieveCall(args);
+                FSSTAT3res res = NFSPROC3_FSSTAT_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            case nfs3_prot.NFSPROC3_FSINFO_3: {
+                FSINFO3args args = new FSINFO3args();
+                call.retrieveCall(args);
+                FSINFO3res res = NFSPROC3_FSINFO_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            case nfs3_prot.NFSPROC3_PATHCONF_3: {
+                PATHCONF3args args = new PATHCONF3args();
+                call.retrieveCall(args);
+                PATHCONF3res res = NFSPROC3_PATHCONF_3(call, args);
+                reply(call, start, res.status, res);
+                break;
+            }
+            default:
+                super.dispatchOncRpcCall(call);
+        }
+    }
+
+    /**
+     * Send the reply when the request completes. If the request fails or the
+     * reply can't be sent, then the error is logged and the client receives
+     * an RPC system error.
+     */
+    private <T> void replyOnComplete(RpcCall call, CompletableFuture<T> request, Consumer<T> reply) {
+        request.thenAccept(reply).whenComplete((v, t) -> {
+            if (t != null) {
+                _log.error("Failed to reply to {} request: {}", procedureName(call.getProcedure()), t.getMessage(), t);
+                call.failRpcSystem();
+            }
+        });
+    }
+
+    /**
+     * Record processed request and send the reply.
+     */
+    private void reply(RpcCall call, long start, int status, XdrAble res) {
+        _statistics.record(call.getProcedure(), status, System.nanoTime() - start);
+        call.reply(res);
+    }
+
+    /**
+     * Record processed request.
+     */
+    private <T> T record(RpcCall call, long start, T res, ToIntFunction<T> status) {
+        _statistics.record(call.getProcedure(), status.applyAsInt(res), System.nanoTime() - start);
+        return res;
+    }
+
+    /**
+     * Record processed WRITE request.
+     */
+    private WRITE3res recordWrite(RpcCall call, long start, WRITE3res res) {
+        if (res.status == nfsstat.NFS_OK) {
+            _statistics.addBytesWritten(res.resok.count.value.value);
+        }
+        return record(call, start, res, r -> r.status);
+    }
+
+    /**
+     * Process blocking non-idempotent request through duplicate request cache,
+     * if enabled.
+     */
+    private void replyOnce(RpcCall call, XdrAble args, Supplier<XdrAble> handler) throws OncRpcException {
+        if (_drc == null) {
+            call.reply(handler.get());
+            return;
+        }
+        _drc.replyOnce(call, args, () -> CompletableFuture.completedFuture(handler.get()));
+    }
+
+    /**
+     * Returns a checksum of WRITE arguments to identify retransmits. To avoid
+     * encoding of the payload, only the header fields and a bounded prefix of
+     * the data are taken into account.
+     */
+    private static long writeChecksum(WRITE3args args) {
+        CRC32C crc = new CRC32C();
+        crc.update(args.file.data);
+
+        ByteBuffer header = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES)
+                .putLong(args.offset.value.value)
+                .putInt(args.count.value.value)
+                .putInt(args.stable);
+        crc.update(header.flip());
+
+        ByteBuffer data = args.data.duplicate();
+        data.limit(data.position() + Math.min(data.remaining(), WRITE_CHECKSUM_DATA_SIZE));
+        crc.update(data);
+
+        return crc.getValue();
+    }
+
     @Override
     public ACCESS3res NFSPROC3_ACCESS_3(RpcCall call$, ACCESS3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         ACCESS3res res = new ACCESS3res();
         _log.debug("NFS Request ACCESS uid: {}", call$.getCredential());
 
@@ -230,16 +626,28 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
     @Override
     public COMMIT3res NFSPROC3_COMMIT_3(RpcCall call$, COMMIT3args arg1) {
+        return commit(call$, arg1).join();
+    }
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
-        COMMIT3res res = new COMMIT3res();
+    private CompletableFuture<COMMIT3res> commit(RpcCall call$, COMMIT3args arg1) {
 
-        try {
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
+
+        return CompletableFutures.composeWith(() -> {
             Inode inode = new Inode(arg1.file.data);
             long offset = arg1.offset.value.value;
             int count = arg1.count.value.value;
 
-            fs.commit(inode, offset, count);
+            return fs.commitAsync(inode, offset, count)
+                    .thenCompose(v -> fs.getattrAsync(inode));
+        }).handle((stat, t) -> {
+            COMMIT3res res = new COMMIT3res();
+            if (t != null) {
+                res.status = statusOf("COMMIT", t);
+                res.resfail = new COMMIT3resfail();
+                res.resfail.file_wcc = defaultWccData();
+                return res;
+            }
 
             res.resok = new COMMIT3resok();
 
@@ -248,30 +656,18 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resok.file_wcc.after.attributes_follow = true;
             res.resok.file_wcc.after.attributes = new fattr3();
 
-            Utils.fill_attributes(fs.getattr(inode), res.resok.file_wcc.after.attributes);
+            Utils.fill_attributes(stat, res.resok.file_wcc.after.attributes);
             res.resok.file_wcc.before = new pre_op_attr();
             res.resok.file_wcc.before.attributes_follow = false;
             res.resok.verf = writeVerifier;
-
-        } catch (ChimeraNFSException hne) {
-            res.status = hne.getStatus();
-            res.resfail = new COMMIT3resfail();
-            res.resfail.file_wcc = defaultWccData();
-        } catch (Exception e) {
-            _log.error("COMMIT", e);
-            res.status = nfsstat.NFSERR_SERVERFAULT;
-            res.resfail = new COMMIT3resfail();
-            res.resfail.file_wcc = defaultWccData();
-        }
-
-        return res;
-
+            return res;
+        });
     }
 
     @Override
     public CREATE3res NFSPROC3_CREATE_3(RpcCall call$, CREATE3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request CREATE3 uid: {}", call$.getCredential());
 
         CREATE3res res = new CREATE3res();
@@ -363,7 +759,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public FSINFO3res NFSPROC3_FSINFO_3(RpcCall call$, FSINFO3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request FSINFO from: {}", call$.getCredential());
 
         FSINFO3res res = new FSINFO3res();
@@ -420,7 +816,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public FSSTAT3res NFSPROC3_FSSTAT_3(RpcCall call$, FSSTAT3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         FSSTAT3res res = new FSSTAT3res();
 
         try {
@@ -460,36 +856,38 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
     @Override
     public GETATTR3res NFSPROC3_GETATTR_3(RpcCall call$, GETATTR3args arg1) {
+        return getattr(call$, arg1).join();
+    }
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
-        _log.debug("NFS Request GETTATTR3 uid: {}", call$.getCredential());
+    private CompletableFuture<GETATTR3res> getattr(RpcCall call$, GETATTR3args arg1) {
 
-        GETATTR3res res = new GETATTR3res();
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
+        _log.debug("NFS Request GETTATTR3 uid: {}", call$.getCredential());
 
-        try{
+        return CompletableFutures.composeWith(() -> {
             Inode inode = new Inode(arg1.object.data);
             _log.debug("NFS Request GETATTR for inode: {}", inode);
+            return fs.getattrAsync(inode);
+        }).handle((stat, t) -> {
+            GETATTR3res res = new GETATTR3res();
+            if (t != null) {
+                res.status = statusOf("GETATTR", t);
+                return res;
+            }
 
             res.status = nfsstat.NFS_OK;
             res.resok = new GETATTR3resok();
 
             res.resok.obj_attributes = new fattr3();
-            Utils.fill_attributes(fs.getattr(inode), res.resok.obj_attributes);
-
-        } catch (ChimeraNFSException e) {
-            res.status = e.getStatus();
-        } catch (Exception e) {
-            _log.error("GETATTR", e);
-            res.status = nfsstat.NFSERR_SERVERFAULT;
-        }
-
-        return res;
+            Utils.fill_attributes(stat, res.resok.obj_attributes);
+            return res;
+        });
     }
 
     @Override
     public LINK3res NFSPROC3_LINK_3(RpcCall call$, LINK3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request LINK3 uid: {}", call$.getCredential());
 
         LINK3res res = new LINK3res();
@@ -543,56 +941,63 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
     @Override
     public LOOKUP3res NFSPROC3_LOOKUP_3(RpcCall call$, LOOKUP3args arg1) {
+        return lookup(call$, arg1).join();
+    }
+
+    private CompletableFuture<LOOKUP3res> lookup(RpcCall call$, LOOKUP3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         LOOKUP3res res = new LOOKUP3res();
 
-        try {
+        return CompletableFutures.composeWith(() -> {
             Inode parent = new Inode(arg1.what.dir.data);
             String name = arg1.what.name.value;
 
             checkFilename(name);
 
-            Inode inode = fs.lookup(parent, name);
-
-            res.status = nfsstat.NFS_OK;
-            res.resok = new LOOKUP3resok();
-
-            nfs_fh3 fh3 = new nfs_fh3();
-            fh3.data = inode.toNfsHandle();
-            res.resok.object = fh3;
-
-            res.resok.obj_attributes = new post_op_attr();
-            res.resok.obj_attributes.attributes_follow = true;
-            res.resok.obj_attributes.attributes = new fattr3();
-
-            Utils.fill_attributes(fs.getattr(inode), res.resok.obj_attributes.attributes);
+            return fs.lookupAsync(parent, name)
+                    .thenCompose(inode -> {
+
+                        res.status = nfsstat.NFS_OK;
+                        res.resok = new LOOKUP3resok();
+
+                        nfs_fh3 fh3 = new nfs_fh3();
+                        fh3.data = inode.toNfsHandle();
+                        res.resok.object = fh3;
+
+                        return fs.getattrAsync(inode);
+                    })
+                    .thenCompose(stat -> {
+                        res.resok.obj_attributes = new post_op_attr();
+                        res.resok.obj_attributes.attributes_follow = true;
+                        res.resok.obj_attributes.attributes = new fattr3();
+
+                        Utils.fill_attributes(stat, res.resok.obj_attributes.attributes);
+
+                        return fs.getattrAsync(parent);
+                    });
+        }).handle((parentStat, t) -> {
+            if (t != null) {
+                res.status = statusOf("LOOKUP", t);
+                res.resok = null;
+                res.resfail = new LOOKUP3resfail();
+                res.resfail.dir_attributes = defaultPostOpAttr();
+                return res;
+            }
 
             res.resok.dir_attributes = new post_op_attr();
             res.resok.dir_attributes.attributes_follow = true;
             res.resok.dir_attributes.attributes = new fattr3();
 
-            Utils.fill_attributes(fs.getattr(parent), res.resok.dir_attributes.attributes);
-
-        } catch (ChimeraNFSException hne) {
-            _log.debug("lookup {}", hne.toString());
-            res.status = hne.getStatus();
-            res.resfail = new LOOKUP3resfail();
-            res.resfail.dir_attributes = defaultPostOpAttr();
-        } catch (Exception e) {
-            _log.error("LOOKUP", e);
-            res.status = nfsstat.NFSERR_SERVERFAULT;
-            res.resfail = new LOOKUP3resfail();
-            res.resfail.dir_attributes = defaultPostOpAttr();
-        }
-
-        return res;
+            Utils.fill_attributes(parentStat, res.resok.dir_attributes.attributes);
+            return res;
+        });
     }
 
     @Override
     public MKDIR3res NFSPROC3_MKDIR_3(RpcCall call$, MKDIR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request MKDIR3 uid: {}", call$.getCredential());
 
         MKDIR3res res = new MKDIR3res();
@@ -705,7 +1110,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public READDIRPLUS3res NFSPROC3_READDIRPLUS_3(RpcCall call$, READDIRPLUS3args arg1) {
 
-        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request READDIRPLUS3 uid: {}", call$.getCredential());
 
         READDIRPLUS3res res = new READDIRPLUS3res();
@@ -721,11 +1126,10 @@ public class NfsServerV3 extends nfs3_protServerStub {
             }
 
             long startValue = arg1.cookie.value.value;
-            DirectoryStream directoryStream;
             cookieverf3 cookieverf = arg1.cookieverf;
 
-            directoryStream = fs.list(dir, cookieverf.value, startValue);
-            Iterator<DirectoryEntry> dirList = directoryStream.iterator();
+            DirectoryCursor dirList = new DirectoryCursor(fs, dir, cookieverf.value, startValue,
+                    DirectoryCursor.pageSizeFor(arg1.maxcount.value.value, ENTRYPLUS3_SIZE));
 
             res.status = nfsstat.NFS_OK;
             res.resok = new READDIRPLUS3resok();
@@ -734,7 +1138,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resok.dir_attributes = new post_op_attr();
             res.resok.dir_attributes.attributes_follow = true;
             res.resok.dir_attributes.attributes = new fattr3();
-            res.resok.cookieverf = new cookieverf3(directoryStream.getVerifier());
+            res.resok.cookieverf = new cookieverf3(dirList.getVerifier());
 
             Utils.fill_attributes(dirStat, res.resok.dir_attributes.attributes);
 
@@ -813,7 +1217,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public READDIR3res NFSPROC3_READDIR_3(RpcCall call$, READDIR3args arg1) {
 
-        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        final VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request READDIR3 uid: {}", call$.getCredential());
 
         READDIR3res res = new READDIR3res();
@@ -829,11 +1233,10 @@ public class NfsServerV3 extends nfs3_protServerStub {
             }
 
             long startValue = arg1.cookie.value.value;
-            DirectoryStream directoryStream;
             cookieverf3 cookieverf = arg1.cookieverf;
 
-            directoryStream = fs.list(dir, cookieverf.value, startValue);
-            Iterator<DirectoryEntry> dirList = directoryStream.iterator();
+            DirectoryCursor dirList = new DirectoryCursor(fs, dir, cookieverf.value, startValue,
+                    DirectoryCursor.pageSizeFor(arg1.count.value.value, ENTRY3_SIZE));
 
             res.status = nfsstat.NFS_OK;
             res.resok = new READDIR3resok();
@@ -844,7 +1247,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
             res.resok.dir_attributes.attributes = new fattr3();
             Utils.fill_attributes(dirStat, res.resok.dir_attributes.attributes);
 
-            res.resok.cookieverf = new cookieverf3(directoryStream.getVerifier());
+            res.resok.cookieverf = new cookieverf3(dirList.getVerifier());
 
             int currcount = READDIR3RESOK_SIZE;
             int fcount = 0;
@@ -906,7 +1309,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public READLINK3res NFSPROC3_READLINK_3(RpcCall call$, READLINK3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         READLINK3res res = new READLINK3res();
 
 
@@ -941,62 +1344,64 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
     @Override
     public READ3res NFSPROC3_READ_3(RpcCall call$, READ3args arg1) {
+        return read(call$, arg1).join();
+    }
+
+    private CompletableFuture<READ3res> read(RpcCall call$, READ3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         READ3res res = new READ3res();
 
-        try {
+        return CompletableFutures.composeWith(() -> {
             Inode inode = new Inode(arg1.file.data);
             long offset = arg1.offset.value.value;
             int count = arg1.count.value.value;
 
-            Stat inodeStat = fs.getattr(inode);
-
-            res.resok = new READ3resok();
-            res.resok.data = new byte[count];
-
-            res.resok.count = new count3();
-            res.resok.count.value = new uint32();
-
-            byte[] b = new byte[count];
-            res.resok.count.value.value = fs.read(inode, b, offset, count);
-            if (res.resok.count.value.value < 0) {
-                throw new NfsIoException("IO not allowed");
-            }
-            if (res.resok.count.value.value == count) {
-                res.resok.data = b;
-            } else {
-                res.resok.data = new byte[res.resok.count.value.value];
-                System.arraycopy(b, 0, res.resok.data, 0, res.resok.count.value.value);
+            return fs.getattrAsync(inode)
+                    .thenCompose(inodeStat -> {
+
+                        res.resok = new READ3resok();
+
+                        res.resok.count = new count3();
+                        res.resok.count.value = new uint32();
+
+                        res.resok.file_attributes = new post_op_attr();
+                        res.resok.file_attributes.attributes_follow = true;
+                        res.resok.file_attributes.attributes = new fattr3();
+                        Utils.fill_attributes(inodeStat, res.resok.file_attributes.attributes);
+
+                        ByteBuffer data = _bufferPool.acquire(count);
+                        res.resok.data = data;
+                        return fs.readAsync(inode, data, offset)
+                                .thenCompose(n -> CompletableFutures.completeWith(() -> {
+                                    if (n < 0) {
+                                        throw new NfsIoException("IO not allowed");
+                                    }
+                                    data.flip();
+                                    res.resok.count.value.value = n;
+                                    if (n + offset == inodeStat.getSize()) {
+                                        res.resok.eof = true;
+                                    }
+                                    return res;
+                                }));
+                    });
+        }).exceptionally(t -> {
+            res.status = statusOf("READ", t);
+            if (res.resok != null && res.resok.data != null) {
+                // failed replies carry no data, thus the buffer is not released by the dispatcher
+                _bufferPool.release(res.resok.data);
             }
-
-            if (res.resok.count.value.value + offset == inodeStat.getSize()) {
-                res.resok.eof = true;
-            }
-
-            res.resok.file_attributes = new post_op_attr();
-            res.resok.file_attributes.attributes_follow = true;
-            res.resok.file_attributes.attributes = new fattr3();
-            Utils.fill_attributes(inodeStat, res.resok.file_attributes.attributes);
-        } catch (ChimeraNFSException hne) {
-            res.status = hne.getStatus();
+            res.resok = null;
             res.resfail = new READ3resfail();
             res.resfail.file_attributes = defaultPostOpAttr();
-        } catch (Exception e) {
-            _log.error("READ", e);
-            res.status = nfsstat.NFSERR_SERVERFAULT;
-            res.resfail = new READ3resfail();
-            res.resfail.file_attributes = defaultPostOpAttr();
-        }
-
-        return res;
-
+            return res;
+        });
     }
 
     @Override
     public REMOVE3res NFSPROC3_REMOVE_3(RpcCall call$, REMOVE3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request REMOVE3 uid: {}", call$.getCredential());
 
         REMOVE3res res = new REMOVE3res();
@@ -1050,7 +1455,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public RENAME3res NFSPROC3_RENAME_3(RpcCall call$, RENAME3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request RENAME3 uid: {}", call$.getCredential());
 
         RENAME3res res = new RENAME3res();
@@ -1107,7 +1512,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public RMDIR3res NFSPROC3_RMDIR_3(RpcCall call$, RMDIR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request RMDIR3 uid: {}", call$.getCredential());
 
         RMDIR3res res = new RMDIR3res();
@@ -1158,7 +1563,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public SETATTR3res NFSPROC3_SETATTR_3(RpcCall call$, SETATTR3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request SETATTR3 uid: {}", call$.getCredential());
 
         SETATTR3res res = new SETATTR3res();
@@ -1197,7 +1602,7 @@ public class NfsServerV3 extends nfs3_protServerStub {
     @Override
     public SYMLINK3res NFSPROC3_SYMLINK_3(RpcCall call$, SYMLINK3args arg1) {
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         _log.debug("NFS Request SYMLINK3 uid: {}", call$.getCredential());
 
         SYMLINK3res res = new SYMLINK3res();
@@ -1261,47 +1666,76 @@ public class NfsServerV3 extends nfs3_protServerStub {
 
     @Override
     public WRITE3res NFSPROC3_WRITE_3(RpcCall call$, WRITE3args arg1) {
+        return write(call$, arg1).join();
+    }
 
-        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports);
+    private CompletableFuture<WRITE3res> write(RpcCall call$, WRITE3args arg1) {
+
+        VirtualFileSystem fs = new PseudoFs(_vfs, call$, _exports, _treeCache);
         WRITE3res res = new WRITE3res();
 
-        try {
+        return CompletableFutures.composeWith(() -> {
             Inode inode = new Inode(arg1.file.data);
             long offset = arg1.offset.value.value;
             int count = arg1.count.value.value;
 
-            res.resok = new WRITE3resok();
-            res.status = nfsstat.NFS_OK;
+            ByteBuffer data = arg1.data;
+            if (count > data.remaining()) {
+                throw new InvalException("count exceeds provided data size");
+            }
+            data.limit(data.position() + count);
 
             VirtualFileSystem.StabilityLevel requiredStabilityLevel = VirtualFileSystem.StabilityLevel.fromStableHow(arg1.stable);
-            VirtualFileSystem.WriteResult ret = fs.write(inode, arg1.data, offset, count, requiredStabilityLevel);
-            if (ret.getBytesWritten() < 0) {
-                throw new NfsIoException("IO not allowed");
+            return fs.writeAsync(inode, data, offset, requiredStabilityLevel)
+                    .thenCompose(ret -> CompletableFutures.composeWith(() -> {
+                        if (ret.getBytesWritten() < 0) {
+                            throw new NfsIoException("IO not allowed");
+                        }
+
+                        res.status = nfsstat.NFS_OK;
+                        res.resok = new WRITE3resok();
+                        res.resok.count = new count3(new uint32(ret.getBytesWritten()));
+                        res.resok.committed = ret.getStabilityLevel().toStableHow();
+                        res.resok.verf = writeVerifier;
+
+                        return fs.getattrAsync(inode);
+                    }));
+        }).handle((stat, t) -> {
+            if (t != null) {
+                res.status = statusOf("WRITE", t);
+                res.resok = null;
+                res.resfail = new WRITE3resfail();
+                res.resfail.file_wcc = defaultWccData();
+                return res;
             }
 
-            res.resok.count = new count3(new uint32(ret.getBytesWritten()));
             res.resok.file_wcc = new wcc_data();
             res.resok.file_wcc.after = new post_op_attr();
             res.resok.file_wcc.after.attributes_follow = true;
             res.resok.file_wcc.after.attributes = new fattr3();
 
-            Utils.fill_attributes(fs.getattr(inode), res.resok.file_wcc.after.attributes);
+            Utils.fill_attributes(stat, res.resok.file_wcc.after.attributes);
             res.resok.file_wcc.before = new pre_op_attr();
             res.resok.file_wcc.before.attributes_follow = false;
-            res.resok.committed = ret.getStabilityLevel().toStableHow();
-            res.resok.verf = writeVerifier;
-        } catch (ChimeraNFSException hne) {
-            res.status = hne.getStatus();
-            res.resfail = new WRITE3resfail();
-            res.resfail.file_wcc = defaultWccData();
-        } catch (Exception e) {
-            _log.error("WRITE", e);
-            res.status = nfsstat.NFSERR_SERVERFAULT;
-            res.resfail = new WRITE3resfail();
-            res.resfail.file_wcc = defaultWccData();
-        }
-
-        return res;
+            return res;
+        });
+    }
 
+    /**
+     * Get NFS status for a failed request. Unexpected errors are logged and
+     * reported as {@code NFSERR_SERVERFAULT}.
+     *
+     * @param op the name of the operation.
+     * @param t the failure.
+     * @return NFS status.
+     */
+    private static int statusOf(String op, Throwable t) {
+        Throwable cause = CompletableFutures.unwrap(t);
+        if (cause instanceof ChimeraNFSException) {
+            _log.debug("{}: {}", op, cause.toString());
+            return ((ChimeraNFSException) cause).getStatus();
+        }
+        _log.error(op, cause);
+        return nfsstat.NFSERR_SERVERFAULT;
     }
 }
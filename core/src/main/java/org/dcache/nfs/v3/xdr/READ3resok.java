@@ -23,12 +23,13 @@ import org.dcache.oncrpc4j.xdr.XdrAble;
 import org.dcache.oncrpc4j.xdr.XdrDecodingStream;
 import org.dcache.oncrpc4j.xdr.XdrEncodingStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class READ3resok implements XdrAble {
     public post_op_attr file_attributes;
     public count3 count;
     public boolean eof;
-    public byte [] data;
+    public ByteBuffer data;
 
     public READ3resok() {
     }
@@ -43,7 +44,7 @@ public class READ3resok implements XdrAble {
         file_attributes.xdrEncode(xdr);
         count.xdrEncode(xdr);
         xdr.xdrEncodeBoolean(eof);
-        xdr.xdrEncodeDynamicOpaque(data);
+        xdr.xdrEncodeByteBuffer(data);
     }
 
     public void xdrDecode(XdrDecodingStream xdr)
@@ -51,7 +52,7 @@ public class READ3resok implements XdrAble {
         file_attributes = new post_op_attr(xdr);
         count = new count3(xdr);
         eof = xdr.xdrDecodeBoolean();
-        data = xdr.xdrDecodeDynamicOpaque();
+        data = xdr.xdrDecodeByteBuffer();
     }
 
 }
@@ -20,7 +20,9 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import org.dcache.nfs.ChimeraNFSException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.oncrpc4j.rpc.OncRpcException;
@@ -49,4 +51,26 @@ public abstract class AbstractNFSv4Operation {
      */
     public abstract void  process(CompoundContext context, nfs_resop4 result)
             throws ChimeraNFSException, IOException, OncRpcException;
+
+    /**
+     * Process current operation without blocking the calling thread. The
+     * {@code result} object is used to store result of the operation execution.
+     * The returned future completes exceptionally with the same exception
+     * as {@link #process} would throw. Operations are never processed
+     * concurrently within a compound request, however the next operation
+     * may be started by a thread which completes the returned future.
+     *
+     * The default implementation calls {@link #process} in the calling thread.
+     *
+     * @param context the context of compound request of this operation.
+     * @param result the operation result object to use.
+     * @return a future which completes when the operation is processed.
+     * @since 0.28
+     */
+    public CompletableFuture<Void> processAsync(CompoundContext context, nfs_resop4 result) {
+        return CompletableFutures.completeWith(() -> {
+            process(context, result);
+            return null;
+        });
+    }
 }
@@ -20,6 +20,8 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.BadSessionException;
@@ -33,6 +35,7 @@ import org.dcache.nfs.status.ResourceException;
 import org.dcache.nfs.status.ServerFaultException;
 import org.dcache.nfs.status.StaleClientidException;
 import org.dcache.nfs.status.StaleStateidException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_opnum4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
@@ -56,23 +59,51 @@ public abstract class AbstractOperationExecutor implements OperationExecutor {
 
         try {
             op.process(context, opResult);
-        } catch (NfsIoException | ResourceException | ServerFaultException e) {
+        } catch (ChimeraNFSException | OncRpcException e) {
+            setStatus(args, opResult, e);
+        }
+        return opResult;
+    }
+
+    @Override
+    public CompletableFuture<nfs_resop4> executeAsync(CompoundContext context, nfs_argop4 args) {
+
+        AbstractNFSv4Operation op = getOperation(args);
+        nfs_resop4 opResult = nfs_resop4.resopFor(args.argop);
+
+        return op.processAsync(context, opResult).handle((v, t) -> {
+            if (t != null) {
+                Throwable cause = CompletableFutures.unwrap(t);
+                if (!(cause instanceof IOException)) {
+                    throw t instanceof CompletionException ? (CompletionException) t : new CompletionException(cause);
+                }
+                setStatus(args, opResult, (IOException) cause);
+            }
+            return opResult;
+        });
+    }
+
+    private static void setStatus(nfs_argop4 args, nfs_resop4 opResult, IOException e) {
+        if (e instanceof NfsIoException || e instanceof ResourceException || e instanceof ServerFaultException) {
             LOGGER.error("NFS server fault: op: {} : {}", nfs_opnum4.toString(args.argop), e.getMessage());
-            opResult.setStatus(e.getStatus());
-        } catch (BadXdrException | OpIllegalException | InvalException e) {
+            opResult.setStatus(((ChimeraNFSException) e).getStatus());
+        } else if (e instanceof BadXdrException || e instanceof OpIllegalException || e instanceof InvalException) {
             LOGGER.warn("Faulty NFS client: op: {} : {}", nfs_opnum4.toString(args.argop), e.getMessage());
-            opResult.setStatus(e.getStatus());
-        } catch (BadStateidException | StaleStateidException | ExpiredException
-                | BadSessionException | StaleClientidException e) {
+            opResult.setStatus(((ChimeraNFSException) e).getStatus());
+        } else if (e instanceof BadStateidException || e instanceof StaleStateidException
+                || e instanceof ExpiredException || e instanceof BadSessionException
+                || e instanceof StaleClientidException) {
             LOGGER.info("Lost client state: op: {} : {}", nfs_opnum4.toString(args.argop), e.getMessage());
-            opResult.setStatus(e.getStatus());
-        } catch (ChimeraNFSException e) {
-            opResult.setStatus(e.getStatus());
-        } catch (OncRpcException e) {
+            opResult.setStatus(((ChimeraNFSException) e).getStatus());
+        } else if (e instanceof ChimeraNFSException) {
+            opResult.setStatus(((ChimeraNFSException) e).getStatus());
+        } else if (e instanceof OncRpcException) {
             opResult.setStatus(nfsstat.NFSERR_BADXDR);
             LOGGER.warn("Bad xdr: {}: ", e.getMessage());
+        } else {
+            LOGGER.error("NFS server fault: op: {} : {}", nfs_opnum4.toString(args.argop), e.getMessage(), e);
+            opResult.setStatus(nfsstat.NFSERR_SERVERFAULT);
         }
-        return opResult;
     }
 
     /**
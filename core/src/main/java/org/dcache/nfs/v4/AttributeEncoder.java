@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Ints;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.dcache.nfs.status.InvalException;
+import org.dcache.nfs.v4.xdr.attrlist4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.FsStat;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.Stat.StatAttribute;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.dcache.oncrpc4j.xdr.XdrEncodingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A precompiled encoder for a given attribute request bitmap. Clients use only
+ * a handful of distinct bitmaps, thus the bitmap is turned once into a list of
+ * per-attribute writers, which encode values straight into the XDR buffer.
+ * Unsupported attributes are dropped at compile time.
+ * <p>
+ * The encoding itself is done by a {@link Session}, which reuses the buffer and
+ * fetches {@link FsStat} and id mappings only once for all inodes encoded in the
+ * same operation, e.g. all entries of a READDIR reply.
+ *
+ * @see OperationGETATTR#fattr2xdr(int, VirtualFileSystem, Inode, Stat, CompoundContext)
+ * @since 0.28
+ */
+public class AttributeEncoder {
+
+    private static final Logger _log = LoggerFactory.getLogger(AttributeEncoder.class);
+
+    /**
+     * Maximal number of distinct request bitmaps to keep compiled.
+     */
+    private static final int MAX_ENCODERS = 256;
+
+    /**
+     * Initial size of the encoding buffer, enough for typical attribute sets.
+     */
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private static final Cache<bitmap4, AttributeEncoder> ENCODERS = CacheBuilder.newBuilder()
+            .maximumSize(MAX_ENCODERS)
+            .build();
+
+    /**
+     * Per-attribute writer.
+     */
+    @FunctionalInterface
+    private interface FieldWriter {
+
+        /**
+         * Encode attribute value into the provided stream.
+         *
+         * @return true, if attribute is encoded, or false if it's not available.
+         */
+        boolean write(Session session, Inode inode, Stat stat, XdrEncodingStream xdr) throws IOException;
+    }
+
+    /**
+     * Attribute numbers in the order they have to be encoded.
+     */
+    private final int[] _attrs;
+
+    /**
+     * Writers corresponding to the {@code _attrs}.
+     */
+    private final FieldWriter[] _writers;
+
+    /**
+     * The bitmap of attributes the encoder can provide.
+     */
+    private final int[] _mask;
+
+    private AttributeEncoder(bitmap4 request) {
+
+        List<FieldWriter> writers = new ArrayList<>();
+        List<Integer> attrs = new ArrayList<>();
+        bitmap4 mask = new bitmap4(new int[0]);
+
+        for (int attr : request) {
+            FieldWriter writer = compile(attr);
+            if (writer == null) {
+                _log.debug("   getAttributes : {} ({}) NOT SUPPORTED.", attr, OperationGETATTR.attrMask2String(attr));
+                continue;
+            }
+            writers.add(writer);
+            attrs.add(attr);
+            mask.set(attr);
+        }
+
+        _attrs = Ints.toArray(attrs);
+        _writers = writers.toArray(new FieldWriter[0]);
+        _mask = mask.value;
+    }
+
+    /**
+     * Get encoder for the given attribute request bitmap.
+     *
+     * @param request requested attributes.
+     * @return encoder for the requested attributes.
+     */
+    public static AttributeEncoder of(bitmap4 request) {
+        AttributeEncoder encoder = ENCODERS.getIfPresent(request);
+        if (encoder == null) {
+            // the request is a part of the client's arguments, thus take a private copy as the key
+            bitmap4 key = new bitmap4(request.value == null ? new int[0] : request.value.clone());
+            encoder = new AttributeEncoder(key);
+            ENCODERS.put(key, encoder);
+        }
+        return encoder;
+    }
+
+    /**
+     * Start a new encoding session. The session must be closed after use.
+     *
+     * @param fs file system to query for attributes.
+     * @param context compound context of the operation.
+     * @return a new encoding session.
+     */
+    public Session newSession(VirtualFileSystem fs, CompoundContext context) {
+        return new Session(fs, context);
+    }
+
+    /**
+     * Encoding state shared by all inodes encoded by the same operation.
+     * A session is not thread safe.
+     */
+    public class Session implements AutoCloseable {
+
+        private final VirtualFileSystem _fs;
+        private final CompoundContext _context;
+        private final Xdr _xdr = new Xdr(INITIAL_BUFFER_SIZE);
+
+        private FsStat _fsStat;
+        private final Map<Integer, byte[]> _owners = new HashMap<>();
+        private final Map<Integer, byte[]> _groups = new HashMap<>();
+
+        private Session(VirtualFileSystem fs, CompoundContext context) {
+            _fs = fs;
+            _context = context;
+        }
+
+        /**
+         * Encode attributes of the given inode.
+         *
+         * @param inode the inode to encode attributes of.
+         * @param stat inode's stat.
+         * @return encoded attributes.
+         * @throws IOException
+         */
+        public fattr4 encode(Inode inode, Stat stat) throws IOException {
+
+            int[] processed = _mask;
+
+            _xdr.beginEncoding();
+            for (int i = 0; i < _writers.length; i++) {
+                if (!_writers[i].write(this, inode, stat, _xdr)) {
+                    int attr = _attrs[i];
+                    _log.debug("   getAttributes : {} ({}) NOT SUPPORTED.", attr, OperationGETATTR.attrMask2String(attr));
+                    if (processed == _mask) {
+                        processed = _mask.clone();
+                    }
+                    processed[attr / Integer.SIZE] &= ~(1 << attr % Integer.SIZE);
+                }
+            }
+            _xdr.endEncoding();
+
+            fattr4 attributes = new fattr4();
+            // the bitmap is a part of the reply, never share it
+            attributes.attrmask = new bitmap4(processed == _mask ? _mask.clone() : trim(processed));
+            attributes.attr_vals = new attrlist4(_xdr.getBytes());
+            return attributes;
+        }
+
+        private FsStat fsStat() throws IOException {
+            if (_fsStat == null) {
+                _fsStat = _fs.getFsStat();
+            }
+            return _fsStat;
+        }
+
+        private byte[] owner(int uid) {
+            return _owners.computeIfAbsent(uid,
+                    id -> _context.getFs().getIdMapper().uidToPrincipal(id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        private byte[] group(int gid) {
+            return _groups.computeIfAbsent(gid,
+                    id -> _context.getFs().getIdMapper().gidToPrincipal(id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void close() {
+            _xdr.close();
+        }
+    }
+
+    /**
+     * Drop trailing empty words, as {@link bitmap4#set(int)} would never produce them.
+     */
+    private static int[] trim(int[] mask) {
+        int n = mask.length;
+        while (n > 0 && mask[n - 1] == 0) {
+            n--;
+        }
+        return n == mask.length ? mask : Arrays.copyOf(mask, n);
+    }
+
+    private static void encodeTime(XdrEncodingStream xdr, long millis) throws IOException {
+        // same as nfstime4(millis)
+        xdr.xdrEncodeLong(millis / 1000);
+        xdr.xdrEncodeInt((int) ((millis % 1000) * 1000000));
+    }
+
+    /**
+     * Compile the writer for the given attribute.
+     *
+     * @param attr attribute number
+     * @return attribute writer or null, if attribute is never supported.
+     */
+    private static FieldWriter compile(int attr) {
+
+        switch (attr) {
+            case nfs4_prot.FATTR4_TYPE:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeInt(OperationGETATTR.unixType2NFS(stat.getMode()));
+                    return true;
+                };
+            case nfs4_prot.FATTR4_CHANGE:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeLong(stat.getGeneration());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_SIZE:
+            case nfs4_prot.FATTR4_SPACE_USED:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeLong(stat.getSize());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_FSID:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeLong(17);
+                    xdr.xdrEncodeLong(17);
+                    return true;
+                };
+            case nfs4_prot.FATTR4_FILEHANDLE:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeDynamicOpaque(inode.toNfsHandle());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_FILEID:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeLong(stat.getIno());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_MODE:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeInt(stat.getMode() & 07777);
+                    return true;
+                };
+            case nfs4_prot.FATTR4_NUMLINKS:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeInt(stat.getNlink());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_OWNER:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeDynamicOpaque(s.owner(stat.getUid()));
+                    return true;
+                };
+            case nfs4_prot.FATTR4_OWNER_GROUP:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeDynamicOpaque(s.group(stat.getGid()));
+                    return true;
+                };
+            case nfs4_prot.FATTR4_RAWDEV:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeInt(0);
+                    xdr.xdrEncodeInt(0);
+                    return true;
+                };
+            case nfs4_prot.FATTR4_FILES_AVAIL:
+            case nfs4_prot.FATTR4_FILES_FREE:
+                return (s, inode, stat, xdr) -> {
+                    FsStat fsStat = s.fsStat();
+                    xdr.xdrEncodeLong(fsStat.getTotalFiles() - fsStat.getUsedFiles());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_FILES_TOTAL:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeLong(s.fsStat().getTotalFiles());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_SPACE_AVAIL:
+            case nfs4_prot.FATTR4_SPACE_FREE:
+                return (s, inode, stat, xdr) -> {
+                    FsStat fsStat = s.fsStat();
+                    xdr.xdrEncodeLong(fsStat.getTotalSpace() - fsStat.getUsedSpace());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_SPACE_TOTAL:
+                return (s, inode, stat, xdr) -> {
+                    xdr.xdrEncodeLong(s.fsStat().getTotalSpace());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_TIME_ACCESS:
+                return (s, inode, stat, xdr) -> {
+                    encodeTime(xdr, stat.getATime());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_TIME_CREATE:
+                return (s, inode, stat, xdr) -> {
+                    encodeTime(xdr, stat.isDefined(StatAttribute.BTIME) ? stat.getBTime() : stat.getCTime());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_TIME_METADATA:
+                return (s, inode, stat, xdr) -> {
+                    encodeTime(xdr, stat.getCTime());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_TIME_MODIFY:
+                return (s, inode, stat, xdr) -> {
+                    encodeTime(xdr, stat.getMTime());
+                    return true;
+                };
+            case nfs4_prot.FATTR4_MOUNTED_ON_FILEID:
+                return (s, inode, stat, xdr) -> {
+                    long mofi = stat.getIno();
+                    if (mofi == 0x00b0a23a /* it's a root*/) {
+                        mofi = 0x12345678;
+                    }
+                    xdr.xdrEncodeLong(mofi);
+                    return true;
+                };
+            case nfs4_prot.FATTR4_RDATTR_ERROR: // provided by the readdir operation
+            case nfs4_prot.FATTR4_ARCHIVE:
+            case nfs4_prot.FATTR4_CHOWN_RESTRICTED:
+            case nfs4_prot.FATTR4_FS_LOCATIONS:
+            case nfs4_prot.FATTR4_HIDDEN:
+            case nfs4_prot.FATTR4_MIMETYPE:
+            case nfs4_prot.FATTR4_QUOTA_AVAIL_HARD:
+            case nfs4_prot.FATTR4_QUOTA_AVAIL_SOFT:
+            case nfs4_prot.FATTR4_QUOTA_USED:
+            case nfs4_prot.FATTR4_SYSTEM:
+            case nfs4_prot.FATTR4_TIME_BACKUP:
+                return null;
+            case nfs4_prot.FATTR4_TIME_MODIFY_SET:
+            case nfs4_prot.FATTR4_TIME_ACCESS_SET:
+                return (s, inode, stat, xdr) -> {
+                    throw new InvalException("getattr of write-only attributes");
+                };
+            default:
+                // rarely requested or context dependent attributes
+                return (s, inode, stat, xdr) -> {
+                    Optional<? extends XdrAble> value = OperationGETATTR.fattr2xdr(attr, s._fs, inode, stat, s._context);
+                    if (!value.isPresent()) {
+                        return false;
+                    }
+                    value.get().xdrEncode(xdr);
+                    return true;
+                };
+        }
+    }
+}
@@ -36,6 +36,8 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.time.Instant;
 import java.util.Properties;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.dcache.nfs.status.NoGraceException;
 import org.dcache.nfs.status.ReclaimBadException;
@@ -85,6 +87,12 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
 
     private final Instant bootTime = Instant.now();
 
+    /**
+     * Lock to serialize database updates. Unlike monitors, the lock does not
+     * pin virtual threads to the carrier thread during database I/O.
+     */
+    private final Lock lock = new ReentrantLock();
+
     /**
      * Create a BerkeleyDBClientStore with db file located in the given directory.
      * @param dir the directory where berkeley DB files are stored.
@@ -153,16 +161,21 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @param client client's unique identifier.
      */
     @Override
-    public synchronized void addClient(byte[] client) {
-        Instant now = Instant.now();
+    public void addClient(byte[] client) {
+        lock.lock();
+        try {
+            Instant now = Instant.now();
 
-        DatabaseEntry key = new DatabaseEntry(client);
-        DatabaseEntry data = new DatabaseEntry();
+            DatabaseEntry key = new DatabaseEntry(client);
+            DatabaseEntry data = new DatabaseEntry();
 
-        LongBinding.longToEntry(now.toEpochMilli(), data);
+            LongBinding.longToEntry(now.toEpochMilli(), data);
 
-        LOGGER.debug("New client record [{}] at {}", new String(client, UTF_8), now);
-        clientDatabase.put(null, key, data);
+            LOGGER.debug("New client record [{}] at {}", new String(client, UTF_8), now);
+            clientDatabase.put(null, key, data);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -172,11 +185,16 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @param client client's unique identifier.
      */
     @Override
-    public synchronized void removeClient(byte[] client) {
-        DatabaseEntry key = new DatabaseEntry(client);
-        clientDatabase.delete(null, key);
-        if (clientRecoveryDatabase != null) {
-            clientRecoveryDatabase.delete(null, key);
+    public void removeClient(byte[] client) {
+        lock.lock();
+        try {
+            DatabaseEntry key = new DatabaseEntry(client);
+            clientDatabase.delete(null, key);
+            if (clientRecoveryDatabase != null) {
+                clientRecoveryDatabase.delete(null, key);
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -187,21 +205,25 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @param client client's unique identifier.
      */
     @Override
-    public synchronized void reclaimClient(byte[] client) {
-
-        if (clientRecoveryDatabase == null) {
-            return;
-        }
+    public void reclaimClient(byte[] client) {
+        lock.lock();
+        try {
+            if (clientRecoveryDatabase == null) {
+                return;
+            }
 
-        DatabaseEntry key = new DatabaseEntry(client);
+            DatabaseEntry key = new DatabaseEntry(client);
 
-        LOGGER.debug("Removing recovery record for client [{}]", new String(client, UTF_8));
-        clientRecoveryDatabase.delete(null, key);
+            LOGGER.debug("Removing recovery record for client [{}]", new String(client, UTF_8));
+            clientRecoveryDatabase.delete(null, key);
 
-        // do lazy cleanup
-        if (clientRecoveryDatabase.count() == 0) {
-            LOGGER.debug("No more client to recover - ending grace period.");
-            reclaimComplete();
+            // do lazy cleanup
+            if (clientRecoveryDatabase.count() == 0) {
+                LOGGER.debug("No more client to recover - ending grace period.");
+                reclaimComplete();
+            }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -214,22 +236,25 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @throws ReclaimBadException client's prevision state can't be detected.
      */
     @Override
-    public synchronized void wantReclaim(byte[] client) throws NoGraceException, ReclaimBadException {
-
-        if (clientRecoveryDatabase == null) {
-            throw new NoGraceException("Grace period expired");
-        }
+    public void wantReclaim(byte[] client) throws NoGraceException, ReclaimBadException {
+        lock.lock();
+        try {
+            if (clientRecoveryDatabase == null) {
+                throw new NoGraceException("Grace period expired");
+            }
 
-        DatabaseEntry key = new DatabaseEntry(client);
-        DatabaseEntry data = new DatabaseEntry();
+            DatabaseEntry key = new DatabaseEntry(client);
+            DatabaseEntry data = new DatabaseEntry();
 
-        LOGGER.debug("Removing recovery record for client [{}]", new String(client, UTF_8));
-        OperationStatus status = clientRecoveryDatabase.get(null, key, data, LockMode.READ_COMMITTED);
-        if (status != OperationStatus.SUCCESS) {
-            LOGGER.debug("No record for client [{}]", new String(client, UTF_8));
-            throw new ReclaimBadException("No pre-reboot record found");
+            LOGGER.debug("Removing recovery record for client [{}]", new String(client, UTF_8));
+            OperationStatus status = clientRecoveryDatabase.get(null, key, data, LockMode.READ_COMMITTED);
+            if (status != OperationStatus.SUCCESS) {
+                LOGGER.debug("No record for client [{}]", new String(client, UTF_8));
+                throw new ReclaimBadException("No pre-reboot record found");
+            }
+        } finally {
+            lock.unlock();
         }
-
     }
 
     /**
@@ -240,35 +265,38 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * @return true if store expects reclaims from previously existing clients.
      */
     @Override
-    public synchronized boolean waitingForReclaim() {
-
-        if (clientRecoveryDatabase == null) {
-            return false;
-        }
+    public boolean waitingForReclaim() {
+        lock.lock();
+        try {
+            if (clientRecoveryDatabase == null) {
+                return false;
+            }
 
-        Transaction tx = env.beginTransaction(null, null);
-        try (Cursor cursor = clientRecoveryDatabase.openCursor(tx, config)) {
+            Transaction tx = env.beginTransaction(null, null);
+            try (Cursor cursor = clientRecoveryDatabase.openCursor(tx, config)) {
 
-            DatabaseEntry key = new DatabaseEntry();
-            DatabaseEntry data = new DatabaseEntry();
+                DatabaseEntry key = new DatabaseEntry();
+                DatabaseEntry data = new DatabaseEntry();
 
-            /*
-             * Are there entries from previous instance. If not, the we are ready
-             */
-            while (cursor.getNext(key, data, null) == OperationStatus.SUCCESS) {
-                Instant clientCreationTime = Instant.ofEpochMilli(LongBinding.entryToLong(data));
-                if (clientCreationTime.isBefore(bootTime)) {
-                    LOGGER.debug("Recovery: wating for client [{}] at {}", new String(key.getData(), UTF_8), clientCreationTime);
-                    return true;
+                /*
+                 * Are there entries from previous instance. If not, the we are ready
+                 */
+                while (cursor.getNext(key, data, null) == OperationStatus.SUCCESS) {
+                    Instant clientCreationTime = Instant.ofEpochMilli(LongBinding.entryToLong(data));
+                    if (clientCreationTime.isBefore(bootTime)) {
+                        LOGGER.debug("Recovery: wating for client [{}] at {}", new String(key.getData(), UTF_8), clientCreationTime);
+                        return true;
+                    }
                 }
-            }
 
-            return false;
+                return false;
 
+            } finally {
+                tx.commit();
+            }
         } finally {
-            tx.commit();
+            lock.unlock();
         }
-
     }
 
     /**
@@ -300,46 +328,55 @@ public class BerkeleyDBClientStore implements ClientRecoveryStore {
      * period. Drop recovery database.
      */
     @Override
-    public synchronized void reclaimComplete() {
-
-        if (clientRecoveryDatabase == null) {
-            return;
-        }
+    public void reclaimComplete() {
+        lock.lock();
+        try {
+            if (clientRecoveryDatabase == null) {
+                return;
+            }
 
-        Transaction tx = env.beginTransaction(null, null);
+            Transaction tx = env.beginTransaction(null, null);
 
-        try {
+            try {
 
-            try (Cursor cursor = clientRecoveryDatabase.openCursor(tx, config)) {
+                try (Cursor cursor = clientRecoveryDatabase.openCursor(tx, config)) {
 
-                DatabaseEntry key = new DatabaseEntry();
-                DatabaseEntry data = new DatabaseEntry();
+                    DatabaseEntry key = new DatabaseEntry();
+                    DatabaseEntry data = new DatabaseEntry();
 
-                while (cursor.getNext(key, data, null) == OperationStatus.SUCCESS) {
-                    Instant clientCreationTime = Instant.ofEpochMilli(LongBinding.entryToLong(data));
-                    LOGGER.info("Dropping expired recovery record: [{}], {}", new String(key.getData(), UTF_8), clientCreationTime);
+                    while (cursor.getNext(key, data, null) == OperationStatus.SUCCESS) {
+                        Instant clientCreationTime = Instant.ofEpochMilli(LongBinding.entryToLong(data));
+                        LOGGER.info("Dropping expired recovery record: [{}], {}", new String(key.getData(), UTF_8), clientCreationTime);
+                    }
                 }
-            }
 
-            clientDatabase.close();
-            clientRecoveryDatabase.close();
-            clientRecoveryDatabase = null;
+                clientDatabase.close();
+                clientRecoveryDatabase.close();
+                clientRecoveryDatabase = null;
 
-            env.removeDatabase(tx, CLIENT_DB);
-            env.renameDatabase(tx, CLIENT_DB_RECOVER, CLIENT_DB);
+                env.removeDatabase(tx, CLIENT_DB);
+                env.renameDatabase(tx, CLIENT_DB_RECOVER, CLIENT_DB);
 
-            clientDatabase = env.openDatabase(tx, CLIENT_DB, dbConfig);
+                clientDatabase = env.openDatabase(tx, CLIENT_DB, dbConfig);
+            } finally {
+                tx.commit();
+            }
         } finally {
-            tx.commit();
+            lock.unlock();
         }
     }
 
     @Override
-    public synchronized void close() {
-        clientDatabase.close();
-        if (clientRecoveryDatabase != null) {
-            clientRecoveryDatabase.close();
-            clientRecoveryDatabase = null;
+    public void close() {
+        lock.lock();
+        try {
+            clientDatabase.close();
+            if (clientRecoveryDatabase != null) {
+                clientRecoveryDatabase.close();
+                clientRecoveryDatabase = null;
+            }
+        } finally {
+            lock.unlock();
         }
     }
 }
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Statistics of callback requests sent to clients. For each callback type the
+ * number of calls, failures, timeouts and the latency are recorded.
+ *
+ * @since 0.28
+ */
+public class CallbackStatistics {
+
+    private final String _name;
+    private final Map<String, Counters> _counters = new ConcurrentHashMap<>();
+
+    /**
+     * Create new statistics.
+     *
+     * @param name name under which statistics is exposed via JMX.
+     */
+    public CallbackStatistics(String name) {
+        _name = name;
+        new CallbackStatisticsMXBeanImpl(this);
+    }
+
+    /**
+     * Record completed callback request.
+     *
+     * @param callback the callback type.
+     * @param latency time between request submission and completion in nanoseconds.
+     * @param error the failure or {@code null} if request completed successfully.
+     */
+    void record(String callback, long latency, Throwable error) {
+        Counters c = _counters.computeIfAbsent(callback, k -> new Counters());
+        c.calls.increment();
+        c.totalLatency.add(latency);
+        c.maxLatency.accumulate(latency);
+        if (error != null) {
+            c.failures.increment();
+            if (error instanceof TimeoutException) {
+                c.timeouts.increment();
+            }
+        }
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public Map<String, Long> getCallCount() {
+        return collect(c -> c.calls.sum());
+    }
+
+    public Map<String, Long> getFailureCount() {
+        return collect(c -> c.failures.sum());
+    }
+
+    public Map<String, Long> getTimeoutCount() {
+        return collect(c -> c.timeouts.sum());
+    }
+
+    public Map<String, Long> getAverageLatencyMicros() {
+        return collect(c -> {
+            long calls = c.calls.sum();
+            return calls == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(c.totalLatency.sum() / calls);
+        });
+    }
+
+    public Map<String, Long> getMaxLatencyMicros() {
+        return collect(c -> TimeUnit.NANOSECONDS.toMicros(c.maxLatency.get()));
+    }
+
+    private Map<String, Long> collect(Function<Counters, Long> f) {
+        return _counters.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> f.apply(e.getValue())));
+    }
+
+    private static class Counters {
+
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder totalLatency = new LongAdder();
+        private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JMX wrapper for {@link CallbackStatistics}.
+ */
+public class CallbackStatisticsMXBeanImpl implements CallbackStatisticsMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(CallbackStatisticsMXBeanImpl.class);
+
+    private final CallbackStatistics _statistics;
+
+    public CallbackStatisticsMXBeanImpl(CallbackStatistics statistics) {
+        _statistics = statistics;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = String.format("%s:type=CallbackStatistics,name=%s",
+                    _statistics.getClass().getPackage().getName(), _statistics.getName());
+            ObjectName mxBeanName = new ObjectName(name);
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public Map<String, Long> getCallCount() {
+        return _statistics.getCallCount();
+    }
+
+    @Override
+    public Map<String, Long> getFailureCount() {
+        return _statistics.getFailureCount();
+    }
+
+    @Override
+    public Map<String, Long> getTimeoutCount() {
+        return _statistics.getTimeoutCount();
+    }
+
+    @Override
+    public Map<String, Long> getAverageLatencyMicros() {
+        return _statistics.getAverageLatencyMicros();
+    }
+
+    @Override
+    public Map<String, Long> getMaxLatencyMicros() {
+        return _statistics.getMaxLatencyMicros();
+    }
+}
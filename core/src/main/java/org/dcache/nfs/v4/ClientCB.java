@@ -20,9 +20,12 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.CB_COMPOUND4args;
 import org.dcache.nfs.v4.xdr.CB_COMPOUND4res;
 import org.dcache.nfs.v4.xdr.CB_LAYOUTRECALL4args;
@@ -79,6 +82,18 @@ public class ClientCB {
      * cross-vendor agreed to have '1'.
      */
     private static final int CB_VERSION = 1;
+
+    /**
+     * Time in seconds to wait for a free session slot and for client's reply.
+     */
+    private static final long CB_TIMEOUT = 10;
+
+    /**
+     * Maximal number of requests waiting for a free session slot. Further
+     * requests fail immediately, as the client is unable to keep up.
+     */
+    private static final int MAX_PENDING_REQUESTS = 1024;
+
     private final sessionid4 _session;
 
     /**
@@ -104,6 +119,9 @@ public class ClientCB {
     /** Session associated with this callback channel */
     private final ClientSession _clientSession;
 
+    /** Callback requests statistics */
+    private final CallbackStatistics _statistics;
+
     /**
      * @param transport for call-back communication
      * @param minorVersion nfs4 protocol minor version used by client.
@@ -111,9 +129,10 @@ public class ClientCB {
      * @param maxrequests the maximum number of concurrent requests.
      * @param program RPC program number to use
      * @param sec_parms supported security flavors
+     * @param statistics callback requests statistics
      */
     ClientCB(RpcTransport transport, int program, int minorVersion,  sessionid4 session, int maxrequests,
-            callback_sec_parms4[] sec_parms) {
+            callback_sec_parms4[] sec_parms, CallbackStatistics statistics) {
         _minorVersion = minorVersion;
         _session = session;
 
@@ -136,6 +155,7 @@ public class ClientCB {
         _highestSlotId = maxrequests - 1;
         _clientSession = new ClientSession(session, maxrequests);
         _rpc = new RpcCall(program, CB_VERSION, _auth, transport);
+        _statistics = statistics;
     }
 
     @Override
@@ -173,7 +193,68 @@ public class ClientCB {
         return cbCompound;
     }
 
+    /**
+     * Send a CB_COMPOUND with a single operation to the client. The request
+     * waits for a free session slot without blocking the calling thread.
+     *
+     * @param tag compound tag, used as operation name in statistics
+     * @param opArgs the callback operation
+     * @param checkStatus true if non-OK compound status should fail the request
+     * @return future that completes when client replies
+     */
+    private CompletableFuture<Void> callAsync(String tag, nfs_cb_argop4 opArgs, boolean checkStatus) {
+
+        if (_clientSession.waitingRequests() >= MAX_PENDING_REQUESTS) {
+            IOException e = new IOException("Too many pending callback requests: "
+                    + _clientSession.waitingRequests());
+            _statistics.record(tag, 0, e);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<ClientSession.SessionSlot> slot = _clientSession.acquireSlotAsync()
+                .orTimeout(CB_TIMEOUT, TimeUnit.SECONDS);
+
+        CompletableFuture<Void> result = slot
+                .thenCompose(s -> CompletableFutures.composeWith(() -> {
+                    XdrAble args = generateCompound(s, tag, opArgs);
+                    return _rpc.call(nfs4_prot.CB_COMPOUND_1, args, CB_COMPOUND4res.class);
+                })
+                        // the slot stays in use until the client replies, even if the caller
+                        // has timed out, as the client may still process the request
+                        .whenComplete((r, t) -> _clientSession.releaseSlot(s)))
+                .orTimeout(CB_TIMEOUT, TimeUnit.SECONDS)
+                .thenAccept(res -> {
+                    if (checkStatus) {
+                        try {
+                            nfsstat.throwIfNeeded(res.status);
+                        } catch (IOException e) {
+                            throw new CompletionException(e);
+                        }
+                    }
+                });
+
+        return result.whenComplete((r, t) ->
+                _statistics.record(tag, System.nanoTime() - start, CompletableFutures.unwrap(t)));
+    }
+
+    /**
+     * Recall all layouts of the default file system from the client.
+     *
+     * @throws OncRpcException if an RPC error occurs
+     * @throws IOException if an I/O error occurs
+     */
     public void cbLayoutRecallFsid() throws OncRpcException, IOException {
+        CompletableFutures.await(cbLayoutRecallFsidAsync());
+    }
+
+    /**
+     * Asynchronously recall all layouts of the default file system from the client.
+     *
+     * @return future that completes when client replies
+     * @since 0.28
+     */
+    public CompletableFuture<Void> cbLayoutRecallFsidAsync() {
 
         CB_LAYOUTRECALL4args cbLayoutrecall = new CB_LAYOUTRECALL4args();
         cbLayoutrecall.clora_changed = true;
@@ -189,13 +270,7 @@ public class ClientCB {
         opArgs.argop = nfs_cb_opnum4.OP_CB_LAYOUTRECALL;
         opArgs.opcblayoutrecall = cbLayoutrecall;
 
-        var slot = _clientSession.acquireSlot();
-        try {
-            XdrAble args = generateCompound(slot,"cb_layout_recall_fs", opArgs);
-            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, new CB_COMPOUND4res());
-        } finally {
-            _clientSession.releaseSlot(slot);
-        }
+        return callAsync("cb_layout_recall_fs", opArgs, false);
     }
 
     /**
@@ -208,6 +283,19 @@ public class ClientCB {
      * @throws IOException if an I/O error occurs
      */
     public void cbDelegationRecall(nfs_fh4 fh, stateid4 stateid, boolean truncate) throws OncRpcException, IOException {
+        CompletableFutures.await(cbDelegationRecallAsync(fh, stateid, truncate));
+    }
+
+    /**
+     * Asynchronously recall file delegation from the client.
+     *
+     * @param fh file handle of the file
+     * @param stateid stateid of the delegation
+     * @param truncate true if the client should truncate the file
+     * @return future that completes when client replies
+     * @since 0.28
+     */
+    public CompletableFuture<Void> cbDelegationRecallAsync(nfs_fh4 fh, stateid4 stateid, boolean truncate) {
 
         CB_RECALL4args cbDelegRecall = new CB_RECALL4args();
 
@@ -219,13 +307,7 @@ public class ClientCB {
         opArgs.argop = nfs_cb_opnum4.OP_CB_RECALL;
         opArgs.opcbrecall = cbDelegRecall;
 
-        var slot = _clientSession.acquireSlot();
-        try {
-            XdrAble args = generateCompound(slot,"cb_recall_delegation", opArgs);
-            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, new CB_COMPOUND4res());
-        } finally {
-            _clientSession.releaseSlot(slot);
-        }
+        return callAsync("cb_recall_delegation", opArgs, false);
     }
 
     /**
@@ -238,6 +320,19 @@ public class ClientCB {
      * @throws IOException if an I/O error occurs
      */
     public void cbLayoutRecallFile(nfs_fh4 fh, stateid4 stateid, layouttype4 layouttype) throws OncRpcException, IOException {
+        CompletableFutures.await(cbLayoutRecallFileAsync(fh, stateid, layouttype));
+    }
+
+    /**
+     * Asynchronously recall pNFS layout from the client.
+     *
+     * @param fh file handle of the file
+     * @param stateid stateid of the layout
+     * @param layouttype type of layout to recall
+     * @return future that completes when client replies
+     * @since 0.28
+     */
+    public CompletableFuture<Void> cbLayoutRecallFileAsync(nfs_fh4 fh, stateid4 stateid, layouttype4 layouttype) {
 
         CB_LAYOUTRECALL4args cbLayoutrecall = new CB_LAYOUTRECALL4args();
         cbLayoutrecall.clora_changed = true;
@@ -255,16 +350,7 @@ public class ClientCB {
         opArgs.argop = nfs_cb_opnum4.OP_CB_LAYOUTRECALL;
         opArgs.opcblayoutrecall = cbLayoutrecall;
 
-        var slot = _clientSession.acquireSlot();
-        try{
-            XdrAble args = generateCompound(slot,"cb_layout_recall_file", opArgs);
-
-            CB_COMPOUND4res res = new CB_COMPOUND4res();
-            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, res);
-            nfsstat.throwIfNeeded(res.status);
-        } finally {
-            _clientSession.releaseSlot(slot);
-        }
+        return callAsync("cb_layout_recall_file", opArgs, true);
     }
 
     /**
@@ -275,6 +361,17 @@ public class ClientCB {
      * @throws IOException if an I/O error occurs
      */
     public void cbDeleteDevice(deviceid4 id) throws OncRpcException, IOException {
+        CompletableFutures.await(cbDeleteDeviceAsync(id));
+    }
+
+    /**
+     * Asynchronously notify the client that a device id has been removed.
+     *
+     * @param id device id
+     * @return future that completes when client replies
+     * @since 0.28
+     */
+    public CompletableFuture<Void> cbDeleteDeviceAsync(deviceid4 id) {
 
         CB_NOTIFY_DEVICEID4args cbDeleteDeciveId = new CB_NOTIFY_DEVICEID4args();
 
@@ -294,22 +391,15 @@ public class ClientCB {
             byte[] b = xdr.getBytes();
 
             cbDeleteDeciveId.cnda_changes[0].notify_vals = new notifylist4(b);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
         }
 
         nfs_cb_argop4 opArgs = new nfs_cb_argop4();
         opArgs.argop = nfs_cb_opnum4.OP_CB_NOTIFY_DEVICEID;
         opArgs.opcbnotify_deviceid = cbDeleteDeciveId;
 
-        var slot = _clientSession.acquireSlot();
-        try{
-            XdrAble args = generateCompound(slot,"cb_delete_device", opArgs);
-
-            CB_COMPOUND4res res = new CB_COMPOUND4res();
-            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, res);
-            nfsstat.throwIfNeeded(res.status);
-        } finally {
-            _clientSession.releaseSlot(slot);
-        }
+        return callAsync("cb_delete_device", opArgs, true);
     }
 
     /**
@@ -321,6 +411,20 @@ public class ClientCB {
      * @param status   status of the offload
      */
     public void cbOffload(nfs_fh4 fh, stateid4 stateid, write_response4 response, int status) throws OncRpcException, IOException {
+        CompletableFutures.await(cbOffloadAsync(fh, stateid, response, status));
+    }
+
+    /**
+     * Asynchronously notify the client that offload copy has been completed.
+     *
+     * @param fh       file handle of the file
+     * @param stateid  stateid of the file
+     * @param response write response
+     * @param status   status of the offload
+     * @return future that completes when client replies
+     * @since 0.28
+     */
+    public CompletableFuture<Void> cbOffloadAsync(nfs_fh4 fh, stateid4 stateid, write_response4 response, int status) {
 
         CB_OFFLOAD4args copyOffload = new CB_OFFLOAD4args();
 
@@ -334,16 +438,7 @@ public class ClientCB {
         opArgs.argop = nfs_cb_opnum4.OP_CB_OFFLOAD;
         opArgs.opcboffload = copyOffload;
 
-        var slot = _clientSession.acquireSlot();
-        try{
-            XdrAble args = generateCompound(slot,"cb_offload", opArgs);
-
-            CB_COMPOUND4res res = new CB_COMPOUND4res();
-            _rpc.call(nfs4_prot.CB_COMPOUND_1, args, res);
-            nfsstat.throwIfNeeded(res.status);
-        } finally {
-            _clientSession.releaseSlot(slot);
-        }
+        return callAsync("cb_offload", opArgs, true);
     }
 
 
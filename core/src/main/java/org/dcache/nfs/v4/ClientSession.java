@@ -21,8 +21,12 @@ package org.dcache.nfs.v4;
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.dcache.nfs.v4.xdr.sequenceid4;
 import org.dcache.nfs.v4.xdr.sessionid4;
 import org.dcache.nfs.v4.xdr.slotid4;
@@ -46,7 +50,17 @@ public class ClientSession {
     /**
      * Queue that maintains the available/unused sessions slots.
      */
-    private final BlockingQueue<SessionSlot> unusedSessionSlots = new LinkedBlockingQueue<>();
+    private final Queue<SessionSlot> unusedSessionSlots = new ArrayDeque<>();
+
+    /**
+     * Requests waiting for a session slot to become available.
+     */
+    private final Queue<CompletableFuture<SessionSlot>> slotWaiters = new ArrayDeque<>();
+
+    /**
+     * Lock that guards {@link #unusedSessionSlots} and {@link #slotWaiters}.
+     */
+    private final Lock lock = new ReentrantLock();
 
     /**
      * session slot with associated id and sequence.
@@ -96,13 +110,44 @@ public class ClientSession {
      * available.
      */
     public SessionSlot acquireSlot() throws IOException {
+        CompletableFuture<SessionSlot> slot = acquireSlotAsync();
         try {
-            return unusedSessionSlots.take();
+            return slot.get();
         } catch (InterruptedException e) {
+            // the slot might be already assigned
+            if (!slot.cancel(false)) {
+                releaseSlot(slot.join());
+            }
             InterruptedIOException eio = new InterruptedIOException(e.getMessage());
             // preserve the original stacktrace
             eio.setStackTrace(e.getStackTrace());
             throw eio;
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Get available session slot. The returned future completes when a slot
+     * becomes available. If the future is completed by caller, for example
+     * due to a timeout, then the slot is given to the next waiting request.
+     *
+     * @return a future that completes with a session slot.
+     * @since 0.28
+     */
+    public CompletableFuture<SessionSlot> acquireSlotAsync() {
+        lock.lock();
+        try {
+            SessionSlot slot = unusedSessionSlots.poll();
+            if (slot != null) {
+                return CompletableFuture.completedFuture(slot);
+            }
+
+            CompletableFuture<SessionSlot> waiter = new CompletableFuture<>();
+            slotWaiters.add(waiter);
+            return waiter;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -110,7 +155,40 @@ public class ClientSession {
      * Return session slot into pool of available slots.
      */
     public void releaseSlot(SessionSlot slot) {
-        unusedSessionSlots.offer(slot);
+        while (true) {
+            CompletableFuture<SessionSlot> waiter;
+            lock.lock();
+            try {
+                waiter = slotWaiters.poll();
+                if (waiter == null) {
+                    unusedSessionSlots.offer(slot);
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // complete outside of the lock, as waiter proceeds with the request.
+            // Waiters which are timed out or canceled are skipped.
+            if (waiter.complete(slot)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get number of requests waiting for a session slot.
+     *
+     * @return number of waiting requests.
+     * @since 0.28
+     */
+    public int waitingRequests() {
+        lock.lock();
+        try {
+            return slotWaiters.size();
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
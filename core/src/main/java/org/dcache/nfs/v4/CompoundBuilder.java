@@ -27,11 +27,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.OptionalLong;
 
+import org.dcache.nfs.v4.xdr.ALLOCATE4args;
+import org.dcache.nfs.v4.xdr.CLONE4args;
 import org.dcache.nfs.v4.xdr.CLOSE4args;
 import org.dcache.nfs.v4.xdr.COMPOUND4args;
 import org.dcache.nfs.v4.xdr.COPY4args;
 import org.dcache.nfs.v4.xdr.CREATE4args;
 import org.dcache.nfs.v4.xdr.CREATE_SESSION4args;
+import org.dcache.nfs.v4.xdr.DEALLOCATE4args;
 import org.dcache.nfs.v4.xdr.DESTROY_CLIENTID4args;
 import org.dcache.nfs.v4.xdr.DESTROY_SESSION4args;
 import org.dcache.nfs.v4.xdr.EXCHANGE_ID4args;
@@ -39,6 +42,7 @@ import org.dcache.nfs.v4.xdr.GETATTR4args;
 import org.dcache.nfs.v4.xdr.GETDEVICEINFO4args;
 import org.dcache.nfs.v4.xdr.GETDEVICELIST4args;
 import org.dcache.nfs.v4.xdr.GETXATTR4args;
+import org.dcache.nfs.v4.xdr.IO_ADVISE4args;
 import org.dcache.nfs.v4.xdr.LAYOUTCOMMIT4args;
 import org.dcache.nfs.v4.xdr.LAYOUTERROR4args;
 import org.dcache.nfs.v4.xdr.LAYOUTGET4args;
@@ -47,13 +51,17 @@ import org.dcache.nfs.v4.xdr.LAYOUTSTATS4args;
 import org.dcache.nfs.v4.xdr.LISTXATTRS4args;
 import org.dcache.nfs.v4.xdr.LOCKU4args;
 import org.dcache.nfs.v4.xdr.LOOKUP4args;
+import org.dcache.nfs.v4.xdr.OFFLOAD_CANCEL4args;
+import org.dcache.nfs.v4.xdr.OFFLOAD_STATUS4args;
 import org.dcache.nfs.v4.xdr.OPEN4args;
 import org.dcache.nfs.v4.xdr.PUTFH4args;
 import org.dcache.nfs.v4.xdr.READ4args;
+import org.dcache.nfs.v4.xdr.READ_PLUS4args;
 import org.dcache.nfs.v4.xdr.READDIR4args;
 import org.dcache.nfs.v4.xdr.RECLAIM_COMPLETE4args;
 import org.dcache.nfs.v4.xdr.REMOVE4args;
 import org.dcache.nfs.v4.xdr.REMOVEXATTR4args;
+import org.dcache.nfs.v4.xdr.SEEK4args;
 import org.dcache.nfs.v4.xdr.SEQUENCE4args;
 import org.dcache.nfs.v4.xdr.SETXATTR4args;
 import org.dcache.nfs.v4.xdr.WRITE4args;
@@ -373,6 +381,109 @@ public class CompoundBuilder {
         return this;
     }
 
+    public CompoundBuilder withReadPlus(int count, long offset, stateid4 stateid) {
+        READ_PLUS4args args = new READ_PLUS4args();
+        args.rpa_count = new count4(count);
+        args.rpa_offset = new offset4(offset);
+        args.rpa_stateid = stateid;
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_READ_PLUS;
+        op.opread_plus = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withSeek(long offset, int what, stateid4 stateid) {
+        SEEK4args args = new SEEK4args();
+        args.sa_offset = new offset4(offset);
+        args.sa_what = what;
+        args.sa_stateid = stateid;
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_SEEK;
+        op.opseek = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withAllocate(long offset, long length, stateid4 stateid) {
+        ALLOCATE4args args = new ALLOCATE4args();
+        args.aa_offset = new offset4(offset);
+        args.aa_length = new length4(length);
+        args.aa_stateid = stateid;
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_ALLOCATE;
+        op.opallocate = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withDeallocate(long offset, long length, stateid4 stateid) {
+        DEALLOCATE4args args = new DEALLOCATE4args();
+        args.da_offset = new offset4(offset);
+        args.da_length = new length4(length);
+        args.da_stateid = stateid;
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_DEALLOCATE;
+        op.opdeallocate = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withIoAdvise(long offset, long count, stateid4 stateid, int... hints) {
+        IO_ADVISE4args args = new IO_ADVISE4args();
+        args.iaa_offset = new offset4(offset);
+        args.iaa_count = new length4(count);
+        args.iaa_stateid = stateid;
+        args.iaa_hints = bitmap4.of(hints);
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_IO_ADVISE;
+        op.opio_advise = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withOffloadStatus(stateid4 stateid) {
+        OFFLOAD_STATUS4args args = new OFFLOAD_STATUS4args();
+        args.osa_stateid = stateid;
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_OFFLOAD_STATUS;
+        op.opoffload_status = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withOffloadCancel(stateid4 stateid) {
+        OFFLOAD_CANCEL4args args = new OFFLOAD_CANCEL4args();
+        args.oca_stateid = stateid;
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_OFFLOAD_CANCEL;
+        op.opoffload_cancel = args;
+        ops.add(op);
+        return this;
+    }
+
+    public CompoundBuilder withClone(long srcOffset, stateid4 srcStateid, long dstOffset, stateid4 dstStateid, long count) {
+        CLONE4args args = new CLONE4args();
+        args.cl_src_offset = new offset4(srcOffset);
+        args.cl_src_stateid = srcStateid;
+        args.cl_dst_offset = new offset4(dstOffset);
+        args.cl_dst_stateid = dstStateid;
+        args.cl_count = new length4(count);
+
+        nfs_argop4 op = new nfs_argop4();
+        op.argop = nfs_opnum4.OP_CLONE;
+        op.opclone = args;
+        ops.add(op);
+        return this;
+    }
+
     public CompoundBuilder withGetdevicelist(layouttype4 layoutType) {
         nfs_argop4 op = new nfs_argop4();
         op.argop = nfs_opnum4.OP_GETDEVICELIST;
@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
 import java.security.Principal;
 
 import com.sun.security.auth.UnixNumericUserPrincipal;
@@ -35,6 +36,7 @@ import org.dcache.oncrpc4j.rpc.RpcCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import javax.security.auth.Subject;
@@ -44,6 +46,7 @@ import org.dcache.nfs.status.BadStateidException;
 import org.dcache.nfs.status.NoFileHandleException;
 import org.dcache.nfs.status.RestoreFhException;
 import org.dcache.nfs.v4.nlm.LockManager;
+import org.dcache.nfs.util.BufferPool;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.dcache.oncrpc4j.rpc.net.InetSocketAddresses;
 import org.dcache.oncrpc4j.rpc.RpcAuthType;
@@ -99,6 +102,13 @@ public class CompoundContext {
 
     private final nfs_impl_id4 _implId;
 
+    private final BufferPool _bufferPool;
+
+    /**
+     * Buffers borrowed from the pool which are referenced by the reply.
+     */
+    private final List<ByteBuffer> _replyBuffers = new ArrayList<>(1);
+
     /**
      * Create context of COUMPOUND request.
      *
@@ -119,6 +129,7 @@ public class CompoundContext {
         _rebootVerifier = builder.getRebootVerifier();
         _implId = builder.getImplementationId();
         _session = builder.getSession();
+        _bufferPool = builder.getBufferPool();
     }
 
     public RpcCall getRpcCall() {
@@ -366,4 +377,44 @@ public class CompoundContext {
     public nfs_impl_id4 getImplementationId() {
         return _implId;
     }
+
+    /**
+     * Get a heap buffer for data to be sent back to the client. The buffer
+     * stays valid until the reply is encoded.
+     *
+     * @param size required buffer size.
+     * @return a buffer with position zero and limit set to {@code size}.
+     */
+    public ByteBuffer allocateReplyBuffer(int size) {
+        if (_bufferPool == null) {
+            return ByteBuffer.allocate(size);
+        }
+        ByteBuffer buffer = _bufferPool.acquire(size);
+        _replyBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Get a direct buffer for data to be sent back to the client. The buffer
+     * stays valid until the reply is encoded.
+     *
+     * @param size required buffer size.
+     * @return a buffer with position zero and limit set to {@code size}.
+     */
+    public ByteBuffer allocateDirectReplyBuffer(int size) {
+        if (_bufferPool == null) {
+            return ByteBuffer.allocateDirect(size);
+        }
+        ByteBuffer buffer = _bufferPool.acquireDirect(size);
+        _replyBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Get buffers allocated by {@link #allocateReplyBuffer(int)} and
+     * {@link #allocateDirectReplyBuffer(int)} for this request.
+     */
+    List<ByteBuffer> getReplyBuffers() {
+        return _replyBuffers;
+    }
 }
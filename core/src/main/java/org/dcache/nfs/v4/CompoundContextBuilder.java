@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import org.dcache.nfs.ExportTable;
+import org.dcache.nfs.util.BufferPool;
 import org.dcache.nfs.v4.nlm.LockManager;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_impl_id4;
@@ -43,6 +44,7 @@ public class CompoundContextBuilder {
     private NFSv41Session session;
 
     private nfs_impl_id4 implId;
+    private BufferPool bufferPool;
 
     public CompoundContextBuilder withCall(RpcCall call) {
         this.call = call;
@@ -161,4 +163,13 @@ public class CompoundContextBuilder {
     public NFSv41Session getSession() {
         return session;
     }
-}
\ No newline at end of file
+
+    public CompoundContextBuilder withBufferPool(BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+        return this;
+    }
+
+    public BufferPool getBufferPool() {
+        return bufferPool;
+    }
+}
@@ -21,11 +21,10 @@ package org.dcache.nfs.v4;
 
 import com.google.common.util.concurrent.Striped;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -40,6 +39,8 @@ import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.status.ShareDeniedException;
 import org.dcache.nfs.status.StaleException;
 import org.dcache.nfs.util.AdaptiveDelegationLogic;
+import org.dcache.nfs.util.CompletableFutures;
+import org.dcache.nfs.v4.xdr.clientid4;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_fh4;
 import org.dcache.nfs.v4.xdr.open_delegation_type4;
@@ -67,12 +68,12 @@ public class FileTracker {
      * FIXME: get number of threads from RPC service.
      */
     private final Striped<Lock> filesLock = Striped.lock(Runtime.getRuntime().availableProcessors()*4);
-    private final Map<Opaque, List<OpenState>> files = new ConcurrentHashMap<>();
 
     /**
-     * Delegation records associated with open files.
+     * Open and delegation records of open files. The records are modified only
+     * while holding the file's lock, but can be looked up without locking.
      */
-    private final Map<Opaque, List<DelegationState>> delegations = new ConcurrentHashMap<>();
+    private final Map<Opaque, OpenFile> files = new ConcurrentHashMap<>();
 
     /**
      * Heuristic to offer delegations.
@@ -83,13 +84,71 @@ public class FileTracker {
             new AdaptiveDelegationLogic(4096, 4096, Duration.ofSeconds(120));
 
 
+    /**
+     * Open and delegation records of a single file. As a client merges all opens of
+     * a file into a single open and holds at most one delegation per file, the records
+     * are indexed by client id. Additionally, records are indexed by stateid to
+     * allow lock-free lookups on I/O.
+     */
+    private static final class OpenFile {
+
+        /**
+         * Opens indexed by stateid. Accessed without holding the file's lock.
+         */
+        private final Map<stateid4, OpenState> opens = new ConcurrentHashMap<>(2);
+
+        /**
+         * Delegations indexed by stateid. Accessed without holding the file's lock.
+         */
+        private final Map<stateid4, DelegationState> delegations = new ConcurrentHashMap<>(2);
+
+        /**
+         * Opens indexed by client id. Accessed only while holding the file's lock.
+         */
+        private final Map<clientid4, OpenState> opensByClient = new HashMap<>(2);
+
+        /**
+         * Delegations indexed by client id. Accessed only while holding the file's lock.
+         */
+        private final Map<clientid4, DelegationState> delegationsByClient = new HashMap<>(2);
+
+        void addOpen(OpenState os) {
+            opensByClient.put(os.client.getId(), os);
+            opens.put(os.stateid, os);
+        }
+
+        void removeOpen(OpenState os) {
+            opens.remove(os.stateid);
+            opensByClient.remove(os.client.getId(), os);
+        }
+
+        void addDelegation(DelegationState d) {
+            delegationsByClient.put(d.client().getId(), d);
+            delegations.put(d.delegationStateid().stateid(), d);
+        }
+
+        void removeDelegation(DelegationState d) {
+            delegations.remove(d.delegationStateid().stateid(), d);
+            delegationsByClient.remove(d.client().getId(), d);
+        }
+
+        boolean isEmpty() {
+            return opensByClient.isEmpty() && delegationsByClient.isEmpty();
+        }
+    }
+
     private static class OpenState {
 
         private final NFS4Client client;
         private final stateid4 stateid;
         private final StateOwner owner;
-        private int shareAccess;
-        private int shareDeny;
+
+        /*
+         * share access and deny are modified while holding file's lock, but
+         * read without locking.
+         */
+        private volatile int shareAccess;
+        private volatile int shareDeny;
 
         /**
          * Bitmask of share_access that have been seen by the open.
@@ -153,7 +212,7 @@ public class FileTracker {
         private final NFS4Client client;
         private final NFS4State delegationStateid;
         private final int delegationType;
-        private boolean revoked;
+        private volatile boolean revoked;
 
         /**
          * @param client
@@ -247,14 +306,15 @@ public class FileTracker {
         boolean wantWriteDelegation = (shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WANT_WRITE_DELEG) != 0;
 
         Opaque fileId = new Opaque(inode.getFileId());
+        List<DelegationState> toRecall = new ArrayList<>();
         Lock lock = filesLock.get(fileId);
         lock.lock();
         try {
             /*
              * check for existing opens on that file
-             * initialize new array with size of one, as this is what the majority of cases will be
              */
-            final List<OpenState> opens = files.computeIfAbsent(fileId, x -> new ArrayList<>(1));
+            final OpenFile openFile = files.computeIfAbsent(fileId, x -> new OpenFile());
+            final Collection<OpenState> opens = openFile.opensByClient.values();
 
             stateid4 stateid;
             // check for a conflicting open from not expired client (we need to check
@@ -268,7 +328,7 @@ public class FileTracker {
             /*
              * REVISIT: currently only read-delegations are supported
              */
-            var existingDelegations = delegations.get(fileId);
+            var existingDelegations = openFile.delegationsByClient;
 
             /*
              * delegation is possible if:
@@ -278,31 +338,27 @@ public class FileTracker {
              * - no other open has write access
              */
             boolean canDelegateRead = acceptsDelegation && (client.getCB() != null &&
-                    (existingDelegations == null ||
-                            existingDelegations.stream()
-                                    .noneMatch(d -> d.client().getId() == client.getId())) &&
+                    !existingDelegations.containsKey(client.getId()) &&
                             opens.stream()
                                     .noneMatch(os -> (os.shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) != 0));
 
             // recall any read delegations if write
-            if ((existingDelegations != null) && (shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) != 0) {
-                var fh = new nfs_fh4(inode.toNfsHandle());
-                int recalledDelegations = existingDelegations.stream()
+            if (!existingDelegations.isEmpty() && (shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) != 0) {
+                var conflictingDelegations = existingDelegations.values().stream()
                         .filter(d -> d.client().isLeaseValid())
                         .filter(d -> !d.client().getId().equals(client.getId()))
-                        .reduce(0, (c, d) -> {
-                            try {
-                                d.client().getCB().cbDelegationRecall(fh, d.delegationStateid().stateid(), false);
-                                d.revoked = true;
-                                return c + 1;
-                            } catch (IOException e) {
-                                LOG.warn("Failed to recall delegation from {} : {}", d.client(), e.toString());
-                                d.delegationStateid().disposeIgnoreFailures();
-                                return c;
-                            }
-                        }, Integer::sum);
-
-                if (recalledDelegations > 0) {
+                        .collect(Collectors.toList());
+
+                // recall only delegations that are not recalled yet, the recall
+                // is sent when file lock is released.
+                for (DelegationState d : conflictingDelegations) {
+                    if (!d.revoked) {
+                        d.revoked = true;
+                        toRecall.add(d);
+                    }
+                }
+
+                if (!conflictingDelegations.isEmpty()) {
                     throw new DelayException("Recalling read delegations");
                 }
             }
@@ -310,42 +366,39 @@ public class FileTracker {
             // if there is another open from the same client we must merge
             // access mode and return the same stateid as required by rfc5661#18.16.3
 
-            for (OpenState os : opens) {
-                if (os.client.getId() == client.getId()) {
-                        os.shareAccess |= shareAccess;
-                        os.shareDeny |= shareDeny;
+            OpenState os = openFile.opensByClient.get(client.getId());
+            if (os != null) {
+                os.shareAccess |= shareAccess;
+                os.shareDeny |= shareDeny;
 
-                        if (shareAccess != 0) {
-                            os.shareAccessSeen |= 1 << ((shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_BOTH) - 1);
-                        }
-                        if (shareDeny != 0) {
-                            os.shareDenySeen |= 1 << ((shareDeny & nfs4_prot.OPEN4_SHARE_ACCESS_BOTH) - 1);
-                        }
-
-                        os.stateid.seqid++;
-                        //we need to return copy to avoid modification by concurrent opens
-                        var openStateid = new stateid4(os.stateid.other, os.stateid.seqid);
+                if (shareAccess != 0) {
+                    os.shareAccessSeen |= 1 << ((shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_BOTH) - 1);
+                }
+                if (shareDeny != 0) {
+                    os.shareDenySeen |= 1 << ((shareDeny & nfs4_prot.OPEN4_SHARE_ACCESS_BOTH) - 1);
+                }
 
-                        // yet another open from the same client. Let's check if we can delegate.
-                        if (canDelegateRead && (os.shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_BOTH) == nfs4_prot.OPEN4_SHARE_ACCESS_READ &&
-                                (wantReadDelegation || adlHeuristic.shouldDelegate(client, inode))) {
+                os.stateid.seqid++;
+                //we need to return copy to avoid modification by concurrent opens
+                var openStateid = new stateid4(os.stateid.other, os.stateid.seqid);
 
-                            var delegationState = client.createDelegationState(os.getOwner());
-                            var delegation = new DelegationState(client, delegationState, open_delegation_type4.OPEN_DELEGATE_READ);
-                            delegations.computeIfAbsent(fileId, x -> new ArrayList<>(1))
-                                    .add(delegation);
+                // yet another open from the same client. Let's check if we can delegate.
+                if (canDelegateRead && (os.shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_BOTH) == nfs4_prot.OPEN4_SHARE_ACCESS_READ &&
+                        (wantReadDelegation || adlHeuristic.shouldDelegate(client, inode))) {
 
-                            return new OpenRecord(openStateid, delegationState.stateid(), true);
-                        }
+                    var delegationState = client.createDelegationState(os.getOwner());
+                    openFile.addDelegation(new DelegationState(client, delegationState, open_delegation_type4.OPEN_DELEGATE_READ));
 
-                        return new OpenRecord(openStateid, null, false);
+                    return new OpenRecord(openStateid, delegationState.stateid(), true);
                 }
+
+                return new OpenRecord(openStateid, null, false);
             }
 
             NFS4State state = client.createOpenState(owner);
             stateid = state.stateid();
             OpenState openState = new OpenState(client, owner, stateid, shareAccess, shareDeny);
-            opens.add(openState);
+            openFile.addOpen(openState);
             state.addDisposeListener(s -> removeOpen(inode, stateid));
             stateid.seqid++;
 
@@ -355,8 +408,7 @@ public class FileTracker {
             // REVISIT: currently only read-delegations are supported
             if (canDelegateRead && (wantReadDelegation || adlHeuristic.shouldDelegate(client, inode))) {
                 var delegationStateid = client.createDelegationState(state.getStateOwner());
-                delegations.computeIfAbsent(fileId, x -> new ArrayList<>(1))
-                        .add(new DelegationState(client, delegationStateid, open_delegation_type4.OPEN_DELEGATE_READ));
+                openFile.addDelegation(new DelegationState(client, delegationStateid, open_delegation_type4.OPEN_DELEGATE_READ));
                 return new OpenRecord(openStateid, delegationStateid.stateid(), true);
             } else {
                 //we need to return copy to avoid modification by concurrent opens
@@ -364,9 +416,59 @@ public class FileTracker {
             }
         } finally {
             lock.unlock();
+            // send recalls in parallel without holding the file lock
+            if (!toRecall.isEmpty()) {
+                recallDelegations(inode, fileId, toRecall);
+            }
+        }
+    }
+
+    /**
+     * Asynchronously recall given delegations. Delegations, which can't be
+     * recalled, are disposed.
+     *
+     * @param inode the file for which delegations are recalled.
+     * @param fileId the id of the file.
+     * @param toRecall delegations to recall.
+     */
+    private void recallDelegations(Inode inode, Opaque fileId, List<DelegationState> toRecall) {
+        var fh = new nfs_fh4(inode.toNfsHandle());
+        for (DelegationState d : toRecall) {
+            d.client().getCB()
+                    .cbDelegationRecallAsync(fh, d.delegationStateid().stateid(), false)
+                    .whenComplete((r, t) -> {
+                        if (t != null) {
+                            LOG.warn("Failed to recall delegation from {} : {}", d.client(),
+                                    CompletableFutures.unwrap(t).toString());
+                            discardDelegation(fileId, d);
+                        }
+                    });
         }
     }
 
+    /**
+     * Remove delegation, which client failed to return, and dispose its state.
+     *
+     * @param fileId the id of the delegated file.
+     * @param delegation the delegation to discard.
+     */
+    private void discardDelegation(Opaque fileId, DelegationState delegation) {
+        Lock lock = filesLock.get(fileId);
+        lock.lock();
+        try {
+            OpenFile openFile = files.get(fileId);
+            if (openFile != null) {
+                openFile.removeDelegation(delegation);
+                if (openFile.isEmpty()) {
+                    files.remove(fileId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        delegation.delegationStateid().disposeIgnoreFailures();
+    }
+
     /**
      * Reduce access on open file.
      *
@@ -384,14 +486,10 @@ public class FileTracker {
         Lock lock = filesLock.get(fileId);
         lock.lock();
         try {
-            final List<OpenState> opens = files.get(fileId);
-
-            OpenState os = opens.stream()
-                    .filter(s -> client.getId() == s.client.getId())
-                    .filter(s -> s.stateid.equals(stateid))
-                    .findFirst()
-                    .orElseThrow(BadStateidException::new);
-
+            OpenState os = findOpen(files.get(fileId), client, stateid);
+            if (os == null) {
+                throw new BadStateidException();
+            }
 
             if ((os.shareAccess & shareAccess) != shareAccess) {
                 throw new InvalException("downgrading to not owned share_access mode");
@@ -435,21 +533,20 @@ public class FileTracker {
         lock.lock();
         try {
 
-            var fileDelegations = delegations.get(fileId);
-            if (fileDelegations == null) {
+            OpenFile openFile = files.get(fileId);
+            if (openFile == null) {
                 throw new StaleException("no delegation found");
             }
 
-            DelegationState delegation = fileDelegations.stream()
-                    .filter(d -> d.client().getId().equals(client.getId()))
-                    .filter(d -> d.delegationStateid().stateid().equals(stateid))
-                    .findFirst()
-                    .orElseThrow(StaleException::new);
+            DelegationState delegation = findDelegation(openFile, client, stateid);
+            if (delegation == null) {
+                throw new StaleException();
+            }
 
             delegation.delegationStateid().tryDispose();
-            fileDelegations.remove(delegation);
-            if (fileDelegations.isEmpty()) {
-                delegations.remove(fileId);
+            openFile.removeDelegation(delegation);
+            if (openFile.isEmpty()) {
+                files.remove(fileId);
             }
 
         } finally {
@@ -461,6 +558,9 @@ public class FileTracker {
      * Get access mode for a given files, client and stateid. The state is must be either an open,
      * lock or delegation stateid.
      *
+     * The lookup doesn't acquire file's lock, thus concurrent I/O requests on the
+     * same file don't contend with each other.
+     *
      * @param client  nfs client who returns the delegation.
      * @param inode   the inode of the delegated file.
      * @param stateid open or delegation stateid
@@ -469,60 +569,70 @@ public class FileTracker {
             throws ChimeraNFSException {
 
         Opaque fileId = new Opaque(inode.getFileId());
-        Lock lock = filesLock.get(fileId);
-        lock.lock();
-        try {
-
-            switch (stateid.other[11]) {
-                case Stateids.LOCK_STATE_ID:
-                    NFS4State lockState = client.state(stateid);
-                    stateid = lockState.getOpenState().stateid();
-                    // fall through
-                case Stateids.OPEN_STATE_ID: {
-                    final List<OpenState> opens = files.get(fileId);
-
-                    if (opens == null) {
-                        throw new BadStateidException("no matching open");
-                    }
-
-                    final stateid4 openStateid = stateid;
-                    return opens.stream()
-                            .filter(s -> client.getId() == s.client.getId())
-                            .filter(s -> s.stateid.equals(openStateid))
-                            .mapToInt(OpenState::getShareAccess)
-                            .findAny()
-                            .orElseThrow(BadStateidException::new);
+        OpenFile openFile = files.get(fileId);
+
+        switch (stateid.other[11]) {
+            case Stateids.LOCK_STATE_ID:
+                NFS4State lockState = client.state(stateid);
+                stateid = lockState.getOpenState().stateid();
+                // fall through
+            case Stateids.OPEN_STATE_ID: {
+                if (openFile == null) {
+                    throw new BadStateidException("no matching open");
                 }
-                case Stateids.DELEGATION_STATE_ID: {
-
-                    var fileDelegations = delegations.get(fileId);
-                    if (fileDelegations == null) {
-                        throw new BadStateidException("no delegation found");
-                    }
 
-                    stateid4 delegationStateid = stateid;
-
-                    var delegation =  fileDelegations.stream()
-                            .filter(d -> d.client().getId().equals(client.getId()))
-                            .filter(d -> d.delegationStateid().stateid().equals(delegationStateid))
-                            .findAny()
-                            .orElseThrow(BadStateidException::new);
+                OpenState os = findOpen(openFile, client, stateid);
+                if (os == null) {
+                    throw new BadStateidException();
+                }
+                return os.getShareAccess();
+            }
+            case Stateids.DELEGATION_STATE_ID: {
 
-                    if (delegation.revoked()) {
-                        throw new DelegRevokedException();
-                    }
-                    // NOTE: as delegation types match access modes we don't convert the values.
-                    return delegation.delegationType();
+                if (openFile == null) {
+                    throw new BadStateidException("no delegation found");
                 }
 
-                default:
+                DelegationState delegation = findDelegation(openFile, client, stateid);
+                if (delegation == null) {
                     throw new BadStateidException();
+                }
+
+                if (delegation.revoked()) {
+                    throw new DelegRevokedException();
+                }
+                // NOTE: as delegation types match access modes we don't convert the values.
+                return delegation.delegationType();
             }
-        } finally {
-            lock.unlock();
+
+            default:
+                throw new BadStateidException();
         }
     }
 
+    /**
+     * Find client's open with given stateid.
+     *
+     * @return the open or {@code null}, if there is no matching open.
+     */
+    private static OpenState findOpen(OpenFile openFile, NFS4Client client, stateid4 stateid) {
+        if (openFile == null) {
+            return null;
+        }
+        OpenState os = openFile.opens.get(stateid);
+        return os != null && os.client.getId().equals(client.getId()) ? os : null;
+    }
+
+    /**
+     * Find client's delegation with given stateid.
+     *
+     * @return the delegation or {@code null}, if there is no matching delegation.
+     */
+    private static DelegationState findDelegation(OpenFile openFile, NFS4Client client, stateid4 stateid) {
+        DelegationState d = openFile.delegations.get(stateid);
+        return d != null && d.client().getId().equals(client.getId()) ? d : null;
+    }
+
     /**
      * Remove an open from the list.
      * @param inode of the opened file
@@ -534,22 +644,18 @@ public class FileTracker {
         Lock lock = filesLock.get(fileId);
         lock.lock();
         try {
-            final List<OpenState> opens = files.get(fileId);
-
-            if (opens != null) {
-                Iterator<OpenState> osi = opens.iterator();
-                while(osi.hasNext()) {
-                    OpenState os = osi.next();
-                    if (os.stateid.equals(stateid)) {
-                        osi.remove();
-                        break;
-                    }
+            final OpenFile openFile = files.get(fileId);
+
+            if (openFile != null) {
+                OpenState os = openFile.opens.get(stateid);
+                if (os != null) {
+                    openFile.removeOpen(os);
                 }
 
                 /**
                  * As we hold the lock, nobody else have added something into it.
                  */
-                if (opens.isEmpty()) {
+                if (openFile.isEmpty()) {
                     files.remove(fileId);
                 }
             }
@@ -567,9 +673,10 @@ public class FileTracker {
      */
     public Map<Inode, Collection<NFS4Client>> getOpenFiles() {
         return files.entrySet().stream()
+              .filter(e -> !e.getValue().opens.isEmpty())
               .collect(Collectors.toMap(
                     e -> Inode.forFile(e.getKey().getOpaque()),
-                    e -> e.getValue().stream().map(OpenState::getClient).collect(Collectors.toSet()))
+                    e -> e.getValue().opens.values().stream().map(OpenState::getClient).collect(Collectors.toSet()))
               );
     }
 
@@ -581,10 +688,11 @@ public class FileTracker {
      * @return map of all currently issued delegations.
      */
     public Map<Inode, Collection<NFS4Client>> getDelegations() {
-        return delegations.entrySet().stream()
+        return files.entrySet().stream()
+                .filter(e -> !e.getValue().delegations.isEmpty())
                 .collect(Collectors.toMap(
                         e -> Inode.forFile(e.getKey().getOpaque()),
-                        e -> e.getValue().stream().map(DelegationState::client).collect(Collectors.toSet()))
+                        e -> e.getValue().delegations.values().stream().map(DelegationState::client).collect(Collectors.toSet()))
                 );
     }
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.util.RequestStatistics;
+import org.dcache.nfs.v4.xdr.data_content4;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.read_plus_content;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+
+/**
+ * An {@link OperationExecutor} which records processing time, status and
+ * transferred data of each operation executed by the wrapped executor.
+ *
+ * @since 0.28
+ */
+public class InstrumentedOperationExecutor implements OperationExecutor {
+
+    private final OperationExecutor _inner;
+    private final RequestStatistics _statistics;
+
+    /**
+     * Create new instrumented executor.
+     *
+     * @param inner the executor to which operations are delegated.
+     * @param statistics the statistics to record into.
+     */
+    public InstrumentedOperationExecutor(OperationExecutor inner, RequestStatistics statistics) {
+        _inner = inner;
+        _statistics = statistics;
+    }
+
+    @Override
+    public nfs_resop4 execute(CompoundContext context, nfs_argop4 args) throws IOException, OncRpcException {
+        long start = System.nanoTime();
+        nfs_resop4 result = null;
+        try {
+            result = _inner.execute(context, args);
+            return result;
+        } finally {
+            record(args, result, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<nfs_resop4> executeAsync(CompoundContext context, nfs_argop4 args) {
+        long start = System.nanoTime();
+        return _inner.executeAsync(context, args)
+                .whenComplete((result, t) -> record(args, result, System.nanoTime() - start));
+    }
+
+    private void record(nfs_argop4 args, nfs_resop4 result, long latency) {
+
+        if (result == null) {
+            // the operation failed with an exception, the compound is failed as well
+            _statistics.record(args.argop, nfsstat.NFSERR_SERVERFAULT, latency);
+            return;
+        }
+
+        int status = result.getStatus();
+        _statistics.record(args.argop, status, latency);
+        if (status != nfsstat.NFS_OK) {
+            return;
+        }
+
+        switch (args.argop) {
+            case nfs_opnum4.OP_READ:
+                _statistics.addBytesRead(result.opread.resok4.data.remaining());
+                break;
+            case nfs_opnum4.OP_READ_PLUS:
+                for (read_plus_content content : result.opread_plus.rp_resok4.rpr_contents) {
+                    if (content.rpc_content == data_content4.NFS4_CONTENT_DATA) {
+                        _statistics.addBytesRead(content.rpc_data.d_data.remaining());
+                    }
+                }
+                break;
+            case nfs_opnum4.OP_WRITE:
+                _statistics.addBytesWritten(result.opwrite.resok4.count.value);
+                break;
+            default:
+                // no data transfer
+        }
+    }
+}
@@ -126,9 +126,10 @@ public class NFS4Client {
     private final Map<stateid4, NFS4State> _clientStates = new ConcurrentHashMap<>();
 
     /**
-     * sessions associated with the client
+     * sessions associated with the client. Lookups, which happen on every
+     * SEQUENCE, don't take client's lock.
      */
-    private final Map<sessionid4, NFSv41Session> _sessions = new HashMap<>();
+    private final Map<sessionid4, NFSv41Session> _sessions = new ConcurrentHashMap<>();
 
     /**
      * The point in time of the last lease renewal.
@@ -478,7 +479,8 @@ public class NFS4Client {
         }
 
         sessionid4 sessionid = _stateHandler.createSessionId(this, _sessionSequence);
-        NFSv41Session session = new NFSv41Session(this, sessionid, cacheSize, cbCacheSize, maxOps, maxCbOps);
+        NFSv41Session session = new NFSv41Session(this, sessionid, cacheSize, cbCacheSize, maxOps, maxCbOps,
+                _stateHandler.getReplyCache());
 
         _sessions.put(sessionid, session);
         _sessionSequence++;
@@ -491,14 +493,15 @@ public class NFS4Client {
         return session;
     }
 
-    public synchronized void removeSession(sessionid4 id) throws BadSessionException {
+    public void removeSession(sessionid4 id) throws BadSessionException {
         NFSv41Session session = _sessions.remove(id);
         if (session == null) {
             throw new BadSessionException("session not found");
         }
+        session.releaseReplyCache();
     }
 
-    public synchronized NFSv41Session getSession(sessionid4 id) throws BadSessionException {
+    public NFSv41Session getSession(sessionid4 id) throws BadSessionException {
         NFSv41Session session = _sessions.get(id);
         if (session == null) {
             throw new BadSessionException("session not found");
@@ -542,6 +545,10 @@ public class NFS4Client {
     }
 
     @GuardedBy("this")
+    private void releaseReplyCaches() {
+        _sessions.values().forEach(NFSv41Session::releaseReplyCache);
+    }
+
     private void drainStates() {
         Iterator<NFS4State> i = _clientStates.values().iterator();
         while (i.hasNext()) {
@@ -557,6 +564,7 @@ public class NFS4Client {
      */
     public synchronized final void tryDispose() throws ChimeraNFSException {
         drainStates();
+        releaseReplyCaches();
         Iterator<DisposeListener<NFS4Client>> i = _disposeListeners.iterator();
         while(i.hasNext()) {
             DisposeListener<NFS4Client> listener = i.next();
@@ -570,6 +578,7 @@ public class NFS4Client {
      */
     public synchronized final void disposeIgnoreFailures() {
         drainStates();
+        releaseReplyCaches();
         _disposeListeners.forEach( l -> {
             try {
                 l.notifyDisposed(NFS4Client.this);
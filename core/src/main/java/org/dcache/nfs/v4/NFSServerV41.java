@@ -24,17 +24,29 @@ import org.dcache.nfs.ExportTable;
 import org.dcache.nfs.ExportFile;
 import org.dcache.nfs.v4.xdr.*;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.util.BufferPool;
+import org.dcache.nfs.util.EncodedReply;
+import org.dcache.nfs.util.RequestStatistics;
+import org.dcache.nfs.util.RequestStatisticsMXBeanImpl;
+import org.dcache.nfs.util.CompletableFutures;
+import org.dcache.nfs.util.RequestExecutors;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
 import org.dcache.oncrpc4j.rpc.RpcCall;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.dcache.nfs.vfs.PseudoFs;
+import org.dcache.nfs.vfs.PseudoFsCache;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.dcache.nfs.status.MinorVersMismatchException;
 import org.dcache.nfs.status.NotOnlyOpException;
@@ -57,6 +69,20 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
     private final NFSv4StateHandler _statHandler;
     private final LockManager _nlm;
     private final nfs_impl_id4 _implementationId;
+    private final PseudoFsCache _pseudoFsCache;
+    private final BufferPool _bufferPool;
+
+    /**
+     * Request processing statistics.
+     */
+    private final RequestStatistics _statistics =
+            new RequestStatistics("nfs-v41", nfs_opnum4.OP_REMOVEXATTR + 1, nfs_opnum4.OP_ILLEGAL, nfs_opnum4::toString);
+
+    /**
+     * Executor to process requests on, or {@code null} to process them by
+     * oncrpc4j worker threads.
+     */
+    private final Executor _requestExecutor;
 
     /**
      * Verifier to indicate client that server is rebooted. Current currentTimeMillis
@@ -68,9 +94,13 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         _deviceManager = builder.deviceManager;
         _fs = builder.vfs;
         _exportTable = builder.exportTable;
-        _operationExecutor = builder.operationExecutor;
+        _operationExecutor = new InstrumentedOperationExecutor(builder.operationExecutor, _statistics);
+        new RequestStatisticsMXBeanImpl(_statistics);
         _nlm = builder.nlm == null ? new SimpleLm() : builder.nlm;
         _statHandler = builder.stateHandler == null ? new NFSv4StateHandler() : builder.stateHandler;
+        _pseudoFsCache = builder.pseudoFsCache;
+        _bufferPool = builder.bufferPool == null ? new BufferPool("nfs-v41") : builder.bufferPool;
+        _requestExecutor = builder.requestExecutor;
 
         _implementationId = new nfs_impl_id4();
         _implementationId.nii_date = new nfstime4(builder.implementationDate.toEpochMilli());
@@ -87,9 +117,13 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         _deviceManager = deviceManager;
         _fs = fs;
         _exportTable = exportTable;
-        _operationExecutor = operationExecutor;
+        _operationExecutor = new InstrumentedOperationExecutor(operationExecutor, _statistics);
+        new RequestStatisticsMXBeanImpl(_statistics);
         _nlm = new SimpleLm();
         _statHandler = new NFSv4StateHandler();
+        _pseudoFsCache = null;
+        _bufferPool = new BufferPool("nfs-v41");
+        _requestExecutor = null;
 
         _implementationId = new nfs_impl_id4();
         _implementationId.nii_date = new nfstime4(NFSv4Defaults.NFS4_IMPLEMENTATION_DATE);
@@ -102,8 +136,57 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         _log.debug("NFS PING client: {}", call$.getTransport().getRemoteSocketAddress());
     }
 
+    @Override
+    public void dispatchOncRpcCall(RpcCall call) throws OncRpcException, IOException {
+
+        if (_requestExecutor != null) {
+            RequestExecutors.dispatch(_requestExecutor, call, this::dispatch);
+            return;
+        }
+        dispatch(call);
+    }
+
+    private void dispatch(RpcCall call) throws OncRpcException, IOException {
+
+        if (call.getProcedure() != nfs4_prot.NFSPROC4_COMPOUND_4) {
+            super.dispatchOncRpcCall(call);
+            return;
+        }
+
+        COMPOUND4args args = new COMPOUND4args();
+        call.retrieveCall(args);
+
+        CompoundReply reply = new CompoundReply();
+        processCompound(call, args, reply).thenAccept(res -> {
+            try {
+                // send the reply encoded for the session reply cache as is
+                call.reply(reply.encoded != null ? new EncodedReply(reply.encoded) : res);
+            } finally {
+                // the reply is encoded, thus the data is not referenced anymore
+                reply.buffers.forEach(_bufferPool::release);
+            }
+        });
+    }
+
     @Override
     public COMPOUND4res NFSPROC4_COMPOUND_4(RpcCall call$, COMPOUND4args arg1) {
+        // the caller owns the result, thus buffers never go back into the pool
+        return processCompound(call$, arg1, new CompoundReply()).join();
+    }
+
+    /**
+     * Process COMPOUND request. If an operation can't be completed immediately,
+     * the processing is suspended and resumed by the thread which completes
+     * the operation. The returned future never completes exceptionally, as
+     * all errors are reported by the status of the result.
+     *
+     * @param call$ the RPC call.
+     * @param arg1 COMPOUND arguments.
+     * @param reply collects pooled buffers which can be released as
+     * soon as reply is encoded, and the reply encoded for the session reply cache.
+     * @return a future with COMPOUND result.
+     */
+    private CompletableFuture<COMPOUND4res> processCompound(RpcCall call$, COMPOUND4args arg1, CompoundReply reply) {
 
         COMPOUND4res res = new COMPOUND4res();
 
@@ -134,8 +217,9 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
                 throw new ResourceException(String.format("Too many ops [%d]", arg1.argarray.length));
             }
             res.resarray = new ArrayList<>(arg1.argarray.length);
+            _statistics.recordCompound(arg1.argarray.length);
 
-            VirtualFileSystem fs = new PseudoFs(_fs, call$, _exportTable);
+            VirtualFileSystem fs = new PseudoFs(_fs, call$, _exportTable, _pseudoFsCache);
 
             CompoundContextBuilder builder = new CompoundContextBuilder()
                     .withMinorversion(arg1.minorversion.value)
@@ -146,6 +230,7 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
                     .withExportTable(_exportTable)
                     .withRebootVerifier(_rebootVerifier)
                     .withImplementationId(_implementationId)
+                    .withBufferPool(_bufferPool)
                     .withCall(call$);
 
             if (_deviceManager != null) {
@@ -160,8 +245,52 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
 
             CompoundContext context = builder.build();
 
-            boolean retransmit = false;
-            for (int position = 0; position < arg1.argarray.length; position++) {
+            return executeOperations(context, arg1, res, 0)
+                    .handle((retransmit, t) -> {
+                        if (t != null) {
+                            handleCompoundFailure(res, CompletableFutures.unwrap(t));
+                            return res;
+                        }
+
+                        if (!retransmit && context.getSessionSlot() != null) {
+                            if (context.cacheThis()) {
+                                reply.encoded = context.getSessionSlot().update(res);
+                            } else {
+                                context.getSessionSlot().updateStatus(res.status);
+                            }
+                        }
+
+                        // cached reply is encoded, thus doesn't reference the buffers
+                        reply.buffers.addAll(context.getReplyBuffers());
+
+                        _log.debug("OP: [{}] status: {}", res.tag, res.status);
+                        return res;
+                    });
+
+        } catch (Exception e) {
+            handleCompoundFailure(res, e);
+            return CompletableFuture.completedFuture(res);
+        } finally {
+            MDC.remove(NfsMdc.TAG);
+            MDC.remove(NfsMdc.CLIENT);
+            MDC.remove(NfsMdc.SESSION);
+        }
+    }
+
+    /**
+     * Execute compound operations starting at the given position. Operations
+     * which complete immediately are executed in a loop, otherwise execution
+     * is resumed when the pending operation completes.
+     *
+     * @return a future which completes with {@code true} if reply is taken from
+     * the session reply cache.
+     */
+    private CompletableFuture<Boolean> executeOperations(CompoundContext context, COMPOUND4args arg1, COMPOUND4res res, int start) {
+
+        int minorversion = arg1.minorversion.value;
+
+        try {
+            for (int position = start; position < arg1.argarray.length; position++) {
 
                 nfs_argop4 op = arg1.argarray[position];
 
@@ -169,7 +298,7 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
                     checkOpPosition(op.argop, position, arg1.argarray.length);
                     if (position == 1) {
                         /*
-                             * at this point we already have to have a session
+                         * at this point we already have to have a session
                          */
                         if (arg1.argarray.length > context.getSession().getMaxOps()) {
                             throw new TooManyOpsException(String.format("Too many ops [%d]", arg1.argarray.length));
@@ -189,42 +318,50 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
 
                             res.resarray.addAll(cache.subList(position, cache.size()));
                             res.status = statusOfLastOperation(cache);
-                            retransmit = true;
-                            break;
+                            return CompletableFuture.completedFuture(true);
                         }
                     }
                 }
 
-                nfs_resop4 opResult = _operationExecutor.execute(context, op);
+                CompletableFuture<nfs_resop4> opFuture = _operationExecutor.executeAsync(context, op);
+                if (!opFuture.isDone()) {
+                    int next = position + 1;
+                    return opFuture.thenCompose(opResult -> addResult(res, opResult)
+                            ? executeOperations(context, arg1, res, next)
+                            : CompletableFuture.completedFuture(false));
+                }
 
-                res.resarray.add(opResult);
-                res.status = opResult.getStatus();
-                if (res.status != nfsstat.NFS_OK) {
+                if (!addResult(res, opFuture.join())) {
                     break;
                 }
             }
+        } catch (ChimeraNFSException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
 
-            if (!retransmit && context.cacheThis()) {
-                context.getSessionSlot().update(res.resarray);
-            }
+        return CompletableFuture.completedFuture(false);
+    }
 
-            _log.debug("OP: [{}] status: {}", res.tag, res.status);
+    /**
+     * Add result of an operation to the compound result.
+     *
+     * @return true if the next operation should be executed.
+     */
+    private static boolean addResult(COMPOUND4res res, nfs_resop4 opResult) {
+        res.resarray.add(opResult);
+        res.status = opResult.getStatus();
+        return res.status == nfsstat.NFS_OK;
+    }
 
-        } catch (ChimeraNFSException e) {
-            _log.info("NFS operation failed: {}", e.getMessage());
-            res.resarray = Collections.emptyList();
-            res.status = e.getStatus();
-        } catch (Exception e) {
-            _log.error("Unhandled exception:", e);
-            res.resarray = Collections.emptyList();
+    private static void handleCompoundFailure(COMPOUND4res res, Throwable t) {
+        if (t instanceof ChimeraNFSException) {
+            _log.info("NFS operation failed: {}", t.getMessage());
+            res.status = ((ChimeraNFSException) t).getStatus();
+        } else {
+            _log.error("Unhandled exception:", t);
             res.status = nfsstat.NFSERR_SERVERFAULT;
-        } finally {
-            MDC.remove(NfsMdc.TAG);
-            MDC.remove(NfsMdc.CLIENT);
-            MDC.remove(NfsMdc.SESSION);
         }
-
-        return res;
+        res.resarray = Collections.emptyList();
     }
 
     /**
@@ -235,6 +372,16 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         return _statHandler;
     }
 
+    /**
+     * Get request processing statistics of this nfs server.
+     *
+     * @return request statistics.
+     * @since 0.28
+     */
+    public RequestStatistics getRequestStatistics() {
+        return _statistics;
+    }
+
     /*
      *
      * from NFSv4.1 spec:
@@ -293,6 +440,23 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         return ops.get(ops.size() -1).getStatus();
     }
 
+    /**
+     * Data of a COMPOUND reply, which is needed to send it to the client.
+     */
+    private static class CompoundReply {
+
+        /**
+         * Pooled buffers, which can be released as soon as reply is encoded.
+         */
+        private final List<ByteBuffer> buffers = new ArrayList<>();
+
+        /**
+         * The reply encoded for the session reply cache or {@code null}, if
+         * reply is not encoded yet.
+         */
+        private byte[] encoded;
+    }
+
     public static class Builder {
 
         private OperationExecutor operationExecutor;
@@ -301,6 +465,9 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
         private ExportTable exportTable;
         private LockManager nlm;
         private NFSv4StateHandler stateHandler;
+        private PseudoFsCache pseudoFsCache;
+        private BufferPool bufferPool;
+        private Executor requestExecutor;
         private String implementationName = NFSv4Defaults.NFS4_IMPLEMENTATION_ID;
         private String implementationDomain = NFSv4Defaults.NFS4_IMPLEMENTATION_DOMAIN;
         private Instant implementationDate = NFSv4Defaults.NFS4_IMPLEMENTATION_DATE;
@@ -356,6 +523,57 @@ public class NFSServerV41 extends nfs4_prot_NFS4_PROGRAM_ServerStub {
             return this;
         }
 
+        /**
+         * Use provided cache of per-client pseudo file system trees. The cache
+         * can be shared with other servers that serve the same file system.
+         * If not set, then the tree is re-build on every access.
+         *
+         * @param pseudoFsCache the pseudo file system tree cache.
+         * @return this builder.
+         */
+        public Builder withPseudoFsCache(PseudoFsCache pseudoFsCache) {
+            this.pseudoFsCache = pseudoFsCache;
+            return this;
+        }
+
+        /**
+         * Use provided pool for buffers holding READ reply data. The pool
+         * can be shared with other servers.
+         *
+         * @param bufferPool the buffer pool.
+         * @return this builder.
+         */
+        public Builder withBufferPool(BufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
+        /**
+         * Process requests by threads of provided executor instead of oncrpc4j
+         * worker threads. This allows to use an executor which is not limited
+         * by the number of threads, like one created by
+         * {@link RequestExecutors#newVirtualThreadPerTaskExecutor()}, with
+         * file systems that block on slow backend calls.
+         *
+         * @param requestExecutor the executor to process requests.
+         * @return this builder.
+         */
+        public Builder withRequestExecutor(Executor requestExecutor) {
+            this.requestExecutor = requestExecutor;
+            return this;
+        }
+
+        /**
+         * Process each request on a new virtual thread.
+         *
+         * @return this builder.
+         * @throws UnsupportedOperationException if the running JVM has no
+         * support for virtual threads.
+         */
+        public Builder withVirtualThreads() {
+            return withRequestExecutor(RequestExecutors.newVirtualThreadPerTaskExecutor());
+        }
+
         public NFSServerV41 build() {
             return new NFSServerV41(this);
         }
@@ -20,9 +20,11 @@
 package org.dcache.nfs.v4;
 
 import com.google.common.io.BaseEncoding;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.v4.xdr.sessionid4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
@@ -42,6 +44,17 @@ public class NFSv41Session {
     private final int _maxCbRequests;
     private final Set<SessionConnection> _boundConnections;
 
+    /**
+     * Lock to serialize connection binding. The {@link ReentrantLock} doesn't
+     * pin virtual threads to the carrier thread.
+     */
+    private final Lock _bindLock = new ReentrantLock();
+
+    /**
+     * Memory accounting of cached replies.
+     */
+    private final SessionReplyCache.Account _replyCacheAccount;
+
     /**
      * Create new session for the given client.
      * @param client The client that owns this session.
@@ -50,15 +63,19 @@ public class NFSv41Session {
      * @param maxCbRequests The maximum number of concurrent callback requests.
      * @param maxOps The maximum number of compound operations per requests.
      * @param maxCbOps The maximum number of compound operations per callback requests.
+     * @param replyCache The reply cache to account memory used by cached replies.
+     * @since 0.28
      */
-    public NFSv41Session(NFS4Client client, sessionid4 sessionid,  int maxRequests, int maxCbRequests, int maxOps, int maxCbOps) {
+    public NFSv41Session(NFS4Client client, sessionid4 sessionid,  int maxRequests, int maxCbRequests, int maxOps, int maxCbOps,
+            SessionReplyCache replyCache) {
+        _replyCacheAccount = replyCache.newAccount(sessionid);
         _client = client;
         _slots = new SessionSlot[maxRequests];
         _session = sessionid;
         _maxOps = maxOps;
         _maxCbOps = maxCbOps;
         _maxCbRequests = maxCbRequests;
-        _boundConnections = new HashSet<>();
+        _boundConnections = ConcurrentHashMap.newKeySet();
     }
 
     public sessionid4 id() {
@@ -113,7 +130,7 @@ public class NFSv41Session {
         }
 
         if (_slots[slot] == null) {
-            _slots[slot] = new SessionSlot();
+            _slots[slot] = new SessionSlot(_replyCacheAccount);
         }
 
         return _slots[slot];
@@ -136,6 +153,27 @@ public class NFSv41Session {
 	return _maxCbOps;
     }
 
+    /**
+     * Get memory used by cached replies of this session.
+     *
+     * @return size of cached replies in bytes.
+     */
+    public long getReplyCacheSize() {
+        return _replyCacheAccount.getUsedBytes();
+    }
+
+    /**
+     * Discard all cached replies of this session. Called when session is destroyed.
+     */
+    void releaseReplyCache() {
+        for (SessionSlot slot : _slots) {
+            if (slot != null) {
+                slot.releaseReply();
+            }
+        }
+        _replyCacheAccount.close();
+    }
+
     @Override
     public String toString() {
         return _client.getRemoteAddress() + " : " + BaseEncoding.base16().lowerCase().encode(_session.value);
@@ -146,9 +184,20 @@ public class NFSv41Session {
      * has no bindings,
      * @param connection to bind
      */
-    public synchronized void bindIfNeeded(SessionConnection connection) {
-        if (_boundConnections.isEmpty()) {
-            bindToConnection(connection);
+    public void bindIfNeeded(SessionConnection connection) {
+
+        // fast path, called on every SEQUENCE
+        if (!_boundConnections.isEmpty()) {
+            return;
+        }
+
+        _bindLock.lock();
+        try {
+            if (_boundConnections.isEmpty()) {
+                bindToConnection(connection);
+            }
+        } finally {
+            _bindLock.unlock();
         }
     }
 
@@ -156,7 +205,7 @@ public class NFSv41Session {
      * Binds the session to a given {@link SessionConnection}
      * @param connection to bind
      */
-    public synchronized void bindToConnection(SessionConnection connection) {
+    public void bindToConnection(SessionConnection connection) {
         _boundConnections.add(connection);
     }
 
@@ -165,7 +214,7 @@ public class NFSv41Session {
      * @param connection
      * @return true, if session has no bindings or is bound to given connection.
      */
-    public synchronized boolean isReleasableBy(SessionConnection connection) {
+    public boolean isReleasableBy(SessionConnection connection) {
         return _boundConnections.isEmpty() || _boundConnections.contains(connection);
     }
 }
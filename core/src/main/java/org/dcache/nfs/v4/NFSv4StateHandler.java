@@ -29,8 +29,8 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.security.Principal;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.Executors;
@@ -38,6 +38,7 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.status.BadSessionException;
@@ -51,6 +52,7 @@ import org.dcache.nfs.v4.xdr.verifier4;
 import org.dcache.oncrpc4j.util.Bytes;
 import org.dcache.nfs.util.Cache;
 import org.dcache.nfs.util.NopCacheEventListener;
+import org.dcache.nfs.util.Opaque;
 
 import javax.annotation.concurrent.GuardedBy;
 
@@ -76,19 +78,30 @@ public class NFSv4StateHandler {
     private final ClientCache _clientsByServerId;
 
     /**
-     * Read/write lock that guards the access to {@link #_clientsByServerId}.
+     * Mapping between client side generated long-hand owner identifier and the
+     * client records with that owner, the most recent one last. An owner can
+     * have more than one record, e.g. when NFSv4.0 client re-sends SETCLIENTID
+     * with a new verifier while the confirmed record is still in use. The lists
+     * are never modified, but replaced.
      */
-    private final ReentrantReadWriteLock _accessLock = new ReentrantReadWriteLock();
+    private final ConcurrentHashMap<Opaque, List<NFS4Client>> _clientsByOwner = new ConcurrentHashMap<>();
 
-    private final Lock _readLock = _accessLock.readLock();
-    private final Lock _writeLock = _accessLock.writeLock();
+    /**
+     * Read/write lock that serializes shutdown with client record updates. The
+     * client record updates, which can run concurrently, take the read lock;
+     * shutdown takes the write lock. Client lookups do not take any lock.
+     */
+    private final ReentrantReadWriteLock _shutdownLock = new ReentrantReadWriteLock();
+
+    private final Lock _updateLock = _shutdownLock.readLock();
+    private final Lock _drainLock = _shutdownLock.writeLock();
 
     /**
      * Client's lease validity duration.
      */
     private final Duration _leaseTime;
 
-    private boolean _running;
+    private volatile boolean _running;
 
     /**
      * a system wide unique id of this state handler.
@@ -97,6 +110,21 @@ public class NFSv4StateHandler {
 
     private final FileTracker _openFileTracker = new FileTracker();
 
+    /**
+     * Memory accounting of session reply caches.
+     */
+    private final SessionReplyCache _replyCache;
+
+    /**
+     * Statistics of callback requests sent to all clients.
+     */
+    private final CallbackStatistics _callbackStatistics;
+
+    /**
+     * Asynchronous server-side copies of all clients.
+     */
+    private final ServerSideCopyEngine _copyEngine;
+
     private final ClientRecoveryStore clientStore;
 
     /**
@@ -138,6 +166,9 @@ public class NFSv4StateHandler {
         _running = true;
         _instanceId = instanceId;
         this.clientStore = clientStore;
+        _replyCache = new SessionReplyCache("nfs-v41-" + instanceId);
+        _callbackStatistics = new CallbackStatistics("nfs-v41-" + instanceId);
+        _copyEngine = new ServerSideCopyEngine("nfs-v41-" + instanceId);
 
         _cleanerScheduler = Executors.newSingleThreadScheduledExecutor(
                 new ThreadFactoryBuilder()
@@ -155,31 +186,81 @@ public class NFSv4StateHandler {
                 _leaseTime.toSeconds(), TimeUnit.SECONDS);
     }
 
+    /**
+     * Get reply cache used by sessions of all clients.
+     *
+     * @return session reply cache.
+     * @since 0.28
+     */
+    public SessionReplyCache getReplyCache() {
+        return _replyCache;
+    }
+
+    /**
+     * Get statistics of callback requests sent to clients.
+     *
+     * @return callback statistics.
+     * @since 0.28
+     */
+    public CallbackStatistics getCallbackStatistics() {
+        return _callbackStatistics;
+    }
+
+    /**
+     * Get engine running asynchronous server-side copies.
+     *
+     * @return server-side copy engine.
+     * @since 0.28
+     */
+    public ServerSideCopyEngine getCopyEngine() {
+        return _copyEngine;
+    }
+
     public void removeClient(NFS4Client client) {
 
-        _writeLock.lock();
+        _updateLock.lock();
         try {
             checkState(_running, "NFS state handler not running");
             _clientsByServerId.remove(client.getId());
+            removeByOwner(new Opaque(client.getOwnerId()), client);
             clientStore.removeClient(client.getOwnerId());
         } finally {
-            _writeLock.unlock();
+            _updateLock.unlock();
         }
         client.disposeIgnoreFailures();
     }
 
     private void addClient(NFS4Client newClient) {
 
-        _writeLock.lock();
+        Opaque owner = new Opaque(newClient.getOwnerId());
+        // keep owner index consistent when client expires
+        newClient.addDisposeListener(c -> removeByOwner(owner, c));
+
+        _updateLock.lock();
         try {
             checkState(_running, "NFS state handler not running");
             _clientsByServerId.put(newClient.getId(), newClient);
+            _clientsByOwner.merge(owner, List.of(newClient), (clients, c) ->
+                    Stream.concat(clients.stream(), c.stream()).collect(Collectors.toUnmodifiableList()));
             clientStore.addClient(newClient.getOwnerId());
         } finally {
-            _writeLock.unlock();
+            _updateLock.unlock();
         }
     }
 
+    /**
+     * Remove client record from the owner index. Other records of the same
+     * owner are kept.
+     */
+    private void removeByOwner(Opaque owner, NFS4Client client) {
+        _clientsByOwner.computeIfPresent(owner, (o, clients) -> {
+            List<NFS4Client> remaining = clients.stream()
+                    .filter(c -> c != client)
+                    .collect(Collectors.toUnmodifiableList());
+            return remaining.isEmpty() ? null : remaining;
+        });
+    }
+
     /**
      * Get confirmed, valid client by short-hand {@code clientid}.
      *
@@ -225,71 +306,50 @@ public class NFSv4StateHandler {
      */
     public NFS4Client getClient(clientid4 clientid) throws StaleClientidException {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
+        checkState(_running, "NFS state handler not running");
 
-            NFS4Client client = _clientsByServerId.get(clientid);
-            if (client == null) {
-                throw new StaleClientidException("bad client id.");
-            }
-            return client;
-        } finally {
-            _readLock.unlock();
+        NFS4Client client = _clientsByServerId.get(clientid);
+        if (client == null) {
+            throw new StaleClientidException("bad client id.");
         }
+        return client;
     }
 
     public NFS4Client getClientIdByStateId(stateid4 stateId) throws ChimeraNFSException {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
+        checkState(_running, "NFS state handler not running");
 
-            clientid4 clientId = new clientid4(Bytes.getLong(stateId.other, 0));
-            NFS4Client client = _clientsByServerId.get(clientId);
-            if (client == null) {
-                throw new BadStateidException("no client for stateid: " + stateId);
-            }
-            return client;
-        } finally {
-            _readLock.unlock();
+        clientid4 clientId = new clientid4(Bytes.getLong(stateId.other, 0));
+        NFS4Client client = _clientsByServerId.get(clientId);
+        if (client == null) {
+            throw new BadStateidException("no client for stateid: " + stateId);
         }
+        return client;
     }
 
     public NFS4Client getClient(sessionid4 id) throws ChimeraNFSException {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
-            clientid4 clientId = new clientid4(Bytes.getLong(id.value, 0));
-            NFS4Client client = _clientsByServerId.get(clientId);
-            if (client == null) {
-                throw new BadSessionException("session not found: " + id);
-            }
-            return client;
-        } finally {
-            _readLock.unlock();
+        checkState(_running, "NFS state handler not running");
+
+        // session id embeds the client id
+        clientid4 clientId = new clientid4(Bytes.getLong(id.value, 0));
+        NFS4Client client = _clientsByServerId.get(clientId);
+        if (client == null) {
+            throw new BadSessionException("session not found: " + id);
         }
+        return client;
     }
 
     /**
      * Get existing, possibly not valid, client record that matches given client side generated long-hand owner identifier.
+     * If multiple records with the same owner exist, then the most recently created one is returned.
      * @param ownerid client side generated long-hand owner identifier.
      *
      * @return an existing client record or null, if not matching record found.
      */
     public NFS4Client clientByOwner(byte[] ownerid) {
-
-        _readLock.lock();
-        try {
-            return _clientsByServerId
-                    .stream()
-                    .filter(c -> Arrays.equals(c.getOwnerId(), ownerid))
-                    .findAny()
-                    .orElse(null);
-        } finally {
-            _readLock.unlock();
-        }
+        List<NFS4Client> clients = _clientsByOwner.get(new Opaque(ownerid));
+        return clients == null ? null : clients.get(clients.size() - 1);
     }
 
     public void updateClientLeaseTime(stateid4  stateid) throws ChimeraNFSException {
@@ -308,14 +368,9 @@ public class NFSv4StateHandler {
 
     public List<NFS4Client> getClients() {
 
-        _readLock.lock();
-        try {
-            checkState(_running, "NFS state handler not running");
-            return _clientsByServerId.peek()
-                    .collect(Collectors.toList());
-        } finally {
-            _readLock.unlock();
-        }
+        checkState(_running, "NFS state handler not running");
+        return _clientsByServerId.peek()
+                .collect(Collectors.toList());
     }
 
     public NFS4Client createClient(InetSocketAddress clientAddress, InetSocketAddress localAddress, int minorVersion,
@@ -383,13 +438,14 @@ public class NFSv4StateHandler {
         clientStore.wantReclaim(owner);
     }
 
-    @GuardedBy("_writeLock")
+    @GuardedBy("_drainLock")
     private void drainClients() {
         _clientsByServerId.stream()
                 .forEach(c -> {
                     c.disposeIgnoreFailures();
                     _clientsByServerId.remove(c.getId());
                 });
+        _clientsByOwner.clear();
     }
 
     /**
@@ -397,15 +453,16 @@ public class NFSv4StateHandler {
      */
     public void shutdown() throws IOException {
 
-        _writeLock.lock();
+        _drainLock.lock();
         try {
             checkState(_running, "NFS state handler not running");
             _running = false;
             drainClients();
+            _copyEngine.shutdown();
             _cleanerScheduler.shutdown();
             clientStore.close();
         } finally {
-            _writeLock.unlock();
+            _drainLock.unlock();
         }
     }
 
@@ -413,7 +470,7 @@ public class NFSv4StateHandler {
      * Returns {@code true} iff this state handler is running.
      * @return true, it state handler is running.
      */
-    public synchronized boolean isRunning() {
+    public boolean isRunning() {
         return _running;
     }
 
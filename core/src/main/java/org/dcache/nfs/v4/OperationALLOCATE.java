@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+
+/**
+ * NFSv4.2 ALLOCATE operation as specified in rfc7862#section-15.1. Reserves space
+ * for a range of a file.
+ */
+public class OperationALLOCATE extends AbstractNFSv4Operation {
+
+    public OperationALLOCATE(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_ALLOCATE);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        _args.opallocate.aa_offset.checkOverflow(_args.opallocate.aa_length, "offset + length overflow");
+
+        Inode inode = context.currentInode();
+        Stat stat = context.getFs().getattr(inode);
+
+        stateid4 stateid = Stateids.getCurrentStateidIfNeeded(context, _args.opallocate.aa_stateid);
+        OperationWRITE.checkCanWrite(context, inode, stat, stateid);
+
+        context.getFs().allocate(inode, _args.opallocate.aa_offset.value, _args.opallocate.aa_length.value);
+        result.opallocate.ar_status = nfsstat.NFS_OK;
+    }
+}
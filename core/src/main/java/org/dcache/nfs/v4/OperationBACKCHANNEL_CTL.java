@@ -57,7 +57,8 @@ public class OperationBACKCHANNEL_CTL extends AbstractNFSv4Operation {
                 context.getMinorversion(),
                 session.id(),
                 session.getMaxCbOps(),
-                _args.opbackchannel_ctl.bca_sec_parms);
+                _args.opbackchannel_ctl.bca_sec_parms,
+                context.getStateHandler().getCallbackStatistics());
 
         try {
             cb.cbPing();
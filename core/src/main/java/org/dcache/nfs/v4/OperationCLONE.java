@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.InvalException;
+import org.dcache.nfs.v4.xdr.CLONE4args;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+
+/**
+ * NFSv4.2 CLONE operation as specified in rfc7862#section-15.13. Shares a range
+ * of the file referenced by the saved filehandle with the file referenced by the
+ * current filehandle. File systems without clone support reply NFS4ERR_NOTSUPP,
+ * in which case clients fall back to COPY.
+ */
+public class OperationCLONE extends AbstractNFSv4Operation {
+
+    public OperationCLONE(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_CLONE);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        final CLONE4args args = _args.opclone;
+
+        args.cl_src_offset.checkOverflow(args.cl_count, "source offset + count overflow");
+        args.cl_dst_offset.checkOverflow(args.cl_count, "destination offset + count overflow");
+
+        Inode srcInode = context.savedInode();
+        Inode dstInode = context.currentInode();
+
+        Stat srcStat = context.getFs().getattr(srcInode);
+        Stat dstStat = context.getFs().getattr(dstInode);
+
+        OperationREAD.checkCanRead(context, srcInode, srcStat, args.cl_src_stateid);
+
+        stateid4 dstStateid = Stateids.getCurrentStateidIfNeeded(context, args.cl_dst_stateid);
+        OperationWRITE.checkCanWrite(context, dstInode, dstStat, dstStateid);
+
+        long srcOffset = args.cl_src_offset.value;
+        long dstOffset = args.cl_dst_offset.value;
+        long count = args.cl_count.value;
+
+        // zero count means up to the end of the source file
+        long srcEnd = count == 0 ? srcStat.getSize() : srcOffset + count;
+        if (Long.compareUnsigned(srcEnd, srcStat.getSize()) > 0 || Long.compareUnsigned(srcOffset, srcEnd) > 0) {
+            throw new InvalException("source range beyond end of file");
+        }
+
+        if (srcInode.equals(dstInode)) {
+            long dstEnd = dstOffset + (srcEnd - srcOffset);
+            if (srcOffset < dstEnd && dstOffset < srcEnd) {
+                throw new InvalException("source and destination ranges overlap");
+            }
+        }
+
+        context.getFs().clone(srcInode, srcOffset, dstInode, dstOffset, count);
+        result.opclone.cl_status = nfsstat.NFS_OK;
+    }
+}
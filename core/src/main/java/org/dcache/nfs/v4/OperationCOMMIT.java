@@ -20,8 +20,10 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.COMMIT4res;
 import org.dcache.nfs.v4.xdr.COMMIT4resok;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
@@ -37,15 +39,23 @@ public class OperationCOMMIT extends AbstractNFSv4Operation {
 
     @Override
     public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException, IOException {
+        CompletableFutures.await(processAsync(context, result));
+    }
+
+    @Override
+    public CompletableFuture<Void> processAsync(CompoundContext context, nfs_resop4 result) {
 
         final COMMIT4res res =  result.opcommit;
-        Inode inode = context.currentInode();
 
-        _args.opcommit.offset.checkOverflow(_args.opcommit.count.value, "offset + length overflow");
-        context.getFs().commit(inode, _args.opcommit.offset.value, _args.opcommit.count.value);
+        return CompletableFutures.composeWith(() -> {
+            Inode inode = context.currentInode();
 
-        res.resok4 = new COMMIT4resok();
-        res.resok4.writeverf = context.getRebootVerifier();
-        result.opcommit.status = nfsstat.NFS_OK;
+            _args.opcommit.offset.checkOverflow(_args.opcommit.count.value, "offset + length overflow");
+            return context.getFs().commitAsync(inode, _args.opcommit.offset.value, _args.opcommit.count.value);
+        }).thenRun(() -> {
+            res.resok4 = new COMMIT4resok();
+            res.resok4.writeverf = context.getRebootVerifier();
+            res.status = nfsstat.NFS_OK;
+        });
     }
 }
@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 
 import com.google.common.annotations.Beta;
@@ -28,6 +29,7 @@ import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.NotSuppException;
 import org.dcache.nfs.status.OpenModeException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.COPY4res;
 import org.dcache.nfs.v4.xdr.COPY4resok;
 import org.dcache.nfs.v4.xdr.copy_requirements4;
@@ -39,7 +41,6 @@ import org.dcache.nfs.v4.xdr.nfs_opnum4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.nfs.v4.xdr.stable_how4;
 import org.dcache.nfs.v4.xdr.stateid4;
-import org.dcache.nfs.v4.xdr.verifier4;
 import org.dcache.nfs.v4.xdr.write_response4;
 import org.dcache.nfs.vfs.Inode;
 import org.slf4j.Logger;
@@ -108,9 +109,8 @@ public class OperationCOPY extends AbstractNFSv4Operation {
         res.cr_resok4.cr_response.wr_writeverf = context.getRebootVerifier();
         res.cr_status = nfsstat.NFS_OK;
 
-
-        CompletableFuture<Long> copyFuture = context.getFs().copyFileRange(srcInode, srcPos, dstInode, dstPos, len);
         if (_args.opcopy.ca_synchronous) {
+            CompletableFuture<Long> copyFuture = context.getFs().copyFileRange(srcInode, srcPos, dstInode, dstPos, len);
             long bytes = 0L;
             try {
                 bytes = copyFuture.get();
@@ -125,7 +125,11 @@ public class OperationCOPY extends AbstractNFSv4Operation {
             res.cr_resok4.cr_response.wr_count = new length4(bytes);
             res.cr_resok4.cr_response.wr_callback_id = new stateid4[]{};
         } else {
-            var copyState = notifyWhenComplete(client, dstInode, context.getRebootVerifier(), copyFuture);
+            if (len == 0) {
+                // zero length means up to the end of the source file
+                len = Math.max(0L, context.getFs().getattr(srcInode).getSize() - srcPos);
+            }
+            var copyState = submitCopy(context, client, srcInode, srcPos, dstInode, dstPos, len);
             res.cr_resok4.cr_response.wr_callback_id = new stateid4[]{copyState};
             res.cr_resok4.cr_response.wr_count = new length4(0);
         }
@@ -136,38 +140,74 @@ public class OperationCOPY extends AbstractNFSv4Operation {
         res.cr_resok4.cr_requirements.cr_synchronous = _args.opcopy.ca_synchronous;
     }
 
-    private stateid4 notifyWhenComplete(NFS4Client client, Inode dstInode, verifier4 verifier, CompletableFuture<Long> copyFuture) throws ChimeraNFSException {
+    /**
+     * Submit the copy to the server-side copy engine and notify the client when
+     * the copy is completed.
+     */
+    private stateid4 submitCopy(CompoundContext context, NFS4Client client, Inode srcInode, long srcPos,
+            Inode dstInode, long dstPos, long len) throws ChimeraNFSException {
+
+        var engine = context.getStateHandler().getCopyEngine();
+        var verifier = context.getRebootVerifier();
         var openState = client.state(_args.opcopy.ca_src_stateid);
         var copyState = client.createServerSideCopyState(openState.getStateOwner(), openState).stateid();
 
-        copyFuture.handle((n, t) -> {
+        // abort the copy when the copy stateid, the open state or the client goes away.
+        client.state(copyState).addDisposeListener(s -> engine.release(copyState));
+
+        var copy = engine.submit(client, copyState, context.getFs(), srcInode, srcPos, dstInode, dstPos, len);
+        copy.getResult().handle((n, t) -> {
+
+            if (t instanceof CancellationException) {
+                // the client has cancelled the copy or doesn't care anymore
+                return CompletableFuture.<Void>completedFuture(null);
+            }
 
             var cr_response = new write_response4();
             cr_response.wr_callback_id = new stateid4[]{};
             cr_response.wr_committed = stable_how4.FILE_SYNC4;
-            cr_response.wr_count = new length4(n);
+            cr_response.wr_count = new length4(copy.getBytesCopied());
             cr_response.wr_writeverf = verifier;
 
-            try {
-                client.getCB().cbOffload(new nfs_fh4(dstInode.toNfsHandle()), copyState, cr_response, toNfsState(t));
-            } catch (IOException ex) {
-                LOGGER.warn("Failed to notify client about copy-offload completion: {}", ex.getMessage());
+            if (t != null) {
+                LOGGER.warn("Copy-offload failed with exception: {}", Throwables.getRootCause(t).toString());
             }
 
+            return client.getCB().cbOffloadAsync(new nfs_fh4(dstInode.toNfsHandle()), copyState, cr_response, toNfsStatus(t))
+                    .thenRun(() -> {
+                        // the client is notified, nothing to report by OFFLOAD_STATUS anymore.
+                        try {
+                            client.releaseState(copyState);
+                        } catch (ChimeraNFSException e) {
+                            // already released by the client
+                        }
+                    });
+        }).thenCompose(f -> f).exceptionally(ex -> {
+            LOGGER.warn("Failed to notify client about copy-offload completion: {}",
+                    CompletableFutures.unwrap(ex).getMessage());
             return null;
         });
 
         return copyState;
     }
 
-    private int toNfsState(Throwable t) {
+    /**
+     * Get nfs status of a completed copy.
+     *
+     * @param t the error the copy failed with or {@code null}.
+     * @return nfs status corresponding to the error.
+     */
+    static int toNfsStatus(Throwable t) {
 
         if (t == null) {
             return nfsstat.NFS_OK;
         }
 
+        if (t instanceof ChimeraNFSException) {
+            return ((ChimeraNFSException) t).getStatus();
+        }
+
         // FIXME: we need some mapping between 'well known' exceptions and nfs error states.
-        LOGGER.warn("Copy-offload failed with exception: {}", Throwables.getRootCause(t).toString());
         return nfsstat.NFSERR_IO;
     }
 }
@@ -121,7 +121,8 @@ public class OperationCREATE_SESSION extends AbstractNFSv4Operation {
                     context.getMinorversion(),
                     session.id(),
                     _args.opcreate_session.csa_back_chan_attrs.ca_maxrequests.value,
-                    _args.opcreate_session.csa_sec_parms);
+                    _args.opcreate_session.csa_sec_parms,
+                    context.getStateHandler().getCallbackStatistics());
             try {
                 cb.cbPing();
                 client.setCB(cb);
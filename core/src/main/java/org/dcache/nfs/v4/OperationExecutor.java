@@ -20,6 +20,8 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.oncrpc4j.rpc.OncRpcException;
@@ -42,4 +44,20 @@ public interface OperationExecutor {
     nfs_resop4 execute(CompoundContext context, nfs_argop4 args)
             throws IOException, OncRpcException;
 
+    /**
+     * Execute NFS operation for given context and operation arguments without
+     * blocking the calling thread. The returned future completes exceptionally
+     * with the same exception as {@link #execute} would throw.
+     *
+     * The default implementation calls {@link #execute} in the calling thread.
+     *
+     * @param context the context of NFS compound request.
+     * @param args the NFS operation argument.
+     * @return a future with the result of NFS operation.
+     * @since 0.28
+     */
+    default CompletableFuture<nfs_resop4> executeAsync(CompoundContext context, nfs_argop4 args) {
+        return CompletableFutures.completeWith(() -> execute(context, args));
+    }
+
 }
@@ -28,7 +28,6 @@ import java.util.concurrent.TimeUnit;
 import org.dcache.nfs.v4.xdr.fattr4_numlinks;
 import org.dcache.nfs.v4.xdr.fattr4_aclsupport;
 import org.dcache.nfs.v4.xdr.nfs_ftype4;
-import org.dcache.nfs.v4.xdr.attrlist4;
 import org.dcache.nfs.v4.xdr.fattr4_case_insensitive;
 import org.dcache.nfs.v4.xdr.nfs_fh4;
 import org.dcache.nfs.v4.xdr.fattr4_rawdev;
@@ -89,7 +88,6 @@ import org.dcache.nfs.v4.xdr.GETATTR4res;
 
 import org.dcache.nfs.vfs.Stat.StatAttribute;
 import org.dcache.oncrpc4j.xdr.XdrAble;
-import org.dcache.oncrpc4j.xdr.Xdr;
 import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.v4.xdr.fattr4_space_avail;
 import org.dcache.nfs.v4.xdr.fattr4_time_delta;
@@ -132,36 +130,9 @@ public class OperationGETATTR extends AbstractNFSv4Operation {
     static fattr4 getAttributes(bitmap4 bitmap, VirtualFileSystem fs, Inode inode, Stat stat, CompoundContext context)
             throws IOException, OncRpcException {
 
-        /*
-         * bitmap we send back. can't be uninitialized.
-         */
-        bitmap4 processedAttributes = new bitmap4(new int[0]);
-
-        byte[] retBytes;
-        try (Xdr xdr = new Xdr(1024)) {
-            xdr.beginEncoding();
-
-            for (int i : bitmap) {
-                Optional<XdrAble> optionalAttr = (Optional<XdrAble>) fattr2xdr(i, fs, inode, stat, context);
-                if (optionalAttr.isPresent()) {
-                    XdrAble attr = optionalAttr.get();
-                    _log.debug("   getAttributes : {} ({}) OK.", i, attrMask2String(i));
-                    attr.xdrEncode(xdr);
-                    processedAttributes.set(i);
-                } else {
-                    _log.debug("   getAttributes : {} ({}) NOT SUPPORTED.", i, attrMask2String(i));
-                }
-            }
-
-            xdr.endEncoding();
-            retBytes = xdr.getBytes();
+        try (AttributeEncoder.Session session = AttributeEncoder.of(bitmap).newSession(fs, context)) {
+            return session.encode(inode, stat);
         }
-
-        fattr4 attributes = new fattr4();
-        attributes.attrmask = processedAttributes;
-        attributes.attr_vals = new attrlist4(retBytes);
-
-        return attributes;
     }
 
     static fattr4  getAttributes(bitmap4 bitmap, VirtualFileSystem fs, Inode inode, CompoundContext context)
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.WrongTypeException;
+import org.dcache.nfs.v4.xdr.IO_ADVISE4resok;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem.IoHint;
+
+/**
+ * NFSv4.2 IO_ADVISE operation as specified in rfc7862#section-15.5. Passes
+ * the client's expected access pattern of a file to the file system and
+ * replies with the hints the file system acts upon.
+ */
+public class OperationIO_ADVISE extends AbstractNFSv4Operation {
+
+    private static final IoHint[] HINTS = IoHint.values();
+
+    public OperationIO_ADVISE(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_IO_ADVISE);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        Inode inode = context.currentInode();
+        Stat stat = context.getFs().getattr(inode);
+        if (stat.type() != Stat.Type.REGULAR) {
+            throw new WrongTypeException("not a regular file");
+        }
+
+        Set<IoHint> hints = EnumSet.noneOf(IoHint.class);
+        for (int bit : _args.opio_advise.iaa_hints) {
+            if (bit < HINTS.length) {
+                hints.add(HINTS[bit]);
+            }
+        }
+
+        Set<IoHint> accepted = context.getFs().ioAdvise(inode, _args.opio_advise.iaa_offset.value,
+                _args.opio_advise.iaa_count.value, hints);
+
+        bitmap4 reply = new bitmap4(new int[]{0});
+        accepted.forEach(h -> reply.set(h.ordinal()));
+
+        result.opio_advise.resok4 = new IO_ADVISE4resok();
+        result.opio_advise.resok4.ior_hints = reply;
+        result.opio_advise.ior_status = nfsstat.NFS_OK;
+    }
+}
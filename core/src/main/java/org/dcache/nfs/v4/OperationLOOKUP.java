@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.v4.xdr.nfs_argop4;
 import org.dcache.nfs.v4.xdr.nfs_opnum4;
@@ -27,6 +28,7 @@ import org.dcache.nfs.v4.xdr.LOOKUP4res;
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.status.NotDirException;
 import org.dcache.nfs.status.SymlinkException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.Stat;
@@ -44,23 +46,35 @@ public class OperationLOOKUP extends AbstractNFSv4Operation {
 
     @Override
     public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException, IOException {
-        final LOOKUP4res res = result.oplookup;
+        CompletableFutures.await(processAsync(context, result));
+    }
 
-        String name = NameFilter.convertName(_args.oplookup.objname.value);
+    @Override
+    public CompletableFuture<Void> processAsync(CompoundContext context, nfs_resop4 result) {
+        final LOOKUP4res res = result.oplookup;
 
-        Stat stat = context.getFs().getattr(context.currentInode());
-        if (stat.type() == Stat.Type.SYMLINK) {
-            throw new SymlinkException("parent not a symbolic link");
-        }
+        return CompletableFutures.composeWith(() -> {
+            String name = NameFilter.convertName(_args.oplookup.objname.value);
+            Inode parent = context.currentInode();
 
-        if (stat.type() != Stat.Type.DIRECTORY) {
-            throw new NotDirException("parent not a directory");
-        }
+            return context.getFs().getattrAsync(parent)
+                    .thenCompose(stat -> CompletableFutures.composeWith(() -> {
+                        if (stat.type() == Stat.Type.SYMLINK) {
+                            throw new SymlinkException("parent not a symbolic link");
+                        }
 
-        Inode newInode = context.getFs().lookup(context.currentInode(), name);
+                        if (stat.type() != Stat.Type.DIRECTORY) {
+                            throw new NotDirException("parent not a directory");
+                        }
 
-        context.currentInode(newInode);
-        context.currentStateid(Stateids.ZeroStateId());
-        res.status = nfsstat.NFS_OK;
+                        return context.getFs().lookupAsync(parent, name);
+                    }))
+                    .thenCompose(newInode -> CompletableFutures.completeWith(() -> {
+                        context.currentInode(newInode);
+                        context.currentStateid(Stateids.ZeroStateId());
+                        res.status = nfsstat.NFS_OK;
+                        return null;
+                    }));
+        });
     }
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.stateid4;
+
+/**
+ * NFSv4.2 OFFLOAD_CANCEL operation as specified in rfc7862#section-15.8. Stops
+ * an asynchronous server-side copy. The client is not notified by CB_OFFLOAD
+ * about cancelled copies.
+ */
+public class OperationOFFLOAD_CANCEL extends AbstractNFSv4Operation {
+
+    public OperationOFFLOAD_CANCEL(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_OFFLOAD_CANCEL);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        stateid4 stateid = _args.opoffload_cancel.oca_stateid;
+
+        Stateids.checkServerSiderCopyStateid(stateid);
+        NFS4Client client = context.getSession().getClient();
+        // make sure that the copy belongs to the client
+        client.state(stateid);
+
+        context.getStateHandler().getCopyEngine().cancel(stateid);
+        client.releaseState(stateid);
+        result.opoffload_cancel.ocr_status = nfsstat.NFS_OK;
+    }
+}
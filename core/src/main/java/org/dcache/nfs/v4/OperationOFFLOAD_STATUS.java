@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.OFFLOAD_STATUS4res;
+import org.dcache.nfs.v4.xdr.OFFLOAD_STATUS4resok;
+import org.dcache.nfs.v4.xdr.length4;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.stateid4;
+
+/**
+ * NFSv4.2 OFFLOAD_STATUS operation as specified in rfc7862#section-15.9. Reports
+ * progress of an asynchronous server-side copy.
+ */
+public class OperationOFFLOAD_STATUS extends AbstractNFSv4Operation {
+
+    public OperationOFFLOAD_STATUS(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_OFFLOAD_STATUS);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        final OFFLOAD_STATUS4res res = result.opoffload_status;
+        stateid4 stateid = _args.opoffload_status.osa_stateid;
+
+        Stateids.checkServerSiderCopyStateid(stateid);
+        // make sure that the copy belongs to the client
+        context.getSession().getClient().state(stateid);
+
+        ServerSideCopyEngine.Copy copy = context.getStateHandler().getCopyEngine().get(stateid);
+
+        res.osr_resok4 = new OFFLOAD_STATUS4resok();
+        res.osr_resok4.osr_count = new length4(copy.getBytesCopied());
+        res.osr_resok4.osr_complete = copy.isDone()
+                ? new int[]{OperationCOPY.toNfsStatus(copy.getError())}
+                : new int[0];
+        res.osr_status = nfsstat.NFS_OK;
+    }
+}
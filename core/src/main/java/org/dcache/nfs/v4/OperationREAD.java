@@ -21,6 +21,7 @@ package org.dcache.nfs.v4;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.OpenModeException;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
@@ -31,8 +32,10 @@ import org.dcache.nfs.v4.xdr.READ4res;
 import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.status.IsDirException;
 import org.dcache.nfs.status.NfsIoException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.Stat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -47,10 +50,57 @@ public class OperationREAD extends AbstractNFSv4Operation {
 
     @Override
     public void process(CompoundContext context, nfs_resop4 result) throws IOException {
-        final READ4res res = result.opread;
+        CompletableFutures.await(processAsync(context, result));
+    }
+
+    @Override
+    public CompletableFuture<Void> processAsync(CompoundContext context, nfs_resop4 result) {
+        return CompletableFutures.composeWith(() -> {
+            Inode inode = context.currentInode();
+            return context.getFs().getattrAsync(inode)
+                    .thenCompose(inodeStat -> CompletableFutures.composeWith(() -> read(context, result.opread, inode, inodeStat)));
+        });
+    }
+
+    private CompletableFuture<Void> read(CompoundContext context, READ4res res, Inode inode, Stat inodeStat) throws IOException {
 
-        Stat inodeStat = context.getFs().getattr(context.currentInode());
         stateid4 stateid = Stateids.getCurrentStateidIfNeeded(context, _args.opread.stateid);
+        checkCanRead(context, inode, inodeStat, stateid);
+
+        long offset = _args.opread.offset.value;
+        int count = _args.opread.count.value;
+
+        ByteBuffer buf = context.allocateReplyBuffer(count);
+
+        return context.getFs().readAsync(inode, buf, offset)
+                .thenCompose(bytesReaded -> CompletableFutures.completeWith(() -> {
+                    if (bytesReaded < 0) {
+                        throw new NfsIoException("IO not allowed");
+                    }
+
+                    buf.flip();
+                    res.status = nfsstat.NFS_OK;
+                    res.resok4 = new READ4resok();
+
+                    res.resok4.data = buf;
+
+                    if (offset + bytesReaded >= inodeStat.getSize()) {
+                        res.resok4.eof = true;
+                    }
+                    return null;
+                }));
+    }
+
+    /**
+     * Check that the file can be read with the given open state.
+     *
+     * @param context compound context of the operation.
+     * @param inode the file to read.
+     * @param inodeStat file's stat.
+     * @param stateid the open, lock or delegation stateid used to read the file.
+     * @throws IOException if file can't be read.
+     */
+    static void checkCanRead(CompoundContext context, Inode inode, Stat inodeStat, stateid4 stateid) throws IOException {
 
         if (inodeStat.type() == Stat.Type.DIRECTORY) {
             throw new IsDirException();
@@ -75,30 +125,9 @@ public class OperationREAD extends AbstractNFSv4Operation {
             client = context.getSession().getClient();
         }
 
-        var inode = context.currentInode();
         int shareAccess = context.getStateHandler().getFileTracker().getShareAccess(client, inode, stateid);
         if ((shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_READ) == 0) {
             throw new OpenModeException("Invalid open mode");
         }
-
-        long offset = _args.opread.offset.value;
-        int count = _args.opread.count.value;
-
-        ByteBuffer buf = ByteBuffer.allocate(count);
-
-        int bytesReaded = context.getFs().read(inode, buf, offset);
-        if (bytesReaded < 0) {
-            throw new NfsIoException("IO not allowed");
-        }
-
-        buf.flip();
-        res.status = nfsstat.NFS_OK;
-        res.resok4 = new READ4resok();
-
-        res.resok4.data = buf;
-
-        if (offset + bytesReaded >= inodeStat.getSize()) {
-            res.resok4.eof = true;
-        }
     }
 }
@@ -21,7 +21,6 @@ package org.dcache.nfs.v4;
 
 import com.google.common.primitives.Ints;
 import java.io.IOException;
-import java.util.Iterator;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.v4.xdr.entry4;
 import org.dcache.nfs.v4.xdr.dirlist4;
@@ -42,8 +41,8 @@ import org.dcache.nfs.v4.xdr.bitmap4;
 import org.dcache.nfs.v4.xdr.fattr4;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.vfs.DirectoryCursor;
 import org.dcache.nfs.vfs.DirectoryEntry;
-import org.dcache.nfs.vfs.DirectoryStream;
 import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.Stat;
 import org.dcache.oncrpc4j.rpc.OncRpcException;
@@ -83,7 +82,6 @@ public class OperationREADDIR extends AbstractNFSv4Operation {
 
         final Inode dir = context.currentInode();
 
-        DirectoryStream directoryStream;
         verifier4 verifier =_args.opreaddir.cookieverf;
         long startValue = _args.opreaddir.cookie.value;
 
@@ -105,78 +103,81 @@ public class OperationREADDIR extends AbstractNFSv4Operation {
             startValue -= COOKIE_OFFSET;
         }
 
-        directoryStream = context.getFs().list(dir, verifier.value, startValue);
-        Iterator<DirectoryEntry> dirList = directoryStream.iterator();
         if (_args.opreaddir.maxcount.value < READDIR4RESOK_SIZE) {
             throw new TooSmallException("maxcount too small");
         }
+        DirectoryCursor dirList = new DirectoryCursor(context.getFs(), dir, verifier.value, startValue,
+                DirectoryCursor.pageSizeFor(_args.opreaddir.maxcount.value, ENTRY4_SIZE));
 
         res.status = nfsstat.NFS_OK;
         res.resok4 = new READDIR4resok();
         res.resok4.reply = new dirlist4();
         res.resok4.reply.eof = true;
-        res.resok4.cookieverf = new verifier4(directoryStream.getVerifier());
+        res.resok4.cookieverf = new verifier4(dirList.getVerifier());
 
         int currcount = READDIR4RESOK_SIZE;
         int dircount = 0;
         entry4 lastEntry = null;
 
         int fcount = 0;
-        while (dirList.hasNext()) {
+        try (AttributeEncoder.Session attributes = AttributeEncoder.of(_args.opreaddir.attr_request)
+                .newSession(context.getFs(), context)) {
+            while (dirList.hasNext()) {
 
-            DirectoryEntry le = dirList.next();
-            String name = le.getName();
+                DirectoryEntry le = dirList.next();
+                String name = le.getName();
 
-            // skip . and .. while nfsv4 do not care about them
-            if (name.equals(".")) {
-                continue;
-            }
-            if (name.equals("..")) {
-                continue;
-            }
+                // skip . and .. while nfsv4 do not care about them
+                if (name.equals(".")) {
+                    continue;
+                }
+                if (name.equals("..")) {
+                    continue;
+                }
 
-            Inode ei = le.getInode();
-
-            entry4 currentEntry = new entry4();
-            currentEntry.name = new component4(name);
-            // shift all cookies by OFFSET, as 1 and 2 are reserved
-            currentEntry.cookie = new nfs_cookie4(le.getCookie() + COOKIE_OFFSET);
-
-            try {
-                currentEntry.attrs = OperationGETATTR.getAttributes(_args.opreaddir.attr_request, context.getFs(), ei, le.getStat(), context);
-            } catch (ChimeraNFSException e) {
-                /*
-                 * If the client is not interested in error per file, fail the complete request.
-                 * @see: rfc7530#section-16.24.4
-                 */
-                if (!_args.opreaddir.attr_request.isSet(nfs4_prot.FATTR4_RDATTR_ERROR)) {
-                    throw e;
+                Inode ei = le.getInode();
+
+                entry4 currentEntry = new entry4();
+                currentEntry.name = new component4(name);
+                // shift all cookies by OFFSET, as 1 and 2 are reserved
+                currentEntry.cookie = new nfs_cookie4(le.getCookie() + COOKIE_OFFSET);
+
+                try {
+                    currentEntry.attrs = attributes.encode(ei, le.getStat());
+                } catch (ChimeraNFSException e) {
+                    /*
+                     * If the client is not interested in error per file, fail the complete request.
+                     * @see: rfc7530#section-16.24.4
+                     */
+                    if (!_args.opreaddir.attr_request.isSet(nfs4_prot.FATTR4_RDATTR_ERROR)) {
+                        throw e;
+                    }
+                    currentEntry.attrs = generateReaddirErrorAttribute(e.getStatus());
                 }
-                currentEntry.attrs = generateReaddirErrorAttribute(e.getStatus());
-            }
 
-            // check if writing this entry exceeds the count limit
-            int newSize = ENTRY4_SIZE + name.length() + currentEntry.name.value.length + currentEntry.attrs.attr_vals.value.length;
-            int newDirSize = name.length() + 4; // name + sizeof(long)
-            if ((currcount + newSize > _args.opreaddir.maxcount.value) || (dircount + newDirSize > _args.opreaddir.dircount.value)) {
+                // check if writing this entry exceeds the count limit
+                int newSize = ENTRY4_SIZE + name.length() + currentEntry.name.value.length + currentEntry.attrs.attr_vals.value.length;
+                int newDirSize = name.length() + 4; // name + sizeof(long)
+                if ((currcount + newSize > _args.opreaddir.maxcount.value) || (dircount + newDirSize > _args.opreaddir.dircount.value)) {
+                    if (lastEntry == null) {
+                        //corner case - means we didnt have enough space to
+                        //write even a single entry.
+                        throw new TooSmallException("can't send even a single entry");
+                    }
+                    res.resok4.reply.eof = false;
+                    break;
+                }
+                fcount++;
+                dircount += newDirSize;
+                currcount += newSize;
+
                 if (lastEntry == null) {
-                    //corner case - means we didnt have enough space to
-                    //write even a single entry.
-                    throw new TooSmallException("can't send even a single entry");
+                    res.resok4.reply.entries = currentEntry;
+                } else {
+                    lastEntry.nextentry = currentEntry;
                 }
-                res.resok4.reply.eof = false;
-                break;
-            }
-            fcount++;
-            dircount += newDirSize;
-            currcount += newSize;
-
-            if (lastEntry == null) {
-                res.resok4.reply.entries = currentEntry;
-            } else {
-                lastEntry.nextentry = currentEntry;
+                lastEntry = currentEntry;
             }
-            lastEntry = currentEntry;
         }
 
         _log.debug("Sending {} entries ({} bytes from {}, dircount = {}) cookie = {} EOF={}",
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.NfsIoException;
+import org.dcache.nfs.v4.xdr.READ_PLUS4res;
+import org.dcache.nfs.v4.xdr.data4;
+import org.dcache.nfs.v4.xdr.data_content4;
+import org.dcache.nfs.v4.xdr.data_info4;
+import org.dcache.nfs.v4.xdr.length4;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.offset4;
+import org.dcache.nfs.v4.xdr.read_plus_content;
+import org.dcache.nfs.v4.xdr.read_plus_res4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.nfs.vfs.VirtualFileSystem.ContentType;
+
+/**
+ * NFSv4.2 READ_PLUS operation as specified in rfc7862#section-15.10. Unlike
+ * READ, holes in the requested range are sent as (offset, length) pairs
+ * instead of zeros.
+ */
+public class OperationREAD_PLUS extends AbstractNFSv4Operation {
+
+    public OperationREAD_PLUS(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_READ_PLUS);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        final READ_PLUS4res res = result.opread_plus;
+
+        Inode inode = context.currentInode();
+        VirtualFileSystem fs = context.getFs();
+        Stat inodeStat = fs.getattr(inode);
+
+        stateid4 stateid = Stateids.getCurrentStateidIfNeeded(context, _args.opread_plus.rpa_stateid);
+        OperationREAD.checkCanRead(context, inode, inodeStat, stateid);
+
+        long offset = _args.opread_plus.rpa_offset.value;
+        int count = _args.opread_plus.rpa_count.value;
+
+        long size = inodeStat.getSize();
+        long end = Math.min(size, offset + count);
+
+        List<read_plus_content> contents = new ArrayList<>();
+        ByteBuffer buf = null;
+
+        long pos = offset;
+        while (pos < end) {
+
+            long dataStart = fs.seek(inode, pos, ContentType.DATA);
+            if (dataStart > pos) {
+                long holeEnd = Math.min(dataStart, end);
+                contents.add(hole(pos, holeEnd - pos));
+                pos = holeEnd;
+                continue;
+            }
+
+            long dataEnd = Math.min(fs.seek(inode, pos, ContentType.HOLE), end);
+            if (buf == null) {
+                // a single buffer for all data segments; never larger than requested
+                buf = context.allocateReplyBuffer(count);
+            }
+
+            ByteBuffer segment = buf.slice();
+            segment.limit((int) (dataEnd - pos));
+            int n = fs.read(inode, segment, pos);
+            if (n < 0) {
+                throw new NfsIoException("IO not allowed");
+            }
+            if (n == 0) {
+                // file truncated in the meantime
+                break;
+            }
+
+            segment.flip();
+            buf.position(buf.position() + n);
+            contents.add(data(pos, segment));
+            pos += n;
+        }
+
+        res.rp_status = nfsstat.NFS_OK;
+        res.rp_resok4 = new read_plus_res4();
+        res.rp_resok4.rpr_contents = contents.toArray(new read_plus_content[0]);
+        res.rp_resok4.rpr_eof = pos >= size;
+    }
+
+    private static read_plus_content data(long offset, ByteBuffer data) {
+        read_plus_content content = new read_plus_content();
+        content.rpc_content = data_content4.NFS4_CONTENT_DATA;
+        content.rpc_data = new data4();
+        content.rpc_data.d_offset = new offset4(offset);
+        content.rpc_data.d_data = data;
+        return content;
+    }
+
+    private static read_plus_content hole(long offset, long length) {
+        read_plus_content content = new read_plus_content();
+        content.rpc_content = data_content4.NFS4_CONTENT_HOLE;
+        content.rpc_hole = new data_info4();
+        content.rpc_hole.di_offset = new offset4(offset);
+        content.rpc_hole.di_length = new length4(length);
+        return content;
+    }
+}
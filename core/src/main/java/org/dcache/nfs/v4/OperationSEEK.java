@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.NXioException;
+import org.dcache.nfs.status.UnionNotSuppException;
+import org.dcache.nfs.v4.xdr.SEEK4res;
+import org.dcache.nfs.v4.xdr.data_content4;
+import org.dcache.nfs.v4.xdr.nfs_argop4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.offset4;
+import org.dcache.nfs.v4.xdr.seek_res4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem.ContentType;
+
+/**
+ * NFSv4.2 SEEK operation as specified in rfc7862#section-15.11.
+ */
+public class OperationSEEK extends AbstractNFSv4Operation {
+
+    public OperationSEEK(nfs_argop4 args) {
+        super(args, nfs_opnum4.OP_SEEK);
+    }
+
+    @Override
+    public void process(CompoundContext context, nfs_resop4 result) throws IOException {
+
+        final SEEK4res res = result.opseek;
+
+        ContentType what;
+        switch (_args.opseek.sa_what) {
+            case data_content4.NFS4_CONTENT_DATA:
+                what = ContentType.DATA;
+                break;
+            case data_content4.NFS4_CONTENT_HOLE:
+                what = ContentType.HOLE;
+                break;
+            default:
+                throw new UnionNotSuppException("unsupported content type: " + _args.opseek.sa_what);
+        }
+
+        Inode inode = context.currentInode();
+        Stat inodeStat = context.getFs().getattr(inode);
+
+        stateid4 stateid = Stateids.getCurrentStateidIfNeeded(context, _args.opseek.sa_stateid);
+        OperationREAD.checkCanRead(context, inode, inodeStat, stateid);
+
+        long offset = _args.opseek.sa_offset.value;
+        if (offset >= inodeStat.getSize()) {
+            throw new NXioException("offset beyond end of file");
+        }
+
+        long position = context.getFs().seek(inode, offset, what);
+
+        res.sa_status = nfsstat.NFS_OK;
+        res.resok4 = new seek_res4();
+        res.resok4.sr_offset = new offset4(position);
+        res.resok4.sr_eof = position >= inodeStat.getSize();
+    }
+}
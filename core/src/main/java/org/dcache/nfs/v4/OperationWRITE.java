@@ -20,6 +20,7 @@
 package org.dcache.nfs.v4;
 
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.OpenModeException;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
@@ -33,8 +34,10 @@ import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.status.InvalException;
 import org.dcache.nfs.status.IsDirException;
 import org.dcache.nfs.status.NfsIoException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
 import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
 import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 import org.slf4j.Logger;
@@ -50,13 +53,51 @@ public class OperationWRITE extends AbstractNFSv4Operation {
 
     @Override
     public void process(CompoundContext context, nfs_resop4 result) throws ChimeraNFSException, IOException {
+        CompletableFutures.await(processAsync(context, result));
+    }
 
-        final WRITE4res res = result.opwrite;
+    @Override
+    public CompletableFuture<Void> processAsync(CompoundContext context, nfs_resop4 result) {
+        return CompletableFutures.composeWith(() -> {
+            _args.opwrite.offset.checkOverflow(_args.opwrite.data.remaining(), "offset + length overflow");
+            Inode inode = context.currentInode();
+            return context.getFs().getattrAsync(inode)
+                    .thenCompose(stat -> CompletableFutures.composeWith(() -> write(context, result.opwrite, inode, stat)));
+        });
+    }
 
-        _args.opwrite.offset.checkOverflow(_args.opwrite.data.remaining(), "offset + length overflow");
+    private CompletableFuture<Void> write(CompoundContext context, WRITE4res res, Inode inode, Stat stat) throws IOException {
 
-        Stat stat = context.getFs().getattr(context.currentInode());
         stateid4 stateid = Stateids.getCurrentStateidIfNeeded(context, _args.opwrite.stateid);
+        checkCanWrite(context, inode, stat, stateid);
+
+        long offset = _args.opwrite.offset.value;
+        return context.getFs().writeAsync(inode, _args.opwrite.data, offset,
+                VirtualFileSystem.StabilityLevel.fromStableHow(_args.opwrite.stable))
+                .thenCompose(writeResult -> CompletableFutures.completeWith(() -> {
+                    if (writeResult.getBytesWritten() < 0) {
+                        throw new NfsIoException("IO not allowed");
+                    }
+
+                    res.status = nfsstat.NFS_OK;
+                    res.resok4 = new WRITE4resok();
+                    res.resok4.count = new count4(writeResult.getBytesWritten());
+                    res.resok4.committed = writeResult.getStabilityLevel().toStableHow();
+                    res.resok4.writeverf = context.getRebootVerifier();
+                    return null;
+                }));
+    }
+
+    /**
+     * Check that the file can be modified with the given open state.
+     *
+     * @param context compound context of the operation.
+     * @param inode the file to modify.
+     * @param stat file's stat.
+     * @param stateid the open, lock or delegation stateid used to modify the file.
+     * @throws IOException if file can't be modified.
+     */
+    static void checkCanWrite(CompoundContext context, Inode inode, Stat stat, stateid4 stateid) throws IOException {
 
         if (stat.type() == Stat.Type.DIRECTORY) {
             throw new IsDirException();
@@ -81,26 +122,9 @@ public class OperationWRITE extends AbstractNFSv4Operation {
             client = context.getSession().getClient();
         }
 
-        var inode = context.currentInode();
-
         int shareAccess = context.getStateHandler().getFileTracker().getShareAccess(client, inode, stateid);
         if ((shareAccess & nfs4_prot.OPEN4_SHARE_ACCESS_WRITE) == 0) {
             throw new OpenModeException("Invalid open mode");
         }
-
-        long offset = _args.opwrite.offset.value;
-        VirtualFileSystem.WriteResult writeResult = context.getFs().write(context.currentInode(),
-                _args.opwrite.data, offset, VirtualFileSystem.StabilityLevel.fromStableHow(_args.opwrite.stable));
-
-        if (writeResult.getBytesWritten() < 0) {
-            throw new NfsIoException("IO not allowed");
-        }
-
-        res.status = nfsstat.NFS_OK;
-        res.resok4 = new WRITE4resok();
-        res.resok4.count = new count4(writeResult.getBytesWritten());
-        res.resok4.committed = writeResult.getStabilityLevel().toStableHow();
-        res.resok4.writeverf = context.getRebootVerifier();
-
     }
 }
@@ -0,0 +1,585 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.dcache.nfs.status.BadStateidException;
+import org.dcache.nfs.status.CompleteAlreadyException;
+import org.dcache.nfs.util.CompletableFutures;
+import org.dcache.nfs.v4.xdr.clientid4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+
+/**
+ * Engine to run asynchronous server-side copies. Each copy is identified by
+ * the copy stateid handed out to the client and is split into chunks, each
+ * of them copied by {@link VirtualFileSystem#copyFileRange}. The number of
+ * concurrently running copies is limited globally and per client; the copies
+ * above the limits are queued in submission order. Optionally, the copy
+ * bandwidth is limited globally and per client as well.
+ *
+ * @since 0.28
+ */
+public class ServerSideCopyEngine {
+
+    /**
+     * Default size of a single chunk.
+     */
+    public static final long DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Default number of copies running concurrently.
+     */
+    public static final int DEFAULT_MAX_ACTIVE_COPIES = 64;
+
+    /**
+     * Default number of copies running concurrently for a single client.
+     */
+    public static final int DEFAULT_MAX_ACTIVE_COPIES_PER_CLIENT = 8;
+
+    private final String _name;
+
+    /**
+     * All known copies, including completed ones, until released.
+     */
+    private final Map<stateid4, Copy> _copies = new ConcurrentHashMap<>();
+
+    /**
+     * Copies waiting to be started, guarded by {@code this}.
+     */
+    private final Deque<Copy> _queue = new ArrayDeque<>();
+
+    /**
+     * Per client bookkeeping of queued and running copies, guarded by {@code this}.
+     */
+    private final Map<clientid4, ClientCopies> _clients = new HashMap<>();
+
+    /**
+     * Number of running copies, guarded by {@code this}.
+     */
+    private int _active;
+
+    private final TokenBucket _bandwidth = new TokenBucket();
+
+    private volatile long _chunkSize = DEFAULT_CHUNK_SIZE;
+    private volatile int _maxActiveCopies = DEFAULT_MAX_ACTIVE_COPIES;
+    private volatile int _maxActiveCopiesPerClient = DEFAULT_MAX_ACTIVE_COPIES_PER_CLIENT;
+    private volatile long _maxBandwidth;
+    private volatile long _maxBandwidthPerClient;
+
+    private final LongAdder _completed = new LongAdder();
+    private final LongAdder _failed = new LongAdder();
+    private final LongAdder _cancelled = new LongAdder();
+    private final LongAdder _bytesCopied = new LongAdder();
+
+    /**
+     * Executor to issue chunk copy requests.
+     */
+    private final Executor _executor;
+
+    /**
+     * Scheduler to delay chunks exceeding the bandwidth limits.
+     */
+    private final ScheduledExecutorService _scheduler;
+
+    /**
+     * Create new copy engine.
+     *
+     * @param name name under which the engine is exposed via JMX.
+     */
+    public ServerSideCopyEngine(String name) {
+        this(name,
+                Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                        .setNameFormat("nfs-copy-offload-%d")
+                        .setDaemon(true)
+                        .build()),
+                Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                        .setNameFormat("nfs-copy-offload-throttle")
+                        .setDaemon(true)
+                        .build()));
+        new ServerSideCopyEngineMXBeanImpl(this);
+    }
+
+    @VisibleForTesting
+    ServerSideCopyEngine(String name, Executor executor, ScheduledExecutorService scheduler) {
+        _name = name;
+        _executor = executor;
+        _scheduler = scheduler;
+    }
+
+    /**
+     * Submit a new copy. The copy's result completes with the number of
+     * copied bytes, or exceptionally with {@link CancellationException}
+     * if the copy is cancelled.
+     *
+     * @param client the client requested the copy.
+     * @param stateid copy stateid handed out to the client.
+     * @param fs file system to copy on.
+     * @param src inode of the source file.
+     * @param srcPos starting position in the source file.
+     * @param dst inode of the destination file.
+     * @param dstPos starting position in the destination file.
+     * @param len number of bytes to copy.
+     * @return the submitted copy.
+     */
+    public Copy submit(NFS4Client client, stateid4 stateid, VirtualFileSystem fs,
+            Inode src, long srcPos, Inode dst, long dstPos, long len) {
+
+        Copy copy = new Copy(client.getId(), stateid, fs, src, srcPos, dst, dstPos, len);
+        _copies.put(stateid, copy);
+        synchronized (this) {
+            _queue.add(copy);
+            _clients.computeIfAbsent(copy.client, c -> new ClientCopies()).queued++;
+        }
+        schedule();
+        return copy;
+    }
+
+    /**
+     * Get copy identified by the given stateid.
+     *
+     * @param stateid the copy stateid.
+     * @return the copy.
+     * @throws BadStateidException if there is no such copy.
+     */
+    public Copy get(stateid4 stateid) throws BadStateidException {
+        Copy copy = _copies.get(stateid);
+        if (copy == null) {
+            throw new BadStateidException("No copy with stateid: " + stateid);
+        }
+        return copy;
+    }
+
+    /**
+     * Cancel copy identified by the given stateid. A queued copy is removed
+     * from the queue, a running one is stopped after the chunk in progress.
+     *
+     * @param stateid the copy stateid.
+     * @throws BadStateidException if there is no such copy.
+     * @throws CompleteAlreadyException if the copy is already completed.
+     */
+    public void cancel(stateid4 stateid) throws BadStateidException, CompleteAlreadyException {
+        Copy copy = get(stateid);
+        if (copy.isDone()) {
+            throw new CompleteAlreadyException("Copy already completed");
+        }
+        abort(copy);
+    }
+
+    /**
+     * Forget the copy identified by the given stateid, cancelling it, if it is
+     * still in progress. Called when the copy stateid is released.
+     *
+     * @param stateid the copy stateid.
+     */
+    public void release(stateid4 stateid) {
+        Copy copy = _copies.remove(stateid);
+        if (copy != null) {
+            abort(copy);
+        }
+    }
+
+    /**
+     * Cancel all copies and stop the engine.
+     */
+    public void shutdown() {
+        _copies.values().forEach(this::abort);
+        _copies.clear();
+        _scheduler.shutdown();
+        if (_executor instanceof ExecutorService) {
+            ((ExecutorService) _executor).shutdown();
+        }
+    }
+
+    private void abort(Copy copy) {
+        copy.cancelled = true;
+        boolean wasQueued;
+        synchronized (this) {
+            wasQueued = _queue.remove(copy);
+            if (wasQueued) {
+                releaseClient(copy.client, false);
+            }
+        }
+
+        if (wasQueued) {
+            if (copy.result.completeExceptionally(new CancellationException())) {
+                _cancelled.increment();
+            }
+        } else {
+            CompletableFuture<Long> chunk = copy.chunk;
+            if (chunk != null) {
+                chunk.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Start as many queued copies as the limits allow.
+     */
+    private void schedule() {
+        List<Copy> toStart = new ArrayList<>();
+        synchronized (this) {
+            var i = _queue.iterator();
+            while (_active < _maxActiveCopies && i.hasNext()) {
+                Copy copy = i.next();
+                ClientCopies clientCopies = _clients.get(copy.client);
+                if (clientCopies.active < _maxActiveCopiesPerClient) {
+                    i.remove();
+                    clientCopies.queued--;
+                    clientCopies.active++;
+                    _active++;
+                    toStart.add(copy);
+                }
+            }
+        }
+        toStart.forEach(copy -> _executor.execute(() -> nextChunk(copy)));
+    }
+
+    private void nextChunk(Copy copy) {
+
+        if (copy.cancelled) {
+            finish(copy, new CancellationException());
+            return;
+        }
+
+        long remaining = copy.len - copy.copied.get();
+        if (remaining <= 0) {
+            finish(copy, null);
+            return;
+        }
+
+        long n = Math.min(_chunkSize, remaining);
+        long now = System.nanoTime();
+        long delay = _bandwidth.reserve(n, _maxBandwidth, now);
+        TokenBucket clientBandwidth;
+        synchronized (this) {
+            clientBandwidth = _clients.get(copy.client).bandwidth;
+        }
+        delay = Math.max(delay, clientBandwidth.reserve(n, _maxBandwidthPerClient, now));
+
+        if (delay > 0) {
+            _scheduler.schedule(() -> _executor.execute(() -> copyChunk(copy, n)), delay, TimeUnit.NANOSECONDS);
+        } else {
+            copyChunk(copy, n);
+        }
+    }
+
+    private void copyChunk(Copy copy, long n) {
+
+        if (copy.cancelled) {
+            finish(copy, new CancellationException());
+            return;
+        }
+
+        long offset = copy.copied.get();
+        CompletableFuture<Long> chunk;
+        try {
+            chunk = copy.fs.copyFileRange(copy.src, copy.srcPos + offset, copy.dst, copy.dstPos + offset, n);
+        } catch (RuntimeException e) {
+            chunk = CompletableFuture.failedFuture(e);
+        }
+
+        copy.chunk = chunk;
+        if (copy.cancelled) {
+            // cancelled before chunk was published
+            chunk.cancel(false);
+        }
+
+        chunk.whenComplete((count, t) -> {
+            copy.chunk = null;
+            if (t != null) {
+                finish(copy, copy.cancelled ? new CancellationException() : CompletableFutures.unwrap(t));
+                return;
+            }
+
+            copy.copied.addAndGet(count);
+            _bytesCopied.add(count);
+            if (count == 0) {
+                // end of source file reached
+                finish(copy, null);
+                return;
+            }
+            _executor.execute(() -> nextChunk(copy));
+        });
+    }
+
+    private void finish(Copy copy, Throwable error) {
+        synchronized (this) {
+            _active--;
+            releaseClient(copy.client, true);
+        }
+
+        if (error == null) {
+            copy.result.complete(copy.copied.get());
+            _completed.increment();
+        } else if (error instanceof CancellationException) {
+            copy.result.completeExceptionally(error);
+            _cancelled.increment();
+        } else {
+            copy.result.completeExceptionally(error);
+            _failed.increment();
+        }
+        schedule();
+    }
+
+    /**
+     * Update client bookkeeping when a copy leaves the queue or stops running.
+     */
+    private void releaseClient(clientid4 client, boolean active) {
+        ClientCopies clientCopies = _clients.get(client);
+        if (active) {
+            clientCopies.active--;
+        } else {
+            clientCopies.queued--;
+        }
+        if (clientCopies.active == 0 && clientCopies.queued == 0) {
+            _clients.remove(client);
+        }
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public long getChunkSize() {
+        return _chunkSize;
+    }
+
+    public void setChunkSize(long chunkSize) {
+        checkArgument(chunkSize > 0, "chunk size must be positive");
+        _chunkSize = chunkSize;
+    }
+
+    public int getMaxActiveCopies() {
+        return _maxActiveCopies;
+    }
+
+    public void setMaxActiveCopies(int maxActiveCopies) {
+        checkArgument(maxActiveCopies > 0, "number of copies must be positive");
+        _maxActiveCopies = maxActiveCopies;
+        schedule();
+    }
+
+    public int getMaxActiveCopiesPerClient() {
+        return _maxActiveCopiesPerClient;
+    }
+
+    public void setMaxActiveCopiesPerClient(int maxActiveCopiesPerClient) {
+        checkArgument(maxActiveCopiesPerClient > 0, "number of copies must be positive");
+        _maxActiveCopiesPerClient = maxActiveCopiesPerClient;
+        schedule();
+    }
+
+    /**
+     * Get the maximal total copy bandwidth in bytes per second, zero if unlimited.
+     *
+     * @return the maximal copy bandwidth.
+     */
+    public long getMaxBandwidth() {
+        return _maxBandwidth;
+    }
+
+    public void setMaxBandwidth(long maxBandwidth) {
+        checkArgument(maxBandwidth >= 0, "bandwidth can't be negative");
+        _maxBandwidth = maxBandwidth;
+    }
+
+    /**
+     * Get the maximal copy bandwidth of a single client in bytes per second,
+     * zero if unlimited.
+     *
+     * @return the maximal copy bandwidth of a client.
+     */
+    public long getMaxBandwidthPerClient() {
+        return _maxBandwidthPerClient;
+    }
+
+    public void setMaxBandwidthPerClient(long maxBandwidthPerClient) {
+        checkArgument(maxBandwidthPerClient >= 0, "bandwidth can't be negative");
+        _maxBandwidthPerClient = maxBandwidthPerClient;
+    }
+
+    public synchronized int getQueuedCopies() {
+        return _queue.size();
+    }
+
+    public synchronized int getActiveCopies() {
+        return _active;
+    }
+
+    public long getCompletedCopies() {
+        return _completed.sum();
+    }
+
+    public long getFailedCopies() {
+        return _failed.sum();
+    }
+
+    public long getCancelledCopies() {
+        return _cancelled.sum();
+    }
+
+    public long getBytesCopied() {
+        return _bytesCopied.sum();
+    }
+
+    /**
+     * Get number of queued and running copies per client.
+     *
+     * @return map of client id to number of copies.
+     */
+    public synchronized Map<String, Long> getClientCopies() {
+        return _clients.entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().toString(),
+                        e -> (long) (e.getValue().active + e.getValue().queued)));
+    }
+
+    /**
+     * A single server-side copy.
+     */
+    public static class Copy {
+
+        private final clientid4 client;
+        private final stateid4 stateid;
+        private final VirtualFileSystem fs;
+        private final Inode src;
+        private final long srcPos;
+        private final Inode dst;
+        private final long dstPos;
+        private final long len;
+
+        private final AtomicLong copied = new AtomicLong();
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private volatile boolean cancelled;
+        private volatile CompletableFuture<Long> chunk;
+
+        private Copy(clientid4 client, stateid4 stateid, VirtualFileSystem fs,
+                Inode src, long srcPos, Inode dst, long dstPos, long len) {
+            this.client = client;
+            this.stateid = stateid;
+            this.fs = fs;
+            this.src = src;
+            this.srcPos = srcPos;
+            this.dst = dst;
+            this.dstPos = dstPos;
+            this.len = len;
+        }
+
+        public stateid4 getStateid() {
+            return stateid;
+        }
+
+        /**
+         * Get a future representing pending completion of the copy.
+         *
+         * @return a future completed with the number of copied bytes.
+         */
+        public CompletableFuture<Long> getResult() {
+            return result.copy();
+        }
+
+        /**
+         * Get number of bytes copied so far.
+         *
+         * @return number of copied bytes.
+         */
+        public long getBytesCopied() {
+            return copied.get();
+        }
+
+        /**
+         * Returns {@code true} if the copy is completed, either successfully,
+         * with an error or by cancellation.
+         *
+         * @return true if copy is completed.
+         */
+        public boolean isDone() {
+            return result.isDone();
+        }
+
+        /**
+         * Get the error the copy has failed with.
+         *
+         * @return the error or {@code null}, if copy is in progress or successfully completed.
+         */
+        public Throwable getError() {
+            if (!result.isCompletedExceptionally()) {
+                return null;
+            }
+            return result.handle((n, t) -> CompletableFutures.unwrap(t)).join();
+        }
+    }
+
+    /**
+     * Non-blocking token bucket, which, instead of waiting, tells how long
+     * the caller has to delay the transfer of the reserved bytes.
+     */
+    private static class TokenBucket {
+
+        /**
+         * Time, in terms of {@link System#nanoTime}, when the next transfer can start.
+         */
+        private long _next = System.nanoTime();
+
+        synchronized long reserve(long bytes, long rate, long now) {
+            if (rate <= 0) {
+                return 0;
+            }
+            long delay = _next - now;
+            if (delay < 0) {
+                // idle bucket, don't accumulate credit
+                _next = now;
+                delay = 0;
+            }
+            _next += bytes * TimeUnit.SECONDS.toNanos(1) / rate;
+            return delay;
+        }
+    }
+
+    private static class ClientCopies {
+
+        private int active;
+        private int queued;
+        private final TokenBucket bandwidth = new TokenBucket();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.util.Map;
+
+public interface ServerSideCopyEngineMXBean {
+
+    long getChunkSize();
+
+    void setChunkSize(long chunkSize);
+
+    int getMaxActiveCopies();
+
+    void setMaxActiveCopies(int maxActiveCopies);
+
+    int getMaxActiveCopiesPerClient();
+
+    void setMaxActiveCopiesPerClient(int maxActiveCopiesPerClient);
+
+    long getMaxBandwidth();
+
+    void setMaxBandwidth(long maxBandwidth);
+
+    long getMaxBandwidthPerClient();
+
+    void setMaxBandwidthPerClient(long maxBandwidthPerClient);
+
+    int getQueuedCopies();
+
+    int getActiveCopies();
+
+    long getCompletedCopies();
+
+    long getFailedCopies();
+
+    long getCancelledCopies();
+
+    long getBytesCopied();
+
+    Map<String, Long> getClientCopies();
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JMX wrapper for {@link ServerSideCopyEngine}.
+ */
+public class ServerSideCopyEngineMXBeanImpl implements ServerSideCopyEngineMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(ServerSideCopyEngineMXBeanImpl.class);
+
+    private final ServerSideCopyEngine _engine;
+
+    public ServerSideCopyEngineMXBeanImpl(ServerSideCopyEngine engine) {
+        _engine = engine;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = String.format("%s:type=ServerSideCopyEngine,name=%s",
+                    _engine.getClass().getPackage().getName(), _engine.getName());
+            ObjectName mxBeanName = new ObjectName(name);
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public long getChunkSize() {
+        return _engine.getChunkSize();
+    }
+
+    @Override
+    public void setChunkSize(long chunkSize) {
+        _engine.setChunkSize(chunkSize);
+    }
+
+    @Override
+    public int getMaxActiveCopies() {
+        return _engine.getMaxActiveCopies();
+    }
+
+    @Override
+    public void setMaxActiveCopies(int maxActiveCopies) {
+        _engine.setMaxActiveCopies(maxActiveCopies);
+    }
+
+    @Override
+    public int getMaxActiveCopiesPerClient() {
+        return _engine.getMaxActiveCopiesPerClient();
+    }
+
+    @Override
+    public void setMaxActiveCopiesPerClient(int maxActiveCopiesPerClient) {
+        _engine.setMaxActiveCopiesPerClient(maxActiveCopiesPerClient);
+    }
+
+    @Override
+    public long getMaxBandwidth() {
+        return _engine.getMaxBandwidth();
+    }
+
+    @Override
+    public void setMaxBandwidth(long maxBandwidth) {
+        _engine.setMaxBandwidth(maxBandwidth);
+    }
+
+    @Override
+    public long getMaxBandwidthPerClient() {
+        return _engine.getMaxBandwidthPerClient();
+    }
+
+    @Override
+    public void setMaxBandwidthPerClient(long maxBandwidthPerClient) {
+        _engine.setMaxBandwidthPerClient(maxBandwidthPerClient);
+    }
+
+    @Override
+    public int getQueuedCopies() {
+        return _engine.getQueuedCopies();
+    }
+
+    @Override
+    public int getActiveCopies() {
+        return _engine.getActiveCopies();
+    }
+
+    @Override
+    public long getCompletedCopies() {
+        return _engine.getCompletedCopies();
+    }
+
+    @Override
+    public long getFailedCopies() {
+        return _engine.getFailedCopies();
+    }
+
+    @Override
+    public long getCancelledCopies() {
+        return _engine.getCancelledCopies();
+    }
+
+    @Override
+    public long getBytesCopied() {
+        return _engine.getBytesCopied();
+    }
+
+    @Override
+    public Map<String, Long> getClientCopies() {
+        return _engine.getClientCopies();
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.dcache.nfs.v4.xdr.sessionid4;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Memory accounting for NFSv4.1 session reply caches. Each session slot keeps
+ * the encoded reply of the last request, if client have asked to cache it. The
+ * total size of cached replies of all sessions is limited by a global budget.
+ * A reply, which doesn't fit into the budget, is not cached and a retry of the
+ * request is answered with {@code NFS4ERR_RETRY_UNCACHED_REP}.
+ *
+ * @since 0.28
+ */
+public class SessionReplyCache {
+
+    /**
+     * Default memory budget for cached replies in bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+
+    private final String _name;
+    private volatile long _maxBytes;
+    private final AtomicLong _usedBytes = new AtomicLong();
+
+    private final LongAdder _cachedReplies = new LongAdder();
+    private final LongAdder _rejectedReplies = new LongAdder();
+
+    /**
+     * Per-session accounts.
+     */
+    private final Map<sessionid4, Account> _accounts = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new reply cache with default memory budget.
+     *
+     * @param name name under which cache statistics is exposed via JMX.
+     */
+    public SessionReplyCache(String name) {
+        this(name, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * Create a new reply cache.
+     *
+     * @param name name under which cache statistics is exposed via JMX.
+     * @param maxBytes memory budget for cached replies in bytes.
+     */
+    public SessionReplyCache(String name, long maxBytes) {
+        checkArgument(maxBytes >= 0, "memory budget can't be negative");
+        _name = name;
+        _maxBytes = maxBytes;
+        new SessionReplyCacheMXBeanImpl(this);
+    }
+
+    /**
+     * Create a new account for the given session.
+     *
+     * @param session the session to account.
+     * @return accounts for session's reply cache.
+     */
+    Account newAccount(sessionid4 session) {
+        Account account = new Account(session);
+        _accounts.put(session, account);
+        return account;
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public long getMaxBytes() {
+        return _maxBytes;
+    }
+
+    /**
+     * Update memory budget. Already cached replies are kept, even if they
+     * exceed the new budget.
+     *
+     * @param maxBytes memory budget for cached replies in bytes.
+     */
+    public void setMaxBytes(long maxBytes) {
+        checkArgument(maxBytes >= 0, "memory budget can't be negative");
+        _maxBytes = maxBytes;
+    }
+
+    public long getUsedBytes() {
+        return _usedBytes.get();
+    }
+
+    public long getCachedReplyCount() {
+        return _cachedReplies.sum();
+    }
+
+    public long getRejectedReplyCount() {
+        return _rejectedReplies.sum();
+    }
+
+    /**
+     * Get memory used by cached replies of every session.
+     *
+     * @return mapping between session id and bytes used by cached replies.
+     */
+    public Map<String, Long> getSessionUsage() {
+        return _accounts.values().stream()
+                .collect(Collectors.toMap(a -> a._session.toString(), Account::getUsedBytes));
+    }
+
+    private boolean reserve(long size) {
+        long used;
+        do {
+            used = _usedBytes.get();
+            if (used + size > _maxBytes) {
+                _rejectedReplies.increment();
+                return false;
+            }
+        } while (!_usedBytes.compareAndSet(used, used + size));
+        _cachedReplies.increment();
+        return true;
+    }
+
+    private void release(long size) {
+        _usedBytes.addAndGet(-size);
+    }
+
+    /**
+     * Memory accounting of a single session. Once account is closed, no new
+     * replies can be reserved and releases of replies, which still may be
+     * referenced by session slots, are ignored.
+     */
+    class Account {
+
+        private final sessionid4 _session;
+        private final AtomicLong _bytes = new AtomicLong();
+        private boolean _closed;
+
+        private Account(sessionid4 session) {
+            _session = session;
+        }
+
+        /**
+         * Reserve memory for a reply.
+         *
+         * @param size reply size in bytes.
+         * @return true if reply fits into the budget.
+         */
+        synchronized boolean reserve(int size) {
+            if (_closed || !SessionReplyCache.this.reserve(size)) {
+                return false;
+            }
+            _bytes.addAndGet(size);
+            return true;
+        }
+
+        /**
+         * Release memory used by a discarded reply.
+         *
+         * @param size reply size in bytes.
+         */
+        synchronized void release(int size) {
+            if (_closed) {
+                // already released on close
+                return;
+            }
+            _bytes.addAndGet(-size);
+            SessionReplyCache.this.release(size);
+        }
+
+        long getUsedBytes() {
+            return _bytes.get();
+        }
+
+        /**
+         * Release all memory used by session and remove the account.
+         */
+        synchronized void close() {
+            _closed = true;
+            SessionReplyCache.this.release(_bytes.getAndSet(0));
+            _accounts.remove(_session, this);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JMX wrapper for {@link SessionReplyCache}.
+ */
+public class SessionReplyCacheMXBeanImpl implements SessionReplyCacheMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(SessionReplyCacheMXBeanImpl.class);
+
+    private final SessionReplyCache _cache;
+
+    public SessionReplyCacheMXBeanImpl(SessionReplyCache cache) {
+        _cache = cache;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = String.format("%s:type=SessionReplyCache,name=%s",
+                    _cache.getClass().getPackage().getName(), _cache.getName());
+            ObjectName mxBeanName = new ObjectName(name);
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return _cache.getMaxBytes();
+    }
+
+    @Override
+    public void setMaxBytes(long maxBytes) {
+        _cache.setMaxBytes(maxBytes);
+    }
+
+    @Override
+    public long getUsedBytes() {
+        return _cache.getUsedBytes();
+    }
+
+    @Override
+    public long getCachedReplyCount() {
+        return _cache.getCachedReplyCount();
+    }
+
+    @Override
+    public long getRejectedReplyCount() {
+        return _cache.getRejectedReplyCount();
+    }
+
+    @Override
+    public Map<String, Long> getSessionUsage() {
+        return _cache.getSessionUsage();
+    }
+}
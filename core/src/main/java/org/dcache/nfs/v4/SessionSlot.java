@@ -19,24 +19,49 @@
  */
 package org.dcache.nfs.v4;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.data_content4;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
 import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.read_plus_content;
 import org.dcache.nfs.status.SeqMisorderedException;
+import org.dcache.nfs.status.ServerFaultException;
+import org.dcache.oncrpc4j.xdr.Xdr;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- *
+ * A session slot, which keeps the sequence id and the reply of the last
+ * request. The reply is kept in XDR encoded form, thus cached replies don't
+ * reference data buffers and their memory footprint is accounted by
+ * {@link SessionReplyCache}.
  */
 public class SessionSlot {
 
     private static final Logger _log = LoggerFactory.getLogger(SessionSlot.class);
 
+    private final SessionReplyCache.Account _account;
+
     private int _sequence;
-    private List<nfs_resop4> _reply;
 
-    public SessionSlot() {
+    /**
+     * XDR encoded COMPOUND reply of the last request or {@code null}, if reply
+     * is not cached.
+     */
+    private byte[] _reply;
+
+    /**
+     * Status of the last request.
+     */
+    private int _status;
+
+    SessionSlot(SessionReplyCache.Account account) {
+       _account = account;
        _sequence = 0;
     }
 
@@ -58,16 +83,18 @@ public class SessionSlot {
      * @return the list of cached replies, possibly empty or {@code null}
      * cached reply does not exist.
      * @throws SeqMisorderedException if {@code sequnce} is out of order.
+     * @throws ServerFaultException if cached reply can't be decoded.
      */
-    List<nfs_resop4> acquire(int sequence) throws SeqMisorderedException {
+    synchronized List<nfs_resop4> acquire(int sequence) throws SeqMisorderedException, ServerFaultException {
 
         if( sequence == _sequence ) {
 
             _log.info("retransmit detected");
             if( _reply != null ) {
-                return _reply;
+                return decode(_reply);
             }
 
+            _log.debug("reply with status {} is not cached", nfsstat.toString(_status));
             return Collections.emptyList();
         }
 
@@ -78,11 +105,126 @@ public class SessionSlot {
         }
 
         _sequence = sequence;
-        _reply = null;
+        releaseReply();
         return null;
     }
 
-    void update(List<nfs_resop4> reply) {
-        _reply = reply;
+    /**
+     * Store the reply of the current request. The reply is encoded once and
+     * cached only if it fits into reply cache memory budget. The encoded reply
+     * is returned to be sent to the client.
+     *
+     * @param reply the reply to cache.
+     * @return the XDR encoded reply or {@code null}, if reply can't be encoded.
+     */
+    synchronized byte[] update(COMPOUND4res reply) {
+        releaseReply();
+        _status = reply.status;
+
+        byte[] encoded;
+        try {
+            encoded = encode(reply);
+        } catch (IOException e) {
+            _log.warn("Failed to encode reply for caching: {}", e.getMessage());
+            return null;
+        }
+
+        if (!_account.reserve(encoded.length)) {
+            _log.debug("Reply cache is full, {} bytes reply not cached", encoded.length);
+            return encoded;
+        }
+        _reply = encoded;
+        return encoded;
+    }
+
+    /**
+     * Store only the status of the current request. The reply itself is
+     * not cached and a retry will be answered with {@code NFS4ERR_RETRY_UNCACHED_REP}.
+     *
+     * @param status status of the last operation.
+     */
+    synchronized void updateStatus(int status) {
+        releaseReply();
+        _status = status;
+    }
+
+    /**
+     * Get size of cached reply.
+     *
+     * @return size of encoded reply in bytes or zero, if reply is not cached.
+     */
+    synchronized int getCachedReplySize() {
+        return _reply == null ? 0 : _reply.length;
+    }
+
+    /**
+     * Discard cached reply, if any.
+     */
+    synchronized void releaseReply() {
+        if (_reply != null) {
+            _account.release(_reply.length);
+            _reply = null;
+        }
+    }
+
+    private static byte[] encode(COMPOUND4res reply) throws IOException {
+        try (Xdr xdr = new Xdr(1024)) {
+            xdr.beginEncoding();
+            xdr.xdrEncodeInt(reply.status);
+            reply.tag.xdrEncode(xdr);
+            xdr.xdrEncodeInt(reply.resarray.size());
+            for (nfs_resop4 op : reply.resarray) {
+                encode(xdr, op);
+            }
+            xdr.endEncoding();
+            return xdr.getBytes();
+        }
+    }
+
+    private static void encode(Xdr xdr, nfs_resop4 op) throws IOException {
+
+        // encoding may consume data buffers, which are still needed to send the reply
+        if (op.resop == nfs_opnum4.OP_READ && op.opread.status == nfsstat.NFS_OK) {
+            ByteBuffer data = op.opread.resok4.data;
+            op.opread.resok4.data = data.duplicate();
+            try {
+                op.xdrEncode(xdr);
+            } finally {
+                op.opread.resok4.data = data;
+            }
+            return;
+        }
+        if (op.resop == nfs_opnum4.OP_READ_PLUS && op.opread_plus.rp_status == nfsstat.NFS_OK) {
+            read_plus_content[] contents = op.opread_plus.rp_resok4.rpr_contents;
+            ByteBuffer[] data = new ByteBuffer[contents.length];
+            for (int i = 0; i < contents.length; i++) {
+                if (contents[i].rpc_content == data_content4.NFS4_CONTENT_DATA) {
+                    data[i] = contents[i].rpc_data.d_data;
+                    contents[i].rpc_data.d_data = data[i].duplicate();
+                }
+            }
+            try {
+                op.xdrEncode(xdr);
+            } finally {
+                for (int i = 0; i < contents.length; i++) {
+                    if (data[i] != null) {
+                        contents[i].rpc_data.d_data = data[i];
+                    }
+                }
+            }
+            return;
+        }
+        op.xdrEncode(xdr);
+    }
+
+    private static List<nfs_resop4> decode(byte[] reply) throws ServerFaultException {
+        try (Xdr xdr = new Xdr(reply)) {
+            xdr.beginDecoding();
+            COMPOUND4res res = new COMPOUND4res(xdr);
+            xdr.endDecoding();
+            return res.resarray;
+        } catch (IOException e) {
+            throw new ServerFaultException("Failed to decode cached reply", e);
+        }
     }
 }
@@ -82,18 +82,51 @@ public abstract class AbstractLockManager implements LockManager {
      */
     abstract protected void removeAll(byte[] objId, Collection<NlmLock> locks);
 
+    /**
+     * Get collection of active locks on the object which overlap with the
+     * range of the given {@code lock}. The default implementation scans all
+     * active locks. Subclasses with indexed lock storage should override it.
+     *
+     * @param objId object id.
+     * @param lock lock which defines the range.
+     * @return collection of overlapping locks.
+     * @since 0.28
+     */
+    protected Collection<NlmLock> getOverlappingLocks(byte[] objId, NlmLock lock) {
+        return getActiveLocks(objId).stream()
+                .filter(l -> l.isOverlappingRange(lock))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Get collection of active locks on the object which are owned by the
+     * owner of the given {@code lock} and overlap with its range. The default
+     * implementation scans all active locks. Subclasses with indexed lock
+     * storage should override it.
+     *
+     * @param objId object id.
+     * @param lock lock which defines the owner and the range.
+     * @return collection of overlapping locks of the same owner.
+     * @since 0.28
+     */
+    protected Collection<NlmLock> getOverlappingOwnerLocks(byte[] objId, NlmLock lock) {
+        return getOverlappingLocks(objId, lock).stream()
+                .filter(l -> l.isSameOwner(lock))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public void lock(byte[] objId, NlmLock lock) throws LockException {
         Lock dlmLock = getObjectLock(objId);
         dlmLock.lock();
         try {
-            Collection<NlmLock> currentLocks = getActiveLocks(objId);
+            Collection<NlmLock> currentLocks = getOverlappingLocks(objId, lock);
             Optional<NlmLock> conflictingLock = currentLocks.stream().filter((NlmLock l) -> l.isConflicting(lock)).findAny();
             if (conflictingLock.isPresent()) {
                 throw new LockDeniedException("object locked", conflictingLock.get());
             }
             // no conflicting locks. try to merge existing locks
-            List<NlmLock> toMerge = currentLocks.stream().filter((NlmLock l) -> l.isOverlappingRange(lock)).filter((NlmLock l) -> l.isSameOwner(lock)).filter((NlmLock l) -> l.getLockType() == lock.getLockType()).collect(Collectors.toList());
+            List<NlmLock> toMerge = currentLocks.stream().filter((NlmLock l) -> l.isSameOwner(lock)).filter((NlmLock l) -> l.getLockType() == lock.getLockType()).collect(Collectors.toList());
             if (toMerge.isEmpty()) {
                 add(objId, lock);
             } else {
@@ -118,14 +151,14 @@ public abstract class AbstractLockManager implements LockManager {
         Lock dlmLock = getObjectLock(objId);
         dlmLock.lock();
         try {
-            Collection<NlmLock> currentLocks = getActiveLocks(objId);
             // check for exact match first
             if (remove(objId, lock)) {
                 return;
             }
+            Collection<NlmLock> currentLocks = getOverlappingOwnerLocks(objId, lock);
             List<NlmLock> toRemove = new ArrayList<>();
             List<NlmLock> toAdd = new ArrayList<>();
-            currentLocks.stream().filter((NlmLock l) -> l.isSameOwner(lock)).filter((NlmLock l) -> l.isOverlappingRange(lock)).forEach((NlmLock l) -> {
+            currentLocks.forEach((NlmLock l) -> {
                 toRemove.add(l);
                 long l1 = lock.getOffset() - l.getOffset();
                 if (l1 > 0) {
@@ -155,8 +188,8 @@ public abstract class AbstractLockManager implements LockManager {
         Lock dlmLock = getObjectLock(objId);
         dlmLock.lock();
         try {
-            Collection<NlmLock> currentLocks = getActiveLocks(objId);
-            Optional<NlmLock> conflictingLock = currentLocks.stream().filter((NlmLock l) -> l.isOverlappingRange(lock) && !l.isSameOwner(lock)).findAny();
+            Collection<NlmLock> currentLocks = getOverlappingLocks(objId, lock);
+            Optional<NlmLock> conflictingLock = currentLocks.stream().filter((NlmLock l) -> !l.isSameOwner(lock)).findAny();
             if (conflictingLock.isPresent()) {
                 throw new LockDeniedException("object locked", conflictingLock.get());
             }
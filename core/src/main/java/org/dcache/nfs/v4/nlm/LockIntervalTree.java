@@ -0,0 +1,289 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+
+/**
+ * An interval tree of byte-range locks. The tree is a balanced (AVL) binary
+ * search tree ordered by lock offset, where each node keeps the highest end
+ * offset of its subtree. This allows to find all locks overlapping a given
+ * range in O(log(n) + k) time, where k is the number of overlapping locks.
+ *
+ * Offsets are unsigned 64-bit values and compared as such. Ends are inclusive,
+ * thus a range which reaches the last byte of a file can be represented.
+ *
+ * This class is not thread safe.
+ *
+ * @since 0.28
+ */
+final class LockIntervalTree {
+
+    private static final class Node {
+
+        private final long start;
+
+        /**
+         * Locks starting at the same offset.
+         */
+        private final List<NlmLock> locks = new ArrayList<>(1);
+
+        /**
+         * The highest (inclusive) end of locks in this node.
+         */
+        private long end;
+
+        /**
+         * The highest (inclusive) end of locks in this subtree.
+         */
+        private long maxEnd;
+
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(long start) {
+            this.start = start;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    /**
+     * Add a lock to the tree.
+     *
+     * @param lock the lock to add.
+     */
+    void add(NlmLock lock) {
+        root = insert(root, lock);
+        size++;
+    }
+
+    /**
+     * Remove a lock from the tree.
+     *
+     * @param lock the lock to remove.
+     * @return true, if the tree contained the lock.
+     */
+    boolean remove(NlmLock lock) {
+        int before = size;
+        root = delete(root, lock);
+        return size != before;
+    }
+
+    /**
+     * Get all locks which overlap with the given lock's range.
+     *
+     * @param lock the lock which defines the range.
+     * @return list of overlapping locks.
+     */
+    List<NlmLock> overlapping(NlmLock lock) {
+        List<NlmLock> result = new ArrayList<>();
+        collect(root, lock.getOffset(), endOf(lock), lock, result);
+        return result;
+    }
+
+    /**
+     * Get all locks in the tree, ordered by offset.
+     *
+     * @return list of all locks.
+     */
+    List<NlmLock> values() {
+        List<NlmLock> result = new ArrayList<>(size);
+        inorder(root, result);
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Get inclusive end offset of lock's range. Zero length ranges are treated
+     * as one byte long, thus tree lookup returns a superset of locks which
+     * {@link NlmLock#isOverlappingRange} considers as overlapping. Ranges
+     * which go beyond the last byte end at {@link nfs4_prot#NFS4_UINT64_MAX}.
+     */
+    static long endOf(NlmLock lock) {
+        long offset = lock.getOffset();
+        long length = lock.getLength();
+        if (length == 0) {
+            return offset;
+        }
+        if (length == nfs4_prot.NFS4_UINT64_MAX) {
+            return nfs4_prot.NFS4_UINT64_MAX;
+        }
+        long end = offset + (length - 1);
+        return Long.compareUnsigned(end, offset) < 0 ? nfs4_prot.NFS4_UINT64_MAX : end;
+    }
+
+    private void collect(Node n, long start, long end, NlmLock lock, List<NlmLock> result) {
+        if (n == null || Long.compareUnsigned(n.maxEnd, start) < 0) {
+            return;
+        }
+
+        collect(n.left, start, end, lock, result);
+
+        // nodes in the right subtree start even later
+        if (Long.compareUnsigned(n.start, end) <= 0) {
+            for (NlmLock l : n.locks) {
+                if (l.isOverlappingRange(lock)) {
+                    result.add(l);
+                }
+            }
+            collect(n.right, start, end, lock, result);
+        }
+    }
+
+    private static void inorder(Node n, List<NlmLock> result) {
+        if (n != null) {
+            inorder(n.left, result);
+            result.addAll(n.locks);
+            inorder(n.right, result);
+        }
+    }
+
+    private static Node insert(Node n, NlmLock lock) {
+        if (n == null) {
+            n = new Node(lock.getOffset());
+            n.locks.add(lock);
+            n.end = endOf(lock);
+            return update(n);
+        }
+
+        int cmp = Long.compareUnsigned(lock.getOffset(), n.start);
+        if (cmp < 0) {
+            n.left = insert(n.left, lock);
+        } else if (cmp > 0) {
+            n.right = insert(n.right, lock);
+        } else {
+            n.locks.add(lock);
+            n.end = maxUnsigned(n.end, endOf(lock));
+        }
+        return balance(n);
+    }
+
+    private Node delete(Node n, NlmLock lock) {
+        if (n == null) {
+            return null;
+        }
+
+        int cmp = Long.compareUnsigned(lock.getOffset(), n.start);
+        if (cmp < 0) {
+            n.left = delete(n.left, lock);
+        } else if (cmp > 0) {
+            n.right = delete(n.right, lock);
+        } else {
+            if (!n.locks.remove(lock)) {
+                return n;
+            }
+            size--;
+
+            if (!n.locks.isEmpty()) {
+                n.end = n.locks.stream().mapToLong(LockIntervalTree::endOf).reduce(LockIntervalTree::maxUnsigned).getAsLong();
+                return update(n);
+            }
+
+            if (n.left == null) {
+                return n.right;
+            }
+            if (n.right == null) {
+                return n.left;
+            }
+
+            Node successor = n.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = deleteMin(n.right);
+            successor.left = n.left;
+            return balance(successor);
+        }
+        return balance(n);
+    }
+
+    private static Node deleteMin(Node n) {
+        if (n.left == null) {
+            return n.right;
+        }
+        n.left = deleteMin(n.left);
+        return balance(n);
+    }
+
+    private static int height(Node n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static Node update(Node n) {
+        n.height = 1 + Math.max(height(n.left), height(n.right));
+        long maxEnd = n.end;
+        if (n.left != null) {
+            maxEnd = maxUnsigned(maxEnd, n.left.maxEnd);
+        }
+        if (n.right != null) {
+            maxEnd = maxUnsigned(maxEnd, n.right.maxEnd);
+        }
+        n.maxEnd = maxEnd;
+        return n;
+    }
+
+    private static long maxUnsigned(long a, long b) {
+        return Long.compareUnsigned(a, b) >= 0 ? a : b;
+    }
+
+    private static Node rotateRight(Node n) {
+        Node l = n.left;
+        n.left = l.right;
+        l.right = update(n);
+        return update(l);
+    }
+
+    private static Node rotateLeft(Node n) {
+        Node r = n.right;
+        n.right = r.left;
+        r.left = update(n);
+        return update(r);
+    }
+
+    private static Node balance(Node n) {
+        update(n);
+        int balance = height(n.left) - height(n.right);
+        if (balance > 1) {
+            if (height(n.left.left) < height(n.left.right)) {
+                n.left = rotateLeft(n.left);
+            }
+            return rotateRight(n);
+        }
+        if (balance < -1) {
+            if (height(n.right.right) < height(n.right.left)) {
+                n.right = rotateRight(n.right);
+            }
+            return rotateLeft(n);
+        }
+        return n;
+    }
+}
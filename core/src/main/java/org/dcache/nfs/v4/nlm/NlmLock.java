@@ -121,6 +121,8 @@ public class NlmLock implements Serializable{
          *     A + B < C
          *  use
          *     C - A > B
+         *
+         * offsets and lengths are unsigned 64-bit values.
          */
 
         if (other.length == nfs4_prot.NFS4_UINT64_MAX) {
@@ -128,7 +130,8 @@ public class NlmLock implements Serializable{
              * either this lock region starts at higher offset,
              * or lock region doesn't ends before other one starts.
              */
-            return offset > other.offset || other.offset - length < offset;
+            return Long.compareUnsigned(offset, other.offset) > 0
+                    || Long.compareUnsigned(other.offset - offset, length) < 0;
         }
 
         if (length == nfs4_prot.NFS4_UINT64_MAX ){
@@ -136,15 +139,17 @@ public class NlmLock implements Serializable{
              * either other lock region starts at higher offset,
              * or lock region doesn't ends before this one starts.
              */
-            return other.offset > offset || offset - other.length < other.offset;
+            return Long.compareUnsigned(other.offset, offset) > 0
+                    || Long.compareUnsigned(offset - other.offset, other.length) < 0;
         }
 
-        if (offset > other.offset) {
-            return offset - other.offset < other.length;
+        int cmp = Long.compareUnsigned(offset, other.offset);
+        if (cmp > 0) {
+            return Long.compareUnsigned(offset - other.offset, other.length) < 0;
         }
 
-        if (other.offset > offset) {
-            return other.offset - offset < length;
+        if (cmp < 0) {
+            return Long.compareUnsigned(other.offset - offset, length) < 0;
         }
 
         // both locks have the same offset
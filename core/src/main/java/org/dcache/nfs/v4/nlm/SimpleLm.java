@@ -20,17 +20,22 @@
 package org.dcache.nfs.v4.nlm;
 
 import com.google.common.util.concurrent.Striped;
-import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.Lock;
+import org.dcache.nfs.util.Opaque;
+import org.dcache.nfs.v4.StateOwner;
 
 /**
  * Simple non-distributed implementation of {@link LockManager}.
  *
+ * The locks of a file are kept in an interval tree, thus conflict check, merge
+ * and split of locks touch only locks which overlap with requested range
+ * instead of scanning all locks of the file.
+ *
  * @since 0.14
  */
 public class SimpleLm extends AbstractLockManager {
@@ -56,37 +61,50 @@ public class SimpleLm extends AbstractLockManager {
     }
 
     /**
-     * Exclusive lock on objects locks.
+     * Active locks of files.
      */
-    private final ConcurrentHashMap<String, List<NlmLock>> locks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Opaque, FileLocks> locks = new ConcurrentHashMap<>();
 
     @Override
     protected Lock getObjectLock(byte[] objId) {
-        String key = toKey(objId);
-        return objLock.get(key);
+        return objLock.get(new Opaque(objId));
     }
 
     @Override
     protected Collection<NlmLock> getActiveLocks(byte[] objId) {
-        String key = toKey(objId);
-        return locks.getOrDefault(key, Collections.emptyList());
+        FileLocks fileLocks = locks.get(new Opaque(objId));
+        return fileLocks == null ? Collections.emptyList() : fileLocks.all.values();
+    }
+
+    @Override
+    protected Collection<NlmLock> getOverlappingLocks(byte[] objId, NlmLock lock) {
+        FileLocks fileLocks = locks.get(new Opaque(objId));
+        return fileLocks == null ? Collections.emptyList() : fileLocks.all.overlapping(lock);
+    }
+
+    @Override
+    protected Collection<NlmLock> getOverlappingOwnerLocks(byte[] objId, NlmLock lock) {
+        FileLocks fileLocks = locks.get(new Opaque(objId));
+        if (fileLocks == null) {
+            return Collections.emptyList();
+        }
+        LockIntervalTree ownerLocks = fileLocks.byOwner.get(lock.getOwner());
+        return ownerLocks == null ? Collections.emptyList() : ownerLocks.overlapping(lock);
     }
 
     @Override
     protected void add(byte[] objId, NlmLock lock) {
-        String key = toKey(objId);
-        Collection<NlmLock> l = locks.computeIfAbsent(key, k -> new ArrayList<>());
-        l.add(lock);
+        locks.computeIfAbsent(new Opaque(objId), k -> new FileLocks()).add(lock);
     }
 
     @Override
     protected boolean remove(byte[] objId, NlmLock lock) {
-        String key = toKey(objId);
-        Collection<NlmLock> l = locks.get(key);
+        Opaque key = new Opaque(objId);
+        FileLocks fileLocks = locks.get(key);
         boolean isRemoved = false;
-        if (l != null) {
-            isRemoved = l.remove(lock);
-            if (l.isEmpty()) {
+        if (fileLocks != null) {
+            isRemoved = fileLocks.remove(lock);
+            if (fileLocks.isEmpty()) {
                 locks.remove(key);
             }
         }
@@ -95,25 +113,53 @@ public class SimpleLm extends AbstractLockManager {
 
     @Override
     protected void addAll(byte[] objId, Collection<NlmLock> locks) {
-        String key = toKey(objId);
-        Collection<NlmLock> l = this.locks.computeIfAbsent(key, k -> new ArrayList<>());
-        l.addAll(locks);
+        if (locks.isEmpty()) {
+            return;
+        }
+        FileLocks fileLocks = this.locks.computeIfAbsent(new Opaque(objId), k -> new FileLocks());
+        locks.forEach(fileLocks::add);
     }
 
     @Override
     protected void removeAll(byte[] objId, Collection<NlmLock> locks) {
-        String key = toKey(objId);
-        Collection<NlmLock> l = this.locks.get(key);
-        if (l != null) {
-            l.removeAll(locks);
-            if (l.isEmpty()) {
+        Opaque key = new Opaque(objId);
+        FileLocks fileLocks = this.locks.get(key);
+        if (fileLocks != null) {
+            locks.forEach(fileLocks::remove);
+            if (fileLocks.isEmpty()) {
                 this.locks.remove(key);
             }
         }
     }
 
-    private final String toKey(byte[] objId) {
-        return Base64.getEncoder().encodeToString(objId);
-    }
+    /**
+     * Locks of a single file, indexed by range and by lock owner. Access is
+     * guarded by file's object lock.
+     */
+    private static class FileLocks {
+
+        private final LockIntervalTree all = new LockIntervalTree();
+        private final Map<StateOwner, LockIntervalTree> byOwner = new HashMap<>();
+
+        void add(NlmLock lock) {
+            all.add(lock);
+            byOwner.computeIfAbsent(lock.getOwner(), o -> new LockIntervalTree()).add(lock);
+        }
+
+        boolean remove(NlmLock lock) {
+            if (!all.remove(lock)) {
+                return false;
+            }
+            LockIntervalTree ownerLocks = byOwner.get(lock.getOwner());
+            ownerLocks.remove(lock);
+            if (ownerLocks.isEmpty()) {
+                byOwner.remove(lock.getOwner());
+            }
+            return true;
+        }
 
+        boolean isEmpty() {
+            return all.isEmpty();
+        }
+    }
 }
@@ -11,10 +11,11 @@ import org.dcache.oncrpc4j.rpc.*;
 import org.dcache.oncrpc4j.rpc.net.*;
 import org.dcache.oncrpc4j.xdr.*;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class data4 implements XdrAble {
     public offset4 d_offset;
-    public byte [] d_data;
+    public ByteBuffer d_data;
 
     public data4() {
     }
@@ -27,13 +28,13 @@ public class data4 implements XdrAble {
     public void xdrEncode(XdrEncodingStream xdr)
            throws OncRpcException, IOException {
         d_offset.xdrEncode(xdr);
-        xdr.xdrEncodeDynamicOpaque(d_data);
+        xdr.xdrEncodeByteBuffer(d_data);
     }
 
     public void xdrDecode(XdrDecodingStream xdr)
            throws OncRpcException, IOException {
         d_offset = new offset4(xdr);
-        d_data = xdr.xdrDecodeDynamicOpaque();
+        d_data = xdr.xdrDecodeByteBuffer();
     }
 
 }
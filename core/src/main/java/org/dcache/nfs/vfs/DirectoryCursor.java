@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+/**
+ * Iterates over a directory listing, which is fetched from the file system
+ * page by page with {@link VirtualFileSystem#listPage(Inode, byte[], long, int)}.
+ * Only the current page is kept in memory, thus a reply to a client can be
+ * built without materializing the complete directory.
+ *
+ * @since 0.28
+ */
+public class DirectoryCursor {
+
+    /**
+     * Upper limit of entries requested with a single page.
+     */
+    public static final int MAX_PAGE_SIZE = 1024;
+
+    private final VirtualFileSystem fs;
+    private final Inode dir;
+    private final int pageSize;
+    private final byte[] verifier;
+
+    private DirectoryStream page;
+    private Iterator<DirectoryEntry> entries;
+    private long cookie;
+
+    /**
+     * Create a cursor positioned behind the given cookie and fetch the first page.
+     *
+     * @param fs file system to list.
+     * @param dir inode of the directory to list.
+     * @param verifier opaque verifier to identify {@code snapshot} to list.
+     * @param cookie a logical offset in the listing.
+     * @param pageSize maximal number of entries to fetch with a single request.
+     * @throws IOException
+     */
+    public DirectoryCursor(VirtualFileSystem fs, Inode dir, byte[] verifier, long cookie, int pageSize) throws IOException {
+        checkArgument(pageSize > 0, "page size must be positive");
+        this.fs = fs;
+        this.dir = dir;
+        this.pageSize = pageSize;
+        this.cookie = cookie;
+
+        page = fs.listPage(dir, verifier, cookie, pageSize);
+        entries = page.iterator();
+        this.verifier = page.getVerifier();
+    }
+
+    /**
+     * Get page size sufficient to fill a reply of the given size.
+     *
+     * @param replySize reply size in bytes.
+     * @param minEntrySize minimal encoded size of an entry.
+     * @return number of entries to request with a single page.
+     */
+    public static int pageSizeFor(int replySize, int minEntrySize) {
+        return Math.max(1, Math.min(MAX_PAGE_SIZE, replySize / minEntrySize));
+    }
+
+    /**
+     * Get verifier of the listed directory snapshot.
+     *
+     * @return directory verifier.
+     */
+    public byte[] getVerifier() {
+        return verifier;
+    }
+
+    /**
+     * Returns true if listing has more entries. The next page is fetched
+     * if the current one is exhausted.
+     *
+     * @return true if listing has more entries.
+     * @throws IOException
+     */
+    public boolean hasNext() throws IOException {
+        if (!entries.hasNext() && !page.isEof()) {
+            page = fs.listPage(dir, verifier, cookie, pageSize);
+            entries = page.iterator();
+        }
+        // an empty page is treated as the end of directory
+        return entries.hasNext();
+    }
+
+    /**
+     * Returns the next entry in the listing.
+     *
+     * @return the next entry.
+     * @throws IOException
+     */
+    public DirectoryEntry next() throws IOException {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        DirectoryEntry entry = entries.next();
+        cookie = entry.getCookie();
+        return entry;
+    }
+}
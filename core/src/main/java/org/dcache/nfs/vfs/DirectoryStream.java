@@ -38,6 +38,7 @@ public class DirectoryStream implements Iterable<DirectoryEntry>{
 
     private final byte[] verifier;
     private final NavigableSet<DirectoryEntry> entries;
+    private final boolean eof;
 
     public DirectoryStream(Collection<DirectoryEntry> entries) {
         this(ZERO_VERIFIER, new TreeSet<>(entries));
@@ -48,14 +49,54 @@ public class DirectoryStream implements Iterable<DirectoryEntry>{
     }
 
     public DirectoryStream(byte[] verifier, NavigableSet<DirectoryEntry> entries) {
+        this(verifier, entries, true);
+    }
+
+    /**
+     * Create a stream, which holds a part of directory listing.
+     *
+     * @param verifier directory verifier.
+     * @param entries directory entries.
+     * @param eof true, if there are no entries in the directory beyond provided ones.
+     * @since 0.28
+     */
+    public DirectoryStream(byte[] verifier, Collection<DirectoryEntry> entries, boolean eof) {
+        this(verifier, new TreeSet<>(entries), eof);
+    }
+
+    private DirectoryStream(byte[] verifier, NavigableSet<DirectoryEntry> entries, boolean eof) {
         this.verifier = verifier;
         this.entries = Collections.unmodifiableNavigableSet(entries);
+        this.eof = eof;
     }
 
     public byte[] getVerifier() {
         return verifier;
     }
 
+    /**
+     * Returns true if the directory has no entries beyond the last entry of
+     * this stream. Streams which contain only a page of directory listing
+     * return false, unless the page is the last one.
+     *
+     * @return true if the end of directory is reached.
+     * @since 0.28
+     */
+    public boolean isEof() {
+        return eof;
+    }
+
+    /**
+     * Returns the cookie of the last entry in this stream.
+     *
+     * @param defaultCookie the value to return if stream has no entries.
+     * @return the cookie of the last entry or {@code defaultCookie}.
+     * @since 0.28
+     */
+    public long lastCookie(long defaultCookie) {
+        return entries.isEmpty() ? defaultCookie : entries.last().getCookie();
+    }
+
     @Override
     public Iterator<DirectoryEntry> iterator() {
         return entries.iterator();
@@ -71,7 +112,32 @@ public class DirectoryStream implements Iterable<DirectoryEntry>{
      */
     public DirectoryStream tail(long fromCookie) {
         final DirectoryEntry cookieEntry = new DirectoryEntry("", null, null, fromCookie);
-        return new DirectoryStream(verifier, entries.tailSet(cookieEntry, false));
+        return new DirectoryStream(verifier, entries.tailSet(cookieEntry, false), eof);
+    }
+
+    /**
+     * Get view of this DirectoryStream, which contains at most {@code maxEntries}
+     * entries with the lowest cookies. If some entries are left out, the returned
+     * stream is not at the end of the directory.
+     *
+     * @param maxEntries maximal number of entries.
+     * @return view of this DirectoryStream with at most {@code maxEntries} entries.
+     * @since 0.28
+     */
+    public DirectoryStream head(int maxEntries) {
+        Iterator<DirectoryEntry> i = entries.iterator();
+        DirectoryEntry last = null;
+        for (int n = 0; n < maxEntries && i.hasNext(); n++) {
+            last = i.next();
+        }
+
+        if (!i.hasNext()) {
+            return this;
+        }
+        if (last == null) {
+            return new DirectoryStream(verifier, Collections.emptyNavigableSet(), false);
+        }
+        return new DirectoryStream(verifier, entries.headSet(last, true), false);
     }
 
     /**
@@ -82,7 +148,7 @@ public class DirectoryStream implements Iterable<DirectoryEntry>{
      * @return the new stream with transformed elements.
      */
     public DirectoryStream transform(Function<? super DirectoryEntry, DirectoryEntry> function) {
-        return new DirectoryStream(this.verifier, new TransformingNavigableSet(function, entries));
+        return new DirectoryStream(this.verifier, new TransformingNavigableSet(function, entries), eof);
     }
 
     private static class TransformingNavigableSet extends ForwardingNavigableSet<DirectoryEntry> {
@@ -113,6 +179,11 @@ public class DirectoryStream implements Iterable<DirectoryEntry>{
         public NavigableSet<DirectoryEntry> tailSet(DirectoryEntry fromElement, boolean inclusive) {
             return new TransformingNavigableSet(transformation, super.tailSet(fromElement, inclusive));
         }
+
+        @Override
+        public NavigableSet<DirectoryEntry> headSet(DirectoryEntry toElement, boolean inclusive) {
+            return new TransformingNavigableSet(transformation, super.headSet(toElement, inclusive));
+        }
     }
 
     // iterator decorator.
@@ -19,6 +19,7 @@ package org.dcache.nfs.vfs;
 import com.google.common.io.BaseEncoding;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.Arrays;
 
 /**
  * NFS file handle on wire representation format v1.
@@ -32,6 +33,10 @@ import java.nio.ByteOrder;
  *   byte fh_olen;         // length of opaque data
  *   byte[] fh_opaque;     // FS specific opaque data <= 114
  * </pre>
+ *
+ * The wire representation and it's hash code are calculated only once, when
+ * handle is constructed. Thus, neither provided opaque data, nor arrays returned
+ * by {@link #getFsOpaque()} and {@link #bytes()} must be modified.
 */
 public class FileHandle {
 
@@ -49,6 +54,16 @@ public class FileHandle {
     private final int type;
     private final byte[] fs_opaque;
 
+    /**
+     * Wire representation of this file handle.
+     */
+    private final byte[] bytes;
+
+    /**
+     * Cached hash code of the wire representation.
+     */
+    private final int hashCode;
+
     public FileHandle(int generation, int exportIdx, int type, byte[] fs_opaque) {
         this.version = VERSION;
         this.magic = MAGIC;
@@ -56,6 +71,8 @@ public class FileHandle {
         this.exportIdx = exportIdx;
         this.type = type;
         this.fs_opaque = fs_opaque;
+        this.bytes = encode();
+        this.hashCode = Arrays.hashCode(bytes);
     }
 
 
@@ -82,6 +99,8 @@ public class FileHandle {
             int olen = (int) b.get();
             fs_opaque = new byte[olen];
             b.get(fs_opaque);
+            // reuse provided handle, unless it's followed by some garbage
+            this.bytes = bytes.length == MIN_LEN + olen ? bytes : encode();
 
         } else if (arrayEquals(bytes, FH_V0_REG, FH_V0_REG.length)
                 || arrayEquals(bytes, FH_V0_PFS, FH_V0_PFS.length)) {
@@ -103,9 +122,11 @@ public class FileHandle {
                 exportIdx = -1;
                 fs_opaque = bytes;
             }
+            this.bytes = encode();
         } else {
             throw new IllegalArgumentException("Unsupported version: " + geussVersion);
         }
+        this.hashCode = Arrays.hashCode(this.bytes);
     }
 
     public int getVersion() {
@@ -132,7 +153,17 @@ public class FileHandle {
         return fs_opaque;
     }
 
+    /**
+     * Get wire representation of this file handle. The returned array is shared
+     * and must not be modified.
+     *
+     * @return wire representation of this file handle.
+     */
     public byte[] bytes() {
+        return bytes;
+    }
+
+    private byte[] encode() {
         int len = fs_opaque.length + MIN_LEN;
         byte[] bytes = new byte[len];
         ByteBuffer b = ByteBuffer.wrap(bytes);
@@ -147,6 +178,23 @@ public class FileHandle {
         return bytes;
     }
 
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof FileHandle)) {
+            return false;
+        }
+        final FileHandle other = (FileHandle) obj;
+        return hashCode == other.hashCode && Arrays.equals(bytes, other.bytes);
+    }
+
     @Override
     public String toString() {
         return BaseEncoding.base16().lowerCase().encode(this.bytes());
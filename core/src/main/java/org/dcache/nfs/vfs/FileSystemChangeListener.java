@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+/**
+ * Receives notifications about changes of file system objects, which have been
+ * made by-passing the {@link VirtualFileSystem} the listener is registered with,
+ * for instance, by other servers or by applications writing directly into the
+ * backend storage. Listeners are used by caching layers, like {@link VfsCache},
+ * to invalidate cached values instead of waiting for them to expire.
+ * <p>
+ * The notifications can be delivered by any thread, including file system's
+ * internal threads, thus implementations must be thread safe and should not block.
+ *
+ * @see VirtualFileSystem#addChangeListener(FileSystemChangeListener)
+ * @since 0.28
+ */
+public interface FileSystemChangeListener {
+
+    /**
+     * Fired when the content, the attributes or the existence of a file system
+     * object has changed.
+     *
+     * @param inode the changed object.
+     */
+    void inodeChanged(Inode inode);
+
+    /**
+     * Fired when only the attributes, ACL or extended attributes of a file
+     * system object have changed.
+     *
+     * @param inode the changed object.
+     */
+    void attributesChanged(Inode inode);
+
+    /**
+     * Fired when an entry of a directory is created, removed or renamed.
+     *
+     * @param dir the changed directory.
+     * @param name the name of the changed entry or {@code null}, if it is
+     * unknown which entries have been changed.
+     */
+    void directoryChanged(Inode dir, String name);
+}
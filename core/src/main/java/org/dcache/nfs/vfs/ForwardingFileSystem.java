@@ -21,6 +21,7 @@ package org.dcache.nfs.vfs;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import javax.security.auth.Subject;
 import org.dcache.nfs.v4.NfsIdMapping;
@@ -77,6 +78,11 @@ public abstract class ForwardingFileSystem implements VirtualFileSystem {
         return delegate().list(inode, verifier, cookie);
     }
 
+    @Override
+    public DirectoryStream listPage(Inode inode, byte[] verifier, long cookie, int maxEntries) throws IOException {
+        return delegate().listPage(inode, verifier, cookie, maxEntries);
+    }
+
     @Override
     public Inode mkdir(Inode parent, String path, Subject subject, int mode) throws IOException {
         return delegate().mkdir(parent, path, subject, mode);
@@ -206,4 +212,69 @@ public abstract class ForwardingFileSystem implements VirtualFileSystem {
     public CompletableFuture<Long> copyFileRange(Inode src, long srcPos, Inode dst, long dstPos, long len) {
         return delegate().copyFileRange(src, srcPos, dst, dstPos, len);
     }
+
+    @Override
+    public CompletableFuture<Integer> readAsync(Inode inode, ByteBuffer data, long offset) {
+        return delegate().readAsync(inode, data, offset);
+    }
+
+    @Override
+    public CompletableFuture<WriteResult> writeAsync(Inode inode, ByteBuffer data, long offset, StabilityLevel stabilityLevel) {
+        return delegate().writeAsync(inode, data, offset, stabilityLevel);
+    }
+
+    @Override
+    public CompletableFuture<Stat> getattrAsync(Inode inode) {
+        return delegate().getattrAsync(inode);
+    }
+
+    @Override
+    public CompletableFuture<Inode> lookupAsync(Inode parent, String name) {
+        return delegate().lookupAsync(parent, name);
+    }
+
+    @Override
+    public CompletableFuture<Void> commitAsync(Inode inode, long offset, int count) {
+        return delegate().commitAsync(inode, offset, count);
+    }
+
+    @Override
+    public CompletableFuture<DirectoryStream> listPageAsync(Inode inode, byte[] verifier, long cookie, int maxEntries) {
+        return delegate().listPageAsync(inode, verifier, cookie, maxEntries);
+    }
+
+    @Override
+    public void addChangeListener(FileSystemChangeListener listener) {
+        delegate().addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(FileSystemChangeListener listener) {
+        delegate().removeChangeListener(listener);
+    }
+
+    @Override
+    public long seek(Inode inode, long offset, ContentType what) throws IOException {
+        return delegate().seek(inode, offset, what);
+    }
+
+    @Override
+    public void allocate(Inode inode, long offset, long length) throws IOException {
+        delegate().allocate(inode, offset, length);
+    }
+
+    @Override
+    public void deallocate(Inode inode, long offset, long length) throws IOException {
+        delegate().deallocate(inode, offset, length);
+    }
+
+    @Override
+    public void clone(Inode src, long srcOff, Inode dst, long dstOff, long len) throws IOException {
+        delegate().clone(src, srcOff, dst, dstOff, len);
+    }
+
+    @Override
+    public Set<IoHint> ioAdvise(Inode inode, long offset, long length, Set<IoHint> hints) throws IOException {
+        return delegate().ioAdvise(inode, offset, length, hints);
+    }
 }
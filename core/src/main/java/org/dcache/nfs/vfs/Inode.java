@@ -19,8 +19,11 @@
  */
 package org.dcache.nfs.vfs;
 
-import java.util.Arrays;
-
+/**
+ * File system object identifier backed by {@link FileHandle}. As inodes are
+ * used as keys by various caches, the hash code and equality check are based
+ * on the pre-calculated wire representation of the file handle.
+ */
 public class Inode {
 
     private final FileHandle fh;
@@ -37,17 +40,29 @@ public class Inode {
         return new Inode(new FileHandle.FileHandleBuilder().build(bytes));
     }
 
+    /**
+     * Get file system specific file id. The returned array is shared and must
+     * not be modified.
+     *
+     * @return file system specific file id.
+     */
     public byte[] getFileId() {
         return fh.getFsOpaque();
     }
 
+    /**
+     * Get wire representation of the nfs file handle. The returned array is
+     * shared and must not be modified.
+     *
+     * @return wire representation of the nfs file handle.
+     */
     public byte[] toNfsHandle() {
         return fh.bytes();
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(fh.bytes());
+        return fh.hashCode();
     }
 
     @Override
@@ -59,7 +74,7 @@ public class Inode {
             return false;
         }
         final Inode other = (Inode) obj;
-        return Arrays.equals(fh.bytes(), other.fh.bytes());
+        return fh.equals(other.fh);
     }
 
     public boolean isPseudoInode() {
@@ -21,6 +21,7 @@ package org.dcache.nfs.vfs;
 
 import com.google.common.base.Splitter;
 import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -28,6 +29,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 import javax.security.auth.Subject;
 
@@ -43,6 +45,7 @@ import org.dcache.oncrpc4j.rpc.RpcCall;
 import static org.dcache.nfs.v4.xdr.nfs4_prot.*;
 
 import org.dcache.nfs.v4.xdr.nfsace4;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.util.SubjectHolder;
 import org.dcache.oncrpc4j.rpc.RpcAuth;
 import org.dcache.oncrpc4j.rpc.RpcAuthType;
@@ -73,6 +76,7 @@ public class PseudoFs extends ForwardingFileSystem {
     private final VirtualFileSystem _inner;
     private final ExportTable _exportTable;
     private final RpcAuth _auth;
+    private final PseudoFsCache _treeCache;
 
     private final static int ACCESS4_MASK =
             ACCESS4_DELETE | ACCESS4_EXECUTE | ACCESS4_EXTEND
@@ -80,11 +84,27 @@ public class PseudoFs extends ForwardingFileSystem {
             | ACCESS4_XAREAD | ACCESS4_XAWRITE | ACCESS4_XALIST;
 
     public PseudoFs(VirtualFileSystem inner, RpcCall call, ExportTable exportTable) {
+        this(inner, call, exportTable, null);
+    }
+
+    /**
+     * Create a new pseudo file system which takes per-client export trees from
+     * provided cache.
+     *
+     * @param inner the file system to decorate.
+     * @param call the RPC call to serve.
+     * @param exportTable the export table.
+     * @param treeCache the cache of pseudo file system trees, or {@code null}
+     * if tree should be re-build on every access.
+     * @since 0.28
+     */
+    public PseudoFs(VirtualFileSystem inner, RpcCall call, ExportTable exportTable, PseudoFsCache treeCache) {
         _inner = inner;
         _subject = call.getCredential().getSubject();
         _auth = call.getCredential();
         _inetAddress = call.getTransport().getRemoteSocketAddress();
         _exportTable = exportTable;
+        _treeCache = treeCache;
     }
 
     @Override
@@ -214,15 +234,31 @@ public class PseudoFs extends ForwardingFileSystem {
             return lookupInPseudoDirectory(parent, path);
         }
 
-	/*
-	 * REVISIT: this is not the best place to do it, but the simples one.
-	 */
-	FsExport export = _exportTable.getExport(parent.exportIndex(), _inetAddress.getAddress());
-	if (!export.isWithDcap() && ".(get)(cursor)".equals(path)) {
-	    throw new NoEntException("the dcap magic file is blocked");
-	}
+        checkDcapMagicFile(parent, path);
+        return pushExportIndex(parent, _inner.lookup(parent, path));
+    }
 
-	return pushExportIndex(parent, _inner.lookup(parent, path));
+    @Override
+    public CompletableFuture<Inode> lookupAsync(Inode parent, String path) {
+        return checkAccessAsync(parent, ACE4_EXECUTE)
+                .thenCompose(subject -> CompletableFutures.composeWith(() -> {
+                    if (parent.isPseudoInode()) {
+                        return CompletableFuture.completedFuture(lookupInPseudoDirectory(parent, path));
+                    }
+                    checkDcapMagicFile(parent, path);
+                    return _inner.lookupAsync(parent, path)
+                            .thenApply(inode -> pushExportIndex(parent, inode));
+                }));
+    }
+
+    private void checkDcapMagicFile(Inode parent, String path) throws NoEntException {
+        /*
+         * REVISIT: this is not the best place to do it, but the simples one.
+         */
+        FsExport export = _exportTable.getExport(parent.exportIndex(), _inetAddress.getAddress());
+        if (!export.isWithDcap() && ".(get)(cursor)".equals(path)) {
+            throw new NoEntException("the dcap magic file is blocked");
+        }
     }
 
     @Override
@@ -246,6 +282,21 @@ public class PseudoFs extends ForwardingFileSystem {
         return innerStrem.transform(new PushParentIndex(inode));
     }
 
+    @Override
+    public DirectoryStream listPage(Inode inode, byte[] verifier, long cookie, int maxEntries) throws IOException {
+        checkAccess(inode, ACE4_LIST_DIRECTORY);
+        if (inode.isPseudoInode()) {
+            return new DirectoryStream(listPseudoDirectory(inode)).tail(cookie).head(maxEntries);
+        }
+        DirectoryStream innerStrem = _inner.listPage(inode, verifier, cookie, maxEntries);
+        return innerStrem.transform(new PushParentIndex(inode));
+    }
+
+    @Override
+    public CompletableFuture<DirectoryStream> listPageAsync(Inode inode, byte[] verifier, long cookie, int maxEntries) {
+        return CompletableFutures.completeWith(() -> listPage(inode, verifier, cookie, maxEntries));
+    }
+
     @Override
     public Inode mkdir(Inode parent, String path, Subject subject, int mode) throws IOException {
         Subject effectiveSubject = checkAccess(parent, ACE4_ADD_SUBDIRECTORY);
@@ -294,6 +345,18 @@ public class PseudoFs extends ForwardingFileSystem {
         return _inner.read(inode, data, offset);
     }
 
+    @Override
+    public CompletableFuture<Integer> readAsync(Inode inode, ByteBuffer data, long offset) {
+        return checkAccessAsync(inode, ACE4_READ_DATA)
+                .thenCompose(subject -> _inner.readAsync(inode, data, offset));
+    }
+
+    @Override
+    public long seek(Inode inode, long offset, ContentType what) throws IOException {
+        checkAccess(inode, ACE4_READ_DATA);
+        return _inner.seek(inode, offset, what);
+    }
+
     @Override
     public String readlink(Inode inode) throws IOException {
         checkAccess(inode, ACE4_READ_DATA);
@@ -337,12 +400,52 @@ public class PseudoFs extends ForwardingFileSystem {
         return _inner.write(inode, data, offset, stabilityLevel);
     }
 
+    @Override
+    public void allocate(Inode inode, long offset, long length) throws IOException {
+        checkAccess(inode, ACE4_WRITE_DATA);
+        _inner.allocate(inode, offset, length);
+    }
+
+    @Override
+    public void deallocate(Inode inode, long offset, long length) throws IOException {
+        checkAccess(inode, ACE4_WRITE_DATA);
+        _inner.deallocate(inode, offset, length);
+    }
+
+    @Override
+    public void clone(Inode src, long srcOff, Inode dst, long dstOff, long len) throws IOException {
+        checkAccess(src, ACE4_READ_DATA);
+        checkAccess(dst, ACE4_WRITE_DATA);
+        _inner.clone(src, srcOff, dst, dstOff, len);
+    }
+
+    @Override
+    public CompletableFuture<WriteResult> writeAsync(Inode inode, ByteBuffer data, long offset, StabilityLevel stabilityLevel) {
+        /*
+         * Data is guaranteed to be valid only until this method returns,
+         * thus the permissions are checked synchronously.
+         */
+        return CompletableFutures.composeWith(() -> {
+            checkAccess(inode, ACE4_WRITE_DATA);
+            return _inner.writeAsync(inode, data, offset, stabilityLevel);
+        });
+    }
+
     @Override
     public Stat getattr(Inode inode) throws IOException {
         checkAccess(inode, ACE4_READ_ATTRIBUTES);
         return _inner.getattr(inode);
     }
 
+    @Override
+    public CompletableFuture<Stat> getattrAsync(Inode inode) {
+        return _inner.getattrAsync(inode)
+                .thenCompose(stat -> CompletableFutures.completeWith(() -> {
+                    checkAccess(inode, stat, ACE4_READ_ATTRIBUTES, true);
+                    return stat;
+                }));
+    }
+
     @Override
     public void setattr(Inode inode, Stat stat) throws IOException {
         int mask = ACE4_WRITE_ATTRIBUTES;
@@ -416,6 +519,11 @@ public class PseudoFs extends ForwardingFileSystem {
         return checkAccess(inode, _inner.getattr(inode), requestedMask, shouldLog);
     }
 
+    private CompletableFuture<Subject> checkAccessAsync(Inode inode, int requestedMask) {
+        return _inner.getattrAsync(inode)
+                .thenCompose(stat -> CompletableFutures.completeWith(() -> checkAccess(inode, stat, requestedMask, true)));
+    }
+
     private Subject checkAccess(Inode inode, Stat stat, int requestedMask, boolean shouldLog) throws IOException {
 
         Subject effectiveSubject = _subject;
@@ -653,14 +761,14 @@ public class PseudoFs extends ForwardingFileSystem {
         return new Inode(fh);
     }
 
-    private void pathToPseudoFs(final PseudoFsNode root, Set<PseudoFsNode> all, FsExport e) {
+    private boolean pathToPseudoFs(final PseudoFsNode root, Set<PseudoFsNode> all, FsExport e) {
 
         PseudoFsNode parent = root;
         String path = e.getPath();
 
         if (e.getPath().equals("/")) {
             root.addExport(e);
-            return;
+            return true;
         }
 
         Splitter splitter = Splitter.on('/').omitEmptyStrings();
@@ -676,22 +784,47 @@ public class PseudoFs extends ForwardingFileSystem {
                 }
                 parent = node;
             } catch (IOException ef) {
-                return;
+                return false;
             }
         }
 
         all.addAll(pathNodes);
         parent.setId(pseudoIdToReal(parent.id(), e.getIndex()));
         parent.addExport(e);
+        return true;
     }
 
     private Set<PseudoFsNode> prepareExportTree() throws ChimeraNFSException, IOException {
 
+        long generation = _exportTable.generation();
+        if (_treeCache == null || generation == ExportTable.NO_GENERATION) {
+            return buildExportTree(new ArrayList<>());
+        }
+
+        InetAddress client = _inetAddress.getAddress();
+        Set<PseudoFsNode> nodes = _treeCache.get(client, generation);
+        if (nodes == null) {
+            List<FsExport> unresolved = new ArrayList<>();
+            nodes = buildExportTree(unresolved);
+            // keep incomplete trees out of the cache, as missing paths may appear later
+            if (unresolved.isEmpty()) {
+                _treeCache.put(client, generation, nodes);
+            }
+        }
+        return nodes;
+    }
+
+    private Set<PseudoFsNode> buildExportTree(Collection<FsExport> unresolved) throws ChimeraNFSException, IOException {
+
         Set<PseudoFsNode> nodes = new HashSet<>();
         Inode rootInode = realToPseudo(_inner.getRootInode());
         PseudoFsNode root = new PseudoFsNode(rootInode);
 
-        _exportTable.exports(_inetAddress.getAddress()).forEach(e -> pathToPseudoFs(root, nodes, e));
+        _exportTable.exports(_inetAddress.getAddress()).forEach(e -> {
+            if (!pathToPseudoFs(root, nodes, e)) {
+                unresolved.add(e);
+            }
+        });
 
         if (nodes.isEmpty()) {
             _log.warn("No exports found for: {}", _inetAddress);
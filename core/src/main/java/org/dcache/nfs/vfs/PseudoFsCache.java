@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.net.InetAddress;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.dcache.nfs.util.GuavaCacheMXBeanImpl;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A cache of per-client pseudo file system trees. As the tree depends only on
+ * the set of exports visible to a client, the cached value is identified by
+ * client's address and export table generation. An update of the export table
+ * discards all cached trees. Trees are not cached if export table doesn't track
+ * modifications, e.g. {@link org.dcache.nfs.ExportTable#generation()} returns
+ * {@link org.dcache.nfs.ExportTable#NO_GENERATION}.
+ *
+ * The cached trees are shared between {@link PseudoFs} instances, thus a
+ * single cache instance must not be used with different backend file systems.
+ *
+ * @since 0.28
+ */
+public class PseudoFsCache {
+
+    /**
+     * Default number of cached trees.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 8192;
+
+    /**
+     * Default tree validity time in seconds.
+     */
+    public static final long DEFAULT_LIFETIME = 60;
+
+    private final Cache<TreeKey, Set<PseudoFsNode>> _cache;
+
+    /**
+     * Last seen export table generation.
+     */
+    private volatile long _generation;
+
+    /**
+     * Create a new cache with default capacity and validity time.
+     *
+     * @param name name under which cache statistics is exposed via JMX.
+     */
+    public PseudoFsCache(String name) {
+        this(name, DEFAULT_MAX_ENTRIES, DEFAULT_LIFETIME, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a new cache.
+     *
+     * @param name name under which cache statistics is exposed via JMX.
+     * @param maxEntries maximal number of cached trees.
+     * @param lifeTime cached tree validity time.
+     * @param timeUnit unit in which validity time is expressed.
+     */
+    public PseudoFsCache(String name, int maxEntries, long lifeTime, TimeUnit timeUnit) {
+        _cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(lifeTime, timeUnit)
+                .recordStats()
+                .build();
+
+        new GuavaCacheMXBeanImpl(name, _cache);
+    }
+
+    /**
+     * Get cached pseudo file system tree for a given client. If export table
+     * have been updated, then all cached trees are discarded.
+     *
+     * @param client client's address.
+     * @param generation export table generation.
+     * @return set of pseudo file system tree nodes or {@code null} if tree is
+     * not cached.
+     */
+    Set<PseudoFsNode> get(InetAddress client, long generation) {
+
+        if (generation != _generation) {
+            // export table updated. Old trees never will be used again.
+            _generation = generation;
+            _cache.invalidateAll();
+        }
+
+        return _cache.getIfPresent(new TreeKey(client, generation));
+    }
+
+    /**
+     * Store pseudo file system tree of a given client.
+     *
+     * @param client client's address.
+     * @param generation export table generation the tree is built from.
+     * @param nodes set of pseudo file system tree nodes.
+     */
+    void put(InetAddress client, long generation, Set<PseudoFsNode> nodes) {
+        _cache.put(new TreeKey(client, generation), nodes);
+    }
+
+    /**
+     * Discards all cached trees.
+     */
+    public void invalidateAll() {
+        _cache.invalidateAll();
+    }
+
+    /**
+     * Cache entry key based on client address and export table generation.
+     */
+    private static class TreeKey {
+
+        private final InetAddress _client;
+        private final long _generation;
+
+        TreeKey(InetAddress client, long generation) {
+            _client = requireNonNull(client);
+            _generation = generation;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof TreeKey)) {
+                return false;
+            }
+
+            final TreeKey other = (TreeKey) obj;
+            return other._generation == _generation
+                    && other._client.equals(_client);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(_client, _generation);
+        }
+    }
+}
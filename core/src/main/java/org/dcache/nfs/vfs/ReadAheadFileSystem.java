@@ -0,0 +1,591 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Range;
+import com.google.common.collect.RangeSet;
+import com.google.common.collect.TreeRangeSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import org.dcache.nfs.util.CompletableFutures;
+import org.dcache.nfs.util.Opaque;
+
+/**
+ * Read-ahead decorator.
+ * <p>
+ * Sequential reads of a file are detected and the following blocks are read
+ * in the background, thus subsequent reads are served from memory. The access
+ * pattern announced by {@link #ioAdvise} takes precedence over the detection:
+ * <ul>
+ *   <li>{@code SEQUENTIAL} - read ahead starting with the first read;</li>
+ *   <li>{@code RANDOM} - never read ahead;</li>
+ *   <li>{@code NORMAL} - detect the access pattern;</li>
+ *   <li>{@code WILLNEED} - read the given range in advance;</li>
+ *   <li>{@code DONTNEED} - drop the given range and don't read it ahead;</li>
+ *   <li>{@code NOREUSE} - drop data of the given range as soon as it's read.</li>
+ * </ul>
+ * Data read ahead is dropped when the file is modified through this file system,
+ * or when the decorated file system publishes a change of the file.
+ * <p>
+ * The decorator must be {@link #shutdown() shut down} when not used anymore.
+ *
+ * @since 0.28
+ */
+public class ReadAheadFileSystem extends ForwardingFileSystem {
+
+    /**
+     * Default size of a block read ahead.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+    /**
+     * Default number of blocks read ahead of a sequential stream.
+     */
+    public static final int DEFAULT_WINDOW = 4;
+
+    /**
+     * Default memory budget of blocks read ahead.
+     */
+    public static final long DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+
+    /**
+     * Maximal number of files tracked at the same time.
+     */
+    private static final int MAX_STREAMS = 4096;
+
+    /**
+     * Time after which the state of a file not accessed is dropped.
+     */
+    private static final long STREAM_IDLE_TIME = 60;
+
+    private final VirtualFileSystem _inner;
+    private final String _name;
+    private final int _blockSize;
+    private final int _window;
+    private final long _maxBytes;
+    private final Executor _executor;
+
+    /**
+     * Executor created by this decorator, which is stopped on shutdown, or
+     * {@code null} if the executor is provided by the caller.
+     */
+    private final ExecutorService _ownExecutor;
+
+    /**
+     * Per file read state, keyed by file id.
+     */
+    private final Cache<Opaque, Stream> _streams;
+
+    /**
+     * Memory used by blocks read ahead, including blocks in flight.
+     */
+    private final AtomicLong _cachedBytes = new AtomicLong();
+
+    private volatile boolean _shutdown;
+
+    private final Map<IoHint, LongAdder> _hintCount = new EnumMap<>(IoHint.class);
+    private final LongAdder _prefetchedBlocks = new LongAdder();
+    private final LongAdder _wastedBlocks = new LongAdder();
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+
+    /**
+     * Create read-ahead decorator with default settings.
+     *
+     * @param name name under which statistics is exposed via JMX.
+     * @param inner the decorated file system.
+     */
+    public ReadAheadFileSystem(String name, VirtualFileSystem inner) {
+        this(name, inner, DEFAULT_BLOCK_SIZE, DEFAULT_WINDOW, DEFAULT_MAX_BYTES,
+                Executors.newFixedThreadPool(DEFAULT_WINDOW, new ThreadFactoryBuilder()
+                        .setNameFormat("vfs-read-ahead-%d")
+                        .setDaemon(true)
+                        .build()), true);
+    }
+
+    /**
+     * Create read-ahead decorator.
+     *
+     * @param name name under which statistics is exposed via JMX.
+     * @param inner the decorated file system.
+     * @param blockSize size of a block read ahead.
+     * @param window number of blocks read ahead of a sequential stream.
+     * @param maxBytes memory budget of all blocks read ahead.
+     * @param executor executor to issue read-ahead requests. The executor is
+     * not stopped on {@link #shutdown()}.
+     */
+    public ReadAheadFileSystem(String name, VirtualFileSystem inner, int blockSize, int window, long maxBytes, Executor executor) {
+        this(name, inner, blockSize, window, maxBytes, executor, false);
+    }
+
+    private ReadAheadFileSystem(String name, VirtualFileSystem inner, int blockSize, int window, long maxBytes,
+            Executor executor, boolean ownExecutor) {
+        checkArgument(blockSize > 0, "block size must be positive");
+        checkArgument(window > 0, "window must be positive");
+
+        _name = name;
+        _inner = inner;
+        _blockSize = blockSize;
+        _window = window;
+        _maxBytes = maxBytes;
+        _executor = executor;
+        _ownExecutor = ownExecutor ? (ExecutorService) executor : null;
+
+        for (IoHint hint : IoHint.values()) {
+            _hintCount.put(hint, new LongAdder());
+        }
+
+        _streams = CacheBuilder.newBuilder()
+                .maximumSize(MAX_STREAMS)
+                .expireAfterAccess(STREAM_IDLE_TIME, TimeUnit.SECONDS)
+                .<Opaque, Stream>removalListener(n -> n.getValue().dropAll())
+                .build();
+
+        new ReadAheadFileSystemMXBeanImpl(this);
+        _inner.addChangeListener(new ReadAheadInvalidator());
+    }
+
+    @Override
+    protected VirtualFileSystem delegate() {
+        return _inner;
+    }
+
+    @Override
+    public int read(Inode inode, byte[] data, long offset, int count) throws IOException {
+        return read(inode, ByteBuffer.wrap(data, 0, count), offset);
+    }
+
+    @Override
+    public int read(Inode inode, ByteBuffer data, long offset) throws IOException {
+        return CompletableFutures.await(readAsync(inode, data, offset));
+    }
+
+    @Override
+    public CompletableFuture<Integer> readAsync(Inode inode, ByteBuffer data, long offset) {
+
+        int count = data.remaining();
+        if (count == 0) {
+            return _inner.readAsync(inode, data, offset);
+        }
+
+        Stream stream = streamOf(inode);
+        synchronized (stream) {
+            stream.access(offset, count);
+            if (stream.isSequential()) {
+                long start = offset + count;
+                stream.readAhead(inode, start - start % _blockSize, _window);
+            }
+        }
+        return readBlock(inode, stream, data, offset);
+    }
+
+    /**
+     * Read from the block read ahead, which contains the given offset. If the
+     * request spans the next block, the rest is read from that block as well.
+     */
+    private CompletableFuture<Integer> readBlock(Inode inode, Stream stream, ByteBuffer data, long offset) {
+
+        Block block;
+        synchronized (stream) {
+            block = stream.blocks.get(offset - offset % _blockSize);
+        }
+
+        if (block == null) {
+            _misses.increment();
+            return _inner.readAsync(inode, data, offset);
+        }
+
+        return block.data.handle((buf, t) -> {
+            int pos = (int) (offset - block.offset);
+            if (t != null || pos >= buf.limit()) {
+                // failed or stale read-ahead, let the file system report the result
+                _misses.increment();
+                return _inner.readAsync(inode, data, offset);
+            }
+
+            _hits.increment();
+            block.used = true;
+            ByteBuffer src = buf.duplicate();
+            int n = Math.min(src.limit() - pos, data.remaining());
+            src.position(pos).limit(pos + n);
+            data.put(src);
+
+            synchronized (stream) {
+                if (stream.noReuse.encloses(Range.closedOpen(block.offset, block.offset + _blockSize))) {
+                    stream.drop(block);
+                }
+            }
+
+            if (data.hasRemaining() && buf.limit() == _blockSize) {
+                // the request spans the next block
+                return readBlock(inode, stream, data, offset + n).thenApply(m -> n + Math.max(m, 0));
+            }
+            return CompletableFuture.completedFuture(n);
+        }).thenCompose(f -> f);
+    }
+
+    @Override
+    public WriteResult write(Inode inode, byte[] data, long offset, int count, StabilityLevel stabilityLevel) throws IOException {
+        invalidate(inode);
+        try {
+            return _inner.write(inode, data, offset, count, stabilityLevel);
+        } finally {
+            // a read-ahead issued while the write is in progress may see old data
+            invalidate(inode);
+        }
+    }
+
+    @Override
+    public WriteResult write(Inode inode, ByteBuffer data, long offset, StabilityLevel stabilityLevel) throws IOException {
+        invalidate(inode);
+        try {
+            return _inner.write(inode, data, offset, stabilityLevel);
+        } finally {
+            // a read-ahead issued while the write is in progress may see old data
+            invalidate(inode);
+        }
+    }
+
+    @Override
+    public CompletableFuture<WriteResult> writeAsync(Inode inode, ByteBuffer data, long offset, StabilityLevel stabilityLevel) {
+        invalidate(inode);
+        // a read-ahead issued while the write is in progress may see old data
+        return _inner.writeAsync(inode, data, offset, stabilityLevel)
+                .whenComplete((r, t) -> invalidate(inode));
+    }
+
+    @Override
+    public void setattr(Inode inode, Stat stat) throws IOException {
+        _inner.setattr(inode, stat);
+        invalidate(inode);
+    }
+
+    @Override
+    public void allocate(Inode inode, long offset, long length) throws IOException {
+        _inner.allocate(inode, offset, length);
+        invalidate(inode);
+    }
+
+    @Override
+    public void deallocate(Inode inode, long offset, long length) throws IOException {
+        _inner.deallocate(inode, offset, length);
+        invalidate(inode);
+    }
+
+    @Override
+    public void clone(Inode src, long srcOff, Inode dst, long dstOff, long len) throws IOException {
+        _inner.clone(src, srcOff, dst, dstOff, len);
+        invalidate(dst);
+    }
+
+    @Override
+    public CompletableFuture<Long> copyFileRange(Inode src, long srcPos, Inode dst, long dstPos, long len) {
+        return _inner.copyFileRange(src, srcPos, dst, dstPos, len)
+                .whenComplete((n, t) -> invalidate(dst));
+    }
+
+    @Override
+    public Set<IoHint> ioAdvise(Inode inode, long offset, long length, Set<IoHint> hints) throws IOException {
+
+        Set<IoHint> accepted = EnumSet.noneOf(IoHint.class);
+        accepted.addAll(_inner.ioAdvise(inode, offset, length, hints));
+        hints.forEach(h -> _hintCount.get(h).increment());
+
+        long end = length == 0 || offset + length < offset ? Long.MAX_VALUE : offset + length;
+        Range<Long> range = Range.closedOpen(offset, end);
+
+        Stream stream = streamOf(inode);
+        synchronized (stream) {
+            if (hints.contains(IoHint.RANDOM)) {
+                stream.pattern = IoHint.RANDOM;
+                accepted.add(IoHint.RANDOM);
+            } else if (hints.contains(IoHint.SEQUENTIAL)) {
+                stream.pattern = IoHint.SEQUENTIAL;
+                accepted.add(IoHint.SEQUENTIAL);
+            } else if (hints.contains(IoHint.NORMAL)) {
+                stream.pattern = IoHint.NORMAL;
+                stream.dontNeed.clear();
+                stream.noReuse.clear();
+                accepted.add(IoHint.NORMAL);
+            }
+
+            if (hints.contains(IoHint.DONTNEED)) {
+                stream.dontNeed.add(range);
+                stream.blocks.values().removeIf(b -> {
+                    Range<Long> blockRange = Range.closedOpen(b.offset, b.offset + _blockSize);
+                    if (range.isConnected(blockRange) && !range.intersection(blockRange).isEmpty()) {
+                        stream.release(b);
+                        return true;
+                    }
+                    return false;
+                });
+                accepted.add(IoHint.DONTNEED);
+            }
+
+            if (hints.contains(IoHint.NOREUSE)) {
+                stream.noReuse.add(range);
+                accepted.add(IoHint.NOREUSE);
+            }
+
+            if (hints.contains(IoHint.WILLNEED) || hints.contains(IoHint.WILLNEED_OPPORTUNISTIC)) {
+                stream.dontNeed.remove(range);
+                long blocks = (Math.min(end, offset + (long) _window * _blockSize) - offset + _blockSize - 1) / _blockSize;
+                stream.readAhead(inode, offset - offset % _blockSize, (int) blocks);
+                hints.stream()
+                        .filter(h -> h == IoHint.WILLNEED || h == IoHint.WILLNEED_OPPORTUNISTIC)
+                        .forEach(accepted::add);
+            }
+        }
+        return accepted;
+    }
+
+    private Stream streamOf(Inode inode) {
+        return _streams.asMap().computeIfAbsent(new Opaque(inode.getFileId()), k -> new Stream());
+    }
+
+    /**
+     * Drop all blocks of the given file read ahead.
+     */
+    private void invalidate(Inode inode) {
+        Stream stream = _streams.getIfPresent(new Opaque(inode.getFileId()));
+        if (stream != null) {
+            stream.dropAll();
+        }
+    }
+
+    /**
+     * Drop all blocks read ahead and stop the executor, if it was created by
+     * this decorator. Reads are passed to the decorated file system afterwards.
+     */
+    public void shutdown() {
+        _shutdown = true;
+        _streams.invalidateAll();
+        if (_ownExecutor != null) {
+            _ownExecutor.shutdown();
+        }
+    }
+
+    public String getName() {
+        return _name;
+    }
+
+    public long getCachedBytes() {
+        return _cachedBytes.get();
+    }
+
+    public long getPrefetchedBlocks() {
+        return _prefetchedBlocks.sum();
+    }
+
+    /**
+     * Get number of blocks read ahead, which have been dropped before being read.
+     *
+     * @return number of wasted blocks.
+     */
+    public long getWastedBlocks() {
+        return _wastedBlocks.sum();
+    }
+
+    public long getHitCount() {
+        return _hits.sum();
+    }
+
+    public long getMissCount() {
+        return _misses.sum();
+    }
+
+    /**
+     * Get the ratio of reads served from blocks read ahead.
+     *
+     * @return the hit rate.
+     */
+    public double getHitRate() {
+        long hits = _hits.sum();
+        long requests = hits + _misses.sum();
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    /**
+     * Get number of times each hint has been passed to {@link #ioAdvise}.
+     *
+     * @return map of hint name to number of times it has been used.
+     */
+    public Map<String, Long> getHintCount() {
+        return _hintCount.entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().name(), e -> e.getValue().sum()));
+    }
+
+    private static class Block {
+
+        private final long offset;
+        private final CompletableFuture<ByteBuffer> data;
+        private volatile boolean used;
+
+        Block(long offset, CompletableFuture<ByteBuffer> data) {
+            this.offset = offset;
+            this.data = data;
+        }
+    }
+
+    /**
+     * Read state of a single file. All fields are guarded by the stream's monitor.
+     */
+    private class Stream {
+
+        private final NavigableMap<Long, Block> blocks = new TreeMap<>();
+        private final RangeSet<Long> dontNeed = TreeRangeSet.create();
+        private final RangeSet<Long> noReuse = TreeRangeSet.create();
+
+        private IoHint pattern = IoHint.NORMAL;
+
+        /**
+         * Offset where the last read has ended.
+         */
+        private long nextOffset = -1;
+        private boolean sequential;
+
+        /**
+         * Known end of file, from short read-ahead.
+         */
+        private long eof = Long.MAX_VALUE;
+
+        void access(long offset, int count) {
+            sequential = offset == nextOffset;
+            nextOffset = offset + count;
+
+            // blocks behind a read are not needed anymore
+            Iterator<Block> i = blocks.headMap(offset - offset % _blockSize, false).values().iterator();
+            while (i.hasNext()) {
+                release(i.next());
+                i.remove();
+            }
+        }
+
+        boolean isSequential() {
+            return pattern == IoHint.SEQUENTIAL || (pattern == IoHint.NORMAL && sequential);
+        }
+
+        /**
+         * Read ahead {@code count} blocks starting at the given block aligned offset.
+         */
+        void readAhead(Inode inode, long start, int count) {
+            for (int i = 0; i < count; i++) {
+                long offset = start + (long) i * _blockSize;
+                if (offset >= eof || offset < 0 || _shutdown) {
+                    break;
+                }
+
+                if (blocks.containsKey(offset) || dontNeed.encloses(Range.closedOpen(offset, offset + _blockSize))) {
+                    continue;
+                }
+
+                if (_cachedBytes.addAndGet(_blockSize) > _maxBytes) {
+                    _cachedBytes.addAndGet(-_blockSize);
+                    break;
+                }
+
+                ByteBuffer buf = ByteBuffer.allocate(_blockSize);
+                CompletableFuture<CompletableFuture<Integer>> request;
+                try {
+                    request = CompletableFuture.supplyAsync(() -> _inner.readAsync(inode, buf, offset), _executor);
+                } catch (RejectedExecutionException e) {
+                    _cachedBytes.addAndGet(-_blockSize);
+                    break;
+                }
+                CompletableFuture<ByteBuffer> data = request
+                        .thenCompose(f -> f)
+                        .thenApply(n -> {
+                            if (n <= 0) {
+                                synchronized (this) {
+                                    eof = Math.min(eof, offset);
+                                }
+                            }
+                            return buf.flip();
+                        });
+                blocks.put(offset, new Block(offset, data));
+                _prefetchedBlocks.increment();
+            }
+        }
+
+        synchronized void drop(Block block) {
+            if (blocks.remove(block.offset, block)) {
+                release(block);
+            }
+        }
+
+        synchronized void dropAll() {
+            blocks.values().forEach(this::release);
+            blocks.clear();
+            eof = Long.MAX_VALUE;
+        }
+
+        /**
+         * Return memory of a block, which has been removed from the stream.
+         */
+        void release(Block block) {
+            _cachedBytes.addAndGet(-_blockSize);
+            if (!block.used) {
+                _wastedBlocks.increment();
+            }
+        }
+    }
+
+    /**
+     * Drops blocks read ahead on changes published by the decorated file system.
+     */
+    private class ReadAheadInvalidator implements FileSystemChangeListener {
+
+        @Override
+        public void inodeChanged(Inode inode) {
+            invalidate(inode);
+        }
+
+        @Override
+        public void attributesChanged(Inode inode) {
+            // content is not changed
+        }
+
+        @Override
+        public void directoryChanged(Inode dir, String name) {
+            // directories are not read ahead
+        }
+    }
+}
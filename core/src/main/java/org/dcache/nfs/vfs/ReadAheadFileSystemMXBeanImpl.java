@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.vfs;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import javax.management.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A JMX wrapper for {@link ReadAheadFileSystem}.
+ */
+public class ReadAheadFileSystemMXBeanImpl implements ReadAheadFileSystemMXBean {
+
+    private static final Logger _log = LoggerFactory.getLogger(ReadAheadFileSystemMXBeanImpl.class);
+
+    private final ReadAheadFileSystem _fs;
+
+    public ReadAheadFileSystemMXBeanImpl(ReadAheadFileSystem fs) {
+        _fs = fs;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            String name = String.format("%s:type=ReadAhead,name=%s",
+                    _fs.getClass().getPackage().getName(), _fs.getName());
+            ObjectName mxBeanName = new ObjectName(name);
+            if (!server.isRegistered(mxBeanName)) {
+                server.registerMBean(this, mxBeanName);
+            }
+        } catch (MalformedObjectNameException | InstanceAlreadyExistsException
+                | MBeanRegistrationException | NotCompliantMBeanException ex) {
+            _log.warn("Failed to register JMX bean: {}", ex.getMessage());
+        }
+    }
+
+    @Override
+    public long getCachedBytes() {
+        return _fs.getCachedBytes();
+    }
+
+    @Override
+    public long getPrefetchedBlocks() {
+        return _fs.getPrefetchedBlocks();
+    }
+
+    @Override
+    public long getWastedBlocks() {
+        return _fs.getWastedBlocks();
+    }
+
+    @Override
+    public long getHitCount() {
+        return _fs.getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+        return _fs.getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+        return _fs.getHitRate();
+    }
+
+    @Override
+    public Map<String, Long> getHintCount() {
+        return _fs.getHintCount();
+    }
+}
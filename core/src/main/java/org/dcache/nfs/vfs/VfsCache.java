@@ -25,30 +25,102 @@ import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
 import javax.security.auth.Subject;
+import org.dcache.nfs.status.NoEntException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.util.GuavaCacheMXBeanImpl;
 import org.dcache.nfs.util.Opaque;
+import org.dcache.nfs.v4.xdr.nfsace4;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Caching decorator.
+ * <p>
+ * Changes made through the cache are reflected immediately. Changes made
+ * by-passing the cache become visible after cached values expire, unless
+ * the decorated file system publishes them to a {@link FileSystemChangeListener}.
+ * In that case, affected entries are invalidated as soon as the change is
+ * published, which allows much longer cache life times.
  */
 public class VfsCache extends ForwardingFileSystem {
 
+    private static final Logger _log = LoggerFactory.getLogger(VfsCache.class);
+
+    /**
+     * Number of directory generation counters. Must be a power of two.
+     */
+    private static final int DIRECTORY_GENERATION_STRIPES = 1024;
+
     private final LoadingCache<CacheKey, Inode> _lookupCache;
+
+    /**
+     * Names known to not exist. An entry is dropped when the name is created
+     * through this cache. Changes made by-passing this cache become visible
+     * after the entry expires.
+     */
+    private final Cache<CacheKey, Boolean> _negativeLookupCache;
+
+    /**
+     * Generation counters of directories, striped by directory file id. A
+     * counter is incremented when a name is added to a directory. A failed
+     * lookup is stored in the negative lookup cache only if the generation
+     * of the directory hasn't changed while the lookup was in progress.
+     */
+    private final AtomicLongArray _directoryGenerations = new AtomicLongArray(DIRECTORY_GENERATION_STRIPES);
+
     private final Cache<Opaque, Stat> _statCache;
-    private final LoadingCache<Inode, Inode> _parentCache;
+    private final Cache<Opaque, Inode> _parentCache;
     private final Supplier<FsStat> _fsStatSupplier;
 
     private final Cache<InodeCacheEntry, DirectoryStream> _readdirCache;
 
+    /**
+     * Pages of directory listings, which have been served by {@link #listPage}.
+     */
+    private final Cache<InodeCacheEntry, DirectoryPages> _readdirPageCache;
+    private final int _readdirMaxPages;
+    private final boolean _readdirPrefetch;
+
+    private final Cache<Opaque, nfsace4[]> _aclCache;
+    private final Cache<XattrKey, byte[]> _xattrCache;
+    private final Cache<Opaque, String[]> _xattrListCache;
+    private final Cache<Opaque, String> _readlinkCache;
+
+    /*
+     * Keys of caches, which are not keyed by file id, indexed by file id of the
+     * cached object. Used to invalidate entries of objects changed by-passing the
+     * cache without scanning the whole cache.
+     */
+    private final FileIdIndex<CacheKey> _lookupKeys = new FileIdIndex<>(k -> new Opaque(k.getParent().getFileId()));
+    private final FileIdIndex<CacheKey> _negativeLookupKeys = new FileIdIndex<>(k -> new Opaque(k.getParent().getFileId()));
+    private final FileIdIndex<InodeCacheEntry> _readdirKeys = new FileIdIndex<>(k -> new Opaque(k._inode.getFileId()));
+    private final FileIdIndex<InodeCacheEntry> _readdirPageKeys = new FileIdIndex<>(k -> new Opaque(k._inode.getFileId()));
+    private final FileIdIndex<XattrKey> _xattrKeys = new FileIdIndex<>(k -> k._fileId);
+
     private final VirtualFileSystem _inner;
 
     public VfsCache(VirtualFileSystem inner, VfsCacheConfig cacheConfig) {
@@ -58,8 +130,16 @@ public class VfsCache extends ForwardingFileSystem {
 		.expireAfterWrite(cacheConfig.getLifeTime(), cacheConfig.getTimeUnit())
 		.softValues()
                 .recordStats()
+                .removalListener(_lookupKeys.<Inode>removalListener())
 		.build(new LoockupLoader());
 
+        _negativeLookupCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getNegativeLookupMaxEntries())
+                .expireAfterWrite(cacheConfig.getNegativeLookupLifeTime(), cacheConfig.getNegativeLookupLifeTimeUnit())
+                .recordStats()
+                .removalListener(_negativeLookupKeys.<Boolean>removalListener())
+                .build();
+
 	_statCache = CacheBuilder.newBuilder()
 		.maximumSize(cacheConfig.getMaxEntries())
 		.expireAfterWrite(cacheConfig.getLifeTime(), cacheConfig.getTimeUnit())
@@ -72,13 +152,50 @@ public class VfsCache extends ForwardingFileSystem {
                 .expireAfterWrite(100, TimeUnit.MILLISECONDS)
                 .softValues()
                 .recordStats()
-                .build(new ParentLoader());
+                .build();
 
         _readdirCache = CacheBuilder.newBuilder()
                 .maximumSize(cacheConfig.getReaddirMaxEntries())
                 .expireAfterWrite(cacheConfig.getReaddirLifeTime(), cacheConfig.getReaddirLifeTimeUnit())
                 .softValues()
                 .recordStats()
+                .removalListener(_readdirKeys.<DirectoryStream>removalListener())
+                .build();
+
+        _readdirPageCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getReaddirMaxEntries())
+                .expireAfterWrite(cacheConfig.getReaddirLifeTime(), cacheConfig.getReaddirLifeTimeUnit())
+                .softValues()
+                .recordStats()
+                .removalListener(_readdirPageKeys.<DirectoryPages>removalListener())
+                .build();
+        _readdirMaxPages = cacheConfig.getReaddirMaxPages();
+        _readdirPrefetch = cacheConfig.isReaddirPrefetch();
+
+        _aclCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getAclMaxEntries())
+                .expireAfterWrite(cacheConfig.getAclLifeTime(), cacheConfig.getAclLifeTimeUnit())
+                .recordStats()
+                .build();
+
+        _xattrCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getXattrMaxEntries())
+                .expireAfterWrite(cacheConfig.getXattrLifeTime(), cacheConfig.getXattrLifeTimeUnit())
+                .softValues()
+                .recordStats()
+                .removalListener(_xattrKeys.<byte[]>removalListener())
+                .build();
+
+        _xattrListCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getXattrMaxEntries())
+                .expireAfterWrite(cacheConfig.getXattrLifeTime(), cacheConfig.getXattrLifeTimeUnit())
+                .recordStats()
+                .build();
+
+        _readlinkCache = CacheBuilder.newBuilder()
+                .maximumSize(cacheConfig.getReadlinkMaxEntries())
+                .expireAfterWrite(cacheConfig.getReadlinkLifeTime(), cacheConfig.getReadlinkLifeTimeUnit())
+                .recordStats()
                 .build();
 
         _fsStatSupplier = cacheConfig.getFsStatLifeTime() > 0 ?
@@ -88,7 +205,15 @@ public class VfsCache extends ForwardingFileSystem {
         new GuavaCacheMXBeanImpl("vfs-stat", _statCache);
         new GuavaCacheMXBeanImpl("vfs-parent", _parentCache);
         new GuavaCacheMXBeanImpl("vfs-lookup", _lookupCache);
+        new GuavaCacheMXBeanImpl("vfs-negative-lookup", _negativeLookupCache);
         new GuavaCacheMXBeanImpl("vfs-readdir", _readdirCache);
+        new GuavaCacheMXBeanImpl("vfs-readdir-page", _readdirPageCache);
+        new GuavaCacheMXBeanImpl("vfs-acl", _aclCache);
+        new GuavaCacheMXBeanImpl("vfs-xattr", _xattrCache);
+        new GuavaCacheMXBeanImpl("vfs-xattr-list", _xattrListCache);
+        new GuavaCacheMXBeanImpl("vfs-readlink", _readlinkCache);
+
+        _inner.addChangeListener(new CacheInvalidator());
     }
 
     @Override
@@ -102,9 +227,17 @@ public class VfsCache extends ForwardingFileSystem {
         _inner.commit(inode, offset, count);
     }
 
+    @Override
+    public CompletableFuture<Void> commitAsync(Inode inode, long offset, int count) {
+        invalidateStatCache(inode);
+        return _inner.commitAsync(inode, offset, count);
+    }
+
     @Override
     public Inode symlink(Inode parent, String path, String link, Subject subject, int mode) throws IOException {
         Inode inode = _inner.symlink(parent, path, link, subject, mode);
+        nameAdded(parent);
+        _negativeLookupCache.invalidate(new CacheKey(parent, path));
 	invalidateStatCache(parent);
 	return inode;
     }
@@ -116,6 +249,7 @@ public class VfsCache extends ForwardingFileSystem {
         invalidateLookupCache(parent, path);
 	invalidateStatCache(parent);
 	invalidateStatCache(inode);
+        invalidateAttributeCaches(inode);
     }
 
     @Override
@@ -128,6 +262,7 @@ public class VfsCache extends ForwardingFileSystem {
 
         boolean isChanged = _inner.move(src, oldName, dest, newName);
 	if (isChanged) {
+	    nameAdded(dest);
 	    invalidateLookupCache(src, oldName);
 	    invalidateLookupCache(dest, newName);
 	    invalidateStatCache(src);
@@ -139,6 +274,7 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public Inode mkdir(Inode parent, String path, Subject subject, int mode) throws IOException {
         Inode inode = _inner.mkdir(parent, path, subject, mode);
+        nameAdded(parent);
         updateLookupCache(parent, path, inode);
 	invalidateStatCache(parent);
         return inode;
@@ -147,6 +283,7 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public Inode link(Inode parent, Inode link, String path, Subject subject) throws IOException {
         Inode inode = _inner.link(parent, link, path, subject);
+        nameAdded(parent);
         updateLookupCache(parent, path, inode);
 	invalidateStatCache(parent);
 	invalidateStatCache(inode);
@@ -158,6 +295,28 @@ public class VfsCache extends ForwardingFileSystem {
         return lookupFromCacheOrLoad(parent, path);
     }
 
+    @Override
+    public CompletableFuture<Inode> lookupAsync(Inode parent, String path) {
+        CacheKey key = new CacheKey(parent, path);
+        Inode inode = _lookupCache.getIfPresent(key);
+        if (inode != null) {
+            return CompletableFuture.completedFuture(inode);
+        }
+        if (_negativeLookupCache.getIfPresent(key) != null) {
+            return CompletableFuture.failedFuture(new NoEntException("cached: " + path));
+        }
+        long generation = directoryGeneration(parent);
+        return _inner.lookupAsync(parent, path)
+                .whenComplete((i, e) -> {
+                    if (e == null) {
+                        _lookupKeys.add(key);
+                        _lookupCache.put(key, i);
+                    } else if (CompletableFutures.unwrap(e) instanceof NoEntException) {
+                        updateNegativeLookupCache(key, generation);
+                    }
+                });
+    }
+
     @Override
     public FsStat getFsStat() throws IOException {
         return _fsStatSupplier.get();
@@ -166,6 +325,7 @@ public class VfsCache extends ForwardingFileSystem {
     @Override
     public Inode create(Inode parent, Stat.Type type, String path, Subject subject, int mode) throws IOException {
         Inode inode = _inner.create(parent, type, path, subject, mode);
+        nameAdded(parent);
         updateLookupCache(parent, path, inode);
 	invalidateStatCache(parent);
         updateParentCache(inode, parent);
@@ -177,10 +337,80 @@ public class VfsCache extends ForwardingFileSystem {
         return statFromCacheOrLoad(inode);
     }
 
+    @Override
+    public CompletableFuture<Stat> getattrAsync(Inode inode) {
+        Opaque key = new Opaque(inode.getFileId());
+        Stat stat = _statCache.getIfPresent(key);
+        if (stat != null) {
+            return CompletableFuture.completedFuture(stat);
+        }
+        return _inner.getattrAsync(inode)
+                .thenApply(s -> {
+                    _statCache.put(key, s);
+                    return s;
+                });
+    }
+
+    @Override
+    public void allocate(Inode inode, long offset, long length) throws IOException {
+        _inner.allocate(inode, offset, length);
+        // size and space used change
+        invalidateStatCache(inode);
+    }
+
+    @Override
+    public void deallocate(Inode inode, long offset, long length) throws IOException {
+        _inner.deallocate(inode, offset, length);
+        invalidateStatCache(inode);
+    }
+
+    @Override
+    public void clone(Inode src, long srcOff, Inode dst, long dstOff, long len) throws IOException {
+        _inner.clone(src, srcOff, dst, dstOff, len);
+        invalidateStatCache(dst);
+    }
+
     @Override
     public void setattr(Inode inode, Stat stat) throws IOException {
         _inner.setattr(inode, stat);
 	invalidateStatCache(inode);
+        // mode and ownership changes are reflected in the ACL
+        _aclCache.invalidate(new Opaque(inode.getFileId()));
+    }
+
+    @Override
+    public nfsace4[] getAcl(Inode inode) throws IOException {
+        return fromCacheOrLoad(_aclCache, new Opaque(inode.getFileId()), () -> _inner.getAcl(inode));
+    }
+
+    @Override
+    public void setAcl(Inode inode, nfsace4[] acl) throws IOException {
+        _inner.setAcl(inode, acl);
+        _aclCache.invalidate(new Opaque(inode.getFileId()));
+        // the mode bits might be updated as well
+        invalidateStatCache(inode);
+    }
+
+    @Override
+    public String readlink(Inode inode) throws IOException {
+        return fromCacheOrLoad(_readlinkCache, new Opaque(inode.getFileId()), () -> _inner.readlink(inode));
+    }
+
+    @Override
+    public byte[] getXattr(Inode inode, String attr) throws IOException {
+        XattrKey key = new XattrKey(inode, attr);
+        return fromCacheOrLoad(_xattrCache, key, () -> {
+            byte[] value = _inner.getXattr(inode, attr);
+            if (value != null) {
+                _xattrKeys.add(key);
+            }
+            return value;
+        });
+    }
+
+    @Override
+    public String[] listXattrs(Inode inode) throws IOException {
+        return fromCacheOrLoad(_xattrListCache, new Opaque(inode.getFileId()), () -> _inner.listXattrs(inode));
     }
 
     @Override
@@ -204,11 +434,16 @@ public class VfsCache extends ForwardingFileSystem {
      * @param path to invalidate
      */
     public void invalidateLookupCache(Inode parent, String path) {
-	_lookupCache.invalidate(new CacheKey(parent, path));
+        CacheKey key = new CacheKey(parent, path);
+	_lookupCache.invalidate(key);
+        _negativeLookupCache.invalidate(key);
     }
 
     private void updateLookupCache(Inode parent, String path, Inode inode) {
-	_lookupCache.put(new CacheKey(parent, path), inode);
+        CacheKey key = new CacheKey(parent, path);
+        _negativeLookupCache.invalidate(key);
+        _lookupKeys.add(key);
+	_lookupCache.put(key, inode);
     }
 
     /**
@@ -220,23 +455,88 @@ public class VfsCache extends ForwardingFileSystem {
 	_statCache.invalidate(new Opaque(inode.getFileId()));
     }
 
+    /**
+     * Discards cached ACL, extended attribute names and symbolic link target
+     * of given {@link Inode}. Cached values of individual extended attributes
+     * are left to expire.
+     *
+     * @param inode The inode for which cached values should be invalidated.
+     */
+    private void invalidateAttributeCaches(Inode inode) {
+        Opaque key = new Opaque(inode.getFileId());
+        _aclCache.invalidate(key);
+        _xattrListCache.invalidate(key);
+        _readlinkCache.invalidate(key);
+    }
+
+    private void invalidateXattrCache(Inode inode, String attr) {
+        _xattrCache.invalidate(new XattrKey(inode, attr));
+        _xattrListCache.invalidate(new Opaque(inode.getFileId()));
+    }
+
+    /**
+     * Store a failed lookup in the negative lookup cache, unless a name has
+     * been added to the directory since the lookup was started.
+     *
+     * @param key the lookup key.
+     * @param generation directory generation observed before the lookup.
+     */
+    private void updateNegativeLookupCache(CacheKey key, long generation) {
+        if (directoryGeneration(key.getParent()) != generation) {
+            return;
+        }
+        _negativeLookupKeys.add(key);
+        _negativeLookupCache.put(key, Boolean.TRUE);
+        // the name might be added concurrently with the put above
+        if (directoryGeneration(key.getParent()) != generation) {
+            _negativeLookupCache.invalidate(key);
+        }
+    }
+
+    private long directoryGeneration(Inode dir) {
+        return _directoryGenerations.get(generationStripe(dir));
+    }
+
+    /**
+     * Must be called after a name is added to the directory.
+     */
+    private void nameAdded(Inode dir) {
+        _directoryGenerations.incrementAndGet(generationStripe(dir));
+    }
+
+    private static int generationStripe(Inode dir) {
+        return Arrays.hashCode(dir.getFileId()) & (DIRECTORY_GENERATION_STRIPES - 1);
+    }
+
     private void updateParentCache(Inode inode, Inode parent) {
-        _parentCache.put(inode, parent);
+        _parentCache.put(new Opaque(inode.getFileId()), parent);
     }
 
     private class LoockupLoader extends CacheLoader<CacheKey, Inode> {
 
         @Override
         public Inode load(CacheKey k) throws Exception {
-            return _inner.lookup(k.getParent(), k.getName());
+            Inode inode = _inner.lookup(k.getParent(), k.getName());
+            if (inode != null) {
+                _lookupKeys.add(k);
+            }
+            return inode;
         }
     }
 
     private Inode lookupFromCacheOrLoad(final Inode parent, final String path) throws IOException {
+        CacheKey key = new CacheKey(parent, path);
+        if (_negativeLookupCache.getIfPresent(key) != null) {
+            throw new NoEntException("cached: " + path);
+        }
+        long generation = directoryGeneration(parent);
 	try {
-	    return _lookupCache.get(new CacheKey(parent, path));
+	    return _lookupCache.get(key);
 	} catch (ExecutionException e) {
 	    Throwable t = e.getCause();
+            if (t instanceof NoEntException) {
+                updateNegativeLookupCache(key, generation);
+            }
 	    Throwables.throwIfInstanceOf(t, IOException.class);
 	    throw new IOException(e.getMessage(), t);
 	}
@@ -252,17 +552,75 @@ public class VfsCache extends ForwardingFileSystem {
 	}
     }
 
-    private class ParentLoader extends CacheLoader<Inode, Inode> {
+    /**
+     * Invalidates cached entries on changes published by the decorated file system.
+     * As published inodes might be constructed by the file system itself, the entries
+     * are matched by file id.
+     */
+    private class CacheInvalidator implements FileSystemChangeListener {
+
+        @Override
+        public void inodeChanged(Inode inode) {
+            attributesChanged(inode);
+            Opaque key = new Opaque(inode.getFileId());
+            _readlinkCache.invalidate(key);
+            _parentCache.invalidate(key);
+            _readdirCache.invalidateAll(_readdirKeys.keys(key));
+            _readdirPageCache.invalidateAll(_readdirPageKeys.keys(key));
+        }
+
+        @Override
+        public void attributesChanged(Inode inode) {
+            Opaque key = new Opaque(inode.getFileId());
+            _statCache.invalidate(key);
+            _aclCache.invalidate(key);
+            _xattrListCache.invalidate(key);
+            _xattrCache.invalidateAll(_xattrKeys.keys(key));
+        }
 
         @Override
-        public Inode load(Inode inode) throws Exception {
-            return _inner.parentOf(inode);
+        public void directoryChanged(Inode dir, String name) {
+            nameAdded(dir);
+            Opaque key = new Opaque(dir.getFileId());
+            for (CacheKey k : _lookupKeys.keys(key)) {
+                if (name == null || k.getName().equals(name)) {
+                    Inode inode = _lookupCache.asMap().remove(k);
+                    if (inode != null) {
+                        _parentCache.invalidate(new Opaque(inode.getFileId()));
+                    }
+                }
+            }
+            for (CacheKey k : _negativeLookupKeys.keys(key)) {
+                if (name == null || k.getName().equals(name)) {
+                    _negativeLookupCache.invalidate(k);
+                }
+            }
+            _readdirCache.invalidateAll(_readdirKeys.keys(key));
+            _readdirPageCache.invalidateAll(_readdirPageKeys.keys(key));
+            invalidateStatCache(dir);
+        }
+    }
+
+    private static <K, V> V fromCacheOrLoad(Cache<K, V> cache, K key, Callable<V> loader) throws IOException {
+        try {
+            return cache.get(key, loader);
+        } catch (InvalidCacheLoadException e) {
+            // loader returned null, nothing to cache
+            return null;
+        } catch (UncheckedExecutionException e) {
+            Throwable t = e.getCause();
+            Throwables.throwIfUnchecked(t);
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            Throwables.throwIfInstanceOf(t, IOException.class);
+            throw new IOException(e.getMessage(), t);
         }
     }
 
     private Inode parentFromCacheOrLoad(final Inode inode) throws IOException {
         try {
-            return _parentCache.get(inode);
+            return _parentCache.get(new Opaque(inode.getFileId()), () -> _inner.parentOf(inode));
         } catch (ExecutionException e) {
             Throwable t = e.getCause();
             Throwables.throwIfInstanceOf(t, IOException.class);
@@ -311,6 +669,39 @@ public class VfsCache extends ForwardingFileSystem {
         }
     }
 
+    /**
+     * Extended attribute cache key based on file id and attribute name.
+     */
+    private static class XattrKey {
+
+        private final Opaque _fileId;
+        private final String _name;
+
+        XattrKey(Inode inode, String name) {
+            _fileId = new Opaque(inode.getFileId());
+            _name = requireNonNull(name);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof XattrKey)) {
+                return false;
+            }
+
+            final XattrKey other = (XattrKey) obj;
+            return other._fileId.equals(_fileId) && other._name.equals(_name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * _fileId.hashCode() + _name.hashCode();
+        }
+    }
+
     private static class InodeCacheEntry {
 
         private final Inode _inode;
@@ -344,6 +735,53 @@ public class VfsCache extends ForwardingFileSystem {
         }
     }
 
+    /**
+     * Index of cache keys by file id of the object the cached value belongs to.
+     * A key must be added to the index before the value is put into the cache.
+     * Keys are removed from the index when the cache entry is removed.
+     */
+    private static class FileIdIndex<K> {
+
+        private final Function<K, Opaque> _fileIdOf;
+        private final ConcurrentMap<Opaque, Set<K>> _keys = new ConcurrentHashMap<>();
+
+        FileIdIndex(Function<K, Opaque> fileIdOf) {
+            _fileIdOf = fileIdOf;
+        }
+
+        void add(K key) {
+            _keys.compute(_fileIdOf.apply(key), (id, keys) -> {
+                Set<K> s = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                s.add(key);
+                return s;
+            });
+        }
+
+        void remove(K key) {
+            _keys.computeIfPresent(_fileIdOf.apply(key), (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+
+        /**
+         * Get a snapshot of keys which belong to object with the given file id.
+         */
+        List<K> keys(Opaque fileId) {
+            Set<K> keys = _keys.get(fileId);
+            return keys == null ? List.of() : List.copyOf(keys);
+        }
+
+        <V> RemovalListener<K, V> removalListener() {
+            return n -> {
+                // on replace the key stays in the cache
+                if (n.getCause() != RemovalCause.REPLACED) {
+                    remove(n.getKey());
+                }
+            };
+        }
+    }
+
     private class FsStatSupplier implements Supplier<FsStat> {
 
         @Override
@@ -376,21 +814,110 @@ public class VfsCache extends ForwardingFileSystem {
             // ask always for list from the beginning
             directoryStream = delegate().list(inode, DirectoryStream.ZERO_VERIFIER, 0L);
             cacheKey = new InodeCacheEntry(inode, directoryStream.getVerifier());
+            _readdirKeys.add(cacheKey);
             _readdirCache.put(cacheKey, directoryStream);
         }
 
         return directoryStream.tail(cookie);
     }
 
+    @Override
+    public DirectoryStream listPage(Inode inode, byte[] verifier, long cookie, int maxEntries) throws IOException {
+
+        byte[] cacheVerifier = cookie == 0L && Arrays.equals(verifier, DirectoryStream.ZERO_VERIFIER)
+                ? delegate().directoryVerifier(inode) : verifier;
+
+        DirectoryPages pages = _readdirPageCache.getIfPresent(new InodeCacheEntry(inode, cacheVerifier));
+        if (pages != null) {
+            DirectoryStream page = pages.find(cookie);
+            if (page != null) {
+                return page.head(maxEntries);
+            }
+        }
+
+        DirectoryStream page = delegate().listPage(inode, verifier, cookie, maxEntries);
+        pages = _readdirPageCache.asMap().computeIfAbsent(new InodeCacheEntry(inode, page.getVerifier()),
+                k -> {
+                    _readdirPageKeys.add(k);
+                    return new DirectoryPages(_readdirMaxPages);
+                });
+        pages.add(cookie, page);
+
+        if (_readdirPrefetch && !page.isEof()) {
+            long nextCookie = page.lastCookie(cookie);
+            DirectoryPages dirPages = pages;
+            InodeCacheEntry pagesKey = new InodeCacheEntry(inode, page.getVerifier());
+            delegate().listPageAsync(inode, page.getVerifier(), nextCookie, maxEntries)
+                    .whenComplete((p, e) -> {
+                        if (e != null) {
+                            _log.debug("Failed to prefetch directory page of {} at cookie {}: {}",
+                                    inode, nextCookie, e.toString());
+                            return;
+                        }
+                        // the directory might be invalidated while the page was fetched
+                        if (_readdirPageCache.getIfPresent(pagesKey) == dirPages) {
+                            dirPages.add(nextCookie, p);
+                        }
+                    });
+        }
+        return page;
+    }
+
+    /**
+     * Cached pages of a directory listing, indexed by the cookie the page was requested with.
+     */
+    private static class DirectoryPages {
+
+        private final int _maxPages;
+        private final ConcurrentNavigableMap<Long, DirectoryStream> _pages = new ConcurrentSkipListMap<>();
+
+        DirectoryPages(int maxPages) {
+            _maxPages = maxPages;
+        }
+
+        /**
+         * Get cached entries with cookies greater than {@code cookie}.
+         *
+         * @return entries behind the cookie or {@code null}, if such entries are not cached.
+         */
+        DirectoryStream find(long cookie) {
+            Map.Entry<Long, DirectoryStream> e = _pages.floorEntry(cookie);
+            if (e == null) {
+                return null;
+            }
+
+            DirectoryStream page = e.getValue();
+            if (cookie < page.lastCookie(e.getKey()) || page.isEof()) {
+                return page.tail(cookie);
+            }
+            return null;
+        }
+
+        void add(long cookie, DirectoryStream page) {
+            _pages.put(cookie, page);
+            while (_pages.size() > _maxPages) {
+                // listings are read forward, drop the pages at the beginning first
+                Map.Entry<Long, DirectoryStream> first = _pages.firstEntry();
+                if (first != null && first.getKey() == cookie) {
+                    _pages.pollLastEntry();
+                } else {
+                    _pages.pollFirstEntry();
+                }
+            }
+        }
+    }
+
     @Override
     public void removeXattr(Inode inode, String attr) throws IOException {
         _inner.removeXattr(inode, attr);
         invalidateStatCache(inode);
+        invalidateXattrCache(inode, attr);
     }
 
     @Override
     public void setXattr(Inode inode, String attr, byte[] value, SetXattrMode mode) throws IOException {
         _inner.setXattr(inode, attr, value, mode);
         invalidateStatCache(inode);
+        invalidateXattrCache(inode, attr);
     }
 }
@@ -35,6 +35,24 @@ public class VfsCacheConfig {
     private long readdirLifeTime;
     private TimeUnit readdirLifeTimeUnit = TimeUnit.SECONDS;
     private int readdirMaxEntries;
+    private int readdirMaxPages = 16;
+    private boolean readdirPrefetch;
+
+    private long negativeLookupLifeTime;
+    private TimeUnit negativeLookupLifeTimeUnit = TimeUnit.SECONDS;
+    private int negativeLookupMaxEntries;
+
+    private long aclLifeTime;
+    private TimeUnit aclLifeTimeUnit = TimeUnit.SECONDS;
+    private int aclMaxEntries;
+
+    private long xattrLifeTime;
+    private TimeUnit xattrLifeTimeUnit = TimeUnit.SECONDS;
+    private int xattrMaxEntries;
+
+    private long readlinkLifeTime;
+    private TimeUnit readlinkLifeTimeUnit = TimeUnit.SECONDS;
+    private int readlinkMaxEntries;
 
     /**
      * Get maximal number of entries in the cache.
@@ -102,6 +120,137 @@ public class VfsCacheConfig {
         return readdirMaxEntries;
     }
 
+    /**
+     * Get maximal number of cached directory listing pages per directory.
+     * @return maximal number of pages per directory.
+     * @since 0.28
+     */
+    public int getReaddirMaxPages() {
+        return readdirMaxPages;
+    }
+
+    /**
+     * Returns true if the next page of directory listing is requested in
+     * advance.
+     * @return true if directory listing pages are prefetched.
+     * @since 0.28
+     */
+    public boolean isReaddirPrefetch() {
+        return readdirPrefetch;
+    }
+
+    /**
+     * Get validity time of cached failed lookups.
+     *
+     * @return cache validity time.
+     * @since 0.28
+     */
+    public long getNegativeLookupLifeTime() {
+        return negativeLookupLifeTime;
+    }
+
+    /**
+     * Get unit in which validity time of cached failed lookups is expressed.
+     * @return time unit.
+     * @since 0.28
+     */
+    public TimeUnit getNegativeLookupLifeTimeUnit() {
+        return negativeLookupLifeTimeUnit;
+    }
+
+    /**
+     * Get maximal number of cached failed lookups.
+     * @return maximal number of cached failed lookups.
+     * @since 0.28
+     */
+    public int getNegativeLookupMaxEntries() {
+        return negativeLookupMaxEntries;
+    }
+
+    /**
+     * Get validity time of cached ACLs.
+     *
+     * @return cache validity time.
+     * @since 0.28
+     */
+    public long getAclLifeTime() {
+        return aclLifeTime;
+    }
+
+    /**
+     * Get unit in which validity time of cached ACLs is expressed.
+     * @return time unit.
+     * @since 0.28
+     */
+    public TimeUnit getAclLifeTimeUnit() {
+        return aclLifeTimeUnit;
+    }
+
+    /**
+     * Get maximal number of cached ACLs.
+     * @return maximal number of cached ACLs.
+     * @since 0.28
+     */
+    public int getAclMaxEntries() {
+        return aclMaxEntries;
+    }
+
+    /**
+     * Get validity time of cached extended attributes.
+     *
+     * @return cache validity time.
+     * @since 0.28
+     */
+    public long getXattrLifeTime() {
+        return xattrLifeTime;
+    }
+
+    /**
+     * Get unit in which validity time of cached extended attributes is expressed.
+     * @return time unit.
+     * @since 0.28
+     */
+    public TimeUnit getXattrLifeTimeUnit() {
+        return xattrLifeTimeUnit;
+    }
+
+    /**
+     * Get maximal number of cached extended attribute values.
+     * @return maximal number of cached extended attribute values.
+     * @since 0.28
+     */
+    public int getXattrMaxEntries() {
+        return xattrMaxEntries;
+    }
+
+    /**
+     * Get validity time of cached symbolic link targets.
+     *
+     * @return cache validity time.
+     * @since 0.28
+     */
+    public long getReadlinkLifeTime() {
+        return readlinkLifeTime;
+    }
+
+    /**
+     * Get unit in which validity time of cached symbolic link targets is expressed.
+     * @return time unit.
+     * @since 0.28
+     */
+    public TimeUnit getReadlinkLifeTimeUnit() {
+        return readlinkLifeTimeUnit;
+    }
+
+    /**
+     * Get maximal number of cached symbolic link targets.
+     * @return maximal number of cached symbolic link targets.
+     * @since 0.28
+     */
+    public int getReadlinkMaxEntries() {
+        return readlinkMaxEntries;
+    }
+
     /**
      * Set maximal number of entries in the cache.
      * @param maxEntries
@@ -165,4 +314,136 @@ public class VfsCacheConfig {
     public void setReaddirMaxEntries(int maxEntries) {
         readdirMaxEntries = maxEntries;
     }
+
+    /**
+     * Set maximal number of cached directory listing pages per directory.
+     * @param maxPages
+     * @since 0.28
+     */
+    public void setReaddirMaxPages(int maxPages) {
+        readdirMaxPages = maxPages;
+    }
+
+    /**
+     * Request the next page of directory listing in advance with
+     * {@link VirtualFileSystem#listPageAsync}. Should be enabled only if the
+     * file system provides a non-blocking implementation.
+     * @param prefetch
+     * @since 0.28
+     */
+    public void setReaddirPrefetch(boolean prefetch) {
+        readdirPrefetch = prefetch;
+    }
+
+    /**
+     * Set validity time of cached failed lookups. Zero disables caching of
+     * failed lookups.
+     * @param lifeTime
+     * @since 0.28
+     */
+    public void setNegativeLookupLifeTime(long lifeTime) {
+        this.negativeLookupLifeTime = lifeTime;
+    }
+
+    /**
+     * Set unit in which validity time of cached failed lookups is expressed.
+     * @param lifeTimeTimeUnit
+     * @since 0.28
+     */
+    public void setNegativeLookupLifeTimeUnit(TimeUnit lifeTimeTimeUnit) {
+        this.negativeLookupLifeTimeUnit = lifeTimeTimeUnit;
+    }
+
+    /**
+     * Set maximal number of cached failed lookups.
+     * @param maxEntries
+     * @since 0.28
+     */
+    public void setNegativeLookupMaxEntries(int maxEntries) {
+        negativeLookupMaxEntries = maxEntries;
+    }
+
+    /**
+     * Set validity time of cached ACLs. Zero disables caching of
+     * ACLs.
+     * @param lifeTime
+     * @since 0.28
+     */
+    public void setAclLifeTime(long lifeTime) {
+        this.aclLifeTime = lifeTime;
+    }
+
+    /**
+     * Set unit in which validity time of cached ACLs is expressed.
+     * @param lifeTimeTimeUnit
+     * @since 0.28
+     */
+    public void setAclLifeTimeUnit(TimeUnit lifeTimeTimeUnit) {
+        this.aclLifeTimeUnit = lifeTimeTimeUnit;
+    }
+
+    /**
+     * Set maximal number of cached ACLs.
+     * @param maxEntries
+     * @since 0.28
+     */
+    public void setAclMaxEntries(int maxEntries) {
+        aclMaxEntries = maxEntries;
+    }
+
+    /**
+     * Set validity time of cached extended attributes. Zero disables caching of
+     * extended attributes.
+     * @param lifeTime
+     * @since 0.28
+     */
+    public void setXattrLifeTime(long lifeTime) {
+        this.xattrLifeTime = lifeTime;
+    }
+
+    /**
+     * Set unit in which validity time of cached extended attributes is expressed.
+     * @param lifeTimeTimeUnit
+     * @since 0.28
+     */
+    public void setXattrLifeTimeUnit(TimeUnit lifeTimeTimeUnit) {
+        this.xattrLifeTimeUnit = lifeTimeTimeUnit;
+    }
+
+    /**
+     * Set maximal number of cached extended attribute values.
+     * @param maxEntries
+     * @since 0.28
+     */
+    public void setXattrMaxEntries(int maxEntries) {
+        xattrMaxEntries = maxEntries;
+    }
+
+    /**
+     * Set validity time of cached symbolic link targets. Zero disables caching of
+     * symbolic link targets.
+     * @param lifeTime
+     * @since 0.28
+     */
+    public void setReadlinkLifeTime(long lifeTime) {
+        this.readlinkLifeTime = lifeTime;
+    }
+
+    /**
+     * Set unit in which validity time of cached symbolic link targets is expressed.
+     * @param lifeTimeTimeUnit
+     * @since 0.28
+     */
+    public void setReadlinkLifeTimeUnit(TimeUnit lifeTimeTimeUnit) {
+        this.readlinkLifeTimeUnit = lifeTimeTimeUnit;
+    }
+
+    /**
+     * Set maximal number of cached symbolic link targets.
+     * @param maxEntries
+     * @since 0.28
+     */
+    public void setReadlinkMaxEntries(int maxEntries) {
+        readlinkMaxEntries = maxEntries;
+    }
 }
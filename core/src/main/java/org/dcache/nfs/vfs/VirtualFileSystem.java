@@ -21,11 +21,15 @@ package org.dcache.nfs.vfs;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import javax.security.auth.Subject;
 
 import com.google.common.annotations.Beta;
+import org.dcache.nfs.status.NXioException;
 import org.dcache.nfs.status.NotSuppException;
+import org.dcache.nfs.util.CompletableFutures;
 import org.dcache.nfs.v4.NfsIdMapping;
 import org.dcache.nfs.v4.xdr.nfsace4;
 import org.dcache.nfs.v4.xdr.stable_how4;
@@ -130,6 +134,30 @@ public interface VirtualFileSystem {
      */
     DirectoryStream list(Inode inode, byte[] verifier, long cookie) throws IOException;
 
+    /**
+     * Get a page of directory listing. The returned stream contains at most
+     * {@code maxEntries} entries with cookies greater than the specified
+     * {@code cookie} and may contain less entries, even if the end of directory
+     * is not reached yet. The end of directory is indicated by
+     * {@link DirectoryStream#isEof()}. The next page is requested with the
+     * cookie of the last returned entry and the verifier of the returned stream.
+     * <p>
+     * Implementations should override this method if they are able to produce
+     * a listing without materializing the complete directory. The default
+     * implementation takes the first entries of {@link #list(Inode, byte[], long)}.
+     *
+     * @param inode inode of the directory to list.
+     * @param verifier opaque verifier to identify {@code snapshot} to list.
+     * @param cookie a logical offset in the listing.
+     * @param maxEntries maximal number of entries to return.
+     * @return DirectoryStream containing a page of directory listing.
+     * @throws IOException
+     * @since 0.28
+     */
+    default DirectoryStream listPage(Inode inode, byte[] verifier, long cookie, int maxEntries) throws IOException {
+        return list(inode, verifier, cookie).head(maxEntries);
+    }
+
     /**
      * Generate a opaque directory verifier which is identified with can
      * be used as identifier of directory's state snapshot.
@@ -199,6 +227,15 @@ public interface VirtualFileSystem {
      * @throws IOException
      */
     default int read(Inode inode, ByteBuffer data, long offset) throws IOException {
+        if (data.hasArray() && data.arrayOffset() + data.position() == 0) {
+            // read directly into backing array
+            int n = read(inode, data.array(), offset, data.remaining());
+            if (n > 0) {
+                data.position(n);
+            }
+            return n;
+        }
+
         ByteBuffer buf = ByteBuffer.allocate(data.remaining());
         int n = read(inode, buf.array(), offset, buf.remaining());
         if (n > 0) {
@@ -461,6 +498,43 @@ public interface VirtualFileSystem {
         EITHER
     }
 
+    /**
+     * The type of file content.
+     *
+     * @since 0.28
+     */
+    public enum ContentType {
+        /**
+         * Region of a file, which is backed by data.
+         */
+        DATA,
+
+        /**
+         * Region of a file, which is not backed by data and reads as zeros.
+         */
+        HOLE
+    }
+
+    /**
+     * Expected access pattern of a file, similar to the advice of {@code posix_fadvise(2)}.
+     * The hints are listed in the order of the corresponding NFSv4.2 {@code IO_ADVISE4} bits.
+     *
+     * @since 0.28
+     */
+    public enum IoHint {
+        NORMAL,
+        SEQUENTIAL,
+        SEQUENTIAL_BACKWARDS,
+        RANDOM,
+        WILLNEED,
+        WILLNEED_OPPORTUNISTIC,
+        DONTNEED,
+        NOREUSE,
+        READ,
+        WRITE,
+        INIT_PROXIMITY
+    }
+
     /**
      * Get an Extended Attribute of a inode.
      * @param inode file system object.
@@ -522,4 +596,220 @@ public interface VirtualFileSystem {
     default CompletableFuture<Long> copyFileRange(Inode src, long srcPos, Inode dst, long dstPos, long len) {
         return CompletableFuture.failedFuture(new NotSuppException());
     }
+
+    /*
+     * Asynchronous I/O.
+     *
+     * The methods below allow a file system to complete requests without
+     * blocking the calling thread. The default implementations call the
+     * corresponding blocking method and return an already completed future,
+     * thus existing implementations keep working unchanged. On failure the
+     * returned future completes exceptionally with the same exception the
+     * blocking method would throw.
+     */
+
+    /**
+     * Asynchronous version of {@link #read(Inode, ByteBuffer, long)}. The
+     * caller must not access {@code data} until the returned future is completed.
+     *
+     * @param inode inode of the file to read from.
+     * @param data buffer to read into.
+     * @param offset file's position to read from.
+     * @return a {@link CompletableFuture} with number of bytes read from the
+     * file, possibly zero, or -1 if EOF is reached.
+     * @since 0.28
+     */
+    @Beta
+    default CompletableFuture<Integer> readAsync(Inode inode, ByteBuffer data, long offset) {
+        return CompletableFutures.completeWith(() -> read(inode, data, offset));
+    }
+
+    /**
+     * Asynchronous version of {@link #write(Inode, ByteBuffer, long, StabilityLevel)}.
+     * The content of {@code data} is guaranteed to be valid only until this
+     * method returns. Implementations which complete the write after that
+     * must copy the data.
+     *
+     * @param inode inode of the file to write.
+     * @param data data to be written.
+     * @param offset the file position to begin writing at.
+     * @param stabilityLevel data stability level.
+     * @return a {@link CompletableFuture} with the write result.
+     * @since 0.28
+     */
+    @Beta
+    default CompletableFuture<WriteResult> writeAsync(Inode inode, ByteBuffer data, long offset, StabilityLevel stabilityLevel) {
+        return CompletableFutures.completeWith(() -> write(inode, data, offset, stabilityLevel));
+    }
+
+    /**
+     * Asynchronous version of {@link #getattr(Inode)}.
+     *
+     * @param inode inode of the file system object.
+     * @return a {@link CompletableFuture} with file's attributes.
+     * @since 0.28
+     */
+    @Beta
+    default CompletableFuture<Stat> getattrAsync(Inode inode) {
+        return CompletableFutures.completeWith(() -> getattr(inode));
+    }
+
+    /**
+     * Asynchronous version of {@link #lookup(Inode, String)}.
+     *
+     * @param parent parent directory's inode.
+     * @param name object name.
+     * @return a {@link CompletableFuture} with inode of the requested object.
+     * @since 0.28
+     */
+    @Beta
+    default CompletableFuture<Inode> lookupAsync(Inode parent, String name) {
+        return CompletableFutures.completeWith(() -> lookup(parent, name));
+    }
+
+    /**
+     * Asynchronous version of {@link #commit(Inode, long, int)}.
+     *
+     * @param inode inode of the file to commit.
+     * @param offset the file position to start commit at.
+     * @param count number of bytes to commit.
+     * @return a {@link CompletableFuture} which completes when data is committed.
+     * @since 0.28
+     */
+    @Beta
+    default CompletableFuture<Void> commitAsync(Inode inode, long offset, int count) {
+        return CompletableFutures.completeWith(() -> {
+            commit(inode, offset, count);
+            return null;
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link #listPage(Inode, byte[], long, int)}.
+     * Used to prefetch the next page of a directory listing.
+     *
+     * @param inode inode of the directory to list.
+     * @param verifier opaque verifier to identify {@code snapshot} to list.
+     * @param cookie a logical offset in the listing.
+     * @param maxEntries maximal number of entries to return.
+     * @return a {@link CompletableFuture} with a page of directory listing.
+     * @since 0.28
+     */
+    @Beta
+    default CompletableFuture<DirectoryStream> listPageAsync(Inode inode, byte[] verifier, long cookie, int maxEntries) {
+        return CompletableFutures.completeWith(() -> listPage(inode, verifier, cookie, maxEntries));
+    }
+
+    /**
+     * Register a listener to be notified about changes made to the file system
+     * objects by-passing this file system. The default implementation doesn't
+     * publish any notifications.
+     *
+     * @param listener the listener to register.
+     * @since 0.28
+     */
+    default void addChangeListener(FileSystemChangeListener listener) {
+        // NOP
+    }
+
+    /**
+     * Unregister a listener previously registered with
+     * {@link #addChangeListener(FileSystemChangeListener)}.
+     *
+     * @param listener the listener to unregister.
+     * @since 0.28
+     */
+    default void removeChangeListener(FileSystemChangeListener listener) {
+        // NOP
+    }
+
+    /**
+     * Find the next region of a file with the given content type, similar to
+     * {@code lseek(2)} with {@code SEEK_DATA} or {@code SEEK_HOLE}. The end of
+     * file is treated as an implicit hole. Thus, if there is no data after the
+     * given offset, the file size is returned. The default implementation
+     * treats the whole file as data.
+     *
+     * @param inode inode of the file.
+     * @param offset position in the file to start the search from.
+     * @param what the type of content to look for.
+     * @return the offset of the region, or file size, if no such region found.
+     * @throws NXioException if offset is beyond end of the file.
+     * @throws IOException
+     * @since 0.28
+     */
+    default long seek(Inode inode, long offset, ContentType what) throws IOException {
+        long size = getattr(inode).getSize();
+        if (offset >= size) {
+            throw new NXioException();
+        }
+        return what == ContentType.DATA ? offset : size;
+    }
+
+    /**
+     * Reserve space for the given range of a file, similar to {@code posix_fallocate(3)}.
+     * Subsequent writes into the range must not fail due to lack of space. If
+     * the range extends beyond the end of file, the file size is increased.
+     *
+     * @param inode inode of the file.
+     * @param offset start of the range.
+     * @param length length of the range.
+     * @throws IOException
+     * @since 0.28
+     */
+    default void allocate(Inode inode, long offset, long length) throws IOException {
+        throw new NotSuppException();
+    }
+
+    /**
+     * Release space of the given range of a file, similar to {@code fallocate(2)}
+     * with {@code FALLOC_FL_PUNCH_HOLE}. The range reads as zeros afterwards.
+     * The file size is not changed.
+     *
+     * @param inode inode of the file.
+     * @param offset start of the range.
+     * @param length length of the range.
+     * @throws IOException
+     * @since 0.28
+     */
+    default void deallocate(Inode inode, long offset, long length) throws IOException {
+        throw new NotSuppException();
+    }
+
+    /**
+     * Clone a range of one file into another file, similar to {@code ioctl(2)}
+     * with {@code FICLONERANGE}. Unlike {@link #copyFileRange}, the data blocks
+     * are shared between the files until either of them is modified, thus the
+     * operation completes in constant time. If the destination range extends
+     * beyond the end of file, the destination file size is increased.
+     *
+     * @param src inode of the source file.
+     * @param srcOff starting position in the source file.
+     * @param dst inode of the destination file.
+     * @param dstOff starting position in the destination file.
+     * @param len number of bytes to clone, zero means up to the end of the source file.
+     * @throws NotSuppException if the file system can't clone files.
+     * @throws IOException
+     * @since 0.28
+     */
+    default void clone(Inode src, long srcOff, Inode dst, long dstOff, long len) throws IOException {
+        throw new NotSuppException();
+    }
+
+    /**
+     * Advise the file system about the expected access pattern of the given
+     * range of a file. The hints are advisory only, thus file systems are free
+     * to ignore any of them. The default implementation ignores all hints.
+     *
+     * @param inode inode of the file.
+     * @param offset start of the range.
+     * @param length length of the range, zero means up to the end of file.
+     * @param hints expected access pattern.
+     * @return the hints the file system acts upon.
+     * @throws IOException
+     * @since 0.28
+     */
+    default Set<IoHint> ioAdvise(Inode inode, long offset, long length, Set<IoHint> hints) throws IOException {
+        return EnumSet.noneOf(IoHint.class);
+    }
 }
@@ -0,0 +1,98 @@
+package org.dcache.nfs.util;
+
+import java.nio.ByteBuffer;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BufferPoolTest {
+
+    private BufferPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new BufferPool("test-pool", 64 * 1024, 128 * 1024);
+    }
+
+    @Test
+    public void testLimitMatchesRequestedSize() {
+        ByteBuffer b = pool.acquire(5000);
+        assertEquals(0, b.position());
+        assertEquals(5000, b.limit());
+        assertEquals(8192, b.capacity());
+        assertFalse(b.isDirect());
+    }
+
+    @Test
+    public void testReuseReleasedBuffer() {
+        ByteBuffer b = pool.acquire(5000);
+        b.put((byte) 1);
+        pool.release(b);
+
+        ByteBuffer b2 = pool.acquire(8000);
+        assertSame(b, b2);
+        assertEquals(0, b2.position());
+        assertEquals(8000, b2.limit());
+        assertEquals(1, pool.getHitCount());
+        assertEquals(1, pool.getMissCount());
+    }
+
+    @Test
+    public void testDirectAndHeapPooledSeparately() {
+        ByteBuffer heap = pool.acquire(4096);
+        pool.release(heap);
+
+        ByteBuffer direct = pool.acquireDirect(4096);
+        assertTrue(direct.isDirect());
+        assertEquals(4096, pool.getPooledHeapBytes());
+
+        pool.release(direct);
+        assertEquals(4096, pool.getPooledDirectBytes());
+    }
+
+    @Test
+    public void testOversizedNotPooled() {
+        ByteBuffer b = pool.acquire(100 * 1024);
+        assertEquals(100 * 1024, b.capacity());
+        assertEquals(1, pool.getOversizedCount());
+
+        pool.release(b);
+        assertEquals(1, pool.getDropCount());
+        assertEquals(0, pool.getPooledHeapBytes());
+    }
+
+    @Test
+    public void testPooledMemoryBounded() {
+        ByteBuffer b1 = pool.acquire(64 * 1024);
+        ByteBuffer b2 = pool.acquire(64 * 1024);
+        ByteBuffer b3 = pool.acquire(64 * 1024);
+
+        pool.release(b1);
+        pool.release(b2);
+        pool.release(b3);
+
+        assertEquals(128 * 1024, pool.getPooledHeapBytes());
+        assertEquals(1, pool.getDropCount());
+    }
+
+    @Test
+    public void testForeignBufferIgnored() {
+        pool.release(ByteBuffer.allocate(5000));
+        assertEquals(1, pool.getDropCount());
+        assertEquals(0, pool.getPooledHeapBytes());
+    }
+
+    @Test
+    public void testClear() {
+        pool.release(pool.acquire(4096));
+        pool.clear();
+        assertEquals(0, pool.getPooledHeapBytes());
+        assertNotSame(pool.acquire(4096), pool.acquire(4096));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooSmallMaxBufferSize() {
+        new BufferPool("test-pool-invalid", 1024, 0);
+    }
+}
@@ -21,6 +21,9 @@ package org.dcache.nfs.util;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.MissingResourceException;
 import java.util.concurrent.TimeUnit;
 import org.junit.Before;
 import org.junit.Test;
@@ -127,4 +130,68 @@ public class CacheTest {
         assertTrue("Not all entries are removed", _cache.entries().isEmpty());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCleanUpNotifiesExpired() {
+        List<String> expired = new ArrayList<>();
+        Cache<String, String> cache = new Cache<>("test cache", 10, Duration.ofSeconds(5),
+                Duration.ofSeconds(5),
+                new NopCacheEventListener<>() {
+                    @Override
+                    public void notifyExpired(Cache<String, String> cache, String v) {
+                        expired.add(v);
+                    }
+                }, _clock);
+
+        cache.put("key1", "value1");
+        cache.put("key2", "value2", Duration.ofSeconds(10), Duration.ofSeconds(10));
+        _clock.advance(6, TimeUnit.SECONDS);
+        cache.cleanUp();
+
+        assertEquals(List.of("value1"), expired);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testAccessExtendsIdleTime() {
+        _cache.put("key1", "value1", Duration.ofMinutes(5), Duration.ofSeconds(5));
+
+        _clock.advance(3, TimeUnit.SECONDS);
+        assertNotNull(_cache.get("key1"));
+
+        _clock.advance(3, TimeUnit.SECONDS);
+        _cache.cleanUp();
+        assertEquals("Accessed entry expired", 1, _cache.size());
+
+        _clock.advance(6, TimeUnit.SECONDS);
+        _cache.cleanUp();
+        assertEquals("Idle entry not expired", 0, _cache.size());
+    }
+
+    @Test
+    public void testCleanUpAfterUpdate() {
+        _cache.put("key1", "value1", Duration.ofSeconds(1), Duration.ofSeconds(1));
+        _cache.put("key1", "value2");
+        _clock.advance(2, TimeUnit.SECONDS);
+        _cache.cleanUp();
+
+        assertEquals("value2", _cache.get("key1"));
+    }
+
+    @Test(expected = MissingResourceException.class)
+    public void testCacheLimit() {
+        for (int i = 0; i < 11; i++) {
+            _cache.put("key" + i, "value" + i);
+        }
+    }
+
+    @Test
+    public void testUpdateAtCacheLimit() {
+        for (int i = 0; i < 10; i++) {
+            _cache.put("key" + i, "value" + i);
+        }
+        _cache.put("key0", "value");
+        _cache.remove("key1");
+        _cache.put("key10", "value10");
+        assertEquals(10, _cache.size());
+    }
+}
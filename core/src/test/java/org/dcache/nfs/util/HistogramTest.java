@@ -0,0 +1,73 @@
+package org.dcache.nfs.util;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HistogramTest {
+
+    private Histogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new Histogram();
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getValueAtPercentile(99.0));
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(10, histogram.getMax());
+        assertEquals(5.5, histogram.getMean(), 0.0);
+        assertEquals(5, histogram.getValueAtPercentile(50.0));
+        assertEquals(10, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testPercentileWithinRelativeError() {
+        for (long i = 1; i <= 1_000_000; i++) {
+            histogram.record(i * 1000);
+        }
+
+        long p50 = histogram.getValueAtPercentile(50.0);
+        long p99 = histogram.getValueAtPercentile(99.0);
+        assertEquals(500_000_000.0, p50, 500_000_000.0 * 0.07);
+        assertEquals(990_000_000.0, p99, 990_000_000.0 * 0.07);
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long v : new long[]{0, 1, 15, 16, 17, 31, 32, 33, 1023, 1024, 123456789, Histogram.MAX_VALUE}) {
+            int index = Histogram.indexOf(v);
+            assertTrue("value above bucket: " + v, v <= Histogram.highestValueOf(index));
+            if (index > 0) {
+                assertTrue("value in lower bucket: " + v, v > Histogram.highestValueOf(index - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeValuesAreCapped() {
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(1, histogram.getCount());
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(50.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+        histogram.getValueAtPercentile(101.0);
+    }
+}
@@ -0,0 +1,59 @@
+package org.dcache.nfs.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.dcache.oncrpc4j.rpc.OncRpcException;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.mockito.Mockito.*;
+
+public class RequestExecutorsTest {
+
+    private RpcCall call;
+
+    @Before
+    public void setUp() {
+        call = mock(RpcCall.class);
+    }
+
+    @Test
+    public void testDispatchOnExecutor() throws Exception {
+        Executor executor = mock(Executor.class);
+        doAnswer(i -> {
+            i.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(executor).execute(any());
+
+        RequestExecutors.dispatch(executor, call, c -> c.reply(null));
+
+        verify(executor).execute(any());
+        verify(call).reply(null);
+    }
+
+    @Test
+    public void testGarbageArgs() {
+        RequestExecutors.dispatch(Runnable::run, call, c -> {
+            throw new OncRpcException("bad xdr");
+        });
+        verify(call).failRpcGarbage();
+    }
+
+    @Test
+    public void testRuntimeException() {
+        RequestExecutors.dispatch(Runnable::run, call, c -> {
+            throw new IllegalStateException();
+        });
+        verify(call).failRpcSystem();
+    }
+
+    @Test
+    public void testRejectedRequest() {
+        RequestExecutors.dispatch(r -> {
+            throw new RejectedExecutionException();
+        }, call, c -> c.reply(null));
+        verify(call).failRpcSystem();
+        verify(call, never()).reply(any());
+    }
+}
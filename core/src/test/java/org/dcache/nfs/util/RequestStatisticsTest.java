@@ -0,0 +1,63 @@
+package org.dcache.nfs.util;
+
+import java.util.Map;
+import org.dcache.nfs.nfsstat;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RequestStatisticsTest {
+
+    private RequestStatistics statistics;
+
+    @Before
+    public void setUp() {
+        statistics = new RequestStatistics("test-stats", 4, 99, op -> "OP" + op);
+    }
+
+    @Test
+    public void testCountRequestsAndErrors() {
+        statistics.record(1, nfsstat.NFS_OK, 1000);
+        statistics.record(1, nfsstat.NFSERR_NOENT, 2000);
+        statistics.record(2, nfsstat.NFSERR_NOENT, 3000);
+
+        assertEquals(Map.of("OP1", 2L, "OP2", 1L), statistics.getRequestCount());
+        assertEquals(Map.of("OP1", 1L, "OP2", 1L), statistics.getErrorCount());
+        assertEquals(Map.of(nfsstat.toString(nfsstat.NFSERR_NOENT), 2L), statistics.getErrorCountByStatus());
+    }
+
+    @Test
+    public void testLatency() {
+        statistics.record(1, nfsstat.NFS_OK, 1_000_000);
+        statistics.record(1, nfsstat.NFS_OK, 3_000_000);
+
+        assertEquals(2, statistics.getLatency(1).getCount());
+        assertNull(statistics.getLatency(2));
+        assertEquals(Map.of("OP1", 2000L), statistics.getMeanLatencyMicros());
+        assertEquals(Map.of("OP1", 3000L), statistics.getMaxLatencyMicros());
+    }
+
+    @Test
+    public void testUnknownOperationsRecordedAsIllegal() {
+        statistics.record(4, nfsstat.NFS_OK, 1000);
+        statistics.record(12345, nfsstat.NFS_OK, 1000);
+        statistics.record(-1, nfsstat.NFS_OK, 1000);
+
+        assertEquals(Map.of("OP99", 3L), statistics.getRequestCount());
+        assertEquals(3, statistics.getLatency(99).getCount());
+    }
+
+    @Test
+    public void testCompoundAndBytes() {
+        statistics.recordCompound(3);
+        statistics.recordCompound(5);
+        statistics.addBytesRead(100);
+        statistics.addBytesWritten(200);
+
+        assertEquals(2, statistics.getCompoundLength().getCount());
+        assertEquals(5, statistics.getCompoundLength().getMax());
+        assertEquals(100, statistics.getBytesRead());
+        assertEquals(200, statistics.getBytesWritten());
+    }
+}
@@ -0,0 +1,150 @@
+package org.dcache.nfs.util;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TimerWheelTest {
+
+    private TimerWheel<TestNode> wheel;
+    private List<TestNode> expired;
+    private int inspected;
+
+    @Before
+    public void setUp() {
+        wheel = new TimerWheel<>(0);
+        expired = new ArrayList<>();
+        inspected = 0;
+    }
+
+    @Test
+    public void shouldExpireOnlyDueNodes() {
+        TestNode node1 = new TestNode(500);
+        TestNode node2 = new TestNode(5000);
+        wheel.schedule(node1, 0);
+        wheel.schedule(node2, 0);
+
+        advance(1000);
+
+        assertEquals(List.of(node1), expired);
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    public void shouldNotExpireBeforeDeadline() {
+        TestNode node = new TestNode(700);
+        wheel.schedule(node, 0);
+
+        advance(600);
+        assertTrue(expired.isEmpty());
+
+        advance(701);
+        assertEquals(List.of(node), expired);
+    }
+
+    @Test
+    public void shouldCascadeFromHigherLevels() {
+        long deadline = Duration.ofHours(2).toMillis();
+        TestNode node = new TestNode(deadline);
+        wheel.schedule(node, 0);
+
+        for (long now = 0; now <= deadline + 30_000; now += 30_000) {
+            advance(now);
+            if (now <= deadline) {
+                assertTrue("expired too early at " + now, expired.isEmpty());
+            }
+        }
+        assertEquals(List.of(node), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldExpireOnLargeTimeJump() {
+        TestNode node1 = new TestNode(Duration.ofMinutes(5).toMillis());
+        TestNode node2 = new TestNode(Duration.ofDays(10).toMillis());
+        wheel.schedule(node1, 0);
+        wheel.schedule(node2, 0);
+
+        advance(Duration.ofDays(30).toMillis());
+
+        assertEquals(2, expired.size());
+    }
+
+    @Test
+    public void shouldRescheduleExtendedNodes() {
+        TestNode node = new TestNode(500);
+        wheel.schedule(node, 0);
+
+        node.deadline = 5000;
+        advance(1000);
+        assertTrue(expired.isEmpty());
+        assertEquals(1, wheel.size());
+
+        advance(6000);
+        assertEquals(List.of(node), expired);
+    }
+
+    @Test
+    public void shouldIgnoreRemovedNodes() {
+        TestNode node = new TestNode(500);
+        wheel.schedule(node, 0);
+        wheel.remove(node);
+
+        advance(1000);
+
+        assertTrue(expired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldNotScheduleRemovedNode() {
+        TestNode node = new TestNode(500);
+        wheel.remove(node);
+        wheel.schedule(node, 0);
+
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void shouldInspectOnlyDueBuckets() {
+        for (int i = 0; i < 10_000; i++) {
+            wheel.schedule(new TestNode(Duration.ofHours(1).toMillis() + i), 0);
+        }
+        TestNode node = new TestNode(500);
+        wheel.schedule(node, 0);
+
+        advance(Duration.ofSeconds(10).toMillis());
+
+        assertEquals(List.of(node), expired);
+        assertEquals(1, inspected);
+    }
+
+    private void advance(long now) {
+        wheel.advance(now, n -> {
+            inspected++;
+            if (n.deadline < now) {
+                expired.add(n);
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private static class TestNode extends TimerWheel.Node {
+
+        private long deadline;
+
+        TestNode(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        long expiresAt() {
+            return deadline;
+        }
+    }
+}
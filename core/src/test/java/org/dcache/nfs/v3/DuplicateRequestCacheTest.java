@@ -0,0 +1,173 @@
+package org.dcache.nfs.v3;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.dcache.nfs.v3.xdr.dirpath;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.dcache.testutils.RpcCallBuilder;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DuplicateRequestCacheTest {
+
+    private DuplicateRequestCache drc;
+    private RpcCall call;
+
+    @Before
+    public void setUp() {
+        drc = new DuplicateRequestCache("test-drc", 1024 * 1024, 1, TimeUnit.MINUTES);
+        call = spy(new RpcCallBuilder()
+                .from("1.2.3.4", "somehost.acme.com", 42)
+                .nfs3()
+                .noAuth()
+                .build());
+        when(call.getXid()).thenReturn(17);
+    }
+
+    @Test
+    public void testRetransmitGetsCachedReply() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        XdrAble reply = new dirpath("/reply");
+
+        for (int i = 0; i < 2; i++) {
+            drc.replyOnce(call, new dirpath("/foo"), () -> {
+                executions.incrementAndGet();
+                return CompletableFuture.completedFuture(reply);
+            });
+        }
+
+        assertEquals(1, executions.get());
+        ArgumentCaptor<XdrAble> replies = ArgumentCaptor.forClass(XdrAble.class);
+        verify(call, times(2)).reply(replies.capture());
+        for (XdrAble sent : replies.getAllValues()) {
+            assertEquals("/reply", decode(sent).value);
+        }
+        assertEquals(1, drc.getHitCount());
+        assertEquals(1, drc.getMissCount());
+    }
+
+    @Test
+    public void testRequestInProgressNotEvicted() throws Exception {
+        drc = new DuplicateRequestCache("test-drc-in-progress", 1024, 1, TimeUnit.MINUTES);
+        CompletableFuture<XdrAble> reply = new CompletableFuture<>();
+        drc.replyOnce(call, new dirpath("/foo"), () -> reply);
+
+        for (int i = 0; i < 64; i++) {
+            when(call.getXid()).thenReturn(1000 + i);
+            drc.replyOnce(call, new dirpath("/foo"),
+                    () -> CompletableFuture.completedFuture(new dirpath("/reply")));
+        }
+        assertTrue(drc.getEvictionCount() > 0);
+
+        when(call.getXid()).thenReturn(17);
+        drc.replyOnce(call, new dirpath("/foo"), () -> {
+            throw new AssertionError("retransmit executed");
+        });
+        assertEquals(1, drc.getInProgressDropCount());
+    }
+
+    @Test
+    public void testRetransmitInProgressDropped() throws Exception {
+        CompletableFuture<XdrAble> reply = new CompletableFuture<>();
+        drc.replyOnce(call, new dirpath("/foo"), () -> reply);
+        drc.replyOnce(call, new dirpath("/foo"), () -> {
+            throw new AssertionError("retransmit executed");
+        });
+
+        verify(call, never()).reply(any());
+        assertEquals(1, drc.getInProgressDropCount());
+
+        reply.complete(new dirpath("/reply"));
+        verify(call).reply(any());
+    }
+
+    @Test
+    public void testDifferentArgumentsExecuted() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+
+        drc.replyOnce(call, new dirpath("/foo"), () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(new dirpath("/reply"));
+        });
+        drc.replyOnce(call, new dirpath("/bar"), () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(new dirpath("/reply"));
+        });
+
+        assertEquals(2, executions.get());
+        assertEquals(0, drc.getHitCount());
+    }
+
+    @Test
+    public void testFailedRequestNotCached() throws Exception {
+        drc.replyOnce(call, new dirpath("/foo"),
+                () -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+        AtomicInteger executions = new AtomicInteger();
+        drc.replyOnce(call, new dirpath("/foo"), () -> {
+            executions.incrementAndGet();
+            return CompletableFuture.completedFuture(new dirpath("/reply"));
+        });
+
+        assertEquals(1, executions.get());
+        assertEquals(1, drc.getSize());
+    }
+
+    @Test
+    public void testFailedRequestRepliedWithError() throws Exception {
+        drc.replyOnce(call, new dirpath("/foo"),
+                () -> CompletableFuture.failedFuture(new IllegalStateException()));
+
+        verify(call).failRpcSystem();
+        verify(call, never()).reply(any());
+    }
+
+    @Test
+    public void testRetransmitByChecksumGetsCachedReply() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            drc.replyOnce(call, 42L, () -> {
+                executions.incrementAndGet();
+                return CompletableFuture.completedFuture(new dirpath("/reply"));
+            });
+        }
+
+        assertEquals(1, executions.get());
+        assertEquals(1, drc.getHitCount());
+    }
+
+    private static dirpath decode(XdrAble reply) throws Exception {
+        try (Xdr xdr = new Xdr(1024)) {
+            xdr.beginEncoding();
+            reply.xdrEncode(xdr);
+            xdr.endEncoding();
+            try (Xdr in = new Xdr(xdr.getBytes())) {
+                in.beginDecoding();
+                dirpath path = new dirpath();
+                path.xdrDecode(in);
+                return path;
+            }
+        }
+    }
+
+    @Test
+    public void testEvictionByMemoryLimit() throws Exception {
+        drc = new DuplicateRequestCache("test-drc-small", 1024, 1, TimeUnit.MINUTES);
+        for (int i = 0; i < 64; i++) {
+            when(call.getXid()).thenReturn(i);
+            drc.replyOnce(call, new dirpath("/foo"),
+                    () -> CompletableFuture.completedFuture(new dirpath("/reply")));
+        }
+
+        assertTrue(drc.getSize() < 64);
+        assertTrue(drc.getEvictionCount() > 0);
+    }
+}
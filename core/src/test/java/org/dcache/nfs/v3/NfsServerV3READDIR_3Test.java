@@ -58,6 +58,9 @@ public class NfsServerV3READDIR_3Test {
         dirStat.setIno(1);
         dirStat.setSize(512);
         vfs = mock(VirtualFileSystem.class); // the vfs serving it
+        // paged listing on top of the complete listing, like the default implementation does
+        when(vfs.listPage(any(), any(), anyLong(), anyInt())).thenAnswer(i ->
+                vfs.list(i.getArgument(0), i.getArgument(1), i.<Long>getArgument(2)).head(i.getArgument(3)));
         when(vfs.getattr(eq(dirInode))).thenReturn(dirStat);
         ExportFile exportFile = new ExportFile(this.getClass().getResource("simpleExports").toURI()); // same package as us
         nfsServer = new NfsServerV3(exportFile, vfs);
@@ -0,0 +1,144 @@
+package org.dcache.nfs.v3;
+
+import java.nio.ByteBuffer;
+
+import org.dcache.nfs.ExportFile;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.status.NfsIoException;
+import org.dcache.nfs.util.BufferPool;
+import org.dcache.nfs.v3.xdr.READ3args;
+import org.dcache.nfs.v3.xdr.nfs3_prot;
+import org.dcache.nfs.v3.xdr.READ3res;
+import org.dcache.nfs.vfs.FileHandle;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.testutils.AssertXdr;
+import org.dcache.testutils.NfsV3Ops;
+import org.dcache.testutils.RpcCallBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.mockito.Mockito.*;
+
+public class NfsServerV3READ_3Test {
+
+    private FileHandle fileHandle;
+    private Inode fileInode;
+    private Stat fileStat;
+    private VirtualFileSystem vfs;
+    private NfsServerV3 nfsServer;
+
+    @Before
+    public void setup() throws Exception {
+        fileHandle = new FileHandle(0, 1, 0, new byte[] { 0, 0, 0, 2 });
+        fileInode = new Inode(fileHandle);
+        fileStat = new Stat();
+        //noinspection OctalInteger
+        fileStat.setMode(Stat.S_IFREG | 0644);
+        fileStat.setMTime(System.currentTimeMillis());
+        fileStat.setATime(System.currentTimeMillis());
+        fileStat.setCTime(System.currentTimeMillis());
+        fileStat.setGeneration(1);
+        fileStat.setNlink(1);
+        fileStat.setUid(1);
+        fileStat.setGid(2);
+        fileStat.setDev(1);
+        fileStat.setIno(2);
+        fileStat.setSize(5);
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        when(vfs.getattr(eq(fileInode))).thenReturn(fileStat);
+        ExportFile exportFile = new ExportFile(this.getClass().getResource("simpleExports").toURI());
+        nfsServer = new NfsServerV3(exportFile, vfs);
+    }
+
+    @Test
+    public void testShortReadReturnsOnlyAvailableData() throws Exception {
+
+        doAnswer(invocation -> {
+            ByteBuffer buf = invocation.getArgument(1);
+            buf.put(new byte[] { 1, 2, 3, 4, 5 });
+            return 5;
+        }).when(vfs).read(eq(fileInode), any(ByteBuffer.class), eq(0L));
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        READ3args args = NfsV3Ops.read(fileHandle, 0, 4096);
+        READ3res result = nfsServer.NFSPROC3_READ_3(call, args);
+
+        assertEquals(nfsstat.NFS_OK, result.status);
+        assertEquals(5, result.resok.count.value.value);
+        assertEquals(5, result.resok.data.remaining());
+        assertTrue(result.resok.eof);
+        AssertXdr.assertXdrEncodable(result);
+    }
+
+    @Test
+    public void testReadNotAtEof() throws Exception {
+
+        doAnswer(invocation -> {
+            ByteBuffer buf = invocation.getArgument(1);
+            buf.put(new byte[] { 1, 2 });
+            return 2;
+        }).when(vfs).read(eq(fileInode), any(ByteBuffer.class), eq(0L));
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        READ3args args = NfsV3Ops.read(fileHandle, 0, 2);
+        READ3res result = nfsServer.NFSPROC3_READ_3(call, args);
+
+        assertEquals(nfsstat.NFS_OK, result.status);
+        assertEquals(2, result.resok.data.remaining());
+        assertFalse(result.resok.eof);
+    }
+
+    @Test
+    public void testFailedReadReleasesBuffer() throws Exception {
+
+        BufferPool bufferPool = new BufferPool("nfs-v3-read-test");
+        ExportFile exportFile = new ExportFile(this.getClass().getResource("simpleExports").toURI());
+        nfsServer = new NfsServerV3(exportFile, vfs, null, bufferPool);
+
+        doThrow(new NfsIoException("disk on fire")).when(vfs).read(eq(fileInode), any(ByteBuffer.class), eq(0L));
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        READ3args args = NfsV3Ops.read(fileHandle, 0, 4096);
+        READ3res result = nfsServer.NFSPROC3_READ_3(call, args);
+
+        assertEquals(nfsstat.NFSERR_IO, result.status);
+        assertNull(result.resok);
+        assertEquals(1, bufferPool.getReleaseCount());
+    }
+
+    @Test
+    public void testFailedReplyReportedToClient() throws Exception {
+
+        BufferPool bufferPool = new BufferPool("nfs-v3-read-reply-test");
+        ExportFile exportFile = new ExportFile(this.getClass().getResource("simpleExports").toURI());
+        nfsServer = new NfsServerV3(exportFile, vfs, null, bufferPool);
+
+        doAnswer(invocation -> {
+            ByteBuffer buf = invocation.getArgument(1);
+            buf.put(new byte[] { 1, 2, 3, 4, 5 });
+            return 5;
+        }).when(vfs).read(eq(fileInode), any(ByteBuffer.class), eq(0L));
+
+        READ3args args = NfsV3Ops.read(fileHandle, 0, 4096);
+        RpcCall call = spy(new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build());
+        when(call.getProcedure()).thenReturn(nfs3_prot.NFSPROC3_READ_3);
+        doAnswer(invocation -> {
+            READ3args a = invocation.getArgument(0);
+            a.file = args.file;
+            a.offset = args.offset;
+            a.count = args.count;
+            return null;
+        }).when(call).retrieveCall(any());
+        doThrow(new IllegalStateException("connection closed")).when(call).reply(any());
+
+        nfsServer.dispatchOncRpcCall(call);
+
+        verify(call).failRpcSystem();
+        assertEquals(1, bufferPool.getReleaseCount());
+    }
+}
@@ -0,0 +1,85 @@
+package org.dcache.nfs.v3;
+
+import java.nio.ByteBuffer;
+
+import org.dcache.nfs.ExportFile;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v3.xdr.WRITE3args;
+import org.dcache.nfs.v3.xdr.WRITE3res;
+import org.dcache.nfs.v3.xdr.stable_how;
+import org.dcache.nfs.vfs.FileHandle;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.rpc.RpcCall;
+import org.dcache.testutils.AssertXdr;
+import org.dcache.testutils.NfsV3Ops;
+import org.dcache.testutils.RpcCallBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.mockito.Mockito.*;
+
+public class NfsServerV3WRITE_3Test {
+
+    private FileHandle fileHandle;
+    private Inode fileInode;
+    private Stat fileStat;
+    private VirtualFileSystem vfs;
+    private NfsServerV3 nfsServer;
+
+    @Before
+    public void setup() throws Exception {
+        fileHandle = new FileHandle(0, 1, 0, new byte[] { 0, 0, 0, 2 });
+        fileInode = new Inode(fileHandle);
+        fileStat = new Stat();
+        //noinspection OctalInteger
+        fileStat.setMode(Stat.S_IFREG | 0666);
+        fileStat.setMTime(System.currentTimeMillis());
+        fileStat.setATime(System.currentTimeMillis());
+        fileStat.setCTime(System.currentTimeMillis());
+        fileStat.setGeneration(1);
+        fileStat.setNlink(1);
+        fileStat.setUid(1);
+        fileStat.setGid(2);
+        fileStat.setDev(1);
+        fileStat.setIno(2);
+        fileStat.setSize(0);
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        when(vfs.getattr(eq(fileInode))).thenReturn(fileStat);
+        ExportFile exportFile = new ExportFile(this.getClass().getResource("simpleExports").toURI());
+        nfsServer = new NfsServerV3(exportFile, vfs);
+    }
+
+    @Test
+    public void testWritePassesOnlyCountBytes() throws Exception {
+
+        doAnswer(invocation -> {
+            ByteBuffer buf = invocation.getArgument(1);
+            int n = buf.remaining();
+            buf.position(buf.limit());
+            return new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, n);
+        }).when(vfs).write(eq(fileInode), any(ByteBuffer.class), eq(0L), any());
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        WRITE3args args = NfsV3Ops.write(fileHandle, 0, 3, stable_how.UNSTABLE, new byte[] { 1, 2, 3, 4, 5 });
+        WRITE3res result = nfsServer.NFSPROC3_WRITE_3(call, args);
+
+        assertEquals(nfsstat.NFS_OK, result.status);
+        assertEquals(3, result.resok.count.value.value);
+        AssertXdr.assertXdrEncodable(result);
+    }
+
+    @Test
+    public void testWriteCountExceedsData() throws Exception {
+
+        RpcCall call = new RpcCallBuilder().from("1.2.3.4", "someHost.acme.com", 42).nfs3().noAuth().build();
+        WRITE3args args = NfsV3Ops.write(fileHandle, 0, 10, stable_how.UNSTABLE, new byte[] { 1, 2, 3 });
+        WRITE3res result = nfsServer.NFSPROC3_WRITE_3(call, args);
+
+        assertEquals(nfsstat.NFSERR_INVAL, result.status);
+        verify(vfs, never()).write(any(), any(ByteBuffer.class), anyLong(), any());
+    }
+}
@@ -0,0 +1,196 @@
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.util.Optional;
+import org.dcache.nfs.status.InvalException;
+import org.dcache.nfs.v4.xdr.attrlist4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.fattr4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.vfs.FileHandle;
+import org.dcache.nfs.vfs.FsStat;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.dcache.oncrpc4j.xdr.XdrAble;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+public class AttributeEncoderTest {
+
+    private VirtualFileSystem vfs;
+    private NfsIdMapping idMapper;
+    private CompoundContext context;
+    private Inode inode;
+    private Stat stat;
+
+    @Before
+    public void setUp() throws IOException {
+
+        idMapper = mock(NfsIdMapping.class);
+        given(idMapper.uidToPrincipal(1)).willReturn("bob");
+        given(idMapper.gidToPrincipal(2)).willReturn("ŝtaff");
+
+        vfs = mock(VirtualFileSystem.class);
+        given(vfs.getIdMapper()).willReturn(idMapper);
+        given(vfs.getFsStat()).willReturn(new FsStat(1L << 40, 1000000, 1L << 30, 1000));
+
+        context = new CompoundContextBuilder()
+                .withFs(vfs)
+                .withMinorversion(1)
+                .withCall(generateRpcCall())
+                .build();
+
+        inode = new Inode(new FileHandle(0, 1, 0, new byte[]{0, 0, 0, 1}));
+
+        stat = new Stat();
+        stat.setMode(Stat.S_IFREG | 0644);
+        stat.setMTime(1_700_000_000_123L);
+        stat.setATime(1_700_000_001_456L);
+        stat.setCTime(1_700_000_002_789L);
+        stat.setGeneration(7);
+        stat.setNlink(1);
+        stat.setUid(1);
+        stat.setGid(2);
+        stat.setDev(1);
+        stat.setIno(42);
+        stat.setSize(8192);
+    }
+
+    @Test
+    public void testEncodesAsFattr2xdr() throws IOException {
+
+        bitmap4 request = bitmap4.of(
+                nfs4_prot.FATTR4_SUPPORTED_ATTRS,
+                nfs4_prot.FATTR4_TYPE,
+                nfs4_prot.FATTR4_FH_EXPIRE_TYPE,
+                nfs4_prot.FATTR4_CHANGE,
+                nfs4_prot.FATTR4_SIZE,
+                nfs4_prot.FATTR4_FSID,
+                nfs4_prot.FATTR4_RDATTR_ERROR,
+                nfs4_prot.FATTR4_FILEHANDLE,
+                nfs4_prot.FATTR4_ARCHIVE,
+                nfs4_prot.FATTR4_FILEID,
+                nfs4_prot.FATTR4_FILES_AVAIL,
+                nfs4_prot.FATTR4_FILES_FREE,
+                nfs4_prot.FATTR4_FILES_TOTAL,
+                nfs4_prot.FATTR4_MAXREAD,
+                nfs4_prot.FATTR4_MODE,
+                nfs4_prot.FATTR4_NUMLINKS,
+                nfs4_prot.FATTR4_OWNER,
+                nfs4_prot.FATTR4_OWNER_GROUP,
+                nfs4_prot.FATTR4_RAWDEV,
+                nfs4_prot.FATTR4_SPACE_AVAIL,
+                nfs4_prot.FATTR4_SPACE_FREE,
+                nfs4_prot.FATTR4_SPACE_TOTAL,
+                nfs4_prot.FATTR4_SPACE_USED,
+                nfs4_prot.FATTR4_TIME_ACCESS,
+                nfs4_prot.FATTR4_TIME_CREATE,
+                nfs4_prot.FATTR4_TIME_DELTA,
+                nfs4_prot.FATTR4_TIME_METADATA,
+                nfs4_prot.FATTR4_TIME_MODIFY,
+                nfs4_prot.FATTR4_MOUNTED_ON_FILEID,
+                nfs4_prot.FATTR4_FS_LAYOUT_TYPES, // no pnfs
+                nfs4_prot.FATTR4_SUPPATTR_EXCLCREAT);
+
+        fattr4 expected = encodeWithFattr2xdr(request);
+
+        try (AttributeEncoder.Session session = AttributeEncoder.of(request).newSession(vfs, context)) {
+            fattr4 attrs = session.encode(inode, stat);
+            assertEquals(expected.attrmask, attrs.attrmask);
+            assertArrayEquals(expected.attr_vals.value, attrs.attr_vals.value);
+        }
+    }
+
+    @Test
+    public void testSameEncoderForEqualRequests() {
+        AttributeEncoder encoder = AttributeEncoder.of(bitmap4.of(nfs4_prot.FATTR4_SIZE, nfs4_prot.FATTR4_MODE));
+        assertSame(encoder, AttributeEncoder.of(bitmap4.of(nfs4_prot.FATTR4_MODE, nfs4_prot.FATTR4_SIZE)));
+    }
+
+    @Test
+    public void testRequestNotUsedAsKey() throws IOException {
+        bitmap4 request = bitmap4.of(nfs4_prot.FATTR4_SIZE, nfs4_prot.FATTR4_OWNER_GROUP);
+        AttributeEncoder encoder = AttributeEncoder.of(request);
+
+        // client's arguments must not alter the cached encoder
+        request.set(nfs4_prot.FATTR4_TYPE);
+        assertNotSame(encoder, AttributeEncoder.of(request));
+        assertSame(encoder, AttributeEncoder.of(bitmap4.of(nfs4_prot.FATTR4_SIZE, nfs4_prot.FATTR4_OWNER_GROUP)));
+    }
+
+    @Test
+    public void testReplyBitmapNotShared() throws IOException {
+        bitmap4 request = bitmap4.of(nfs4_prot.FATTR4_SIZE);
+        try (AttributeEncoder.Session session = AttributeEncoder.of(request).newSession(vfs, context)) {
+            fattr4 first = session.encode(inode, stat);
+            fattr4 second = session.encode(inode, stat);
+            assertNotSame(first.attrmask.value, second.attrmask.value);
+        }
+    }
+
+    @Test
+    public void testFsStatFetchedOncePerSession() throws IOException {
+        bitmap4 request = bitmap4.of(nfs4_prot.FATTR4_SPACE_AVAIL, nfs4_prot.FATTR4_SPACE_FREE,
+                nfs4_prot.FATTR4_FILES_TOTAL);
+
+        try (AttributeEncoder.Session session = AttributeEncoder.of(request).newSession(vfs, context)) {
+            session.encode(inode, stat);
+            session.encode(inode, stat);
+        }
+        verify(vfs, times(1)).getFsStat();
+    }
+
+    @Test
+    public void testIdMappedOncePerSession() throws IOException {
+        bitmap4 request = bitmap4.of(nfs4_prot.FATTR4_OWNER, nfs4_prot.FATTR4_OWNER_GROUP);
+
+        try (AttributeEncoder.Session session = AttributeEncoder.of(request).newSession(vfs, context)) {
+            session.encode(inode, stat);
+            session.encode(inode, stat);
+        }
+        verify(idMapper, times(1)).uidToPrincipal(1);
+        verify(idMapper, times(1)).gidToPrincipal(2);
+    }
+
+    @Test(expected = InvalException.class)
+    public void testWriteOnlyAttribute() throws IOException {
+        bitmap4 request = bitmap4.of(nfs4_prot.FATTR4_SIZE, nfs4_prot.FATTR4_TIME_MODIFY_SET);
+
+        try (AttributeEncoder.Session session = AttributeEncoder.of(request).newSession(vfs, context)) {
+            session.encode(inode, stat);
+        }
+    }
+
+    /**
+     * Reference encoding, attribute by attribute.
+     */
+    private fattr4 encodeWithFattr2xdr(bitmap4 request) throws IOException {
+        bitmap4 processed = new bitmap4(new int[0]);
+        try (Xdr xdr = new Xdr(1024)) {
+            xdr.beginEncoding();
+            for (int attr : request) {
+                Optional<? extends XdrAble> value = OperationGETATTR.fattr2xdr(attr, vfs, inode, stat, context);
+                if (value.isPresent()) {
+                    value.get().xdrEncode(xdr);
+                    processed.set(attr);
+                }
+            }
+            xdr.endEncoding();
+
+            fattr4 attrs = new fattr4();
+            attrs.attrmask = processed;
+            attrs.attr_vals = new attrlist4(xdr.getBytes());
+            return attrs;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.dcache.nfs.v4;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import org.dcache.nfs.v4.xdr.sessionid4;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ClientSessionTest {
+
+    private ClientSession session;
+
+    @Before
+    public void setUp() {
+        session = new ClientSession(new sessionid4(new byte[16]), 1);
+    }
+
+    @Test
+    public void shouldGetSlotImmediatelyIfAvailable() {
+        CompletableFuture<ClientSession.SessionSlot> slot = session.acquireSlotAsync();
+        assertTrue(slot.isDone());
+        assertEquals(0, session.waitingRequests());
+    }
+
+    @Test
+    public void shouldWaitForFreeSlot() {
+        var slot1 = session.acquireSlotAsync().join();
+        var slot2 = session.acquireSlotAsync();
+
+        assertFalse(slot2.isDone());
+        assertEquals(1, session.waitingRequests());
+
+        session.releaseSlot(slot1);
+        assertTrue(slot2.isDone());
+        assertSame(slot1, slot2.join());
+    }
+
+    @Test
+    public void shouldSkipTimedOutWaiters() {
+        var slot1 = session.acquireSlotAsync().join();
+        var slot2 = session.acquireSlotAsync();
+        var slot3 = session.acquireSlotAsync();
+
+        slot2.completeExceptionally(new TimeoutException());
+        session.releaseSlot(slot1);
+
+        assertTrue(slot3.isDone());
+        assertSame(slot1, slot3.join());
+        assertEquals(0, session.waitingRequests());
+    }
+
+    @Test
+    public void shouldReturnSlotIfNoWaiters() {
+        var slot1 = session.acquireSlotAsync().join();
+        session.releaseSlot(slot1);
+
+        assertSame(slot1, session.acquireSlotAsync().join());
+    }
+}
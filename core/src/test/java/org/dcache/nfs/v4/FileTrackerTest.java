@@ -21,6 +21,8 @@ package org.dcache.nfs.v4;
 
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
 
 import org.dcache.nfs.ChimeraNFSException;
 import org.dcache.nfs.status.BadStateidException;
@@ -50,10 +52,13 @@ import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 import org.dcache.nfs.v4.xdr.seqid4;
+import org.dcache.nfs.v4.xdr.stateid4;
 
 public class FileTrackerTest {
 
@@ -213,6 +218,49 @@ public class FileTrackerTest {
         tracker.getShareAccess(client1, inode, client1.createOpenState(stateOwner1).stateid());
     }
 
+    @Test(expected = BadStateidException.class)
+    public void shouldRejectOpenStateidOfOtherClient() throws Exception {
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        var openRecord1 = tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ, 0);
+        tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_READ, 0);
+        tracker.getShareAccess(client2, inode, openRecord1.openStateId());
+    }
+
+    @Test
+    public void shouldTrackOpensOfManyClients() throws Exception {
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        NFS4Client[] clients = new NFS4Client[64];
+        stateid4[] stateids = new stateid4[clients.length];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = createClient(sh);
+            StateOwner owner = clients[i].getOrCreateOwner(("client" + i).getBytes(StandardCharsets.UTF_8), new seqid4(0));
+            int access = i % 2 == 0 ? OPEN4_SHARE_ACCESS_READ : OPEN4_SHARE_ACCESS_BOTH;
+            stateids[i] = tracker.addOpen(clients[i], owner, inode, access | OPEN4_SHARE_ACCESS_WANT_NO_DELEG, 0).openStateId();
+        }
+
+        for (int i = 0; i < clients.length; i++) {
+            int expected = i % 2 == 0 ? OPEN4_SHARE_ACCESS_READ : OPEN4_SHARE_ACCESS_BOTH;
+            assertEquals(expected, tracker.getShareAccess(clients[i], inode, stateids[i]) & OPEN4_SHARE_ACCESS_BOTH);
+        }
+
+        for (int i = 0; i < clients.length; i++) {
+            tracker.removeOpen(inode, stateids[i]);
+        }
+        assertTrue(tracker.getOpenFiles().isEmpty());
+    }
+
     @Test
     public void shouldGetReadDelegation() throws Exception {
 
@@ -257,6 +305,9 @@ public class FileTrackerTest {
         nfs_fh4 fh = generateFileHandle();
         Inode inode = Inode.forFile(fh.value);
 
+        given(client1.getCB().cbDelegationRecallAsync(any(), any(), anyBoolean()))
+                .willReturn(new CompletableFuture<>());
+
         var openRecord1 = tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
         try {
             var openRecord2 = tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE,
@@ -266,7 +317,64 @@ public class FileTrackerTest {
             // expected
         }
 
-        verify(client1.getCB()).cbDelegationRecall(any(), any(), anyBoolean());
+        verify(client1.getCB()).cbDelegationRecallAsync(any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void shouldNotReCallDelegationTwice() throws Exception {
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        given(client1.getCB().cbDelegationRecallAsync(any(), any(), anyBoolean()))
+                .willReturn(new CompletableFuture<>());
+
+        tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
+        for (int i = 0; i < 2; i++) {
+            try {
+                tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+                fail("Delay exception expected");
+            } catch (DelayException e) {
+                // expected
+            }
+        }
+
+        verify(client1.getCB(), times(1)).cbDelegationRecallAsync(any(), any(), anyBoolean());
+    }
+
+    @Test
+    public void shouldDiscardDelegationIfRecallFails() throws Exception {
+
+        NFS4Client client1 = createClient(sh);
+        NFS4Client client2 = createClient(sh);
+
+        StateOwner stateOwner1 = client1.getOrCreateOwner("client1".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+        StateOwner stateOwner2 = client2.getOrCreateOwner("client2".getBytes(StandardCharsets.UTF_8), new seqid4(0));
+
+        nfs_fh4 fh = generateFileHandle();
+        Inode inode = Inode.forFile(fh.value);
+
+        given(client1.getCB().cbDelegationRecallAsync(any(), any(), anyBoolean()))
+                .willReturn(CompletableFuture.failedFuture(new TimeoutException()));
+
+        tracker.addOpen(client1, stateOwner1, inode, OPEN4_SHARE_ACCESS_READ | OPEN4_SHARE_ACCESS_WANT_READ_DELEG, 0);
+        try {
+            tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+            fail("Delay exception expected");
+        } catch (DelayException e) {
+            // expected
+        }
+
+        // failed recall discards the delegation
+        var openRecord2 = tracker.addOpen(client2, stateOwner2, inode, OPEN4_SHARE_ACCESS_WRITE, 0);
+        assertFalse(openRecord2.hasDelegation());
+        assertTrue(tracker.getDelegations().isEmpty());
     }
 
     @Test
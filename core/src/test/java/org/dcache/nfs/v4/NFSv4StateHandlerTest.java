@@ -39,6 +39,7 @@ import org.dcache.nfs.v4.xdr.seqid4;
 import static org.dcache.nfs.v4.NfsTestUtils.createClient;
 import org.dcache.nfs.v4.xdr.clientid4;
 import org.dcache.nfs.v4.xdr.sessionid4;
+import org.dcache.nfs.v4.xdr.verifier4;
 
 public class NFSv4StateHandlerTest {
 
@@ -215,4 +216,57 @@ public class NFSv4StateHandlerTest {
         var sscState = _client.createServerSideCopyState(_owner, openState);
         Stateids.checkServerSiderCopyStateid(sscState.stateid());
     }
+
+    @Test
+    public void testGetClientByOwner() throws Exception {
+        assertSame(_client, _stateHandler.clientByOwner(_client.getOwnerId().clone()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterRemove() throws Exception {
+        _stateHandler.removeClient(_client);
+        assertNull(_stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterDispose() throws Exception {
+        // expired clients are disposed by client cache
+        _client.disposeIgnoreFailures();
+        assertNull(_stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterNewerRecordDisposed() throws Exception {
+        _client.setConfirmed();
+        NFS4Client newClient = _stateHandler.createClient(_client.getRemoteAddress(), _client.getLocalAddress(),
+                0, _client.getOwnerId(), new verifier4(new byte[8]), null, false);
+        assertSame(newClient, _stateHandler.clientByOwner(_client.getOwnerId()));
+
+        // unconfirmed record replaced or expired while the confirmed one is alive
+        _stateHandler.removeClient(newClient);
+        assertSame(_client, _stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test
+    public void testGetClientByOwnerAfterOlderRecordDisposed() throws Exception {
+        NFS4Client newClient = _stateHandler.createClient(_client.getRemoteAddress(), _client.getLocalAddress(),
+                0, _client.getOwnerId(), new verifier4(new byte[8]), null, false);
+
+        _client.disposeIgnoreFailures();
+        assertSame(newClient, _stateHandler.clientByOwner(_client.getOwnerId()));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCreateClientAfterShutdown() throws Exception {
+        _stateHandler.shutdown();
+        createClient(_stateHandler);
+    }
+
+    @Test
+    public void testShutdownDrainsClients() throws Exception {
+        _stateHandler.shutdown();
+
+        assertNull(_stateHandler.clientByOwner(_client.getOwnerId()));
+        assertFalse(_stateHandler.isRunning());
+    }
 }
@@ -0,0 +1,110 @@
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_fh4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.nfs.v4.NfsTestUtils.execute;
+import static org.dcache.nfs.v4.NfsTestUtils.executeWithStatus;
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.dcache.nfs.v4.NfsTestUtils.generateStateId;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.mockito.Mockito.*;
+
+public class OperationALLOCATETest {
+
+    private Inode inode = Inode.forFile(new byte[]{1, 2, 3, 4});
+    private nfs_fh4 fh = new nfs_fh4(inode.toNfsHandle());
+    private VirtualFileSystem vfs;
+    private FileTracker fileTracker;
+    private CompoundContext context;
+
+    @Before
+    public void setUp() throws IOException {
+
+        Stat fileStat = new Stat();
+        fileStat.setMode(Stat.S_IFREG | 0644);
+        fileStat.setSize(16384);
+
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        doReturn(fileStat).when(vfs).getattr(any());
+
+        NFSv4StateHandler stateHandler = mock(NFSv4StateHandler.class);
+        NFS4Client client = mock(NFS4Client.class);
+        NFSv41Session session = mock(NFSv41Session.class);
+        fileTracker = mock(FileTracker.class);
+
+        when(stateHandler.getFileTracker()).thenReturn(fileTracker);
+        when(fileTracker.getShareAccess(any(), any(), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_WRITE);
+        when(session.getClient()).thenReturn(client);
+
+        context = new CompoundContextBuilder()
+                .withStateHandler(stateHandler)
+                .withSession(session)
+                .withFs(vfs)
+                .withMinorversion(2)
+                .withCall(generateRpcCall())
+                .build();
+    }
+
+    private COMPOUND4args allocate(long offset, long length) {
+        return new CompoundBuilder()
+                .withPutfh(fh)
+                .withAllocate(offset, length, generateStateId())
+                .build();
+    }
+
+    private COMPOUND4args deallocate(long offset, long length) {
+        return new CompoundBuilder()
+                .withPutfh(fh)
+                .withDeallocate(offset, length, generateStateId())
+                .build();
+    }
+
+    @Test
+    public void testAllocate() throws IOException {
+        doNothing().when(vfs).allocate(inode, 0, 1048576);
+
+        execute(context, allocate(0, 1048576));
+        verify(vfs).allocate(inode, 0, 1048576);
+    }
+
+    @Test
+    public void testDeallocate() throws IOException {
+        doNothing().when(vfs).deallocate(inode, 4096, 8192);
+
+        execute(context, deallocate(4096, 8192));
+        verify(vfs).deallocate(inode, 4096, 8192);
+    }
+
+    @Test
+    public void testAllocateNotSupported() throws IOException {
+        executeWithStatus(context, allocate(0, 4096), nfsstat.NFSERR_NOTSUPP);
+    }
+
+    @Test
+    public void testDeallocateNotSupported() throws IOException {
+        executeWithStatus(context, deallocate(0, 4096), nfsstat.NFSERR_NOTSUPP);
+    }
+
+    @Test
+    public void testAllocateReadOnlyOpen() throws IOException {
+        when(fileTracker.getShareAccess(any(), any(), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_READ);
+
+        executeWithStatus(context, allocate(0, 4096), nfsstat.NFSERR_OPENMODE);
+        verify(vfs, never()).allocate(any(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testDeallocateOverflow() throws IOException {
+        executeWithStatus(context, deallocate(nfs4_prot.NFS4_UINT64_MAX, 4096), nfsstat.NFSERR_INVAL);
+        verify(vfs, never()).deallocate(any(), anyLong(), anyLong());
+    }
+}
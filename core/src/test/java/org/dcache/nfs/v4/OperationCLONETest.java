@@ -0,0 +1,116 @@
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_fh4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.nfs.v4.NfsTestUtils.execute;
+import static org.dcache.nfs.v4.NfsTestUtils.executeWithStatus;
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.dcache.nfs.v4.NfsTestUtils.generateStateId;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.mockito.Mockito.*;
+
+public class OperationCLONETest {
+
+    private static final long FILE_SIZE = 1048576;
+
+    private Inode src = Inode.forFile(new byte[]{1, 2, 3, 4});
+    private Inode dst = Inode.forFile(new byte[]{5, 6, 7, 8});
+    private VirtualFileSystem vfs;
+    private FileTracker fileTracker;
+    private CompoundContext context;
+
+    @Before
+    public void setUp() throws IOException {
+
+        Stat fileStat = new Stat();
+        fileStat.setMode(Stat.S_IFREG | 0644);
+        fileStat.setSize(FILE_SIZE);
+
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        doReturn(fileStat).when(vfs).getattr(any());
+
+        NFSv4StateHandler stateHandler = mock(NFSv4StateHandler.class);
+        NFS4Client client = mock(NFS4Client.class);
+        NFSv41Session session = mock(NFSv41Session.class);
+        fileTracker = mock(FileTracker.class);
+
+        when(stateHandler.getFileTracker()).thenReturn(fileTracker);
+        when(fileTracker.getShareAccess(any(), any(), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_BOTH);
+        when(session.getClient()).thenReturn(client);
+
+        context = new CompoundContextBuilder()
+                .withStateHandler(stateHandler)
+                .withSession(session)
+                .withFs(vfs)
+                .withMinorversion(2)
+                .withCall(generateRpcCall())
+                .build();
+    }
+
+    private COMPOUND4args clone(Inode from, long srcOffset, Inode to, long dstOffset, long count) {
+        return new CompoundBuilder()
+                .withPutfh(new nfs_fh4(from.toNfsHandle()))
+                .withSavefh()
+                .withPutfh(new nfs_fh4(to.toNfsHandle()))
+                .withClone(srcOffset, generateStateId(), dstOffset, generateStateId(), count)
+                .build();
+    }
+
+    @Test
+    public void testClone() throws IOException {
+        doNothing().when(vfs).clone(src, 0, dst, 4096, 65536);
+
+        execute(context, clone(src, 0, dst, 4096, 65536));
+        verify(vfs).clone(src, 0, dst, 4096, 65536);
+    }
+
+    @Test
+    public void testCloneToEndOfFile() throws IOException {
+        doNothing().when(vfs).clone(src, 4096, dst, 0, 0);
+
+        execute(context, clone(src, 4096, dst, 0, 0));
+        verify(vfs).clone(src, 4096, dst, 0, 0);
+    }
+
+    @Test
+    public void testCloneNotSupported() throws IOException {
+        executeWithStatus(context, clone(src, 0, dst, 0, 4096), nfsstat.NFSERR_NOTSUPP);
+    }
+
+    @Test
+    public void testCloneBeyondEof() throws IOException {
+        executeWithStatus(context, clone(src, FILE_SIZE - 4096, dst, 0, 8192), nfsstat.NFSERR_INVAL);
+        verify(vfs, never()).clone(any(), anyLong(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testCloneOverlappingRange() throws IOException {
+        executeWithStatus(context, clone(src, 0, src, 4096, 8192), nfsstat.NFSERR_INVAL);
+        verify(vfs, never()).clone(any(), anyLong(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testCloneWithoutWriteAccess() throws IOException {
+        when(fileTracker.getShareAccess(any(), eq(dst), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_READ);
+
+        executeWithStatus(context, clone(src, 0, dst, 0, 4096), nfsstat.NFSERR_OPENMODE);
+        verify(vfs, never()).clone(any(), anyLong(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void testCloneWithoutReadAccess() throws IOException {
+        when(fileTracker.getShareAccess(any(), eq(src), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_WRITE);
+
+        executeWithStatus(context, clone(src, 0, dst, 0, 4096), nfsstat.NFSERR_OPENMODE);
+        verify(vfs, never()).clone(any(), anyLong(), any(), anyLong(), anyLong());
+    }
+}
@@ -2,14 +2,18 @@ package org.dcache.nfs.v4;
 
 import static org.dcache.nfs.v4.NfsTestUtils.createClient;
 import static org.dcache.nfs.v4.NfsTestUtils.execute;
+import static org.dcache.nfs.v4.NfsTestUtils.executeWithStatus;
 import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
+import static org.junit.Assert.assertEquals;
 import org.dcache.nfs.ChimeraNFSException;
+import org.dcache.nfs.nfsstat;
 import org.dcache.nfs.status.OffloadNoReqsException;
 import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
 import org.dcache.nfs.v4.xdr.nfs_fh4;
 import org.dcache.nfs.v4.xdr.state_owner4;
@@ -140,4 +144,50 @@ public class OperationCOPYTest {
 
         execute(context, copyArgs);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOffloadStatusAndCancel() throws Exception {
+
+        when(vfs.copyFileRange(any(), anyLong(), any(), anyLong(), anyLong()))
+                .thenReturn(new CompletableFuture<>());
+
+        COMPOUND4args copyArgs = new CompoundBuilder()
+                .withMinorversion(2)
+                .withPutfh(fhSrc)
+                .withSavefh()
+                .withPutfh(fhDest)
+                .withIntraServerCopy(srcStateid, destStateid, 0L, 0L, NFSv4Defaults.NFS4_MAXIOBUFFERSIZE + 1L, false, true)
+                .build();
+
+        CompoundContext context = new CompoundContextBuilder()
+                .withStateHandler(stateHandler)
+                .withSession(session)
+                .withFs(vfs)
+                .withMinorversion(2)
+                .withCall(generateRpcCall())
+                .build();
+
+        COMPOUND4res res = execute(context, copyArgs);
+        stateid4 copyStateid = res.resarray.get(3).opcopy.cr_resok4.cr_response.wr_callback_id[0];
+
+        COMPOUND4args statusArgs = new CompoundBuilder()
+                .withMinorversion(2)
+                .withPutfh(fhDest)
+                .withOffloadStatus(copyStateid)
+                .build();
+
+        res = execute(context, statusArgs);
+        assertEquals(0, res.resarray.get(1).opoffload_status.osr_resok4.osr_complete.length);
+
+        COMPOUND4args cancelArgs = new CompoundBuilder()
+                .withMinorversion(2)
+                .withPutfh(fhDest)
+                .withOffloadCancel(copyStateid)
+                .build();
+
+        execute(context, cancelArgs);
+
+        // the copy stateid is released
+        executeWithStatus(context, statusArgs, nfsstat.NFSERR_BAD_STATEID);
+    }
+}
@@ -0,0 +1,85 @@
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.IO_ADVISE_type4;
+import org.dcache.nfs.v4.xdr.bitmap4;
+import org.dcache.nfs.v4.xdr.nfs_fh4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.nfs.vfs.VirtualFileSystem.IoHint;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.nfs.v4.NfsTestUtils.execute;
+import static org.dcache.nfs.v4.NfsTestUtils.executeWithStatus;
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.dcache.nfs.v4.NfsTestUtils.generateStateId;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class OperationIO_ADVISETest {
+
+    private Inode inode = Inode.forFile(new byte[]{1, 2, 3, 4});
+    private nfs_fh4 fh = new nfs_fh4(inode.toNfsHandle());
+    private Stat fileStat;
+    private VirtualFileSystem vfs;
+    private CompoundContext context;
+
+    @Before
+    public void setUp() throws IOException {
+
+        fileStat = new Stat();
+        fileStat.setMode(Stat.S_IFREG | 0644);
+        fileStat.setSize(16384);
+
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        doReturn(fileStat).when(vfs).getattr(any());
+
+        context = new CompoundContextBuilder()
+                .withFs(vfs)
+                .withMinorversion(2)
+                .withCall(generateRpcCall())
+                .build();
+    }
+
+    private COMPOUND4args ioAdvise(int... hints) {
+        return new CompoundBuilder()
+                .withPutfh(fh)
+                .withIoAdvise(0, 4096, generateStateId(), hints)
+                .build();
+    }
+
+    @Test
+    public void testHintsPassedToFileSystem() throws IOException {
+        doReturn(EnumSet.of(IoHint.SEQUENTIAL)).when(vfs).ioAdvise(any(), anyLong(), anyLong(), any());
+
+        COMPOUND4res res = execute(context, ioAdvise(IO_ADVISE_type4.IO_ADVISE4_SEQUENTIAL, IO_ADVISE_type4.IO_ADVISE4_NOREUSE));
+
+        verify(vfs).ioAdvise(inode, 0, 4096, EnumSet.of(IoHint.SEQUENTIAL, IoHint.NOREUSE));
+        bitmap4 accepted = res.resarray.get(1).opio_advise.resok4.ior_hints;
+        assertTrue(accepted.isSet(IO_ADVISE_type4.IO_ADVISE4_SEQUENTIAL));
+        assertEquals(1, accepted.value.length);
+        assertEquals(1 << IO_ADVISE_type4.IO_ADVISE4_SEQUENTIAL, accepted.value[0]);
+    }
+
+    @Test
+    public void testHintsIgnoredByDefault() throws IOException {
+
+        COMPOUND4res res = execute(context, ioAdvise(IO_ADVISE_type4.IO_ADVISE4_WILLNEED));
+        assertTrue(res.resarray.get(1).opio_advise.resok4.ior_hints.isEmpty());
+    }
+
+    @Test
+    public void testAdviseDirectory() throws IOException {
+        fileStat.setMode(Stat.S_IFDIR | 0755);
+
+        executeWithStatus(context, ioAdvise(IO_ADVISE_type4.IO_ADVISE4_WILLNEED), nfsstat.NFSERR_WRONG_TYPE);
+    }
+}
@@ -74,6 +74,9 @@ public class OperationREADDIRTest {
         dirStat.setIno(1);
         dirStat.setSize(512);
         vfs = mock(VirtualFileSystem.class); // the vfs serving it
+        // paged listing on top of the complete listing, like the default implementation does
+        when(vfs.listPage(any(), any(), anyLong(), anyInt())).thenAnswer(i ->
+                vfs.list(i.getArgument(0), i.getArgument(1), i.<Long>getArgument(2)).head(i.getArgument(3)));
         when(vfs.getattr(eq(dirInode))).thenReturn(dirStat);
 
         result = nfs_resop4.resopFor(nfs_opnum4.OP_READDIR);
@@ -14,6 +14,7 @@ import org.dcache.nfs.v4.xdr.stateid4;
 import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
 import static org.mockito.Mockito.*;
 import static org.dcache.nfs.v4.NfsTestUtils.*;
 import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
@@ -41,7 +42,7 @@ public class OperationREADTest {
         fileStat.setIno(1);
         fileStat.setSize(512);
 
-        vfs = mock(VirtualFileSystem.class);
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
     }
 
     @Test
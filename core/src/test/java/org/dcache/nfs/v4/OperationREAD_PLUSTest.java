@@ -0,0 +1,165 @@
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.data_content4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_fh4;
+import org.dcache.nfs.v4.xdr.read_plus_content;
+import org.dcache.nfs.v4.xdr.read_plus_res4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.nfs.vfs.VirtualFileSystem.ContentType;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.nfs.v4.NfsTestUtils.execute;
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.dcache.nfs.v4.NfsTestUtils.generateStateId;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class OperationREAD_PLUSTest {
+
+    // data [0, 4k), hole [4k, 12k), data [12k, 16k)
+    private static final long FILE_SIZE = 16384;
+
+    private Inode inode = Inode.forFile(new byte[]{1, 2, 3, 4});
+    private nfs_fh4 fh = new nfs_fh4(inode.toNfsHandle());
+    private VirtualFileSystem vfs;
+    private CompoundContext context;
+
+    @Before
+    public void setUp() throws IOException {
+
+        Stat fileStat = new Stat();
+        fileStat.setMode(Stat.S_IFREG | 0644);
+        fileStat.setSize(FILE_SIZE);
+
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        doReturn(fileStat).when(vfs).getattr(any());
+        doAnswer(i -> {
+            ByteBuffer data = i.getArgument(1);
+            int n = data.remaining();
+            while (data.hasRemaining()) {
+                data.put((byte) 1);
+            }
+            return n;
+        }).when(vfs).read(any(), any(ByteBuffer.class), anyLong());
+
+        NFSv4StateHandler stateHandler = mock(NFSv4StateHandler.class);
+        NFS4Client client = mock(NFS4Client.class);
+        NFSv41Session session = mock(NFSv41Session.class);
+        FileTracker fileTracker = mock(FileTracker.class);
+
+        when(stateHandler.getFileTracker()).thenReturn(fileTracker);
+        when(fileTracker.getShareAccess(any(), any(), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_READ);
+        when(session.getClient()).thenReturn(client);
+
+        context = new CompoundContextBuilder()
+                .withStateHandler(stateHandler)
+                .withSession(session)
+                .withFs(vfs)
+                .withMinorversion(2)
+                .withCall(generateRpcCall())
+                .build();
+    }
+
+    private void givenSparseFile() throws IOException {
+        doAnswer(i -> {
+            long offset = i.getArgument(1);
+            ContentType what = i.getArgument(2);
+            if (what == ContentType.DATA) {
+                return offset >= 4096 && offset < 12288 ? 12288 : offset;
+            }
+            if (offset < 4096) {
+                return 4096L;
+            }
+            return offset < 12288 ? offset : FILE_SIZE;
+        }).when(vfs).seek(any(), anyLong(), any());
+    }
+
+    private read_plus_res4 readPlus(int count, long offset) throws IOException {
+        COMPOUND4args args = new CompoundBuilder()
+                .withPutfh(fh)
+                .withReadPlus(count, offset, generateStateId())
+                .build();
+
+        COMPOUND4res res = execute(context, args);
+        return res.resarray.get(1).opread_plus.rp_resok4;
+    }
+
+    @Test
+    public void testHoleSentAsRange() throws IOException {
+        givenSparseFile();
+
+        read_plus_res4 res = readPlus(65536, 0);
+
+        assertTrue(res.rpr_eof);
+        assertEquals(3, res.rpr_contents.length);
+        assertData(res.rpr_contents[0], 0, 4096);
+        assertHole(res.rpr_contents[1], 4096, 8192);
+        assertData(res.rpr_contents[2], 12288, 4096);
+    }
+
+    @Test
+    public void testReadWithinHole() throws IOException {
+        givenSparseFile();
+
+        read_plus_res4 res = readPlus(1024, 5000);
+
+        assertFalse(res.rpr_eof);
+        assertEquals(1, res.rpr_contents.length);
+        assertHole(res.rpr_contents[0], 5000, 1024);
+    }
+
+    @Test
+    public void testReadIntoHole() throws IOException {
+        givenSparseFile();
+
+        read_plus_res4 res = readPlus(4096, 2048);
+
+        assertFalse(res.rpr_eof);
+        assertEquals(2, res.rpr_contents.length);
+        assertData(res.rpr_contents[0], 2048, 2048);
+        assertHole(res.rpr_contents[1], 4096, 2048);
+    }
+
+    @Test
+    public void testReadBeyondEof() throws IOException {
+        givenSparseFile();
+
+        read_plus_res4 res = readPlus(4096, FILE_SIZE + 1);
+
+        assertTrue(res.rpr_eof);
+        assertEquals(0, res.rpr_contents.length);
+    }
+
+    @Test
+    public void testFileWithoutHoles() throws IOException {
+
+        read_plus_res4 res = readPlus(65536, 0);
+
+        assertTrue(res.rpr_eof);
+        assertEquals(1, res.rpr_contents.length);
+        assertData(res.rpr_contents[0], 0, FILE_SIZE);
+    }
+
+    private static void assertData(read_plus_content content, long offset, long length) {
+        assertEquals(data_content4.NFS4_CONTENT_DATA, content.rpc_content);
+        assertEquals(offset, content.rpc_data.d_offset.value);
+        assertEquals(length, content.rpc_data.d_data.remaining());
+    }
+
+    private static void assertHole(read_plus_content content, long offset, long length) {
+        assertEquals(data_content4.NFS4_CONTENT_HOLE, content.rpc_content);
+        assertEquals(offset, content.rpc_hole.di_offset.value);
+        assertEquals(length, content.rpc_hole.di_length.value);
+    }
+}
@@ -0,0 +1,102 @@
+package org.dcache.nfs.v4;
+
+import java.io.IOException;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.COMPOUND4args;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.data_content4;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfs_fh4;
+import org.dcache.nfs.v4.xdr.seek_res4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.Stat;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.dcache.nfs.vfs.VirtualFileSystem.ContentType;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.nfs.v4.NfsTestUtils.execute;
+import static org.dcache.nfs.v4.NfsTestUtils.executeWithStatus;
+import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
+import static org.dcache.nfs.v4.NfsTestUtils.generateStateId;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.*;
+
+public class OperationSEEKTest {
+
+    private static final long FILE_SIZE = 16384;
+
+    private Inode inode = Inode.forFile(new byte[]{1, 2, 3, 4});
+    private nfs_fh4 fh = new nfs_fh4(inode.toNfsHandle());
+    private VirtualFileSystem vfs;
+    private CompoundContext context;
+
+    @Before
+    public void setUp() throws IOException {
+
+        Stat fileStat = new Stat();
+        fileStat.setMode(Stat.S_IFREG | 0644);
+        fileStat.setSize(FILE_SIZE);
+
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        doReturn(fileStat).when(vfs).getattr(any());
+
+        NFSv4StateHandler stateHandler = mock(NFSv4StateHandler.class);
+        NFS4Client client = mock(NFS4Client.class);
+        NFSv41Session session = mock(NFSv41Session.class);
+        FileTracker fileTracker = mock(FileTracker.class);
+
+        when(stateHandler.getFileTracker()).thenReturn(fileTracker);
+        when(fileTracker.getShareAccess(any(), any(), any())).thenReturn(nfs4_prot.OPEN4_SHARE_ACCESS_READ);
+        when(session.getClient()).thenReturn(client);
+
+        context = new CompoundContextBuilder()
+                .withStateHandler(stateHandler)
+                .withSession(session)
+                .withFs(vfs)
+                .withMinorversion(2)
+                .withCall(generateRpcCall())
+                .build();
+    }
+
+    private COMPOUND4args seek(long offset, int what) {
+        return new CompoundBuilder()
+                .withPutfh(fh)
+                .withSeek(offset, what, generateStateId())
+                .build();
+    }
+
+    @Test
+    public void testSeekData() throws IOException {
+        doReturn(12288L).when(vfs).seek(inode, 5000, ContentType.DATA);
+
+        COMPOUND4res res = execute(context, seek(5000, data_content4.NFS4_CONTENT_DATA));
+        seek_res4 seek = res.resarray.get(1).opseek.resok4;
+
+        assertEquals(12288L, seek.sr_offset.value);
+        assertFalse(seek.sr_eof);
+    }
+
+    @Test
+    public void testSeekImplicitHole() throws IOException {
+
+        COMPOUND4res res = execute(context, seek(5000, data_content4.NFS4_CONTENT_HOLE));
+        seek_res4 seek = res.resarray.get(1).opseek.resok4;
+
+        assertEquals(FILE_SIZE, seek.sr_offset.value);
+        assertTrue(seek.sr_eof);
+    }
+
+    @Test
+    public void testSeekBeyondEof() throws IOException {
+        executeWithStatus(context, seek(FILE_SIZE, data_content4.NFS4_CONTENT_DATA), nfsstat.NFSERR_NXIO);
+    }
+
+    @Test
+    public void testSeekUnknownContent() throws IOException {
+        executeWithStatus(context, seek(0, 17), nfsstat.NFS4ERR_UNION_NOTSUPP);
+    }
+}
@@ -16,6 +16,7 @@ import org.dcache.nfs.vfs.Stat;
 import org.dcache.nfs.vfs.VirtualFileSystem;
 
 import static org.junit.Assert.*;
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
 import static org.mockito.Mockito.*;
 import static org.dcache.nfs.v4.NfsTestUtils.*;
 import static org.dcache.nfs.v4.NfsTestUtils.generateRpcCall;
@@ -44,7 +45,7 @@ public class OperationWRITETest {
         fileStat.setIno(1);
         fileStat.setSize(512);
 
-        vfs = mock(VirtualFileSystem.class);
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
     }
 
     @Test
@@ -63,8 +64,8 @@ public class OperationWRITETest {
         when(stateHandler.getClientIdByStateId(any())).thenReturn(client);
 
         when(vfs.getattr(any())).thenReturn(fileStat);
-        when(vfs.write(any(), any(), anyLong(), any()))
-                .thenReturn(new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 1));
+        doReturn(new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 1))
+                .when(vfs).write(any(), any(), anyLong(), any());
 
         COMPOUND4args writeArgs = new CompoundBuilder()
                 .withPutfh(fh)
@@ -99,8 +100,8 @@ public class OperationWRITETest {
         when(stateHandler.getClientIdByStateId(any())).thenReturn(client);
 
         when(vfs.getattr(any())).thenReturn(fileStat);
-        when(vfs.write(any(), any(), anyLong(), any()))
-                .thenReturn(new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 1));
+        doReturn(new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 1))
+                .when(vfs).write(any(), any(), anyLong(), any());
 
         COMPOUND4args writeArgs = new CompoundBuilder()
                 .withPutfh(fh)
@@ -137,8 +138,8 @@ public class OperationWRITETest {
         verifier4 verifier = mock(verifier4.class);
 
         when(vfs.getattr(any())).thenReturn(fileStat);
-        when(vfs.write(any(), any(), anyLong(), any()))
-                .thenReturn(new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 1));
+        doReturn(new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 1))
+                .when(vfs).write(any(), any(), anyLong(), any());
 
         COMPOUND4args writeArgs = new CompoundBuilder()
                 .withPutfh(fh)
@@ -0,0 +1,228 @@
+package org.dcache.nfs.v4;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.dcache.nfs.status.BadStateidException;
+import org.dcache.nfs.status.CompleteAlreadyException;
+import org.dcache.nfs.status.NoSpcException;
+import org.dcache.nfs.v4.xdr.clientid4;
+import org.dcache.nfs.v4.xdr.stateid4;
+import org.dcache.nfs.vfs.Inode;
+import org.dcache.nfs.vfs.VirtualFileSystem;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class ServerSideCopyEngineTest {
+
+    private final Inode src = Inode.forFile(new byte[]{1, 2, 3, 4});
+    private final Inode dst = Inode.forFile(new byte[]{5, 6, 7, 8});
+
+    private ScheduledExecutorService scheduler;
+    private ServerSideCopyEngine engine;
+    private VirtualFileSystem vfs;
+
+    /**
+     * Pending chunk copies, completed by the tests.
+     */
+    private List<CompletableFuture<Long>> chunks;
+
+    private NFS4Client client1;
+    private NFS4Client client2;
+
+    private int stateids;
+
+    @Before
+    public void setUp() {
+        scheduler = mock(ScheduledExecutorService.class);
+        engine = new ServerSideCopyEngine("test", Runnable::run, scheduler);
+
+        chunks = new ArrayList<>();
+        vfs = mock(VirtualFileSystem.class);
+        when(vfs.copyFileRange(any(), anyLong(), any(), anyLong(), anyLong())).thenAnswer(i -> {
+            CompletableFuture<Long> chunk = new CompletableFuture<>();
+            chunks.add(chunk);
+            return chunk;
+        });
+
+        client1 = mock(NFS4Client.class);
+        when(client1.getId()).thenReturn(new clientid4(1));
+        client2 = mock(NFS4Client.class);
+        when(client2.getId()).thenReturn(new clientid4(2));
+    }
+
+    private stateid4 nextStateid() {
+        return new stateid4(new byte[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) ++stateids, 0x05}, 1);
+    }
+
+    private ServerSideCopyEngine.Copy submit(NFS4Client client, long len) {
+        return engine.submit(client, nextStateid(), vfs, src, 0, dst, 0, len);
+    }
+
+    @Test
+    public void testCopyInChunks() throws Exception {
+        engine.setChunkSize(4096);
+
+        ServerSideCopyEngine.Copy copy = submit(client1, 10000);
+
+        chunks.get(0).complete(4096L);
+        assertEquals(4096L, copy.getBytesCopied());
+        assertFalse(copy.isDone());
+
+        chunks.get(1).complete(4096L);
+        chunks.get(2).complete(1808L);
+
+        assertTrue(copy.isDone());
+        assertEquals(10000L, (long) copy.getResult().get());
+        verify(vfs).copyFileRange(src, 0, dst, 0, 4096);
+        verify(vfs).copyFileRange(src, 4096, dst, 4096, 4096);
+        verify(vfs).copyFileRange(src, 8192, dst, 8192, 1808);
+        assertEquals(1L, engine.getCompletedCopies());
+        assertEquals(10000L, engine.getBytesCopied());
+    }
+
+    @Test
+    public void testStopAtEndOfSourceFile() throws Exception {
+        ServerSideCopyEngine.Copy copy = submit(client1, 10000);
+
+        chunks.get(0).complete(100L);
+        chunks.get(1).complete(0L);
+
+        assertEquals(100L, (long) copy.getResult().get());
+    }
+
+    @Test
+    public void testFailedCopy() {
+        ServerSideCopyEngine.Copy copy = submit(client1, 10000);
+
+        chunks.get(0).completeExceptionally(new NoSpcException());
+
+        assertTrue(copy.isDone());
+        assertTrue(copy.getError() instanceof NoSpcException);
+        assertEquals(1L, engine.getFailedCopies());
+        assertEquals(0, engine.getActiveCopies());
+    }
+
+    @Test
+    public void testGlobalLimit() {
+        engine.setMaxActiveCopies(2);
+
+        submit(client1, 4096);
+        submit(client2, 4096);
+        ServerSideCopyEngine.Copy queued = submit(client1, 4096);
+
+        assertEquals(2, chunks.size());
+        assertEquals(2, engine.getActiveCopies());
+        assertEquals(1, engine.getQueuedCopies());
+
+        chunks.get(1).complete(4096L);
+
+        assertEquals(3, chunks.size());
+        assertEquals(0, engine.getQueuedCopies());
+        assertFalse(queued.isDone());
+    }
+
+    @Test
+    public void testPerClientLimit() {
+        engine.setMaxActiveCopiesPerClient(1);
+
+        submit(client1, 4096);
+        submit(client1, 4096);
+        submit(client2, 4096);
+
+        // second copy of client1 waits, but doesn't block client2
+        assertEquals(2, chunks.size());
+        assertEquals(1, engine.getQueuedCopies());
+        assertEquals(2L, (long) engine.getClientCopies().get("1"));
+        assertEquals(1L, (long) engine.getClientCopies().get("2"));
+
+        chunks.get(0).complete(4096L);
+        assertEquals(3, chunks.size());
+        assertEquals(0, engine.getQueuedCopies());
+    }
+
+    @Test
+    public void testCancelQueued() throws Exception {
+        engine.setMaxActiveCopies(1);
+
+        submit(client1, 4096);
+        ServerSideCopyEngine.Copy queued = submit(client1, 4096);
+
+        engine.cancel(queued.getStateid());
+
+        assertTrue(queued.isDone());
+        assertTrue(queued.getError() instanceof CancellationException);
+        assertEquals(0, engine.getQueuedCopies());
+        assertEquals(1L, engine.getCancelledCopies());
+    }
+
+    @Test
+    public void testCancelRunning() throws Exception {
+        engine.setChunkSize(4096);
+
+        ServerSideCopyEngine.Copy copy = submit(client1, 10000);
+        engine.cancel(copy.getStateid());
+
+        assertTrue(chunks.get(0).isCancelled());
+        assertTrue(copy.isDone());
+        assertTrue(copy.getError() instanceof CancellationException);
+        assertEquals(0, engine.getActiveCopies());
+        verify(vfs, times(1)).copyFileRange(any(), anyLong(), any(), anyLong(), anyLong());
+    }
+
+    @Test(expected = CompleteAlreadyException.class)
+    public void testCancelCompleted() throws Exception {
+        ServerSideCopyEngine.Copy copy = submit(client1, 4096);
+        chunks.get(0).complete(4096L);
+
+        engine.cancel(copy.getStateid());
+    }
+
+    @Test(expected = BadStateidException.class)
+    public void testReleasedCopy() throws Exception {
+        ServerSideCopyEngine.Copy copy = submit(client1, 4096);
+        engine.release(copy.getStateid());
+
+        assertTrue(copy.isDone());
+        engine.get(copy.getStateid());
+    }
+
+    @Test
+    public void testBandwidthLimit() {
+        engine.setChunkSize(1024 * 1024);
+        engine.setMaxBandwidth(1024 * 1024);
+
+        submit(client1, 4 * 1024 * 1024);
+        chunks.get(0).complete(1024 * 1024L);
+
+        // the second chunk has to wait for about a second
+        verify(scheduler).schedule(any(Runnable.class), anyLong(), eq(TimeUnit.NANOSECONDS));
+        assertEquals(1, chunks.size());
+    }
+
+    @Test
+    public void testNoBandwidthLimit() {
+        engine.setChunkSize(1024 * 1024);
+
+        submit(client1, 4 * 1024 * 1024);
+        chunks.get(0).complete(1024 * 1024L);
+
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any());
+        assertEquals(2, chunks.size());
+    }
+}
@@ -0,0 +1,155 @@
+package org.dcache.nfs.v4;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import org.dcache.nfs.nfsstat;
+import org.dcache.nfs.v4.xdr.COMPOUND4res;
+import org.dcache.nfs.v4.xdr.READ4resok;
+import org.dcache.nfs.v4.xdr.nfs_opnum4;
+import org.dcache.nfs.v4.xdr.nfs_resop4;
+import org.dcache.nfs.v4.xdr.sessionid4;
+import org.dcache.nfs.v4.xdr.utf8str_cs;
+import org.dcache.oncrpc4j.xdr.Xdr;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SessionReplyCacheTest {
+
+    private SessionReplyCache replyCache;
+    private SessionReplyCache.Account account;
+    private SessionSlot slot;
+
+    @Before
+    public void setUp() {
+        replyCache = new SessionReplyCache("test-reply-cache", 1024);
+        account = replyCache.newAccount(new sessionid4(new byte[] {1, 2, 3}));
+        slot = new SessionSlot(account);
+    }
+
+    @Test
+    public void testRetryGetsCachedReply() throws Exception {
+        assertNull(slot.acquire(1));
+        slot.update(compound(sequenceFailed(), readOk(100)));
+
+        List<nfs_resop4> cached = slot.acquire(1);
+        assertEquals(2, cached.size());
+        assertEquals(nfs_opnum4.OP_READ, cached.get(1).resop);
+        assertEquals(100, cached.get(1).opread.resok4.data.remaining());
+        assertEquals(slot.getCachedReplySize(), account.getUsedBytes());
+        assertEquals(account.getUsedBytes(), replyCache.getUsedBytes());
+    }
+
+    @Test
+    public void testReplyEncodedOnce() throws Exception {
+        COMPOUND4res reply = compound(sequenceFailed(), readOk(100));
+        slot.acquire(1);
+        byte[] encoded = slot.update(reply);
+
+        assertEquals(slot.getCachedReplySize(), encoded.length);
+        try (Xdr xdr = new Xdr(encoded)) {
+            xdr.beginDecoding();
+            COMPOUND4res decoded = new COMPOUND4res(xdr);
+            assertEquals(reply.status, decoded.status);
+            assertEquals(2, decoded.resarray.size());
+        }
+    }
+
+    @Test
+    public void testCachingDoesNotConsumeData() throws Exception {
+        nfs_resop4 read = readOk(100);
+        slot.acquire(1);
+        slot.update(compound(sequenceFailed(), read));
+
+        assertEquals(100, read.opread.resok4.data.remaining());
+    }
+
+    @Test
+    public void testReplyOverBudgetNotCached() throws Exception {
+        slot.acquire(1);
+        slot.update(compound(sequenceFailed(), readOk(2048)));
+
+        assertTrue(slot.acquire(1).isEmpty());
+        assertEquals(0, replyCache.getUsedBytes());
+        assertEquals(1, replyCache.getRejectedReplyCount());
+    }
+
+    @Test
+    public void testStatusOnlyNotCached() throws Exception {
+        slot.acquire(1);
+        slot.updateStatus(nfsstat.NFS_OK);
+
+        assertTrue(slot.acquire(1).isEmpty());
+        assertEquals(0, replyCache.getUsedBytes());
+    }
+
+    @Test
+    public void testNextRequestReleasesReply() throws Exception {
+        slot.acquire(1);
+        slot.update(compound(sequenceFailed(), readOk(100)));
+        assertTrue(replyCache.getUsedBytes() > 0);
+
+        assertNull(slot.acquire(2));
+        assertEquals(0, replyCache.getUsedBytes());
+        assertEquals(0, account.getUsedBytes());
+    }
+
+    @Test
+    public void testSessionUsage() throws Exception {
+        slot.acquire(1);
+        slot.update(compound(sequenceFailed(), readOk(100)));
+
+        assertEquals(Long.valueOf(account.getUsedBytes()), replyCache.getSessionUsage().get("010203"));
+
+        account.close();
+        assertEquals(0, replyCache.getUsedBytes());
+        assertTrue(replyCache.getSessionUsage().isEmpty());
+    }
+
+    @Test
+    public void testReleaseAfterCloseIgnored() throws Exception {
+        slot.acquire(1);
+        slot.update(compound(sequenceFailed(), readOk(100)));
+
+        account.close();
+        slot.releaseReply();
+
+        assertEquals(0, replyCache.getUsedBytes());
+        assertEquals(0, account.getUsedBytes());
+    }
+
+    @Test
+    public void testReplyNotCachedAfterClose() throws Exception {
+        account.close();
+
+        slot.acquire(1);
+        slot.update(compound(sequenceFailed(), readOk(100)));
+
+        assertTrue(slot.acquire(1).isEmpty());
+        assertEquals(0, replyCache.getUsedBytes());
+    }
+
+    private static COMPOUND4res compound(nfs_resop4... ops) {
+        COMPOUND4res res = new COMPOUND4res();
+        res.tag = new utf8str_cs("test");
+        res.resarray = List.of(ops);
+        res.status = ops[ops.length - 1].getStatus();
+        return res;
+    }
+
+    private static nfs_resop4 sequenceFailed() {
+        nfs_resop4 op = nfs_resop4.resopFor(nfs_opnum4.OP_SEQUENCE);
+        op.opsequence.sr_status = nfsstat.NFSERR_DELAY;
+        return op;
+    }
+
+    private static nfs_resop4 readOk(int size) {
+        nfs_resop4 op = nfs_resop4.resopFor(nfs_opnum4.OP_READ);
+        op.opread.status = nfsstat.NFS_OK;
+        op.opread.resok4 = new READ4resok();
+        op.opread.resok4.eof = false;
+        op.opread.resok4.data = ByteBuffer.allocate(size);
+        return op;
+    }
+}
@@ -0,0 +1,160 @@
+package org.dcache.nfs.v4.nlm;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LockIntervalTreeTest {
+
+    private LockIntervalTree tree;
+
+    @Before
+    public void setUp() {
+        tree = new LockIntervalTree();
+    }
+
+    @Test
+    public void shouldFindOverlappingLock() {
+        NlmLock lock = lock(10, 10);
+        tree.add(lock);
+
+        assertEquals(List.of(lock), tree.overlapping(lock(15, 1)));
+        assertEquals(List.of(lock), tree.overlapping(lock(0, 11)));
+        assertEquals(List.of(lock), tree.overlapping(lock(19, nfs4_prot.NFS4_UINT64_MAX)));
+    }
+
+    @Test
+    public void shouldNotFindAdjacentLock() {
+        tree.add(lock(10, 10));
+
+        assertTrue(tree.overlapping(lock(0, 10)).isEmpty());
+        assertTrue(tree.overlapping(lock(20, 10)).isEmpty());
+    }
+
+    @Test
+    public void shouldFindLockUpToTheEnd() {
+        NlmLock lock = lock(100, nfs4_prot.NFS4_UINT64_MAX);
+        tree.add(lock);
+
+        assertEquals(List.of(lock), tree.overlapping(lock(Long.MAX_VALUE - 1, 1)));
+        assertTrue(tree.overlapping(lock(0, 100)).isEmpty());
+    }
+
+    @Test
+    public void shouldFindZeroLengthLockAtMaxOffset() {
+        NlmLock lock = lock(Long.MAX_VALUE, 0);
+        tree.add(lock);
+
+        assertEquals(List.of(lock), tree.overlapping(lock(Long.MAX_VALUE - 1, 2)));
+        assertEquals(List.of(lock), tree.overlapping(lock(0, nfs4_prot.NFS4_UINT64_MAX)));
+        assertTrue(tree.overlapping(lock(0, Long.MAX_VALUE)).isEmpty());
+    }
+
+    @Test
+    public void shouldOrderOffsetsAsUnsigned() {
+        NlmLock low = lock(0, 10);
+        NlmLock high = lock(Long.MIN_VALUE, 10);
+        NlmLock top = lock(nfs4_prot.NFS4_UINT64_MAX - 10, 5);
+        tree.add(top);
+        tree.add(high);
+        tree.add(low);
+
+        assertEquals(List.of(low, high, top), tree.values());
+        assertEquals(List.of(high), tree.overlapping(lock(Long.MIN_VALUE + 5, 1)));
+        assertEquals(List.of(top), tree.overlapping(lock(nfs4_prot.NFS4_UINT64_MAX - 8, 0)));
+        assertEquals(List.of(high, top), tree.overlapping(lock(Long.MAX_VALUE, nfs4_prot.NFS4_UINT64_MAX)));
+        assertTrue(tree.overlapping(lock(10, Long.MAX_VALUE - 10)).isEmpty());
+    }
+
+    @Test
+    public void shouldFindLockUpToTheLastByte() {
+        NlmLock lock = lock(nfs4_prot.NFS4_UINT64_MAX - 1, nfs4_prot.NFS4_UINT64_MAX);
+        tree.add(lock);
+
+        assertEquals(List.of(lock), tree.overlapping(lock(nfs4_prot.NFS4_UINT64_MAX, 0)));
+        assertTrue(tree.overlapping(lock(0, 10)).isEmpty());
+    }
+
+    @Test
+    public void shouldKeepLocksWithSameOffset() {
+        NlmLock lock1 = lock(0, 10);
+        NlmLock lock2 = lock(0, 20);
+        tree.add(lock1);
+        tree.add(lock2);
+
+        assertEquals(2, tree.size());
+        assertEquals(List.of(lock2), tree.overlapping(lock(15, 1)));
+
+        assertTrue(tree.remove(lock2));
+        assertTrue(tree.overlapping(lock(15, 1)).isEmpty());
+        assertEquals(List.of(lock1), tree.values());
+    }
+
+    @Test
+    public void shouldNotRemoveMissingLock() {
+        tree.add(lock(0, 10));
+
+        assertFalse(tree.remove(lock(0, 11)));
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    public void shouldMatchLinearScan() {
+        matchLinearScan(0);
+    }
+
+    @Test
+    public void shouldMatchLinearScanAroundSignBit() {
+        matchLinearScan(Long.MAX_VALUE - 5_000);
+    }
+
+    @Test
+    public void shouldMatchLinearScanAtTheTopOfRange() {
+        matchLinearScan(nfs4_prot.NFS4_UINT64_MAX - 9_999);
+    }
+
+    private void matchLinearScan(long base) {
+        Random random = new Random(42);
+        List<NlmLock> locks = new ArrayList<>();
+
+        for (int i = 0; i < 2000; i++) {
+            NlmLock lock = randomLock(random, base);
+            locks.add(lock);
+            tree.add(lock);
+
+            if (random.nextInt(4) == 0) {
+                NlmLock toRemove = locks.remove(random.nextInt(locks.size()));
+                assertTrue(tree.remove(toRemove));
+            }
+
+            NlmLock query = randomLock(random, base);
+            List<NlmLock> expected = locks.stream()
+                    .filter(l -> l.isOverlappingRange(query))
+                    .collect(Collectors.toList());
+            assertEquals(new HashSet<>(expected), new HashSet<>(tree.overlapping(query)));
+            assertEquals(locks.size(), tree.size());
+        }
+    }
+
+    private static NlmLock randomLock(Random random, long base) {
+        long offset = base + random.nextInt(10_000);
+        long length = random.nextInt(20) == 0 ? nfs4_prot.NFS4_UINT64_MAX : random.nextInt(100);
+        return lock(offset, length);
+    }
+
+    private static NlmLock lock(long offset, long length) {
+        return new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(offset)
+                .length(length)
+                .forWrite()
+                .build();
+    }
+}
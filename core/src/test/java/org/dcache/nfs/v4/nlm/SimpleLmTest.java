@@ -433,6 +433,84 @@ public class SimpleLmTest {
         nlm.unlockIfExists(file1, lock1);
     }
 
+    @Test
+    public void testManyNonOverlapingRanges() throws LockException {
+        for (int i = 0; i < 1000; i++) {
+            NlmLock lock = new LockBuilder()
+                    .withOwner("owner" + (i % 10))
+                    .from(i * 10)
+                    .length(5)
+                    .forWrite()
+                    .build();
+            nlm.lock(file1, lock);
+        }
+
+        // gaps between the ranges are free
+        NlmLock lock = new LockBuilder()
+                .withOwner("owner42")
+                .from(5005)
+                .length(5)
+                .forWrite()
+                .build();
+        nlm.test(file1, lock);
+    }
+
+    @Test(expected = LockDeniedException.class)
+    public void testConflictWithOneOfManyOwners() throws LockException {
+        for (int i = 0; i < 1000; i++) {
+            NlmLock lock = new LockBuilder()
+                    .withOwner("owner" + i)
+                    .from(0)
+                    .length(nfs4_prot.NFS4_UINT64_MAX)
+                    .forRead()
+                    .build();
+            nlm.lock(file1, lock);
+        }
+
+        NlmLock lock = new LockBuilder()
+                .withOwner("owner0")
+                .from(4096)
+                .length(1)
+                .forWrite()
+                .build();
+        nlm.lock(file1, lock);
+    }
+
+    @Test
+    public void testSplitAndMergeOfManyRanges() throws LockException {
+        NlmLock wholeFile = new LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(10_000)
+                .forWrite()
+                .build();
+        nlm.lock(file1, wholeFile);
+
+        // punch holes
+        for (int i = 0; i < 100; i++) {
+            NlmLock hole = new LockBuilder()
+                    .withOwner("owner1")
+                    .from(i * 100)
+                    .length(10)
+                    .forWrite()
+                    .build();
+            nlm.unlock(file1, hole);
+        }
+
+        NlmLock lockInHole = new LockBuilder()
+                .withOwner("owner2")
+                .from(5001)
+                .length(1)
+                .forWrite()
+                .build();
+        nlm.test(file1, lockInHole);
+
+        // fill holes back and unlock everything at once
+        nlm.lock(file1, wholeFile);
+        nlm.unlock(file1, wholeFile);
+        nlm.lock(file1, lockInHole);
+    }
+
     public static class LockBuilder {
 
         private long offset;
@@ -0,0 +1,88 @@
+package org.dcache.nfs.vfs;
+
+import com.google.common.primitives.Ints;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class DirectoryCursorTest {
+
+    private static final byte[] VERIFIER = {0, 0, 0, 0, 0, 0, 0, 1};
+
+    private VirtualFileSystem vfs;
+    private Inode dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = new Inode(new FileHandle(0, 0, 0, Ints.toByteArray(1)));
+        vfs = mock(VirtualFileSystem.class);
+
+        List<DirectoryEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Inode inode = new Inode(new FileHandle(0, 0, 0, Ints.toByteArray(i + 2)));
+            entries.add(new DirectoryEntry("file-" + i, inode, new Stat(), i + 1));
+        }
+        DirectoryStream listing = new DirectoryStream(VERIFIER, entries);
+
+        when(vfs.listPage(any(), any(), anyLong(), anyInt())).thenAnswer(i ->
+                listing.tail(i.<Long>getArgument(2)).head(i.getArgument(3)));
+    }
+
+    @Test
+    public void shouldFetchAllPages() throws IOException {
+
+        DirectoryCursor cursor = new DirectoryCursor(vfs, dir, DirectoryStream.ZERO_VERIFIER, 0L, 3);
+
+        int n = 0;
+        while (cursor.hasNext()) {
+            assertEquals(++n, cursor.next().getCookie());
+        }
+
+        assertEquals(10, n);
+        verify(vfs).listPage(dir, DirectoryStream.ZERO_VERIFIER, 0L, 3);
+        verify(vfs).listPage(dir, VERIFIER, 3L, 3);
+        verify(vfs).listPage(dir, VERIFIER, 6L, 3);
+        verify(vfs).listPage(dir, VERIFIER, 9L, 3);
+    }
+
+    @Test
+    public void shouldFetchPagesOnDemand() throws IOException {
+
+        DirectoryCursor cursor = new DirectoryCursor(vfs, dir, VERIFIER, 4L, 3);
+        cursor.next();
+        cursor.next();
+
+        assertArrayEquals(VERIFIER, cursor.getVerifier());
+        verify(vfs, times(1)).listPage(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void shouldNotFetchBehindEof() throws IOException {
+
+        DirectoryCursor cursor = new DirectoryCursor(vfs, dir, VERIFIER, 5L, 10);
+        while (cursor.hasNext()) {
+            cursor.next();
+        }
+
+        assertFalse(cursor.hasNext());
+        verify(vfs, times(1)).listPage(any(), any(), anyLong(), anyInt());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void shouldFailBehindLastEntry() throws IOException {
+
+        DirectoryCursor cursor = new DirectoryCursor(vfs, dir, VERIFIER, 10L, 10);
+        cursor.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectEmptyPages() throws IOException {
+        new DirectoryCursor(vfs, dir, VERIFIER, 0L, 0);
+    }
+}
@@ -1,6 +1,7 @@
 package org.dcache.nfs.vfs;
 
 import com.google.common.primitives.Ints;
+import java.util.Collections;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 import org.dcache.nfs.v4.xdr.verifier4;
@@ -92,4 +93,60 @@ public class DirectoryStreamTest {
             assertTrue(e.getName().startsWith("aFILE"));
         }
     }
+
+    @Test
+    public void testHead() {
+        DirectoryStream head = stream.head(3);
+
+        assertEquals(2, head.lastCookie(-1));
+        assertFalse(head.isEof());
+        assertArrayEquals(stream.getVerifier(), head.getVerifier());
+    }
+
+    @Test
+    public void testHeadOfAllEntries() {
+        DirectoryStream head = stream.head(10);
+
+        assertEquals(9, head.lastCookie(-1));
+        assertTrue(head.isEof());
+    }
+
+    @Test
+    public void testTailAndHead() {
+        DirectoryStream page = stream.tail(3).head(2);
+
+        assertEquals(4, page.iterator().next().getCookie());
+        assertEquals(5, page.lastCookie(-1));
+        assertFalse(page.isEof());
+    }
+
+    @Test
+    public void testTransformAndHead() {
+        DirectoryStream transformed = stream.transform(d -> new DirectoryEntry(d.getName().toUpperCase(), d.getInode(), d.getStat(), d.getCookie()));
+        DirectoryStream head = transformed.head(2);
+
+        int n = 0;
+        for (DirectoryEntry e : head) {
+            assertTrue(e.getName().startsWith("FILE"));
+            n++;
+        }
+        assertEquals(2, n);
+    }
+
+    @Test
+    public void testHeadWithoutEntries() {
+        DirectoryStream head = stream.head(0);
+
+        assertFalse(head.iterator().hasNext());
+        assertFalse(head.isEof());
+    }
+
+    @Test
+    public void testPageEof() {
+        DirectoryStream page = new DirectoryStream(stream.getVerifier(), Collections.emptyList(), false);
+
+        assertFalse(page.isEof());
+        assertFalse(page.tail(5).isEof());
+        assertEquals(5, page.lastCookie(5));
+    }
 }
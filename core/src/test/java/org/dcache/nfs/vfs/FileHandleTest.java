@@ -103,4 +103,44 @@ public class FileHandleTest {
         assertEquals(1, fh.getType());
         assertEquals(oldIdReg, new String(opaque, US_ASCII));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testEqualsAndHashCode() {
+        byte[] bytes = BaseEncoding.base16().lowerCase().decode("01caffee00000000ea15b996002e303a494e4f44453a3030303043333732333331373433393234353645423833453434383434453844323844363a30");
+        FileHandle fromWire = new FileHandle(bytes);
+
+        FileHandle fromBuilder = new FileHandle.FileHandleBuilder()
+                .setExportIdx("/export/data".hashCode())
+                .build("0:INODE:0000C37233174392456EB83E44844E8D28D6:0".getBytes(US_ASCII));
+
+        assertEquals(fromWire, fromBuilder);
+        assertEquals(fromWire.hashCode(), fromBuilder.hashCode());
+        assertEquals(new Inode(fromWire), new Inode(fromBuilder));
+        assertEquals(new Inode(fromWire).hashCode(), new Inode(fromBuilder).hashCode());
+    }
+
+    @Test
+    public void testNotEqualByExportIndex() {
+        byte[] opaque = "0:INODE:0000C37233174392456EB83E44844E8D28D6:0".getBytes(US_ASCII);
+
+        FileHandle fh1 = new FileHandle.FileHandleBuilder()
+                .setExportIdx(1)
+                .build(opaque);
+
+        FileHandle fh2 = new FileHandle.FileHandleBuilder()
+                .setExportIdx(2)
+                .build(opaque);
+
+        assertNotEquals(fh1, fh2);
+        assertNotEquals(new Inode(fh1), new Inode(fh2));
+    }
+
+    @Test
+    public void testTrailingDataIgnored() {
+        byte[] bytes = BaseEncoding.base16().lowerCase().decode("01caffee00000000ea15b996002e303a494e4f44453a3030303043333732333331373433393234353645423833453434383434453844323844363a30ffff");
+        FileHandle fh = new FileHandle(bytes);
+
+        assertArrayEquals(BaseEncoding.base16().lowerCase().decode("01caffee00000000ea15b996002e303a494e4f44453a3030303043333732333331373433393234353645423833453434383434453844323844363a30"),
+                fh.bytes());
+    }
+}
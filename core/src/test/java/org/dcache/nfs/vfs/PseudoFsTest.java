@@ -27,6 +27,7 @@ import javax.security.auth.Subject;
 
 import com.google.common.primitives.Longs;
 import org.dcache.nfs.ExportFile;
+import org.dcache.nfs.ExportTable;
 import org.dcache.nfs.FsExport;
 import org.dcache.nfs.status.AccessException;
 import org.dcache.nfs.status.NoEntException;
@@ -745,4 +746,145 @@ public class PseudoFsTest {
         pseudoFs = new PseudoFs(vfs, mockedRpc, mockedExportFile);
         pseudoFs.getattr(fsRoot);
     }
+
+    @Test
+    public void testExportTreeCached() throws IOException {
+
+        given(mockedTransport.getRemoteSocketAddress()).willReturn(localAddress);
+        given(mockedAuth.getSubject()).willReturn(ROOT);
+        given(mockedAuth.type()).willReturn(RpcAuthType.UNIX);
+        given(mockedRpc.getTransport()).willReturn(mockedTransport);
+        given(mockedRpc.getCredential()).willReturn(mockedAuth);
+
+        vfs.mkdir(fsRoot, "foo", ROOT, 0755);
+        FsExport export = new FsExport.FsExportBuilder()
+                .ro()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.SYS)
+                .build("/foo");
+
+        given(mockedExportFile.getExport(export.getIndex(), localAddress.getAddress())).willReturn(export);
+        given(mockedExportFile.exports(localAddress.getAddress())).willAnswer(x -> Stream.of(export));
+
+        VirtualFileSystem spiedFs = spy(vfs);
+        PseudoFsCache treeCache = new PseudoFsCache("pseudofs-test");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        Inode pseudoRoot = pseudoFs.getRootInode();
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        verify(spiedFs, times(1)).lookup(any(Inode.class), eq("foo"));
+    }
+
+    @Test
+    public void testExportTreeRebuildOnExportsChange() throws IOException {
+
+        given(mockedTransport.getRemoteSocketAddress()).willReturn(localAddress);
+        given(mockedAuth.getSubject()).willReturn(ROOT);
+        given(mockedAuth.type()).willReturn(RpcAuthType.UNIX);
+        given(mockedRpc.getTransport()).willReturn(mockedTransport);
+        given(mockedRpc.getCredential()).willReturn(mockedAuth);
+
+        vfs.mkdir(fsRoot, "foo", ROOT, 0755);
+        FsExport export = new FsExport.FsExportBuilder()
+                .ro()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.SYS)
+                .build("/foo");
+
+        given(mockedExportFile.getExport(export.getIndex(), localAddress.getAddress())).willReturn(export);
+        given(mockedExportFile.exports(localAddress.getAddress())).willAnswer(x -> Stream.of(export));
+
+        VirtualFileSystem spiedFs = spy(vfs);
+        PseudoFsCache treeCache = new PseudoFsCache("pseudofs-test");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        Inode pseudoRoot = pseudoFs.getRootInode();
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        given(mockedExportFile.generation()).willReturn(1L);
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        verify(spiedFs, times(2)).lookup(any(Inode.class), eq("foo"));
+    }
+
+    @Test
+    public void testExportTreeNotCachedWithoutGeneration() throws IOException {
+
+        given(mockedTransport.getRemoteSocketAddress()).willReturn(localAddress);
+        given(mockedAuth.getSubject()).willReturn(ROOT);
+        given(mockedAuth.type()).willReturn(RpcAuthType.UNIX);
+        given(mockedRpc.getTransport()).willReturn(mockedTransport);
+        given(mockedRpc.getCredential()).willReturn(mockedAuth);
+
+        vfs.mkdir(fsRoot, "foo", ROOT, 0755);
+        FsExport export = new FsExport.FsExportBuilder()
+                .ro()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.SYS)
+                .build("/foo");
+
+        given(mockedExportFile.getExport(export.getIndex(), localAddress.getAddress())).willReturn(export);
+        given(mockedExportFile.exports(localAddress.getAddress())).willAnswer(x -> Stream.of(export));
+        given(mockedExportFile.generation()).willReturn(ExportTable.NO_GENERATION);
+
+        VirtualFileSystem spiedFs = spy(vfs);
+        PseudoFsCache treeCache = new PseudoFsCache("pseudofs-test");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        Inode pseudoRoot = pseudoFs.getRootInode();
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        verify(spiedFs, times(2)).lookup(any(Inode.class), eq("foo"));
+    }
+
+    @Test
+    public void testIncompleteExportTreeNotCached() throws IOException {
+
+        given(mockedTransport.getRemoteSocketAddress()).willReturn(localAddress);
+        given(mockedAuth.getSubject()).willReturn(ROOT);
+        given(mockedAuth.type()).willReturn(RpcAuthType.UNIX);
+        given(mockedRpc.getTransport()).willReturn(mockedTransport);
+        given(mockedRpc.getCredential()).willReturn(mockedAuth);
+
+        vfs.mkdir(fsRoot, "foo", ROOT, 0755);
+        FsExport export = new FsExport.FsExportBuilder()
+                .ro()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.SYS)
+                .build("/foo");
+        FsExport missing = new FsExport.FsExportBuilder()
+                .ro()
+                .trusted()
+                .withoutAcl()
+                .withSec(FsExport.Sec.SYS)
+                .build("/bar");
+
+        given(mockedExportFile.getExport(export.getIndex(), localAddress.getAddress())).willReturn(export);
+        given(mockedExportFile.exports(localAddress.getAddress())).willAnswer(x -> Stream.of(export, missing));
+
+        VirtualFileSystem spiedFs = spy(vfs);
+        PseudoFsCache treeCache = new PseudoFsCache("pseudofs-test");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        Inode pseudoRoot = pseudoFs.getRootInode();
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        pseudoFs = new PseudoFs(spiedFs, mockedRpc, mockedExportFile, treeCache);
+        pseudoFs.lookup(pseudoRoot, "foo");
+
+        verify(spiedFs, times(2)).lookup(any(Inode.class), eq("bar"));
+    }
 }
@@ -0,0 +1,233 @@
+package org.dcache.nfs.vfs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.dcache.nfs.vfs.VirtualFileSystem.IoHint;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.dcache.testutils.CallsDefaultMethods.CALLS_DEFAULT_METHODS;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class ReadAheadFileSystemTest {
+
+    private static final int BLOCK_SIZE = 8192;
+    private static final int WINDOW = 2;
+    private static final long FILE_SIZE = 10 * BLOCK_SIZE;
+
+    private final Inode inode = Inode.forFile(new byte[]{1, 2, 3, 4});
+
+    private VirtualFileSystem vfs;
+    private ReadAheadFileSystem readAhead;
+
+    @Before
+    public void setUp() throws IOException {
+        vfs = mock(VirtualFileSystem.class, CALLS_DEFAULT_METHODS);
+        doAnswer(i -> {
+            ByteBuffer data = i.getArgument(1);
+            long offset = i.getArgument(2);
+            if (offset >= FILE_SIZE) {
+                return CompletableFuture.completedFuture(-1);
+            }
+            int n = 0;
+            while (data.hasRemaining() && offset + n < FILE_SIZE) {
+                data.put((byte) (offset + n));
+                n++;
+            }
+            return CompletableFuture.completedFuture(n);
+        }).when(vfs).readAsync(any(), any(), anyLong());
+
+        readAhead = new ReadAheadFileSystem("test", vfs, BLOCK_SIZE, WINDOW, 16 * BLOCK_SIZE, Runnable::run);
+    }
+
+    private void read(long offset, int count) throws IOException {
+        ByteBuffer data = ByteBuffer.allocate(count);
+        int n = readAhead.read(inode, data, offset);
+        assertEquals(count, n);
+        for (int i = 0; i < n; i++) {
+            assertEquals("invalid data at " + (offset + i), (byte) (offset + i), data.get(i));
+        }
+    }
+
+    @Test
+    public void shouldReadAheadSequentialStream() throws IOException {
+
+        read(0, 4096);
+        read(4096, 4096);
+        // second read detected as sequential, next blocks are read ahead
+        verify(vfs).readAsync(eq(inode), any(), eq((long) BLOCK_SIZE));
+        verify(vfs).readAsync(eq(inode), any(), eq(2L * BLOCK_SIZE));
+
+        read(8192, 4096);
+        read(12288, 4096);
+
+        assertEquals(2, readAhead.getHitCount());
+        assertEquals(2, readAhead.getMissCount());
+        assertEquals(0.5, readAhead.getHitRate(), 0.001);
+    }
+
+    @Test
+    public void shouldNotReadAheadRandomReads() throws IOException {
+
+        read(0, 4096);
+        read(5 * BLOCK_SIZE, 4096);
+        read(2 * BLOCK_SIZE, 4096);
+
+        verify(vfs, times(3)).readAsync(any(), any(), anyLong());
+        assertEquals(0, readAhead.getPrefetchedBlocks());
+    }
+
+    @Test
+    public void shouldReadAheadFromFirstReadIfSequential() throws IOException {
+
+        Set<IoHint> accepted = readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.SEQUENTIAL));
+        assertTrue(accepted.contains(IoHint.SEQUENTIAL));
+
+        read(0, BLOCK_SIZE);
+        read(BLOCK_SIZE, BLOCK_SIZE);
+
+        assertEquals(1, readAhead.getHitCount());
+    }
+
+    @Test
+    public void shouldNotReadAheadIfRandom() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.RANDOM));
+
+        read(0, 4096);
+        read(4096, 4096);
+        read(8192, 4096);
+
+        verify(vfs, times(3)).readAsync(any(), any(), anyLong());
+        assertEquals(0, readAhead.getPrefetchedBlocks());
+    }
+
+    @Test
+    public void shouldReadWillNeedRange() throws IOException {
+
+        Set<IoHint> accepted = readAhead.ioAdvise(inode, 3 * BLOCK_SIZE, BLOCK_SIZE, EnumSet.of(IoHint.WILLNEED));
+        assertTrue(accepted.contains(IoHint.WILLNEED));
+        assertEquals(1, readAhead.getPrefetchedBlocks());
+
+        read(3 * BLOCK_SIZE + 100, 1000);
+
+        assertEquals(1, readAhead.getHitCount());
+        verify(vfs, times(1)).readAsync(any(), any(), anyLong());
+    }
+
+    @Test
+    public void shouldDropDontNeedRange() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, 2 * BLOCK_SIZE, EnumSet.of(IoHint.WILLNEED));
+        readAhead.ioAdvise(inode, BLOCK_SIZE, BLOCK_SIZE, EnumSet.of(IoHint.DONTNEED));
+
+        assertEquals(BLOCK_SIZE, readAhead.getCachedBytes());
+        assertEquals(1, readAhead.getWastedBlocks());
+    }
+
+    @Test
+    public void shouldNotKeepNoReuseData() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, BLOCK_SIZE, EnumSet.of(IoHint.WILLNEED, IoHint.NOREUSE));
+        read(0, 4096);
+
+        assertEquals(1, readAhead.getHitCount());
+        assertEquals(0, readAhead.getCachedBytes());
+        assertEquals(0, readAhead.getWastedBlocks());
+    }
+
+    @Test
+    public void shouldDropReadAheadOnWrite() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, BLOCK_SIZE, EnumSet.of(IoHint.WILLNEED));
+        readAhead.write(inode, new byte[10], 0, 10, VirtualFileSystem.StabilityLevel.UNSTABLE);
+
+        assertEquals(0, readAhead.getCachedBytes());
+        read(0, 4096);
+        assertEquals(0, readAhead.getHitCount());
+    }
+
+    @Test
+    public void shouldDropReadAheadIssuedDuringWrite() throws IOException {
+
+        doAnswer(i -> {
+            // read-ahead issued concurrently with the write
+            readAhead.ioAdvise(inode, 0, BLOCK_SIZE, EnumSet.of(IoHint.WILLNEED));
+            return new VirtualFileSystem.WriteResult(VirtualFileSystem.StabilityLevel.UNSTABLE, 10);
+        }).when(vfs).write(eq(inode), any(ByteBuffer.class), anyLong(), any());
+
+        readAhead.write(inode, ByteBuffer.allocate(10), 0, VirtualFileSystem.StabilityLevel.UNSTABLE);
+
+        assertEquals(0, readAhead.getCachedBytes());
+        read(0, 4096);
+        assertEquals(0, readAhead.getHitCount());
+    }
+
+    @Test
+    public void shouldServeSpanningReadFromNextBlock() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.SEQUENTIAL));
+
+        read(0, BLOCK_SIZE);
+        read(BLOCK_SIZE + 4096, BLOCK_SIZE);
+
+        assertEquals(2, readAhead.getHitCount());
+        verify(vfs, times(1)).readAsync(any(), any(), eq(2L * BLOCK_SIZE));
+    }
+
+    @Test
+    public void shouldNotReadAheadAfterShutdown() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, BLOCK_SIZE, EnumSet.of(IoHint.WILLNEED));
+        readAhead.shutdown();
+        assertEquals(0, readAhead.getCachedBytes());
+
+        readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.SEQUENTIAL));
+        read(0, 4096);
+        read(4096, 4096);
+
+        assertEquals(1, readAhead.getPrefetchedBlocks());
+        assertEquals(0, readAhead.getHitCount());
+    }
+
+    @Test
+    public void shouldNotStopProvidedExecutorOnShutdown() {
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new ReadAheadFileSystem("test-executor", vfs, BLOCK_SIZE, WINDOW, 16 * BLOCK_SIZE, executor).shutdown();
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStopAtEndOfFile() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.SEQUENTIAL));
+
+        read(FILE_SIZE - BLOCK_SIZE, BLOCK_SIZE);
+        read(FILE_SIZE - 100, 100);
+
+        // only the block beyond the end of file is requested once
+        verify(vfs, times(1)).readAsync(any(), any(), eq(FILE_SIZE));
+    }
+
+    @Test
+    public void shouldCountHints() throws IOException {
+
+        readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.SEQUENTIAL, IoHint.NOREUSE));
+        readAhead.ioAdvise(inode, 0, 0, EnumSet.of(IoHint.SEQUENTIAL));
+
+        assertEquals(2L, (long) readAhead.getHintCount().get("SEQUENTIAL"));
+        assertEquals(1L, (long) readAhead.getHintCount().get("NOREUSE"));
+        assertEquals(0L, (long) readAhead.getHintCount().get("RANDOM"));
+    }
+}
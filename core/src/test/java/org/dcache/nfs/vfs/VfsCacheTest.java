@@ -1,13 +1,18 @@
 package org.dcache.nfs.vfs;
 
+import org.dcache.nfs.status.NoEntException;
 import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.dcache.nfs.v4.xdr.nfsace4;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import javax.security.auth.Subject;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
+import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
 public class VfsCacheTest {
@@ -30,6 +35,14 @@ public class VfsCacheTest {
         cacheConfig.setLifeTime(1);
         cacheConfig.setReaddirLifeTime(1);
         cacheConfig.setFsStatLifeTime(1);
+        cacheConfig.setNegativeLookupMaxEntries(5);
+        cacheConfig.setNegativeLookupLifeTime(1);
+        cacheConfig.setAclMaxEntries(5);
+        cacheConfig.setAclLifeTime(1);
+        cacheConfig.setXattrMaxEntries(5);
+        cacheConfig.setXattrLifeTime(1);
+        cacheConfig.setReadlinkMaxEntries(5);
+        cacheConfig.setReadlinkLifeTime(1);
         vfsCache = new VfsCache(vfs, cacheConfig);
     }
 
@@ -85,6 +98,30 @@ public class VfsCacheTest {
         verify(vfs, times(2)).getattr(root);
     }
 
+    @Test
+    public void shouldInvalidateCacheOnAllocate() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        doNothing().when(vfs).allocate(file, 0L, 4096L);
+
+        vfsCache.getattr(file);
+        vfsCache.allocate(file, 0L, 4096L);
+        vfsCache.getattr(file);
+        verify(vfs, times(2)).getattr(file);
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnDeallocate() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        doNothing().when(vfs).deallocate(file, 0L, 4096L);
+
+        vfsCache.getattr(file);
+        vfsCache.deallocate(file, 0L, 4096L);
+        vfsCache.getattr(file);
+        verify(vfs, times(2)).getattr(file);
+    }
+
     @Test
     public void shouldInvalidateOwnCacheEntryOnly() throws IOException {
 
@@ -243,6 +280,406 @@ public class VfsCacheTest {
         verify(vfs, times(2)).list(root, DirectoryStream.ZERO_VERIFIER, 0L);
     }
 
+    @Test
+    public void shouldCacheFailedLookup() throws IOException {
+
+        lookupMissing(root, "foo");
+        lookupMissing(root, "foo");
+
+        verify(vfs, times(1)).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldCacheFailedAsyncLookup() throws IOException {
+
+        lookupMissing(root, "foo");
+        assertTrue(vfsCache.lookupAsync(root, "foo").isCompletedExceptionally());
+
+        verify(vfs, times(1)).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldInvalidateNegativeCacheOnCreate() throws IOException {
+
+        lookupMissing(root, "foo");
+        Inode foo = vfsCache.create(root, Stat.Type.REGULAR, "foo", subject, 0640);
+
+        assertEquals(foo, vfsCache.lookup(root, "foo"));
+    }
+
+    @Test
+    public void shouldInvalidateNegativeCacheOnMkdir() throws IOException {
+
+        lookupMissing(root, "foo");
+        Inode foo = vfsCache.mkdir(root, "foo", subject, 0750);
+
+        assertEquals(foo, vfsCache.lookup(root, "foo"));
+    }
+
+    @Test
+    public void shouldInvalidateNegativeCacheOnSymlink() throws IOException {
+
+        lookupMissing(root, "foo");
+        vfsCache.symlink(root, "foo", "bar", subject, 0640);
+
+        vfsCache.lookup(root, "foo");
+        verify(vfs, times(2)).lookup(root, "foo");
+    }
+
+    @Test
+    public void shouldInvalidateNegativeCacheOnLink() throws IOException {
+
+        Inode file = createFile(root, "bar");
+        lookupMissing(root, "foo");
+        vfsCache.link(root, file, "foo", subject);
+
+        assertEquals(file, vfsCache.lookup(root, "foo"));
+    }
+
+    @Test
+    public void shouldInvalidateNegativeCacheOnMove() throws IOException {
+
+        Inode dir = createDir(root, "dir");
+        Inode file = createFile(root, "bar");
+        lookupMissing(dir, "foo");
+        vfsCache.move(root, "bar", dir, "foo");
+
+        assertEquals(file, vfsCache.lookup(dir, "foo"));
+    }
+
+    @Test
+    public void shouldNotCacheFailedLookupRacingWithCreate() throws IOException {
+
+        CompletableFuture<Inode> inFlight = new CompletableFuture<>();
+        doReturn(inFlight).when(vfs).lookupAsync(root, "foo");
+
+        CompletableFuture<Inode> lookup = vfsCache.lookupAsync(root, "foo");
+        Inode foo = vfsCache.create(root, Stat.Type.REGULAR, "foo", subject, 0640);
+        inFlight.completeExceptionally(new NoEntException());
+
+        assertTrue(lookup.isCompletedExceptionally());
+        assertEquals(foo, vfsCache.lookup(root, "foo"));
+    }
+
+    @Test
+    public void shouldUseAclCache() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.getAcl(file);
+        vfsCache.getAcl(file);
+
+        verify(vfs, times(1)).getAcl(file);
+    }
+
+    @Test
+    public void shouldInvalidateAclCacheOnSetAcl() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        doNothing().when(vfs).setAcl(any(), any());
+
+        vfsCache.getAcl(file);
+        vfsCache.setAcl(file, new nfsace4[0]);
+        vfsCache.getAcl(file);
+
+        verify(vfs, times(2)).getAcl(file);
+    }
+
+    @Test
+    public void shouldInvalidateAclCacheOnSetattr() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        Stat stat = new Stat();
+        stat.setMode(0600);
+
+        vfsCache.getAcl(file);
+        vfsCache.setattr(file, stat);
+        vfsCache.getAcl(file);
+
+        verify(vfs, times(2)).getAcl(file);
+    }
+
+    @Test
+    public void shouldUseReadlinkCache() throws IOException {
+
+        Inode link = vfsCache.symlink(root, "foo", "bar", subject, 0640);
+        assertEquals("bar", vfsCache.readlink(link));
+        assertEquals("bar", vfsCache.readlink(link));
+
+        verify(vfs, times(1)).readlink(link);
+    }
+
+    @Test
+    public void shouldUseXattrCache() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.setXattr(file, "attr1", new byte[] {0x01}, VirtualFileSystem.SetXattrMode.CREATE);
+
+        assertArrayEquals(new byte[] {0x01}, vfsCache.getXattr(file, "attr1"));
+        assertArrayEquals(new byte[] {0x01}, vfsCache.getXattr(file, "attr1"));
+        vfsCache.listXattrs(file);
+        vfsCache.listXattrs(file);
+
+        verify(vfs, times(1)).getXattr(file, "attr1");
+        verify(vfs, times(1)).listXattrs(file);
+    }
+
+    @Test
+    public void shouldInvalidateXattrCacheOnSet() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.setXattr(file, "attr1", new byte[] {0x01}, VirtualFileSystem.SetXattrMode.CREATE);
+        vfsCache.getXattr(file, "attr1");
+        vfsCache.listXattrs(file);
+
+        vfsCache.setXattr(file, "attr1", new byte[] {0x02}, VirtualFileSystem.SetXattrMode.REPLACE);
+
+        assertArrayEquals(new byte[] {0x02}, vfsCache.getXattr(file, "attr1"));
+        vfsCache.listXattrs(file);
+        verify(vfs, times(2)).listXattrs(file);
+    }
+
+    @Test
+    public void shouldInvalidateXattrCacheOnRemove() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.setXattr(file, "attr1", new byte[] {0x01}, VirtualFileSystem.SetXattrMode.CREATE);
+        vfsCache.getXattr(file, "attr1");
+        assertArrayEquals(new String[] {"attr1"}, vfsCache.listXattrs(file));
+
+        vfsCache.removeXattr(file, "attr1");
+
+        assertArrayEquals(new String[0], vfsCache.listXattrs(file));
+        try {
+            vfsCache.getXattr(file, "attr1");
+            fail("removed extended attribute returned from cache");
+        } catch (IOException | IllegalArgumentException e) {
+            // expected, DummyVFS reports missing attribute with IllegalArgumentException
+        }
+        verify(vfs, times(2)).getXattr(file, "attr1");
+    }
+
+    @Test
+    public void shouldRegisterChangeListener() throws IOException {
+        verify(vfs).addChangeListener(any(FileSystemChangeListener.class));
+    }
+
+    @Test
+    public void shouldInvalidateStatCacheOnInodeChange() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.getattr(file);
+
+        changeListener().inodeChanged(file);
+        vfsCache.getattr(file);
+
+        verify(vfs, times(2)).getattr(file);
+    }
+
+    @Test
+    public void shouldInvalidateAttributesOnAttributeChange() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.setXattr(file, "attr1", new byte[] {0x01}, VirtualFileSystem.SetXattrMode.CREATE);
+        vfsCache.getattr(file);
+        vfsCache.getAcl(file);
+        vfsCache.getXattr(file, "attr1");
+
+        changeListener().attributesChanged(file);
+        vfsCache.getattr(file);
+        vfsCache.getAcl(file);
+        vfsCache.getXattr(file, "attr1");
+
+        verify(vfs, times(2)).getattr(file);
+        verify(vfs, times(2)).getAcl(file);
+        verify(vfs, times(2)).getXattr(file, "attr1");
+    }
+
+    @Test
+    public void shouldInvalidateLookupOnDirectoryChange() throws IOException {
+
+        Inode file = createFile(root, "foo");
+        vfsCache.lookup(root, "foo");
+        lookupMissing(root, "bar");
+        vfsCache.getattr(root);
+
+        changeListener().directoryChanged(root, "foo");
+        changeListener().directoryChanged(root, "bar");
+        assertEquals(file, vfsCache.lookup(root, "foo"));
+        lookupMissing(root, "bar");
+        vfsCache.getattr(root);
+
+        verify(vfs, times(2)).lookup(root, "foo");
+        verify(vfs, times(2)).lookup(root, "bar");
+        verify(vfs, times(2)).getattr(root);
+    }
+
+    @Test
+    public void shouldInvalidateAllLookupsOfDirectoryOnUnknownChange() throws IOException {
+
+        Inode dir = createDir(root, "dir");
+        Inode foo = createFile(dir, "foo");
+        vfsCache.lookup(dir, "foo");
+        lookupMissing(dir, "bar");
+        vfsCache.parentOf(foo);
+        vfsCache.lookup(root, "dir");
+
+        changeListener().directoryChanged(dir, null);
+        vfsCache.lookup(dir, "foo");
+        lookupMissing(dir, "bar");
+        vfsCache.parentOf(foo);
+        vfsCache.lookup(root, "dir");
+
+        verify(vfs, times(2)).lookup(dir, "foo");
+        verify(vfs, times(2)).lookup(dir, "bar");
+        verify(vfs, times(2)).parentOf(foo);
+        verify(vfs, times(1)).lookup(root, "dir");
+    }
+
+    @Test
+    public void shouldInvalidateReaddirOnDirectoryChange() throws IOException {
+
+        vfsCache.list(root, DirectoryStream.ZERO_VERIFIER, 0L);
+        changeListener().directoryChanged(root, "foo");
+        vfsCache.list(root, DirectoryStream.ZERO_VERIFIER, 0L);
+
+        verify(vfs, times(2)).list(root, DirectoryStream.ZERO_VERIFIER, 0L);
+    }
+
+    @Test
+    public void shouldUseReaddirPageCache() throws IOException {
+
+        vfsCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+        vfsCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+
+        verify(vfs, times(1)).listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+    }
+
+    @Test
+    public void shouldServeReaddirPageFromTheMiddle() throws IOException {
+
+        for (int i = 0; i < 4; i++) {
+            createFile(root, "file" + i);
+        }
+
+        DirectoryStream page = vfsCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+        long cookie = page.iterator().next().getCookie();
+        DirectoryStream tail = vfsCache.listPage(root, page.getVerifier(), cookie, 10);
+
+        assertEquals(page.lastCookie(0), tail.lastCookie(0));
+        assertTrue(tail.isEof());
+        verify(vfs, times(1)).listPage(eq(root), any(), anyLong(), anyInt());
+    }
+
+    @Test
+    public void shouldFetchNextReaddirPage() throws IOException {
+
+        for (int i = 0; i < 4; i++) {
+            createFile(root, "file" + i);
+        }
+
+        DirectoryStream page = vfsCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 2);
+        assertFalse(page.isEof());
+        long cookie = page.lastCookie(0);
+        vfsCache.listPage(root, page.getVerifier(), cookie, 2);
+        vfsCache.listPage(root, page.getVerifier(), cookie, 2);
+
+        verify(vfs, times(1)).listPage(root, page.getVerifier(), cookie, 2);
+    }
+
+    @Test
+    public void shouldInvalidateReaddirPagesOnDirectoryChange() throws IOException {
+
+        vfsCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+        changeListener().directoryChanged(root, "foo");
+        vfsCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+
+        verify(vfs, times(2)).listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 10);
+    }
+
+    @Test
+    public void shouldPrefetchNextReaddirPage() throws IOException {
+
+        for (int i = 0; i < 4; i++) {
+            createFile(root, "file" + i);
+        }
+
+        VfsCacheConfig cacheConfig = new VfsCacheConfig();
+        cacheConfig.setReaddirMaxEntries(5);
+        cacheConfig.setReaddirLifeTime(1);
+        cacheConfig.setReaddirPrefetch(true);
+        VfsCache prefetchingCache = new VfsCache(vfs, cacheConfig);
+
+        DirectoryStream page = prefetchingCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 2);
+        prefetchingCache.listPage(root, page.getVerifier(), page.lastCookie(0), 2);
+
+        verify(vfs).listPageAsync(root, page.getVerifier(), page.lastCookie(0), 2);
+        verify(vfs, times(1)).listPage(root, page.getVerifier(), page.lastCookie(0), 2);
+    }
+
+    @Test
+    public void shouldNotKeepPrefetchedPageAfterDirectoryChange() throws IOException {
+
+        for (int i = 0; i < 4; i++) {
+            createFile(root, "file" + i);
+        }
+
+        VfsCacheConfig cacheConfig = new VfsCacheConfig();
+        cacheConfig.setReaddirMaxEntries(5);
+        cacheConfig.setReaddirLifeTime(1);
+        cacheConfig.setReaddirPrefetch(true);
+        VfsCache prefetchingCache = new VfsCache(vfs, cacheConfig);
+
+        CompletableFuture<DirectoryStream> prefetch = new CompletableFuture<>();
+        doReturn(prefetch).when(vfs).listPageAsync(eq(root), any(), anyLong(), anyInt());
+
+        DirectoryStream page = prefetchingCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 2);
+        long cookie = page.lastCookie(0);
+        changeListener().directoryChanged(root, "foo");
+        prefetch.complete(vfs.listPage(root, page.getVerifier(), cookie, 2));
+
+        prefetchingCache.listPage(root, page.getVerifier(), cookie, 2);
+        verify(vfs, times(2)).listPage(root, page.getVerifier(), cookie, 2);
+    }
+
+    @Test
+    public void shouldIgnoreFailedReaddirPrefetch() throws IOException {
+
+        for (int i = 0; i < 4; i++) {
+            createFile(root, "file" + i);
+        }
+
+        VfsCacheConfig cacheConfig = new VfsCacheConfig();
+        cacheConfig.setReaddirMaxEntries(5);
+        cacheConfig.setReaddirLifeTime(1);
+        cacheConfig.setReaddirPrefetch(true);
+        VfsCache prefetchingCache = new VfsCache(vfs, cacheConfig);
+
+        doReturn(CompletableFuture.failedFuture(new IOException("prefetch failed")))
+                .when(vfs).listPageAsync(eq(root), any(), anyLong(), anyInt());
+
+        DirectoryStream page = prefetchingCache.listPage(root, DirectoryStream.ZERO_VERIFIER, 0L, 2);
+        long cookie = page.lastCookie(0);
+        DirectoryStream next = prefetchingCache.listPage(root, page.getVerifier(), cookie, 2);
+
+        assertNotNull(next);
+        verify(vfs, times(1)).listPage(root, page.getVerifier(), cookie, 2);
+    }
+
+    private FileSystemChangeListener changeListener() {
+        ArgumentCaptor<FileSystemChangeListener> listener = ArgumentCaptor.forClass(FileSystemChangeListener.class);
+        verify(vfs, atLeastOnce()).addChangeListener(listener.capture());
+        return listener.getValue();
+    }
+
+    private void lookupMissing(Inode parent, String name) throws IOException {
+        try {
+            vfsCache.lookup(parent, name);
+            fail("lookup of missing name succeeded");
+        } catch (NoEntException e) {
+            // expected
+        }
+    }
+
     private Inode createFile(Inode parent, String name) throws IOException {
         return vfs.create(parent, Stat.Type.REGULAR, name, subject, 0640);
     }
@@ -0,0 +1,33 @@
+package org.dcache.testutils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+
+/**
+ * Mockito answer which calls real implementation of interface's default
+ * methods. Abstract methods return default values. This makes a mock to behave
+ * like an implementation which only provides the abstract methods.
+ */
+public class CallsDefaultMethods implements Answer<Object> {
+
+    public static final Answer<Object> CALLS_DEFAULT_METHODS = new CallsDefaultMethods();
+
+    @Override
+    public Object answer(InvocationOnMock invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (!method.isDefault()) {
+            return RETURNS_DEFAULTS.answer(invocation);
+        }
+
+        // mockito can't call default methods of mocked interfaces
+        Class<?> iface = method.getDeclaringClass();
+        return MethodHandles.privateLookupIn(iface, MethodHandles.lookup())
+                .unreflectSpecial(method, iface)
+                .bindTo(invocation.getMock())
+                .invokeWithArguments(invocation.getArguments());
+    }
+}
@@ -1,5 +1,8 @@
 package org.dcache.testutils;
 
+import java.nio.ByteBuffer;
+
+import org.dcache.nfs.v3.xdr.READ3args;
 import org.dcache.nfs.v3.xdr.READDIR3args;
 import org.dcache.nfs.v3.xdr.READDIRPLUS3args;
 import org.dcache.nfs.v3.xdr.cookie3;
@@ -7,8 +10,10 @@ import org.dcache.nfs.v3.xdr.cookieverf3;
 import org.dcache.nfs.v3.xdr.count3;
 import org.dcache.nfs.v3.xdr.nfs3_prot;
 import org.dcache.nfs.v3.xdr.nfs_fh3;
+import org.dcache.nfs.v3.xdr.offset3;
 import org.dcache.nfs.v3.xdr.uint32;
 import org.dcache.nfs.v3.xdr.uint64;
+import org.dcache.nfs.v3.xdr.WRITE3args;
 import org.dcache.nfs.vfs.FileHandle;
 
 public class NfsV3Ops {
@@ -56,4 +61,24 @@ public class NfsV3Ops {
         args.dircount = new count3(new uint32(maxDirectoryListingBytes));
         return args;
     }
+
+    public static READ3args read(FileHandle fileHandle, long offset, int count) {
+        READ3args args = new READ3args();
+        args.file = new nfs_fh3();
+        args.file.data = fileHandle.bytes();
+        args.offset = new offset3(new uint64(offset));
+        args.count = new count3(new uint32(count));
+        return args;
+    }
+
+    public static WRITE3args write(FileHandle fileHandle, long offset, int count, int stable, byte[] data) {
+        WRITE3args args = new WRITE3args();
+        args.file = new nfs_fh3();
+        args.file.data = fileHandle.bytes();
+        args.offset = new offset3(new uint64(offset));
+        args.count = new count3(new uint32(count));
+        args.stable = stable;
+        args.data = ByteBuffer.wrap(data);
+        return args;
+    }
 }
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import org.dcache.nfs.v4.StateOwner;
+import org.dcache.nfs.v4.xdr.clientid4;
+import org.dcache.nfs.v4.xdr.state_owner4;
+
+/**
+ * Byte-range locks of a single file as stored by {@link PartitionedLockManager}.
+ *
+ * The locks are serialized in a compact form: client id, owner and range of
+ * each lock. The sequence number of the lock owner is not stored, as it's not
+ * used for lock comparison.
+ *
+ * The class is not thread safe. Hazelcast guarantees exclusive access to an
+ * entry while it's processed by an entry processor.
+ *
+ * @since 0.28
+ */
+public class DistributedFileLocks implements DataSerializable {
+
+    private List<NlmLock> locks;
+
+    /**
+     * Lock manager view on this object's locks. Conflict detection, merge and
+     * split logic of {@link AbstractLockManager} is re-used.
+     */
+    private final AbstractLockManager lm = new AbstractLockManager() {
+
+        // the access is already exclusive
+        private final Lock lock = new ReentrantLock();
+
+        @Override
+        protected Lock getObjectLock(byte[] objId) {
+            return lock;
+        }
+
+        @Override
+        protected Collection<NlmLock> getActiveLocks(byte[] objId) {
+            return locks;
+        }
+
+        @Override
+        protected void add(byte[] objId, NlmLock lock) {
+            locks.add(lock);
+        }
+
+        @Override
+        protected boolean remove(byte[] objId, NlmLock lock) {
+            return locks.remove(lock);
+        }
+
+        @Override
+        protected void addAll(byte[] objId, Collection<NlmLock> locks) {
+            DistributedFileLocks.this.locks.addAll(locks);
+        }
+
+        @Override
+        protected void removeAll(byte[] objId, Collection<NlmLock> locks) {
+            DistributedFileLocks.this.locks.removeAll(locks);
+        }
+    };
+
+    public DistributedFileLocks() {
+        this(new ArrayList<>());
+    }
+
+    private DistributedFileLocks(List<NlmLock> locks) {
+        this.locks = locks;
+    }
+
+    void lock(NlmLock lock) throws LockException {
+        lm.lock(null, lock);
+    }
+
+    void unlock(NlmLock lock) throws LockException {
+        lm.unlock(null, lock);
+    }
+
+    void test(NlmLock lock) throws LockException {
+        lm.test(null, lock);
+    }
+
+    void unlockIfExists(NlmLock lock) {
+        lm.unlockIfExists(null, lock);
+    }
+
+    boolean isEmpty() {
+        return locks.isEmpty();
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeInt(locks.size());
+        for (NlmLock lock : locks) {
+            writeLock(out, lock);
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        int size = in.readInt();
+        locks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            locks.add(readLock(in));
+        }
+    }
+
+    static void writeLock(ObjectDataOutput out, NlmLock lock) throws IOException {
+        state_owner4 owner = lock.getOwner().getRawStateOwner();
+        out.writeLong(owner.clientid.value);
+        out.writeByteArray(owner.owner);
+        out.writeInt(lock.getLockType());
+        out.writeLong(lock.getOffset());
+        out.writeLong(lock.getLength());
+    }
+
+    static NlmLock readLock(ObjectDataInput in) throws IOException {
+        state_owner4 owner = new state_owner4();
+        owner.clientid = new clientid4(in.readLong());
+        owner.owner = in.readByteArray();
+        int lockType = in.readInt();
+        long offset = in.readLong();
+        long length = in.readLong();
+        return new NlmLock(new StateOwner(owner, 0), lockType, offset, length);
+    }
+}
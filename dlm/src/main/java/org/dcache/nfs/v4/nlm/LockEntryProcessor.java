@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import com.hazelcast.map.EntryProcessor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.DataSerializable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * An entry processor which applies lock or unlock request to the locks of a
+ * file on the member owning the file's entry. The lock conflict check, merge
+ * and split are performed in a single call without holding a cluster-wide lock.
+ *
+ * The result of processing is {@code null} on success or the {@link LockException}
+ * which describes the failure.
+ *
+ * @since 0.28
+ */
+public class LockEntryProcessor implements EntryProcessor<String, DistributedFileLocks, LockException>, DataSerializable {
+
+    enum Op {
+        LOCK,
+        UNLOCK,
+        UNLOCK_IF_EXISTS
+    }
+
+    private Op op;
+    private NlmLock lock;
+
+    public LockEntryProcessor() {
+    }
+
+    LockEntryProcessor(Op op, NlmLock lock) {
+        this.op = op;
+        this.lock = lock;
+    }
+
+    @Override
+    public LockException process(Map.Entry<String, DistributedFileLocks> entry) {
+
+        DistributedFileLocks locks = entry.getValue();
+        if (locks == null) {
+            if (op != Op.LOCK) {
+                return op == Op.UNLOCK ? new LockRangeUnavailabeException("no matching lock") : null;
+            }
+            locks = new DistributedFileLocks();
+        }
+
+        try {
+            switch (op) {
+                case LOCK:
+                    locks.lock(lock);
+                    break;
+                case UNLOCK:
+                    locks.unlock(lock);
+                    break;
+                case UNLOCK_IF_EXISTS:
+                    locks.unlockIfExists(lock);
+                    break;
+            }
+        } catch (LockException e) {
+            return e;
+        }
+
+        entry.setValue(locks.isEmpty() ? null : locks);
+        return null;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeByte(op.ordinal());
+        DistributedFileLocks.writeLock(out, lock);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        op = Op.values()[in.readByte()];
+        lock = DistributedFileLocks.readLock(in);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2026 Deutsches Elektronen-Synchroton,
+ * Member of the Helmholtz Association, (DESY), HAMBURG, GERMANY
+ *
+ * This library is free software; you can redistribute it and/or modify
+ * it under the terms of the GNU Library General Public License as
+ * published by the Free Software Foundation; either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Library General Public License for more details.
+ *
+ * You should have received a copy of the GNU Library General Public
+ * License along with this program (see the file COPYING.LIB for more
+ * details); if not, write to the Free Software Foundation, Inc.,
+ * 675 Mass Ave, Cambridge, MA 02139, USA.
+ */
+package org.dcache.nfs.v4.nlm;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.config.NearCacheConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import java.util.Base64;
+
+/**
+ * An implementation of {@link LockManager} which uses Hazelcast's distributed
+ * {@link IMap} to store locks. Unlike {@link DistributedLockManager}, which
+ * takes a cluster-wide lock and fetches all locks of a file on each request,
+ * the lock and unlock requests are sent to the member owning the file's entry
+ * and applied there by {@link LockEntryProcessor} in a single round trip.
+ *
+ * <p>
+ * The {@link #test(byte[], NlmLock)} reads locks of the file with a regular map
+ * lookup. If a near cache is configured for the map, for example with
+ * {@link #addNearCacheConfig(Config, String)}, the check is performed without
+ * a network round trip. As near cache is invalidated asynchronously, a recently
+ * acquired lock might not be visible to the test immediately.
+ *
+ * <p>
+ * The classes of this module must be available on all cluster members.
+ *
+ * <p>
+ * Example:
+ *
+ * <pre>
+ *   Config config = ...;
+ *   PartitionedLockManager.addNearCacheConfig(config, "distributed-byte-range-lock");
+ *   HazelcastInstance hz = Hazelcast.newHazelcastInstance(config);
+ *   LockManager lm = new PartitionedLockManager(hz, "distributed-byte-range-lock");
+ * </pre>
+ *
+ * @since 0.28
+ */
+public class PartitionedLockManager implements LockManager {
+
+    private final IMap<String, DistributedFileLocks> locks;
+
+    /**
+     * Create a new {@code PartitionedLockManager} with a given {@code name}.
+     * The other instances with the same name will share the same back-end store and,
+     * as a result, will see the same set of locks.
+     *
+     * @param hz reference to Haselcast instance.
+     * @param name name of the lock manager.
+     */
+    public PartitionedLockManager(HazelcastInstance hz, String name) {
+        locks = hz.getMap(name);
+    }
+
+    /**
+     * Add near cache configuration for lock manager with a given {@code name}.
+     *
+     * @param config Hazelcast configuration to update.
+     * @param name name of the lock manager.
+     * @return updated configuration.
+     */
+    public static Config addNearCacheConfig(Config config, String name) {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig(name)
+                .setInMemoryFormat(InMemoryFormat.OBJECT)
+                .setInvalidateOnChange(true)
+                .setCacheLocalEntries(true);
+        config.getMapConfig(name).setNearCacheConfig(nearCacheConfig);
+        return config;
+    }
+
+    @Override
+    public void lock(byte[] objId, NlmLock lock) throws LockException {
+        execute(objId, LockEntryProcessor.Op.LOCK, lock);
+    }
+
+    @Override
+    public void unlock(byte[] objId, NlmLock lock) throws LockException {
+        execute(objId, LockEntryProcessor.Op.UNLOCK, lock);
+    }
+
+    @Override
+    public void test(byte[] objId, NlmLock lock) throws LockException {
+        DistributedFileLocks fileLocks = locks.get(objIdToKey(objId));
+        if (fileLocks != null) {
+            fileLocks.test(lock);
+        }
+    }
+
+    @Override
+    public void unlockIfExists(byte[] objId, NlmLock lock) {
+        locks.executeOnKey(objIdToKey(objId), new LockEntryProcessor(LockEntryProcessor.Op.UNLOCK_IF_EXISTS, lock));
+    }
+
+    private void execute(byte[] objId, LockEntryProcessor.Op op, NlmLock lock) throws LockException {
+        LockException e = locks.executeOnKey(objIdToKey(objId), new LockEntryProcessor(op, lock));
+        if (e != null) {
+            // re-throw with local stack trace
+            e.fillInStackTrace();
+            throw e;
+        }
+    }
+
+    private static String objIdToKey(byte[] objId) {
+        return Base64
+                .getEncoder()
+                .withoutPadding()
+                .encodeToString(objId);
+    }
+}
@@ -0,0 +1,160 @@
+package org.dcache.nfs.v4.nlm;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import java.nio.charset.StandardCharsets;
+
+import org.dcache.nfs.v4.xdr.nfs4_prot;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class PartitionedLockManagerTest {
+
+    private static final String NAME = "partitioned-byte-range-lock";
+
+    private LockManager lm1;
+    private LockManager lm2;
+    private byte[] file1;
+
+    @Before
+    public void setUp() throws Exception {
+
+        file1 = "file1".getBytes(StandardCharsets.UTF_8);
+
+        Config config = PartitionedLockManager.addNearCacheConfig(Config.load(), NAME);
+        config.getNetworkConfig().getJoin().getTcpIpConfig()
+                .setEnabled(true)
+                .addMember("127.0.0.1");
+
+        HazelcastInstance hz1 = Hazelcast.newHazelcastInstance(config);
+        HazelcastInstance hz2 = Hazelcast.newHazelcastInstance(config);
+
+        lm1 = new PartitionedLockManager(hz1, NAME);
+        lm2 = new PartitionedLockManager(hz2, NAME);
+    }
+
+    @Test(expected = LockDeniedException.class)
+    public void testConflictingLockDifferentOwner() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(1)
+                .forRead()
+                .build();
+        lm1.lock(file1, lock1);
+
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner2")
+                .from(0)
+                .length(1)
+                .forWrite()
+                .build();
+        lm2.lock(file1, lock2);
+    }
+
+    @Test
+    public void testConflictingLockReturnsConflict() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(nfs4_prot.NFS4_UINT64_MAX)
+                .forWrite()
+                .build();
+        lm1.lock(file1, lock1);
+
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner2")
+                .from(10)
+                .length(1)
+                .forRead()
+                .build();
+        try {
+            lm2.lock(file1, lock2);
+            fail("Conflicting lock is granted");
+        } catch (LockDeniedException e) {
+            assertEquals(lock1, e.getConflictingLock());
+        }
+    }
+
+    @Test
+    public void testConflictingLockSameOwner() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(1)
+                .forRead()
+                .build();
+        lm1.lock(file1, lock1);
+
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(1)
+                .forWrite()
+                .build();
+        lm2.lock(file1, lock2);
+
+        try {
+            NlmLock lock3 = new SimpleLmTest.LockBuilder()
+                    .withOwner("owner2")
+                    .from(0)
+                    .length(1)
+                    .forWrite()
+                    .build();
+
+            lm1.test(file1, lock3);
+            fail("Lock on lm1 is lost");
+        } catch (LockDeniedException e) {
+            // pass
+        }
+    }
+
+    @Test(expected = LockRangeUnavailabeException.class)
+    public void testUnlockOfNonExistingLock() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(1)
+                .forRead()
+                .build();
+        lm1.unlock(file1, lock1);
+    }
+
+    @Test
+    public void testLockAfterUnlock() throws LockException {
+        NlmLock lock1 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(0)
+                .length(3)
+                .forWrite()
+                .build();
+        lm1.lock(file1, lock1);
+
+        // split the lock
+        NlmLock lock2 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner1")
+                .from(1)
+                .length(1)
+                .forWrite()
+                .build();
+        lm2.unlock(file1, lock2);
+
+        NlmLock lock3 = new SimpleLmTest.LockBuilder()
+                .withOwner("owner2")
+                .from(1)
+                .length(1)
+                .forWrite()
+                .build();
+        lm1.lock(file1, lock3);
+    }
+
+    @After
+    public void tearDown() {
+        Hazelcast.shutdownAll();
+    }
+}
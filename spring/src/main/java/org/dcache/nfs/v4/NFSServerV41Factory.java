@@ -19,6 +19,7 @@
  */
 package org.dcache.nfs.v4;
 
+import java.util.concurrent.Executor;
 import org.dcache.nfs.ExportFile;
 import org.dcache.nfs.ExportTable;
 import org.dcache.nfs.v4.nlm.LockManager;
@@ -79,4 +80,8 @@ public class NFSServerV41Factory implements FactoryBean<NFSServerV41> {
         builder.withStateHandler(stateHandler);
     }
 
+    public void setRequestExecutor(Executor requestExecutor) {
+        builder.withRequestExecutor(requestExecutor);
+    }
+
 }